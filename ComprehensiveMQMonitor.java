@@ -99,7 +99,7 @@ public class ComprehensiveMQMonitor {
             log("PHASE 3: PCF Query - Connection Information");
             log("------------------------------------------------");
             
-            PCFMessageAgent pcfAgent = createPCFAgent();
+            PCFAgentPool.Lease pcfAgent = createPCFAgent();
             
             // Query connections with our APPTAG
             queryConnectionsWithPCF(pcfAgent);
@@ -155,7 +155,7 @@ public class ComprehensiveMQMonitor {
             log("\nPHASE 9: Cleanup");
             log("------------------------------------------------");
             
-            pcfAgent.disconnect();
+            pcfAgent.close();
             
             for (MessageProducer producer : producers) {
                 producer.close();
@@ -337,16 +337,15 @@ public class ComprehensiveMQMonitor {
         }
     }
     
-    private static PCFMessageAgent createPCFAgent() throws Exception {
-        // Create PCF agent to query MQ
-        MQQueueManager qmgr = new MQQueueManager(QUEUE_MANAGER);
-        PCFMessageAgent agent = new PCFMessageAgent(qmgr);
+    private static PCFAgentPool.Lease createPCFAgent() throws Exception {
+        // Borrow a pooled PCF agent (connected once per QM and kept alive between runs)
+        PCFAgentPool.Lease agent = PCFAgentPool.shared().acquire(PCFAgentPool.Endpoint.bindings(QUEUE_MANAGER));
         
         log("PCF Agent created for Queue Manager: " + QUEUE_MANAGER);
         return agent;
     }
     
-    private static void queryConnectionsWithPCF(PCFMessageAgent agent) {
+    private static void queryConnectionsWithPCF(PCFAgentPool.Lease agent) {
         try {
             log("\nQuerying connections with APPTAG: " + appTag);
             
@@ -423,7 +422,7 @@ public class ComprehensiveMQMonitor {
         }
     }
     
-    private static void queryChannelStatusWithPCF(PCFMessageAgent agent) {
+    private static void queryChannelStatusWithPCF(PCFAgentPool.Lease agent) {
         try {
             log("\nQuerying channel status for APP.SVRCONN");
             
@@ -470,7 +469,7 @@ public class ComprehensiveMQMonitor {
         }
     }
     
-    private static void queryQueueManagerWithPCF(PCFMessageAgent agent) {
+    private static void queryQueueManagerWithPCF(PCFAgentPool.Lease agent) {
         try {
             log("\nQuerying Queue Manager information");
             
@@ -509,7 +508,7 @@ public class ComprehensiveMQMonitor {
         }
     }
     
-    private static void queryConnectionStatistics(PCFMessageAgent agent) {
+    private static void queryConnectionStatistics(PCFAgentPool.Lease agent) {
         try {
             log("\nQuerying connection statistics");
             
@@ -0,0 +1,184 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact identity of an MQ connection for the PCF tools.
+ *
+ * A CONNECTION_ID (414D5143 + QM padded to 12 bytes + 16-hex handle) and a
+ * CONNTAG (MQCT + 16-hex handle + QM + _timestamp + APPLTAG) of the same
+ * connection carry the same handle and queue manager, but the CONNECTION_ID
+ * holds only the first 12 characters of the name. Keys therefore compare the
+ * handle as a long and the QM as that 12-byte field, so both forms parse to
+ * equal keys for any name length. The fields are interned in a bounded table.
+ * Values that match neither format are kept as opaque keys.
+ */
+public final class ConnectionKey {
+
+    private static final int QM_FIELD_LENGTH = 12;
+    // Far more than the queue managers one tool sees; cleared when full
+    private static final int MAX_INTERNED = 1024;
+
+    private static final ConcurrentHashMap<String, String> QM_NAMES = new ConcurrentHashMap<>();
+
+    public final long handle;
+    public final String queueManager;
+    private final String queueManagerKey;
+    private final String opaque;
+    private final int hash;
+
+    private ConnectionKey(long handle, String queueManager) {
+        this.handle = handle;
+        this.queueManagerKey = intern(queueManagerField(queueManager));
+        this.queueManager = queueManager.equals(queueManagerKey) ? queueManagerKey : queueManager;
+        this.opaque = null;
+        this.hash = 31 * Long.hashCode(handle) + queueManagerKey.hashCode();
+    }
+
+    private ConnectionKey(String opaque) {
+        this.handle = 0L;
+        this.queueManager = null;
+        this.queueManagerKey = null;
+        this.opaque = opaque;
+        this.hash = opaque.hashCode();
+    }
+
+    /**
+     * Parses a CONNECTION_ID or CONNTAG, in ASCII or as the hex of the PCF byte string.
+     * Returns null for null or empty input.
+     */
+    public static ConnectionKey of(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.startsWith("MQCT")) {
+            return fromConnTag(value);
+        }
+        if (value.startsWith("4D514354")) { // "MQCT" hex-encoded (PCF MQBACF_CONN_TAG)
+            return fromConnTag(hexToAscii(value));
+        }
+        return fromConnectionId(value);
+    }
+
+    public static ConnectionKey fromConnectionId(String id) {
+        if (id.length() != 48 || !id.regionMatches(true, 0, "414D5143", 0, 8)) {
+            return new ConnectionKey(id);
+        }
+        char[] name = new char[12];
+        int length = 0;
+        for (int i = 8; i < 32; i += 2) {
+            int ch = byteAt(id, i);
+            if (ch < 0) {
+                return new ConnectionKey(id);
+            }
+            if (ch == ' ' || ch == 0) {
+                break;
+            }
+            name[length++] = (char) ch;
+        }
+        if (!isHex(id, 32)) {
+            return new ConnectionKey(id);
+        }
+        return new ConnectionKey(parseHandle(id, 32), new String(name, 0, length));
+    }
+
+    public static ConnectionKey fromConnTag(String tag) {
+        if (tag.length() <= 20 || !tag.startsWith("MQCT") || !isHex(tag, 4)) {
+            return new ConnectionKey(tag);
+        }
+        long handle = parseHandle(tag, 4);
+        // The QM name runs up to the '_' that starts the yyyy-MM-dd_HH.mm.ss timestamp
+        int end = tag.length();
+        for (int i = tag.indexOf('_', 21); i >= 0; i = tag.indexOf('_', i + 1)) {
+            if (i + 11 < tag.length() && tag.charAt(i + 5) == '-' && tag.charAt(i + 8) == '-' && tag.charAt(i + 11) == '_') {
+                end = i;
+                break;
+            }
+        }
+        return new ConnectionKey(handle, tag.substring(20, end).trim());
+    }
+
+    public boolean isParsed() {
+        return opaque == null;
+    }
+
+    public String handleHex() {
+        return opaque != null ? opaque : String.format("%016X", handle);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConnectionKey)) return false;
+        ConnectionKey other = (ConnectionKey) o;
+        if (hash != other.hash) return false;
+        if (opaque != null || other.opaque != null) {
+            return opaque != null && opaque.equals(other.opaque);
+        }
+        return handle == other.handle
+            && (queueManagerKey == other.queueManagerKey || queueManagerKey.equals(other.queueManagerKey));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return opaque != null ? opaque : queueManager + "/" + handleHex();
+    }
+
+    /**
+     * The QM name as the CONNECTION_ID field holds it: at most 12 characters, without the blank padding.
+     */
+    private static String queueManagerField(String queueManager) {
+        String field = queueManager.length() > QM_FIELD_LENGTH ? queueManager.substring(0, QM_FIELD_LENGTH) : queueManager;
+        int end = field.length();
+        while (end > 0 && field.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return field.substring(0, end);
+    }
+
+    private static String intern(String name) {
+        String existing = QM_NAMES.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (QM_NAMES.size() >= MAX_INTERNED) {
+            QM_NAMES.clear();
+        }
+        existing = QM_NAMES.putIfAbsent(name, name);
+        return existing != null ? existing : name;
+    }
+
+    private static int byteAt(String s, int i) {
+        int hi = Character.digit(s.charAt(i), 16);
+        int lo = Character.digit(s.charAt(i + 1), 16);
+        return (hi < 0 || lo < 0) ? -1 : (hi << 4) | lo;
+    }
+
+    private static boolean isHex(String s, int from) {
+        for (int i = from; i < from + 16; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static long parseHandle(String s, int from) {
+        long value = 0L;
+        for (int i = from; i < from + 16; i++) {
+            value = (value << 4) | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static String hexToAscii(String hex) {
+        StringBuilder sb = new StringBuilder(hex.length() / 2);
+        for (int i = 0; i + 1 < hex.length(); i += 2) {
+            int ch = byteAt(hex, i);
+            if (ch <= 0) break;
+            sb.append((char) ch);
+        }
+        return sb.toString().trim();
+    }
+}
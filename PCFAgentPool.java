@@ -0,0 +1,486 @@
+import com.ibm.mq.MQException;
+import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.MQDataException;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFMessageAgent;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared pool of connected PCF agents, keyed by queue manager endpoint.
+ *
+ * Connecting and authenticating costs far more than a PCF request/response, so the tools
+ * borrow an already connected {@link PCFMessageAgent} instead of creating one per inquiry:
+ *   - at most {@code pcf.pool.maxPerQm} agents per QM are in use at once (a PCFMessageAgent
+ *     owns one reply queue, so concurrent callers each get their own agent)
+ *   - idle agents are pinged every {@code pcf.pool.keepAliveSeconds} and closed after
+ *     {@code pcf.pool.idleTimeoutSeconds}; one that fails its ping is replaced right away
+ *   - no more than {@code pcf.pool.maxPerQm} agents per QM are connected, idle or not: every
+ *     connect, including the keep-alive's, holds a permit and reserves its place in the slot
+ *   - a request that fails with MQRC_CONNECTION_BROKEN (or another connection-loss reason)
+ *     is retried once on a freshly connected agent
+ *
+ * Usage:
+ *   PCFAgentPool.Endpoint qm1 = PCFAgentPool.Endpoint.client("QM1", "10.10.10.10", 1414, "APP.SVRCONN", "app", "passw0rd");
+ *   PCFMessage[] responses = PCFAgentPool.shared().send(qm1, request);
+ *
+ *   try (PCFAgentPool.Lease lease = PCFAgentPool.shared().acquire(qm1)) {   // several requests on one agent
+ *       lease.send(request1);
+ *       lease.send(request2);
+ *   }
+ *
+ * A QM can be {@link #route routed} to an in-process {@link Responder} instead of a real command
+ * server; with {@code -Dpcf.standIn.connections=N} the shared pool answers QM1..QM3 from a
+ * PCFCommandServerStandIn, so every tool using the pool runs without queue managers.
+ */
+public final class PCFAgentPool implements AutoCloseable {
+
+    private static final Set<Integer> CONNECTION_LOST = new HashSet<>(Arrays.asList(
+        CMQC.MQRC_CONNECTION_BROKEN,
+        CMQC.MQRC_Q_MGR_NOT_AVAILABLE,
+        CMQC.MQRC_Q_MGR_QUIESCING,
+        CMQC.MQRC_Q_MGR_STOPPING,
+        CMQC.MQRC_CONNECTION_QUIESCING,
+        CMQC.MQRC_CONNECTION_STOPPING,
+        CMQC.MQRC_HCONN_ERROR,
+        CMQC.MQRC_RECONNECT_FAILED));
+
+    private static volatile PCFAgentPool shared;
+
+    private final int maxPerQm;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final ConcurrentHashMap<Endpoint, Slot> slots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService keepAlive;
+    private final ConcurrentHashMap<String, Responder> routes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    public PCFAgentPool(int maxPerQm, long keepAliveMillis, long idleTimeoutMillis, long acquireTimeoutMillis) {
+        this.maxPerQm = maxPerQm;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.keepAlive = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pcf-pool-keepalive");
+            t.setDaemon(true);
+            return t;
+        });
+        keepAlive.scheduleWithFixedDelay(this::keepAlive, keepAliveMillis, keepAliveMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Process-wide pool used by all PCF tools; closed by a shutdown hook.
+     */
+    public static PCFAgentPool shared() {
+        PCFAgentPool pool = shared;
+        if (pool == null) {
+            synchronized (PCFAgentPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new PCFAgentPool(
+                        Integer.getInteger("pcf.pool.maxPerQm", 2),
+                        Integer.getInteger("pcf.pool.keepAliveSeconds", 30) * 1000L,
+                        Integer.getInteger("pcf.pool.idleTimeoutSeconds", 300) * 1000L,
+                        Integer.getInteger("pcf.pool.acquireTimeoutSeconds", 30) * 1000L);
+                    Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "pcf-pool-shutdown"));
+                    PCFCommandServerStandIn.installFromSystemProperties(pool);
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Answers PCF requests in place of a queue manager's command server.
+     */
+    public interface Responder {
+        PCFMessage[] send(PCFMessage request) throws Exception;
+    }
+
+    /**
+     * Sends every later request for {@code queueManager}, whatever the endpoint, to {@code responder}
+     * instead of connecting; null restores real connections. Idle agents of that QM are closed.
+     */
+    public void route(String queueManager, Responder responder) {
+        if (responder != null) {
+            routes.put(queueManager, responder);
+        } else {
+            routes.remove(queueManager);
+        }
+        for (Map.Entry<Endpoint, Slot> entry : slots.entrySet()) {
+            if (entry.getKey().queueManager.equals(queueManager)) {
+                Slot slot = entry.getValue();
+                PooledAgent agent;
+                while ((agent = slot.idle.pollFirst()) != null) {
+                    disconnect(slot, agent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Agents one QM may have in use at once; callers running several requests per QM in
+     * parallel should not start more than this.
+     */
+    public int maxPerQm() {
+        return maxPerQm;
+    }
+
+    /**
+     * Sends one PCF request on a pooled agent, reconnecting once if the connection was lost.
+     */
+    public PCFMessage[] send(Endpoint endpoint, PCFMessage request) throws Exception {
+        try (Lease lease = acquire(endpoint)) {
+            return lease.send(request);
+        }
+    }
+
+    /**
+     * Borrows an agent for {@code endpoint}, waiting while {@code maxPerQm} agents are in use.
+     */
+    public Lease acquire(Endpoint endpoint) throws Exception {
+        if (closed) {
+            throw new IllegalStateException("PCF agent pool is closed");
+        }
+        Slot slot = slots.computeIfAbsent(endpoint, e -> new Slot(maxPerQm));
+        if (!slot.permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No PCF agent available for " + endpoint.queueManager
+                + " within " + acquireTimeoutMillis + " ms (" + maxPerQm + " in use)");
+        }
+        try {
+            PooledAgent agent = slot.idle.pollFirst();
+            return new Lease(endpoint, slot, agent != null ? agent : connect(endpoint, slot));
+        } catch (Exception | Error e) {
+            slot.permits.release();
+            throw e;
+        }
+    }
+
+    public String stats() {
+        int idle = 0;
+        for (Slot slot : slots.values()) {
+            idle += slot.idle.size();
+        }
+        return String.format("PCF pool: %d QMs, %d idle agents, %d connects, %d reconnects, %d requests",
+            slots.size(), idle, connects.get(), reconnects.get(), requests.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        keepAlive.shutdownNow();
+        for (Slot slot : slots.values()) {
+            PooledAgent agent;
+            while ((agent = slot.idle.pollFirst()) != null) {
+                disconnect(slot, agent);
+            }
+        }
+        slots.clear();
+    }
+
+    /**
+     * True if the exception (or a cause) reports that the connection to the QM was lost.
+     */
+    static boolean isConnectionLost(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof MQException && CONNECTION_LOST.contains(((MQException) t).getReason())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Connects a new agent for {@code slot}; the caller holds one of its permits.
+     */
+    private PooledAgent connect(Endpoint endpoint, Slot slot) throws MQException, MQDataException {
+        slot.reserve(endpoint);
+        try {
+            return connect(endpoint);
+        } catch (MQException | MQDataException | RuntimeException | Error e) {
+            slot.unreserve();
+            throw e;
+        }
+    }
+
+    private PooledAgent connect(Endpoint endpoint) throws MQException, MQDataException {
+        Responder responder = routes.get(endpoint.queueManager);
+        if (responder != null) {
+            connects.incrementAndGet();
+            return new PooledAgent(responder);
+        }
+        MQQueueManager qmgr = endpoint.host != null
+            ? new MQQueueManager(endpoint.queueManager, endpoint.properties())
+            : new MQQueueManager(endpoint.queueManager);
+        try {
+            PooledAgent agent = new PooledAgent(qmgr, new PCFMessageAgent(qmgr));
+            connects.incrementAndGet();
+            return agent;
+        } catch (MQDataException | RuntimeException e) {
+            try { qmgr.disconnect(); } catch (Exception ignore) {}
+            throw e;
+        }
+    }
+
+    private static void disconnect(Slot slot, PooledAgent agent) {
+        agent.disconnect();
+        slot.unreserve();
+    }
+
+    private void keepAlive() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Endpoint, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            // Pinging and reconnecting take a permit like any caller; a QM whose agents are all
+            // busy needs no keep-alive
+            if (!slot.permits.tryAcquire()) {
+                continue;
+            }
+            try {
+                for (int i = slot.idle.size(); i > 0; i--) {
+                    PooledAgent agent = slot.idle.pollLast();
+                    if (agent == null) {
+                        break;
+                    }
+                    if (now - agent.lastUsed > idleTimeoutMillis) {
+                        disconnect(slot, agent);
+                    } else if (!agent.ping()) {
+                        disconnect(slot, agent);
+                        reconnect(entry.getKey(), slot);
+                    } else {
+                        slot.idle.offerFirst(agent);
+                    }
+                }
+            } finally {
+                slot.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Replaces an agent that failed its ping, so the next caller does not pay for the connect.
+     */
+    private void reconnect(Endpoint endpoint, Slot slot) {
+        if (closed) {
+            return;
+        }
+        try {
+            PooledAgent agent = connect(endpoint, slot);
+            reconnects.incrementAndGet();
+            if (closed) {
+                disconnect(slot, agent);
+            } else {
+                slot.idle.offerFirst(agent);
+            }
+        } catch (Exception e) {
+            // QM still unreachable; the next acquire connects again
+        }
+    }
+
+    /**
+     * Connection settings for one queue manager. Equal endpoints share agents.
+     */
+    public static final class Endpoint {
+        public final String queueManager;
+        public final String host;
+        public final int port;
+        public final String channel;
+        public final String userId;
+        public final String password;
+
+        private Endpoint(String queueManager, String host, int port, String channel, String userId, String password) {
+            this.queueManager = queueManager;
+            this.host = host;
+            this.port = port;
+            this.channel = channel;
+            this.userId = userId;
+            this.password = password;
+        }
+
+        /**
+         * Client connection; with a null user the connection is made without MQCSP authentication.
+         */
+        public static Endpoint client(String queueManager, String host, int port, String channel,
+                                      String userId, String password) {
+            return new Endpoint(queueManager, host, port, channel, userId, password);
+        }
+
+        /**
+         * Local bindings connection.
+         */
+        public static Endpoint bindings(String queueManager) {
+            return new Endpoint(queueManager, null, 0, null, null, null);
+        }
+
+        Hashtable<String, Object> properties() {
+            Hashtable<String, Object> props = new Hashtable<>();
+            props.put(CMQC.HOST_NAME_PROPERTY, host);
+            props.put(CMQC.PORT_PROPERTY, port);
+            props.put(CMQC.CHANNEL_PROPERTY, channel);
+            if (userId != null) {
+                props.put(CMQC.USER_ID_PROPERTY, userId);
+                props.put(CMQC.PASSWORD_PROPERTY, password);
+                props.put(CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
+            } else {
+                props.put(CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, false);
+            }
+            return props;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Endpoint)) return false;
+            Endpoint other = (Endpoint) o;
+            return port == other.port
+                && queueManager.equals(other.queueManager)
+                && Objects.equals(host, other.host)
+                && Objects.equals(channel, other.channel)
+                && Objects.equals(userId, other.userId)
+                && Objects.equals(password, other.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(queueManager, host, port, channel, userId);
+        }
+
+        @Override
+        public String toString() {
+            return host != null ? queueManager + "@" + host + "(" + port + ")/" + channel : queueManager + " (bindings)";
+        }
+    }
+
+    /**
+     * A borrowed agent. Close it to return the agent to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Endpoint endpoint;
+        private final Slot slot;
+        private PooledAgent agent;
+        private boolean released;
+
+        private Lease(Endpoint endpoint, Slot slot, PooledAgent agent) {
+            this.endpoint = endpoint;
+            this.slot = slot;
+            this.agent = agent;
+        }
+
+        public PCFMessage[] send(PCFMessage request) throws Exception {
+            if (released) {
+                throw new IllegalStateException("Lease already closed");
+            }
+            requests.incrementAndGet();
+            try {
+                return agent.send(request);
+            } catch (Exception e) {
+                if (!isConnectionLost(e)) {
+                    throw e;
+                }
+                disconnect(slot, agent);
+                agent = null;
+                agent = connect(endpoint, slot);
+                reconnects.incrementAndGet();
+                return agent.send(request);
+            }
+        }
+
+        public String getQueueManagerName() {
+            return endpoint.queueManager;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (agent != null) {
+                if (closed) {
+                    disconnect(slot, agent);
+                } else {
+                    agent.lastUsed = System.currentTimeMillis();
+                    slot.idle.offerFirst(agent);
+                }
+                agent = null;
+            }
+            slot.permits.release();
+        }
+    }
+
+    private static final class Slot {
+        final Semaphore permits;
+        final ConcurrentLinkedDeque<PooledAgent> idle = new ConcurrentLinkedDeque<>();
+        private final int maxPerQm;
+        // Agents connected for this endpoint, idle or leased
+        private int connected;
+
+        Slot(int maxPerQm) {
+            this.permits = new Semaphore(maxPerQm, true);
+            this.maxPerQm = maxPerQm;
+        }
+
+        /**
+         * Counts one more connected agent. A permit holder always finds room, because every
+         * other agent is idle (and would have been taken) or held under another permit.
+         */
+        synchronized void reserve(Endpoint endpoint) {
+            if (connected >= maxPerQm) {
+                throw new IllegalStateException("Already " + connected + " PCF agents connected to " + endpoint);
+            }
+            connected++;
+        }
+
+        synchronized void unreserve() {
+            connected--;
+        }
+    }
+
+    private static final class PooledAgent {
+        final MQQueueManager qmgr;
+        final PCFMessageAgent agent;
+        final Responder responder;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledAgent(MQQueueManager qmgr, PCFMessageAgent agent) {
+            this.qmgr = qmgr;
+            this.agent = agent;
+            this.responder = null;
+        }
+
+        PooledAgent(Responder responder) {
+            this.qmgr = null;
+            this.agent = null;
+            this.responder = responder;
+        }
+
+        PCFMessage[] send(PCFMessage request) throws Exception {
+            return responder != null ? responder.send(request) : agent.send(request);
+        }
+
+        boolean ping() {
+            try {
+                send(new PCFMessage(CMQCFC.MQCMD_PING_Q_MGR));
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        void disconnect() {
+            if (responder != null) {
+                return;
+            }
+            try { agent.disconnect(); } catch (Exception ignore) {}
+            try { qmgr.disconnect(); } catch (Exception ignore) {}
+        }
+    }
+}
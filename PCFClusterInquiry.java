@@ -0,0 +1,312 @@
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.pcf.PCFMessage;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Cluster-wide PCF inquiry: sends DIS CONN / DIS CHSTATUS / DIS QSTATUS to every queue
+ * manager at once and merges the answers into one cluster view.
+ *
+ * The commands of each QM are spread over at most {@code pcf.pool.maxPerQm} tasks, each
+ * sending its share one after another on one pooled agent ({@link PCFAgentPool}), so no task
+ * waits for an agent while the deadline runs and a snapshot takes as long as the slowest QM
+ * rather than the sum of all of them. Every
+ * QM gets the same deadline; a QM that fails or misses it is reported as FAILED / TIMED_OUT
+ * and the snapshot carries the results of the others (partial result).
+ *
+ * Equivalent to, on every QM in the cluster:
+ *   DIS CONN(*) APPLTAG CHANNEL CONNAME USERID PID TID CONNTAG
+ *   DIS CHSTATUS(*)
+ *   DIS QSTATUS(*)
+ *
+ * Usage:
+ *   java -cp "libs/*:." PCFClusterInquiry [--qm QM1:10.10.10.10:1414 ...] [--timeout-ms 5000]
+ *        [--channel-filter APP.*] [--queue-filter UNIFORM.*]
+ */
+public class PCFClusterInquiry implements AutoCloseable {
+
+    public enum Inquiry { CONNECTION, CHANNEL_STATUS, QUEUE_STATUS }
+
+    public enum QmState { OK, FAILED, TIMED_OUT }
+
+    private final List<PCFAgentPool.Endpoint> endpoints;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private String channelFilter = "*";
+    private String queueFilter = "*";
+
+    public PCFClusterInquiry(List<PCFAgentPool.Endpoint> endpoints, long timeoutMillis) {
+        this.endpoints = new ArrayList<>(endpoints);
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "pcf-cluster-inquiry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * QM1-QM3 of the demo cluster (10.10.10.10-12, port 1414).
+     */
+    public static List<PCFAgentPool.Endpoint> defaultCluster(String channel, String user, String password) {
+        List<PCFAgentPool.Endpoint> cluster = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            cluster.add(PCFAgentPool.Endpoint.client("QM" + i, "10.10.10." + (9 + i), 1414, channel, user, password));
+        }
+        return cluster;
+    }
+
+    /**
+     * Parses NAME:host:port.
+     */
+    public static PCFAgentPool.Endpoint parseEndpoint(String spec, String channel, String user, String password) {
+        String[] parts = spec.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected NAME:host:port, got " + spec);
+        }
+        return PCFAgentPool.Endpoint.client(parts[0], parts[1], Integer.parseInt(parts[2]), channel, user, password);
+    }
+
+    public PCFClusterInquiry channelFilter(String channelFilter) {
+        this.channelFilter = channelFilter;
+        return this;
+    }
+
+    public PCFClusterInquiry queueFilter(String queueFilter) {
+        this.queueFilter = queueFilter;
+        return this;
+    }
+
+    public ClusterSnapshot snapshot() {
+        return snapshot(EnumSet.allOf(Inquiry.class));
+    }
+
+    public ClusterSnapshot snapshot(Inquiry first, Inquiry... rest) {
+        return snapshot(EnumSet.of(first, rest));
+    }
+
+    public ClusterSnapshot snapshot(Set<Inquiry> inquiries) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ClusterSnapshot snapshot = new ClusterSnapshot();
+
+        PCFAgentPool pool = PCFAgentPool.shared();
+        int lanes = Math.max(1, Math.min(pool.maxPerQm(), inquiries.size()));
+        Map<PCFAgentPool.Endpoint, Map<Inquiry, CompletableFuture<PCFMessage[]>>> pending = new LinkedHashMap<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (PCFAgentPool.Endpoint endpoint : endpoints) {
+            Map<Inquiry, CompletableFuture<PCFMessage[]>> futures = new EnumMap<>(Inquiry.class);
+            List<List<Inquiry>> shares = new ArrayList<>();
+            for (int i = 0; i < lanes; i++) {
+                shares.add(new ArrayList<>());
+            }
+            int next = 0;
+            for (Inquiry inquiry : inquiries) {
+                futures.put(inquiry, new CompletableFuture<>());
+                shares.get(next++ % lanes).add(inquiry);
+            }
+            for (List<Inquiry> share : shares) {
+                if (!share.isEmpty()) {
+                    tasks.add(executor.submit(() -> sendAll(pool, endpoint, share, futures)));
+                }
+            }
+            pending.put(endpoint, futures);
+        }
+
+        for (Map.Entry<PCFAgentPool.Endpoint, Map<Inquiry, CompletableFuture<PCFMessage[]>>> entry : pending.entrySet()) {
+            QmResult result = new QmResult(entry.getKey().queueManager);
+            for (Map.Entry<Inquiry, CompletableFuture<PCFMessage[]>> future : entry.getValue().entrySet()) {
+                long remaining = deadline - System.nanoTime();
+                try {
+                    result.responses.put(future.getKey(), future.getValue().get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    future.getValue().cancel(true);
+                    result.fail(QmState.TIMED_OUT, future.getKey() + " no reply within " + timeoutMillis + " ms");
+                } catch (ExecutionException e) {
+                    result.fail(QmState.FAILED, future.getKey() + ": " + e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.getValue().cancel(true);
+                    result.fail(QmState.FAILED, "interrupted");
+                }
+            }
+            result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            snapshot.byQueueManager.put(result.queueManager, result);
+        }
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+        snapshot.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return snapshot;
+    }
+
+    /**
+     * Sends {@code share} in turn on one agent of the endpoint, completing each inquiry's future.
+     */
+    private void sendAll(PCFAgentPool pool, PCFAgentPool.Endpoint endpoint, List<Inquiry> share,
+                         Map<Inquiry, CompletableFuture<PCFMessage[]>> futures) {
+        try (PCFAgentPool.Lease lease = pool.acquire(endpoint)) {
+            for (Inquiry inquiry : share) {
+                CompletableFuture<PCFMessage[]> future = futures.get(inquiry);
+                try {
+                    future.complete(lease.send(request(inquiry)));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        } catch (Exception e) {
+            for (Inquiry inquiry : share) {
+                futures.get(inquiry).completeExceptionally(e);
+            }
+        }
+    }
+
+    private PCFMessage request(Inquiry inquiry) {
+        PCFMessage request;
+        switch (inquiry) {
+            case CONNECTION:
+                request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+                request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
+                request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, PCFUtils.CONNECTION_SUMMARY_ATTRS);
+                return request;
+            case CHANNEL_STATUS:
+                request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS);
+                request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, channelFilter);
+                return request;
+            default:
+                request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_STATUS);
+                request.addParameter(CMQC.MQCA_Q_NAME, queueFilter);
+                return request;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * What one queue manager answered. A QM is OK only if every command returned in time;
+     * the responses that did arrive are kept either way.
+     */
+    public static class QmResult {
+        public final String queueManager;
+        public QmState state = QmState.OK;
+        public final List<String> errors = new ArrayList<>();
+        public final Map<Inquiry, PCFMessage[]> responses = new EnumMap<>(Inquiry.class);
+        public long elapsedMillis;
+
+        QmResult(String queueManager) {
+            this.queueManager = queueManager;
+        }
+
+        void fail(QmState state, String error) {
+            if (this.state != QmState.TIMED_OUT) {
+                this.state = state;
+            }
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Merged cluster view, in endpoint order.
+     */
+    public static class ClusterSnapshot {
+        public final Map<String, QmResult> byQueueManager = new LinkedHashMap<>();
+        public long elapsedMillis;
+
+        public boolean isComplete() {
+            return byQueueManager.values().stream().allMatch(r -> r.state == QmState.OK);
+        }
+
+        public List<String> unavailable() {
+            List<String> down = new ArrayList<>();
+            byQueueManager.values().stream().filter(r -> r.state != QmState.OK).forEach(r -> down.add(r.queueManager));
+            return down;
+        }
+
+        /**
+         * All responses to one command, keyed by the QM that sent them.
+         */
+        public Map<String, PCFMessage[]> responses(Inquiry inquiry) {
+            Map<String, PCFMessage[]> merged = new LinkedHashMap<>();
+            for (QmResult result : byQueueManager.values()) {
+                PCFMessage[] messages = result.responses.get(inquiry);
+                if (messages != null) {
+                    merged.put(result.queueManager, messages);
+                }
+            }
+            return merged;
+        }
+
+        public List<PCFUtils.ConnectionDetails> connections() {
+            List<PCFUtils.ConnectionDetails> connections = new ArrayList<>();
+            for (Map.Entry<String, PCFMessage[]> entry : responses(Inquiry.CONNECTION).entrySet()) {
+                for (PCFMessage response : entry.getValue()) {
+                    try {
+                        connections.add(PCFUtils.toConnectionDetails(response, entry.getKey()));
+                    } catch (Exception e) {
+                        // Skip problematic connections
+                    }
+                }
+            }
+            return connections;
+        }
+
+        public void printSummary() {
+            System.out.printf("Cluster snapshot in %d ms (%s)%n", elapsedMillis,
+                isComplete() ? "complete" : "PARTIAL - unavailable: " + unavailable());
+            for (QmResult result : byQueueManager.values()) {
+                System.out.printf("  %-6s %-9s %5d ms  conns=%-6s chstatus=%-6s qstatus=%-6s %s%n",
+                    result.queueManager, result.state, result.elapsedMillis,
+                    count(result, Inquiry.CONNECTION), count(result, Inquiry.CHANNEL_STATUS),
+                    count(result, Inquiry.QUEUE_STATUS), String.join("; ", result.errors));
+            }
+        }
+
+        private static String count(QmResult result, Inquiry inquiry) {
+            PCFMessage[] messages = result.responses.get(inquiry);
+            return messages != null ? String.valueOf(messages.length) : "-";
+        }
+    }
+
+    public static void main(String[] args) {
+        String channel = "APP.SVRCONN";
+        String user = "app";
+        String password = "passw0rd";
+        long timeoutMillis = 5000;
+        String channelFilter = "*";
+        String queueFilter = "*";
+        List<String> specs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--qm":             specs.add(args[++i]); break;
+                case "--channel":        channel = args[++i]; break;
+                case "--user":           user = args[++i]; break;
+                case "--pass":           password = args[++i]; break;
+                case "--timeout-ms":     timeoutMillis = Long.parseLong(args[++i]); break;
+                case "--channel-filter": channelFilter = args[++i]; break;
+                case "--queue-filter":   queueFilter = args[++i]; break;
+                default:
+                    throw new IllegalArgumentException("Unknown arg: " + args[i]);
+            }
+        }
+
+        List<PCFAgentPool.Endpoint> cluster = new ArrayList<>();
+        for (String spec : specs) {
+            cluster.add(parseEndpoint(spec, channel, user, password));
+        }
+        if (cluster.isEmpty()) {
+            cluster = defaultCluster(channel, user, password);
+        }
+
+        try (PCFClusterInquiry inquiry = new PCFClusterInquiry(cluster, timeoutMillis)
+                .channelFilter(channelFilter).queueFilter(queueFilter)) {
+            inquiry.snapshot().printSummary();
+        }
+        System.out.println(PCFAgentPool.shared().stats());
+    }
+}
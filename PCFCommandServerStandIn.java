@@ -0,0 +1,512 @@
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.constants.CMQXC;
+import com.ibm.mq.headers.pcf.*;
+
+import java.util.*;
+
+/**
+ * In-process stand-in for one queue manager's command server, answering the PCF inquiries the
+ * tools send with synthetic replies shaped like a real QM's:
+ *   INQUIRE_CONNECTION      generic or specific CONNECTION_ID, string/integer WHERE filters
+ *                           (EQ, NE, LK, NL, LT, GT, ...), CONNECTION_ATTRS projection or ALL
+ *   INQUIRE_CHANNEL_STATUS  one SVRCONN instance per client connection and its sessions
+ *   INQUIRE_Q_STATUS        depth and open counts of the configured queues (also INQUIRE_Q)
+ *   INQUIRE_Q_MGR           name, identifier, command level, platform, connection count
+ *   PING_Q_MGR
+ * Nothing found fails with MQRCCF_NONE_FOUND / MQRCCF_CHL_STATUS_NOT_FOUND like the real server.
+ *
+ * Connections come as clients, each a parent plus {@code sessionsPerClient} sessions that share
+ * its APPLTAG, PID, TID, CONNAME and CONNTAG (MQCT + parent handle + QM + start time + APPLTAG)
+ * and have their own CONNECTION_ID, as on a uniform cluster. APPLTAGs follow the tests'
+ * PREFIX-timestamp-Cn pattern and several clients share one. {@link #churn} and {@link #moveTo}
+ * change the population between polls; {@code latencyMicrosPerReply} makes each request take
+ * as long as a busy command server would.
+ *
+ * Usage:
+ *   PCFAgentPool.shared().route("QM1", new PCFCommandServerStandIn("QM1", 100000, 5, 1));
+ *   java -Dpcf.standIn.connections=100000 -cp "libs/*:." PCFRealtimeMonitor     # QM1..QM3 offline
+ *   java -cp "libs/*:." PCFCommandServerStandIn --connections 100000 [--iterations 5]
+ */
+public final class PCFCommandServerStandIn implements PCFAgentPool.Responder {
+
+    private static final String[] PREFIXES = { "CONNTAG", "UNIFORM", "SPRING", "ORDERS", "PAYMENTS" };
+    private static final String CHANNEL = "APP.SVRCONN";
+    private static final String START = "2025-09-05_02.13.44";
+
+    static final class Client {
+        final String applTag;
+        final String connectionName;
+        final int pid;
+        final int tid;
+        // First handle is the parent's
+        final long[] handles;
+        long messages;
+
+        Client(String applTag, String connectionName, int pid, int tid, long[] handles) {
+            this.applTag = applTag;
+            this.connectionName = connectionName;
+            this.pid = pid;
+            this.tid = tid;
+            this.handles = handles;
+        }
+    }
+
+    private final String queueManager;
+    private final int sessionsPerClient;
+    private final Random random;
+    private final long timestamp = 1757099034949L;
+    private final List<Client> clients = new ArrayList<>();
+    private final Map<String, int[]> queues = new LinkedHashMap<>();
+    private long nextHandle;
+    private int nextClient;
+    private volatile long latencyMicrosPerReply;
+    private long requests;
+
+    /**
+     * {@code connections} is the total of parents and sessions; it is rounded to whole clients.
+     */
+    public PCFCommandServerStandIn(String queueManager, int connections, int sessionsPerClient, long seed) {
+        this.queueManager = queueManager;
+        this.sessionsPerClient = sessionsPerClient;
+        this.random = new Random(seed);
+        this.nextHandle = 0x8A11C06800000040L + ((long) (queueManager.hashCode() & 0xFF) << 16);
+        queues.put("UNIFORM.QUEUE", new int[] { 0 });
+        queues.put("MONITOR.QUEUE", new int[] { 0 });
+        int clientCount = Math.max(1, connections / (1 + sessionsPerClient));
+        for (int i = 0; i < clientCount; i++) {
+            addClient(null);
+        }
+    }
+
+    /**
+     * Routes QM1..QM3 of the pool to stand-ins when {@code pcf.standIn.connections} is set.
+     * Also reads {@code pcf.standIn.sessions} (default 5) and {@code pcf.standIn.latencyMicros} (default 0).
+     */
+    static void installFromSystemProperties(PCFAgentPool pool) {
+        int connections = Integer.getInteger("pcf.standIn.connections", 0);
+        if (connections <= 0) {
+            return;
+        }
+        for (int qm = 1; qm <= 3; qm++) {
+            PCFCommandServerStandIn standIn = new PCFCommandServerStandIn("QM" + qm, connections,
+                Integer.getInteger("pcf.standIn.sessions", 5), qm);
+            standIn.setLatencyMicrosPerReply(Long.getLong("pcf.standIn.latencyMicros", 0));
+            pool.route("QM" + qm, standIn);
+        }
+        System.out.println("PCF stand-in: QM1..QM3 answered in-process, " + connections + " connections each");
+    }
+
+    public void setLatencyMicrosPerReply(long micros) {
+        this.latencyMicrosPerReply = micros;
+    }
+
+    public synchronized int getConnectionCount() {
+        return clients.size() * (1 + sessionsPerClient);
+    }
+
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    public synchronized void setQueueDepth(String queue, int depth) {
+        queues.computeIfAbsent(queue, q -> new int[1])[0] = depth;
+    }
+
+    /**
+     * Disconnects {@code count} random clients and connects as many new ones.
+     */
+    public synchronized void churn(int count) {
+        for (int i = 0; i < count && !clients.isEmpty(); i++) {
+            clients.remove(random.nextInt(clients.size()));
+        }
+        for (int i = 0; i < count; i++) {
+            addClient(null);
+        }
+    }
+
+    /**
+     * Moves {@code count} clients to {@code target} as a rebalance or failover would: same APPLTAG,
+     * host, PID and TID there, new handles. Returns how many moved.
+     */
+    public int moveTo(PCFCommandServerStandIn target, int count) {
+        List<Client> moved = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < count && !clients.isEmpty(); i++) {
+                moved.add(clients.remove(clients.size() - 1));
+            }
+        }
+        synchronized (target) {
+            for (Client client : moved) {
+                target.addClient(client);
+            }
+        }
+        return moved.size();
+    }
+
+    @Override
+    public PCFMessage[] send(PCFMessage request) throws Exception {
+        PCFMessage[] replies;
+        synchronized (this) {
+            requests++;
+            switch (request.getCommand()) {
+                case CMQCFC.MQCMD_INQUIRE_CONNECTION:
+                    replies = inquireConnection(request);
+                    break;
+                case CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS:
+                    replies = inquireChannelStatus(request);
+                    break;
+                case CMQCFC.MQCMD_INQUIRE_Q_STATUS:
+                case CMQCFC.MQCMD_INQUIRE_Q:
+                    replies = inquireQueueStatus(request);
+                    break;
+                case CMQCFC.MQCMD_INQUIRE_Q_MGR:
+                    replies = new PCFMessage[] { inquireQueueManager() };
+                    break;
+                case CMQCFC.MQCMD_PING_Q_MGR:
+                    replies = new PCFMessage[] { new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_PING_Q_MGR, 1, true) };
+                    break;
+                default:
+                    throw new PCFException(CMQC.MQCC_FAILED, CMQCFC.MQRCCF_COMMAND_FAILED, this);
+            }
+        }
+        long micros = latencyMicrosPerReply * replies.length;
+        if (micros > 0) {
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+        }
+        return replies;
+    }
+
+    // ---------- Commands ----------
+
+    private PCFMessage[] inquireConnection(PCFMessage request) throws PCFException {
+        String connectionId = null;
+        String channel = null;
+        Set<Integer> attrs = null;
+        List<PCFParameter> filters = new ArrayList<>();
+        Enumeration<?> parameters = request.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter parameter = (PCFParameter) parameters.nextElement();
+            if (parameter instanceof MQCFSF || parameter instanceof MQCFIF) {
+                filters.add(parameter);
+                continue;
+            }
+            Object value = parameter.getValue();
+            switch (parameter.getParameter()) {
+                case CMQCFC.MQBACF_CONNECTION_ID:
+                    connectionId = value instanceof byte[] ? PCFUtils.bytesToHex((byte[]) value) : null;
+                    break;
+                case CMQCFC.MQIACF_CONNECTION_ATTRS:
+                    attrs = new HashSet<>();
+                    for (int attr : (int[]) value) {
+                        attrs.add(attr);
+                    }
+                    if (attrs.contains(CMQCFC.MQIACF_ALL)) {
+                        attrs = null;
+                    }
+                    break;
+                case CMQCFC.MQCACH_CHANNEL_NAME:
+                    // Accepted as a channel filter, as some tools send it
+                    channel = ((String) value).trim();
+                    break;
+                default:
+                    // Generic connection id and anything else: all connections
+            }
+        }
+
+        List<Client> owners = new ArrayList<>();
+        List<byte[]> ids = new ArrayList<>();
+        for (Client client : clients) {
+            if ((channel != null && !like(CHANNEL, channel)) || !matches(client, filters)) {
+                continue;
+            }
+            for (long handle : client.handles) {
+                byte[] id = connectionId(handle);
+                if (connectionId == null || connectionId.equalsIgnoreCase(PCFUtils.bytesToHex(id))) {
+                    owners.add(client);
+                    ids.add(id);
+                }
+            }
+        }
+        noneFound(ids.size(), CMQCFC.MQRCCF_NONE_FOUND);
+        PCFMessage[] replies = new PCFMessage[ids.size()];
+        for (int i = 0; i < replies.length; i++) {
+            replies[i] = connectionReply(owners.get(i), ids.get(i), attrs, i + 1, i == replies.length - 1);
+        }
+        return replies;
+    }
+
+    private PCFMessage connectionReply(Client client, byte[] connectionId, Set<Integer> attrs, int sequence, boolean last) {
+        PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_INQUIRE_CONNECTION, sequence, last);
+        m.addParameter(CMQCFC.MQBACF_CONNECTION_ID, connectionId);
+        if (wants(attrs, CMQCFC.MQCACF_APPL_TAG)) m.addParameter(CMQCFC.MQCACF_APPL_TAG, pad(client.applTag, 28));
+        if (wants(attrs, CMQCFC.MQCACH_CHANNEL_NAME)) m.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, pad(CHANNEL, 20));
+        if (wants(attrs, CMQCFC.MQCACH_CONNECTION_NAME)) m.addParameter(CMQCFC.MQCACH_CONNECTION_NAME, pad(client.connectionName, 264));
+        if (wants(attrs, CMQCFC.MQCACF_USER_IDENTIFIER)) m.addParameter(CMQCFC.MQCACF_USER_IDENTIFIER, pad("app", 12));
+        if (wants(attrs, CMQCFC.MQIACF_PROCESS_ID)) m.addParameter(CMQCFC.MQIACF_PROCESS_ID, client.pid);
+        if (wants(attrs, CMQCFC.MQIACF_THREAD_ID)) m.addParameter(CMQCFC.MQIACF_THREAD_ID, client.tid);
+        if (wants(attrs, CMQCFC.MQBACF_CONN_TAG)) m.addParameter(CMQCFC.MQBACF_CONN_TAG, connTag(client));
+        if (attrs == null) {
+            // What MQIACF_ALL returns beyond the summary attributes
+            m.addParameter(CMQCFC.MQBACF_EXTERNAL_UOW_ID, new byte[128]);
+            m.addParameter(CMQCFC.MQBACF_ORIGIN_UOW_ID, new byte[128]);
+            m.addParameter(CMQCFC.MQBACF_Q_MGR_UOW_ID, new byte[16]);
+            m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_DATE, pad("", 12));
+            m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_TIME, pad("", 8));
+            m.addParameter(CMQCFC.MQCACF_UOW_START_DATE, pad("", 12));
+            m.addParameter(CMQCFC.MQCACF_UOW_START_TIME, pad("", 8));
+            m.addParameter(CMQC.MQIA_APPL_TYPE, CMQC.MQAT_JAVA);
+            m.addParameter(CMQCFC.MQIACF_CONNECT_OPTIONS, 0x40);
+            m.addParameter(CMQCFC.MQIACF_UOW_STATE, 0);
+            m.addParameter(CMQCFC.MQIACF_UOW_TYPE, 0);
+            m.addParameter(CMQCFC.MQIACF_ASYNC_STATE, 0);
+            m.addParameter(CMQCFC.MQIACF_CONN_INFO_TYPE, CMQCFC.MQIACF_CONN_INFO_CONN);
+        }
+        return m;
+    }
+
+    private PCFMessage[] inquireChannelStatus(PCFMessage request) throws PCFException {
+        String channel = stringParameter(request, CMQCFC.MQCACH_CHANNEL_NAME, "*");
+        noneFound(like(CHANNEL, channel) ? clients.size() : 0, CMQCFC.MQRCCF_CHL_STATUS_NOT_FOUND);
+        PCFMessage[] replies = new PCFMessage[clients.size()];
+        for (int i = 0; i < replies.length; i++) {
+            Client client = clients.get(i);
+            // Traffic accumulates while the instance is running
+            client.messages += random.nextInt(5);
+            PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS, i + 1, i == replies.length - 1);
+            m.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, pad(CHANNEL, 20));
+            m.addParameter(CMQCFC.MQCACH_CONNECTION_NAME, pad(client.connectionName, 264));
+            m.addParameter(CMQCFC.MQIACH_CHANNEL_TYPE, CMQXC.MQCHT_SVRCONN);
+            m.addParameter(CMQCFC.MQIACH_CHANNEL_STATUS, CMQCFC.MQCHS_RUNNING);
+            m.addParameter(CMQCFC.MQIACH_MSGS, (int) client.messages);
+            m.addParameter(CMQCFC.MQIACH_BYTES_SENT, (int) (client.messages * 512));
+            m.addParameter(CMQCFC.MQIACH_BYTES_RECEIVED, (int) (client.messages * 640));
+            m.addParameter(CMQCFC.MQIACH_CURRENT_SHARING_CONVS, client.handles.length);
+            m.addParameter(CMQCFC.MQCACH_MCA_USER_ID, pad("app", 12));
+            replies[i] = m;
+        }
+        return replies;
+    }
+
+    private PCFMessage[] inquireQueueStatus(PCFMessage request) throws PCFException {
+        String queue = stringParameter(request, CMQC.MQCA_Q_NAME, "*");
+        List<Map.Entry<String, int[]>> matching = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : queues.entrySet()) {
+            if (like(entry.getKey(), queue)) {
+                matching.add(entry);
+            }
+        }
+        noneFound(matching.size(), CMQC.MQRC_UNKNOWN_OBJECT_NAME);
+        PCFMessage[] replies = new PCFMessage[matching.size()];
+        for (int i = 0; i < replies.length; i++) {
+            Map.Entry<String, int[]> entry = matching.get(i);
+            PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, request.getCommand(), i + 1, i == replies.length - 1);
+            m.addParameter(CMQC.MQCA_Q_NAME, pad(entry.getKey(), 48));
+            m.addParameter(CMQC.MQIA_CURRENT_Q_DEPTH, entry.getValue()[0]);
+            // Every client consumes and produces on the application queue
+            boolean application = entry.getKey().equals("UNIFORM.QUEUE");
+            m.addParameter(CMQC.MQIA_OPEN_INPUT_COUNT, application ? clients.size() : 0);
+            m.addParameter(CMQC.MQIA_OPEN_OUTPUT_COUNT, application ? clients.size() : 0);
+            replies[i] = m;
+        }
+        return replies;
+    }
+
+    private PCFMessage inquireQueueManager() {
+        PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_INQUIRE_Q_MGR, 1, true);
+        m.addParameter(CMQC.MQCA_Q_MGR_NAME, pad(queueManager, 48));
+        m.addParameter(CMQC.MQCA_Q_MGR_IDENTIFIER, pad(queueManager + "_" + START, 48));
+        m.addParameter(CMQC.MQIA_COMMAND_LEVEL, 935);
+        m.addParameter(CMQC.MQIA_PLATFORM, CMQC.MQPL_UNIX);
+        m.addParameter(CMQCFC.MQIACF_CONNECTION_COUNT, getConnectionCount());
+        return m;
+    }
+
+    // ---------- Helpers ----------
+
+    private void addClient(Client moved) {
+        int n = nextClient++;
+        long[] handles = new long[1 + sessionsPerClient];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = nextHandle++;
+        }
+        if (moved != null) {
+            clients.add(new Client(moved.applTag, moved.connectionName, moved.pid, moved.tid, handles));
+            return;
+        }
+        // A few clients per APPLTAG, like several JMS connections of one application instance
+        int app = n / 4;
+        String applTag = PREFIXES[app % PREFIXES.length] + "-" + timestamp + "-C" + app;
+        String host = "10.10.10." + (2 + (app % 200));
+        clients.add(new Client(applTag.length() > 28 ? applTag.substring(0, 28) : applTag,
+            host + "(" + (40000 + random.nextInt(20000)) + ")", 1000 + app, 20 + (n % 4), handles));
+    }
+
+    private byte[] connectionId(long handle) {
+        byte[] id = new byte[24];
+        byte[] prefix = pad("AMQC" + queueManager, 16).getBytes();
+        System.arraycopy(prefix, 0, id, 0, 16);
+        for (int i = 0; i < 8; i++) {
+            id[16 + i] = (byte) (handle >>> (8 * (7 - i)));
+        }
+        return id;
+    }
+
+    private byte[] connTag(Client client) {
+        byte[] tag = new byte[128];
+        byte[] value = String.format("MQCT%016X%s_%s%s", client.handles[0], queueManager, START, client.applTag).getBytes();
+        System.arraycopy(value, 0, tag, 0, Math.min(128, value.length));
+        return tag;
+    }
+
+    private static boolean matches(Client client, List<PCFParameter> filters) {
+        for (PCFParameter filter : filters) {
+            if (filter instanceof MQCFSF) {
+                MQCFSF f = (MQCFSF) filter;
+                String actual;
+                switch (f.getParameter()) {
+                    case CMQCFC.MQCACF_APPL_TAG: actual = client.applTag; break;
+                    case CMQCFC.MQCACH_CHANNEL_NAME: actual = CHANNEL; break;
+                    case CMQCFC.MQCACH_CONNECTION_NAME: actual = client.connectionName; break;
+                    case CMQCFC.MQCACF_USER_IDENTIFIER: actual = "app"; break;
+                    default: return false;
+                }
+                String wanted = f.getFilterValue().trim();
+                boolean match;
+                switch (f.getOperator()) {
+                    case CMQCFC.MQCFOP_LIKE: match = like(actual, wanted); break;
+                    case CMQCFC.MQCFOP_NOT_LIKE: match = !like(actual, wanted); break;
+                    case CMQCFC.MQCFOP_NOT_EQUAL: match = !actual.equals(wanted); break;
+                    default: match = actual.equals(wanted);
+                }
+                if (!match) {
+                    return false;
+                }
+            } else {
+                MQCFIF f = (MQCFIF) filter;
+                int actual;
+                switch (f.getParameter()) {
+                    case CMQCFC.MQIACF_PROCESS_ID: actual = client.pid; break;
+                    case CMQCFC.MQIACF_THREAD_ID: actual = client.tid; break;
+                    default: return false;
+                }
+                int compare = Integer.compare(actual, f.getFilterValue());
+                boolean match;
+                switch (f.getOperator()) {
+                    case CMQCFC.MQCFOP_LESS: match = compare < 0; break;
+                    case CMQCFC.MQCFOP_NOT_GREATER: match = compare <= 0; break;
+                    case CMQCFC.MQCFOP_GREATER: match = compare > 0; break;
+                    case CMQCFC.MQCFOP_NOT_LESS: match = compare >= 0; break;
+                    case CMQCFC.MQCFOP_NOT_EQUAL: match = compare != 0; break;
+                    default: match = compare == 0;
+                }
+                if (!match) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * MQ generic names: a trailing '*' matches any suffix.
+     */
+    private static boolean like(String actual, String pattern) {
+        return pattern.endsWith("*") ? actual.startsWith(pattern.substring(0, pattern.length() - 1)) : actual.equals(pattern);
+    }
+
+    private static boolean wants(Set<Integer> attrs, int attr) {
+        return attrs == null || attrs.contains(attr);
+    }
+
+    private static String stringParameter(PCFMessage request, int parameter, String fallback) {
+        Enumeration<?> parameters = request.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter p = (PCFParameter) parameters.nextElement();
+            if (p.getParameter() == parameter && p.getValue() instanceof String) {
+                return ((String) p.getValue()).trim();
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Fails like the command server when nothing matched.
+     */
+    private void noneFound(int matches, int reason) throws PCFException {
+        if (matches == 0) {
+            throw new PCFException(CMQC.MQCC_FAILED, reason, this);
+        }
+    }
+
+    private static String pad(String s, int length) {
+        StringBuilder sb = new StringBuilder(length).append(s);
+        while (sb.length() < length) sb.append(' ');
+        return sb.toString();
+    }
+
+    // ---------- Load test ----------
+
+    public static void main(String[] args) throws Exception {
+        int connections = 100000;
+        int sessions = 5;
+        int iterations = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--connections": connections = Integer.parseInt(args[++i]); break;
+                case "--sessions":    sessions = Integer.parseInt(args[++i]); break;
+                case "--iterations":  iterations = Integer.parseInt(args[++i]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown arg: " + args[i]);
+            }
+        }
+
+        PCFAgentPool pool = PCFAgentPool.shared();
+        List<PCFCommandServerStandIn> standIns = new ArrayList<>();
+        List<PCFAgentPool.Endpoint> endpoints = new ArrayList<>();
+        for (int qm = 1; qm <= 3; qm++) {
+            PCFCommandServerStandIn standIn = new PCFCommandServerStandIn("QM" + qm, connections, sessions, qm);
+            pool.route("QM" + qm, standIn);
+            standIns.add(standIn);
+            endpoints.add(PCFAgentPool.Endpoint.client("QM" + qm, "10.10.10." + (9 + qm), 1414, CHANNEL, "app", "passw0rd"));
+        }
+        System.out.printf("Stand-in cluster: 3 QMs x %d connections (%d sessions per client), %d iterations%n",
+            standIns.get(0).getConnectionCount(), sessions, iterations);
+
+        PCFSnapshotDiffer differ = new PCFSnapshotDiffer();
+        Map<PCFSnapshotDiffer.ChangeType, Integer> events = new EnumMap<>(PCFSnapshotDiffer.ChangeType.class);
+        differ.subscribe(event -> events.merge(event.type, 1, Integer::sum));
+
+        for (int iteration = 0; iteration <= iterations; iteration++) {
+            long inquire = 0, decode = 0, diff;
+            List<PCFUtils.ConnectionDetails> all = new ArrayList<>();
+            for (PCFAgentPool.Endpoint endpoint : endpoints) {
+                PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+                request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
+                request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, PCFUtils.CONNECTION_SUMMARY_ATTRS);
+                long start = System.nanoTime();
+                PCFMessage[] responses = pool.send(endpoint, request);
+                long received = System.nanoTime();
+                all.addAll(PCFFilterBenchmark.decodeAll(responses, endpoint.queueManager));
+                decode += System.nanoTime() - received;
+                inquire += received - start;
+            }
+            long start = System.nanoTime();
+            events.clear();
+            differ.apply(all, Collections.emptyList());
+            diff = System.nanoTime() - start;
+
+            System.out.printf("%s %7d connections  inquire=%8.1f ms  decode=%8.1f ms  diff=%7.1f ms  events=%s%n",
+                iteration == 0 ? "baseline " : "poll " + iteration + "   ", all.size(),
+                inquire / 1e6, decode / 1e6, diff / 1e6, iteration == 0 ? "-" : events);
+
+            // Between polls: 1% churn on every QM and 1% of QM1 rebalanced to QM2
+            int churn = Math.max(1, standIns.get(0).clients.size() / 100);
+            for (PCFCommandServerStandIn standIn : standIns) {
+                standIn.churn(churn);
+            }
+            standIns.get(0).moveTo(standIns.get(1), churn);
+        }
+        System.out.println(pool.stats());
+    }
+}
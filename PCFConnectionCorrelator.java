@@ -0,0 +1,438 @@
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Joins the client view of connections (CONNECTION_ID / CONNTAG from the Spring
+ * tracking table export) with PCF connection snapshots from every queue manager,
+ * and attributes each server-side HCONN to a client parent connection or session.
+ *
+ * Both sides are indexed by {@link ConnectionKey} (handle + QM) in hash maps, so a
+ * snapshot is correlated in one pass over each side:
+ *   1) HCONN CONNECTION_ID == client parent CONNECTION_ID  -> PARENT
+ *   2) HCONN CONNTAG       == client parent CONNTAG        -> SESSION of that parent
+ *   3) otherwise, HCONN with one of our APPLTAGs           -> ORPHAN (server only)
+ * Client parents with no server HCONN are client orphans; QM, APPLTAG and session
+ * count disagreements are reported as mismatches.
+ *
+ * Usage:
+ *   java -cp "libs/*:." PCFConnectionCorrelator --export-url http://localhost:8080/api/failover/connections/export
+ *   java -cp "libs/*:." PCFConnectionCorrelator --client-file connections.jsonl --qm QM1:10.10.10.10:1414
+ *   java -cp "libs/*:." PCFConnectionCorrelator --synthetic 100000
+ */
+public class PCFConnectionCorrelator {
+
+    public enum Role { PARENT, SESSION, ORPHAN }
+
+    public enum MismatchType { QM_MISMATCH, APPLTAG_MISMATCH, SESSION_COUNT }
+
+    /**
+     * One row of the tracking table JSON lines export.
+     */
+    public static class ClientRow {
+        public String type;
+        public long connection;
+        public int session;
+        public String connectionId;
+        public String fullConnTag;
+        public String queueManager;
+        public String applicationTag;
+        public String status;
+
+        public static ClientRow fromJson(JSONObject json) {
+            ClientRow row = new ClientRow();
+            row.type = json.optString("type", "PARENT");
+            row.connection = json.optLong("connection");
+            row.session = json.optInt("session", -1);
+            row.connectionId = json.optString("connectionId", null);
+            row.fullConnTag = json.optString("fullConnTag", null);
+            row.queueManager = json.optString("queueManager", null);
+            row.applicationTag = json.optString("applicationTag", null);
+            row.status = json.optString("status", null);
+            return row;
+        }
+
+        public boolean isParent() {
+            return "PARENT".equals(type);
+        }
+    }
+
+    public static class ClientParent {
+        public final ClientRow row;
+        public final List<ClientRow> sessions = new ArrayList<>();
+        public PCFUtils.ConnectionDetails server;
+        public final List<PCFUtils.ConnectionDetails> serverSessions = new ArrayList<>();
+
+        ClientParent(ClientRow row) {
+            this.row = row;
+        }
+    }
+
+    public static class Attribution {
+        public final PCFUtils.ConnectionDetails server;
+        public final Role role;
+        public final ClientParent parent;
+
+        Attribution(PCFUtils.ConnectionDetails server, Role role, ClientParent parent) {
+            this.server = server;
+            this.role = role;
+            this.parent = parent;
+        }
+    }
+
+    public static class Mismatch {
+        public final MismatchType type;
+        public final ClientParent parent;
+        public final String client;
+        public final String server;
+
+        Mismatch(MismatchType type, ClientParent parent, String client, String server) {
+            this.type = type;
+            this.parent = parent;
+            this.client = client;
+            this.server = server;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-16s %-48s client=%s server=%s", type, parent.row.connectionId, client, server);
+        }
+    }
+
+    public static class CorrelationResult {
+        public final List<Attribution> attributions = new ArrayList<>();
+        public final List<PCFUtils.ConnectionDetails> serverOrphans = new ArrayList<>();
+        public final List<ClientParent> clientOrphans = new ArrayList<>();
+        public final List<Mismatch> mismatches = new ArrayList<>();
+        public int clientParents;
+        public int clientSessions;
+        public int serverConnections;
+        public int foreignConnections;
+        public long elapsedNanos;
+
+        public long count(Role role) {
+            return attributions.stream().filter(a -> a.role == role).count();
+        }
+
+        public void printReport(int maxRows) {
+            System.out.println("\n================== CLIENT / PCF CORRELATION ==================");
+            System.out.printf("Client: %d parents, %d sessions | Server: %d HCONNs (%d from other applications)%n",
+                clientParents, clientSessions, serverConnections, foreignConnections);
+            System.out.printf("Attributed: %d parents, %d sessions | Orphans: %d server, %d client | Mismatches: %d%n",
+                count(Role.PARENT), count(Role.SESSION), serverOrphans.size(), clientOrphans.size(), mismatches.size());
+            System.out.printf("Correlated in %.1f ms%n", elapsedNanos / 1_000_000.0);
+
+            if (!mismatches.isEmpty()) {
+                System.out.println("\n--- Mismatches ---");
+                mismatches.stream().limit(maxRows).forEach(System.out::println);
+            }
+            if (!serverOrphans.isEmpty()) {
+                System.out.println("\n--- Server HCONNs with no client connection ---");
+                serverOrphans.stream().limit(maxRows).forEach(c -> System.out.printf("%-6s %-48s APPLTAG=%s CONNAME=%s PID/TID=%d/%d%n",
+                    c.queueManager, c.connectionId, trim(c.appTag), c.connectionName, c.pid, c.tid));
+            }
+            if (!clientOrphans.isEmpty()) {
+                System.out.println("\n--- Client connections with no server HCONN ---");
+                clientOrphans.stream().limit(maxRows).forEach(p -> System.out.printf("%-6s %-48s %s%n",
+                    p.row.queueManager, p.row.connectionId, p.row.fullConnTag));
+            }
+        }
+    }
+
+    /**
+     * Correlates one snapshot. Server connections of other applications are counted but not
+     * reported as orphans; a server HCONN is "ours" if its APPLTAG is in {@code applTags} or
+     * matches a client row's application tag.
+     */
+    public static CorrelationResult correlate(Collection<ClientRow> clientRows,
+                                              Collection<PCFUtils.ConnectionDetails> serverConnections,
+                                              Set<String> applTags) {
+        long start = System.nanoTime();
+        CorrelationResult result = new CorrelationResult();
+
+        // Build side: index client parents by CONNECTION_ID and by CONNTAG
+        int capacity = Math.max(16, clientRows.size() * 4 / 3);
+        Map<ConnectionKey, ClientParent> byConnectionId = new HashMap<>(capacity);
+        Map<ConnectionKey, ClientParent> byConnTag = new HashMap<>(capacity);
+        Map<Long, ClientParent> bySequence = new HashMap<>(capacity);
+        Set<String> ourTags = new HashSet<>(applTags);
+
+        for (ClientRow row : clientRows) {
+            if (!row.isParent()) {
+                continue;
+            }
+            ClientParent parent = new ClientParent(row);
+            ConnectionKey idKey = ConnectionKey.of(row.connectionId);
+            ConnectionKey tagKey = ConnectionKey.of(row.fullConnTag);
+            if (idKey != null) {
+                byConnectionId.put(idKey, parent);
+            }
+            if (tagKey != null && tagKey.isParsed()) {
+                byConnTag.put(tagKey, parent);
+            }
+            bySequence.put(row.connection, parent);
+            if (row.applicationTag != null) {
+                ourTags.add(row.applicationTag);
+            }
+            result.clientParents++;
+        }
+        for (ClientRow row : clientRows) {
+            if (!row.isParent()) {
+                ClientParent parent = bySequence.get(row.connection);
+                if (parent != null) {
+                    parent.sessions.add(row);
+                    result.clientSessions++;
+                }
+            }
+        }
+
+        // Probe side: one lookup (two at most) per server HCONN
+        for (PCFUtils.ConnectionDetails server : serverConnections) {
+            result.serverConnections++;
+            ClientParent parent = byConnectionId.get(ConnectionKey.of(server.connectionId));
+            if (parent != null) {
+                parent.server = server;
+                result.attributions.add(new Attribution(server, Role.PARENT, parent));
+                continue;
+            }
+            ConnectionKey tagKey = ConnectionKey.of(server.connectionTag);
+            parent = tagKey != null ? byConnTag.get(tagKey) : null;
+            if (parent != null) {
+                parent.serverSessions.add(server);
+                result.attributions.add(new Attribution(server, Role.SESSION, parent));
+                continue;
+            }
+            if (ourTags.contains(trim(server.appTag))) {
+                result.serverOrphans.add(server);
+                result.attributions.add(new Attribution(server, Role.ORPHAN, null));
+            } else {
+                result.foreignConnections++;
+            }
+        }
+
+        for (ClientParent parent : byConnectionId.values()) {
+            if (parent.server == null) {
+                result.clientOrphans.add(parent);
+                continue;
+            }
+            String serverQm = parent.server.queueManager;
+            if (parent.row.queueManager != null && serverQm != null && !parent.row.queueManager.equals(serverQm)) {
+                result.mismatches.add(new Mismatch(MismatchType.QM_MISMATCH, parent, parent.row.queueManager, serverQm));
+            }
+            // MQ truncates APPLTAG to 28 characters
+            String clientTag = parent.row.applicationTag;
+            String serverTag = trim(parent.server.appTag);
+            if (clientTag != null && serverTag != null && !serverTag.isEmpty() && !clientTag.startsWith(serverTag)) {
+                result.mismatches.add(new Mismatch(MismatchType.APPLTAG_MISMATCH, parent, clientTag, serverTag));
+            }
+            if (parent.serverSessions.size() != parent.sessions.size()) {
+                result.mismatches.add(new Mismatch(MismatchType.SESSION_COUNT, parent,
+                    String.valueOf(parent.sessions.size()), String.valueOf(parent.serverSessions.size())));
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // ---------- Inputs ----------
+
+    public static List<ClientRow> readClientFile(String path) throws Exception {
+        List<ClientRow> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            readRows(reader, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Fetches every page of /api/failover/connections/export, following X-Next-Cursor.
+     */
+    public static List<ClientRow> fetchClientRows(String exportUrl) throws Exception {
+        List<ClientRow> rows = new ArrayList<>();
+        String cursor = "0";
+        while (cursor != null) {
+            String separator = exportUrl.contains("?") ? "&" : "?";
+            HttpURLConnection http = (HttpURLConnection) new URL(exportUrl + separator + "format=JSONL&cursor=" + cursor).openConnection();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(http.getInputStream(), StandardCharsets.UTF_8))) {
+                readRows(reader, rows);
+            }
+            cursor = http.getHeaderField("X-Next-Cursor");
+            http.disconnect();
+        }
+        return rows;
+    }
+
+    private static void readRows(BufferedReader reader, List<ClientRow> rows) throws Exception {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                rows.add(ClientRow.fromJson(new JSONObject(line)));
+            }
+        }
+    }
+
+    /**
+     * DIS CONN(*) on every QM in parallel; QMs that do not answer are reported and skipped.
+     */
+    public static List<PCFUtils.ConnectionDetails> snapshot(List<PCFAgentPool.Endpoint> cluster, long timeoutMillis) {
+        try (PCFClusterInquiry inquiry = new PCFClusterInquiry(cluster, timeoutMillis)) {
+            PCFClusterInquiry.ClusterSnapshot snapshot = inquiry.snapshot(PCFClusterInquiry.Inquiry.CONNECTION);
+            snapshot.printSummary();
+            return snapshot.connections();
+        }
+    }
+
+    // ---------- Synthetic load ----------
+
+    /**
+     * Builds a matching client export and PCF snapshot: parents with {@code sessionsPerParent}
+     * sessions spread over QM1-QM3, plus a few orphans and QM mismatches on each side.
+     */
+    static Object[] synthetic(int totalConnections, int sessionsPerParent) {
+        String[] qms = {"QM1", "QM2", "QM3"};
+        List<ClientRow> client = new ArrayList<>(totalConnections);
+        List<PCFUtils.ConnectionDetails> server = new ArrayList<>(totalConnections);
+        int parents = totalConnections / (sessionsPerParent + 1);
+        long handle = 0x8A11C06800000000L;
+
+        for (int p = 0; p < parents; p++) {
+            String qm = qms[p % qms.length];
+            String parentHandle = String.format("%016X", handle++);
+            String connTag = "MQCT" + parentHandle + qm + "_2025-09-05_02.13.42SYNTH-" + (p % 10);
+            String connectionId = connectionId(qm, parentHandle);
+
+            ClientRow row = new ClientRow();
+            row.type = "PARENT";
+            row.connection = p + 1;
+            row.connectionId = connectionId;
+            row.fullConnTag = connTag;
+            row.queueManager = (p % 5000 == 1) ? qms[(p + 1) % qms.length] : qm; // occasional QM mismatch
+            row.applicationTag = "SYNTH";
+            client.add(row);
+
+            boolean serverMissing = p % 10000 == 2;
+            if (!serverMissing) {
+                server.add(serverConnection(qm, connectionId, connTag));
+            }
+            for (int s = 1; s <= sessionsPerParent; s++) {
+                ClientRow session = new ClientRow();
+                session.type = "SESSION";
+                session.connection = p + 1;
+                session.session = s;
+                session.connectionId = connectionId;
+                session.fullConnTag = connTag;
+                session.queueManager = qm;
+                client.add(session);
+                if (!serverMissing) {
+                    server.add(serverConnection(qm, connectionId(qm, String.format("%016X", handle++)), connTag));
+                }
+            }
+        }
+        for (int i = 0; server.size() < totalConnections; i++) {
+            String qm = qms[i % qms.length];
+            String orphanHandle = String.format("%016X", handle++);
+            PCFUtils.ConnectionDetails orphan = serverConnection(qm, connectionId(qm, orphanHandle),
+                "MQCT" + orphanHandle + qm + "_2025-09-05_02.13.42SYNTH");
+            orphan.appTag = i % 2 == 0 ? "SYNTH" : "OTHER-APP";
+            server.add(orphan);
+        }
+        return new Object[] { client, server };
+    }
+
+    private static PCFUtils.ConnectionDetails serverConnection(String qm, String connectionId, String connTag) {
+        PCFUtils.ConnectionDetails c = new PCFUtils.ConnectionDetails();
+        c.queueManager = qm;
+        c.connectionId = connectionId;
+        c.connectionTag = asciiToHex(connTag);
+        c.appTag = "SYNTH                       ";
+        c.channelName = "APP.SVRCONN";
+        c.connectionName = "10.10.10.2(40000)";
+        return c;
+    }
+
+    private static String connectionId(String qm, String handle) {
+        return "414D5143" + asciiToHex(String.format("%-12s", qm)) + handle;
+    }
+
+    private static String asciiToHex(String s) {
+        StringBuilder sb = new StringBuilder(s.length() * 2);
+        for (int i = 0; i < s.length(); i++) {
+            sb.append(Character.forDigit(s.charAt(i) >> 4, 16)).append(Character.forDigit(s.charAt(i) & 0xF, 16));
+        }
+        return sb.toString().toUpperCase();
+    }
+
+    private static String trim(String s) {
+        return s == null ? null : s.trim();
+    }
+
+    // ---------- CLI ----------
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        String exportUrl = null;
+        String clientFile = null;
+        String channel = "APP.SVRCONN";
+        String user = "app";
+        String password = "passw0rd";
+        int synthetic = 0;
+        int maxRows = 20;
+        long timeoutMillis = 5000;
+        Set<String> applTags = new HashSet<>();
+        List<String> queueManagers = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--export-url":  exportUrl = args[++i]; break;
+                case "--client-file": clientFile = args[++i]; break;
+                case "--qm":          queueManagers.add(args[++i]); break;
+                case "--timeout-ms":  timeoutMillis = Long.parseLong(args[++i]); break;
+                case "--channel":     channel = args[++i]; break;
+                case "--user":        user = args[++i]; break;
+                case "--pass":        password = args[++i]; break;
+                case "--appltag":     applTags.add(args[++i]); break;
+                case "--synthetic":   synthetic = Integer.parseInt(args[++i]); break;
+                case "--max-rows":    maxRows = Integer.parseInt(args[++i]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown arg: " + args[i]);
+            }
+        }
+
+        if (synthetic > 0) {
+            Object[] data = synthetic(synthetic, 4);
+            List<ClientRow> client = (List<ClientRow>) data[0];
+            List<PCFUtils.ConnectionDetails> server = (List<PCFUtils.ConnectionDetails>) data[1];
+            CorrelationResult result = null;
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                result = correlate(client, server, applTags);
+                best = Math.min(best, result.elapsedNanos);
+            }
+            result.printReport(maxRows);
+            System.out.printf("%nSynthetic %d HCONNs / %d client rows: best of 5 runs %.1f ms%n",
+                server.size(), client.size(), best / 1_000_000.0);
+            return;
+        }
+
+        List<PCFAgentPool.Endpoint> cluster = new ArrayList<>();
+        for (String spec : queueManagers) {
+            cluster.add(PCFClusterInquiry.parseEndpoint(spec, channel, user, password));
+        }
+        if (cluster.isEmpty()) {
+            cluster = PCFClusterInquiry.defaultCluster(channel, user, password);
+        }
+        List<ClientRow> client = clientFile != null ? readClientFile(clientFile)
+            : fetchClientRows(exportUrl != null ? exportUrl : "http://localhost:8080/api/failover/connections/export");
+        List<PCFUtils.ConnectionDetails> server = snapshot(cluster, timeoutMillis);
+
+        correlate(client, server, applTags).printReport(maxRows);
+    }
+}
@@ -26,8 +26,7 @@ public class PCFCorrelationMonitor {
     private static PrintWriter logWriter;
     private static String appTag;
     private static String timestamp;
-    private static MQQueueManager queueManager;
-    private static PCFMessageAgent pcfAgent;
+    private static PCFAgentPool.Endpoint pcfEndpoint;
     
     // Store correlation data
     private static Map<String, ConnectionInfo> jmsConnections = new HashMap<>();
@@ -164,12 +163,7 @@ public class PCFCorrelationMonitor {
             log("\nPHASE 7: CLEANUP");
             log("================");
             
-            if (pcfAgent != null) {
-                pcfAgent.disconnect();
-            }
-            if (queueManager != null && queueManager.isConnected()) {
-                queueManager.disconnect();
-            }
+            log(PCFAgentPool.shared().stats());
             
             for (MessageProducer producer : producers) {
                 producer.close();
@@ -223,15 +217,9 @@ public class PCFCorrelationMonitor {
     
     private static void connectToQueueManager() throws Exception {
         // Connect directly to queue manager for PCF
-        Hashtable<String, Object> props = new Hashtable<>();
-        props.put(CMQC.CHANNEL_PROPERTY, CHANNEL_NAME);
-        props.put(CMQC.HOST_NAME_PROPERTY, HOST_NAME);
-        props.put(CMQC.PORT_PROPERTY, PORT);
-        props.put(CMQC.USER_ID_PROPERTY, "app");
-        props.put(CMQC.PASSWORD_PROPERTY, "passw0rd");
-        
-        queueManager = new MQQueueManager(QUEUE_MANAGER, props);
-        pcfAgent = new PCFMessageAgent(queueManager);
+        pcfEndpoint = PCFAgentPool.Endpoint.client(QUEUE_MANAGER, HOST_NAME, PORT, CHANNEL_NAME, "app", "passw0rd");
+        // Connect once up front; the queries below reuse the pooled agent
+        PCFAgentPool.shared().acquire(pcfEndpoint).close();
         
         log("PCF Agent connected to Queue Manager: " + QUEUE_MANAGER);
     }
@@ -250,7 +238,7 @@ public class PCFCorrelationMonitor {
             });
             
             // Send request
-            PCFMessage[] responses = pcfAgent.send(request);
+            PCFMessage[] responses = PCFAgentPool.shared().send(pcfEndpoint, request);
             
             log("Total connections found: " + responses.length);
             
@@ -324,7 +312,7 @@ public class PCFCorrelationMonitor {
             PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS);
             request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, CHANNEL_NAME);
             
-            PCFMessage[] responses = pcfAgent.send(request);
+            PCFMessage[] responses = PCFAgentPool.shared().send(pcfEndpoint, request);
             
             log("Channel instances found: " + responses.length);
             
@@ -362,7 +350,7 @@ public class PCFCorrelationMonitor {
         try {
             PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_MGR);
             
-            PCFMessage[] responses = pcfAgent.send(request);
+            PCFMessage[] responses = PCFAgentPool.shared().send(pcfEndpoint, request);
             
             if (responses.length > 0) {
                 PCFMessage response = responses[0];
@@ -397,7 +385,7 @@ public class PCFCorrelationMonitor {
             request.addParameter(CMQC.MQCA_Q_NAME, QUEUE_NAME);
             request.addParameter(CMQC.MQIA_Q_TYPE, CMQC.MQQT_LOCAL);
             
-            PCFMessage[] responses = pcfAgent.send(request);
+            PCFMessage[] responses = PCFAgentPool.shared().send(pcfEndpoint, request);
             
             if (responses.length > 0) {
                 PCFMessage response = responses[0];
@@ -0,0 +1,247 @@
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.pcf.PCFMessage;
+
+import java.util.*;
+
+/**
+ * Before/after benchmark for server-side filtering and attribute projection of DIS CONN.
+ *
+ *   BEFORE: DIS CONN(*) ALL, then compare APPLTAG in Java (previous getConnectionsByAppTag)
+ *   AFTER : DIS CONN(*) WHERE(APPLTAG EQ 'tag') with CONNECTION_SUMMARY_ATTRS only
+ *
+ * Reports reply count, reply bytes (PCFMessage.size()), round trip and decode time.
+ *
+ * Usage:
+ *   Live QM:   java -cp "libs/*:." PCFFilterBenchmark --qm QM1:10.10.10.10:1414 --appltag MYAPP [--iterations 10]
+ *   Offline:   java -cp "libs/*:." PCFFilterBenchmark --synthetic 20000 --matching 100 [--iterations 20]
+ *
+ * The offline mode builds DIS CONN replies shaped like a real queue manager's (the ALL reply
+ * carries UOW ids, dates and options as well) so the cost of decoding can be compared without a QM.
+ */
+public class PCFFilterBenchmark {
+
+    static class Measurement {
+        final String name;
+        int replies;
+        long bytes;
+        long roundTripNanos;
+        long decodeNanos;
+        int matched;
+
+        Measurement(String name) {
+            this.name = name;
+        }
+
+        void print(int iterations) {
+            System.out.printf("%-42s replies=%-7d bytes=%-10d round-trip=%8.2f ms  decode=%8.3f ms  matched=%d%n",
+                name, replies, bytes, roundTripNanos / 1e6 / iterations, decodeNanos / 1e6 / iterations, matched);
+        }
+    }
+
+    // ---------- Live ----------
+
+    static Measurement liveBefore(PCFAgentPool.Endpoint endpoint, String appTag, int iterations) throws Exception {
+        Measurement m = new Measurement("BEFORE  ALL + client-side APPLTAG filter");
+        for (int i = 0; i < iterations; i++) {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+            request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
+            request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
+
+            long start = System.nanoTime();
+            PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
+            long received = System.nanoTime();
+            m.matched = decodeMatching(responses, appTag, endpoint.queueManager).size();
+            m.decodeNanos += System.nanoTime() - received;
+            m.roundTripNanos += received - start;
+            m.replies = responses.length;
+            m.bytes = bytes(responses);
+        }
+        return m;
+    }
+
+    static Measurement liveAfter(PCFAgentPool.Endpoint endpoint, String appTag, int iterations) throws Exception {
+        Measurement m = new Measurement("AFTER   WHERE(APPLTAG EQ) + projected attrs");
+        for (int i = 0; i < iterations; i++) {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+            request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
+            request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, PCFUtils.CONNECTION_SUMMARY_ATTRS);
+            request.addFilterParameter(CMQCFC.MQCACF_APPL_TAG, CMQCFC.MQCFOP_EQUAL, appTag);
+
+            long start = System.nanoTime();
+            PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
+            long received = System.nanoTime();
+            m.matched = decodeAll(responses, endpoint.queueManager).size();
+            m.decodeNanos += System.nanoTime() - received;
+            m.roundTripNanos += received - start;
+            m.replies = responses.length;
+            m.bytes = bytes(responses);
+        }
+        return m;
+    }
+
+    // ---------- Decode ----------
+
+    static List<PCFUtils.ConnectionDetails> decodeMatching(PCFMessage[] responses, String appTag, String qm) {
+        List<PCFUtils.ConnectionDetails> connections = new ArrayList<>();
+        for (PCFMessage response : responses) {
+            try {
+                String connAppTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
+                if (connAppTag != null && connAppTag.trim().equals(appTag)) {
+                    connections.add(PCFUtils.toConnectionDetails(response, qm));
+                }
+            } catch (Exception e) {
+                // Skip problematic connections
+            }
+        }
+        return connections;
+    }
+
+    static List<PCFUtils.ConnectionDetails> decodeAll(PCFMessage[] responses, String qm) {
+        List<PCFUtils.ConnectionDetails> connections = new ArrayList<>(responses.length);
+        for (PCFMessage response : responses) {
+            try {
+                connections.add(PCFUtils.toConnectionDetails(response, qm));
+            } catch (Exception e) {
+                // Skip problematic connections
+            }
+        }
+        return connections;
+    }
+
+    static long bytes(PCFMessage[] responses) {
+        long total = 0;
+        for (PCFMessage response : responses) {
+            total += response.size();
+        }
+        return total;
+    }
+
+    // ---------- Synthetic replies ----------
+
+    /**
+     * One DIS CONN reply. {@code all} adds the attributes MQIACF_ALL returns beyond the projection.
+     */
+    static PCFMessage reply(int index, String appTag, boolean all, boolean last) {
+        PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_INQUIRE_CONNECTION, index + 1, last);
+        byte[] connectionId = new byte[24];
+        byte[] connTag = new byte[128];
+        for (int i = 0; i < 8; i++) {
+            connectionId[16 + i] = (byte) (index >>> (8 * (7 - i)));
+        }
+        System.arraycopy("AMQCQM1         ".getBytes(), 0, connectionId, 0, 16);
+        System.arraycopy(String.format("MQCT%016XQM1_2025-09-05_02.13.42%s", (long) index, appTag).getBytes(), 0, connTag, 0,
+            Math.min(128, 39 + appTag.length()));
+
+        m.addParameter(CMQCFC.MQBACF_CONNECTION_ID, connectionId);
+        m.addParameter(CMQCFC.MQCACF_APPL_TAG, pad(appTag, 28));
+        m.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, pad("APP.SVRCONN", 20));
+        m.addParameter(CMQCFC.MQCACH_CONNECTION_NAME, pad("10.10.10.2(" + (40000 + index % 20000) + ")", 264));
+        m.addParameter(CMQCFC.MQCACF_USER_IDENTIFIER, pad("app", 12));
+        m.addParameter(CMQCFC.MQIACF_PROCESS_ID, 4242);
+        m.addParameter(CMQCFC.MQIACF_THREAD_ID, index % 64);
+        m.addParameter(CMQCFC.MQBACF_CONN_TAG, connTag);
+        if (all) {
+            m.addParameter(CMQCFC.MQBACF_EXTERNAL_UOW_ID, new byte[128]);
+            m.addParameter(CMQCFC.MQBACF_ORIGIN_UOW_ID, new byte[128]);
+            m.addParameter(CMQCFC.MQBACF_Q_MGR_UOW_ID, new byte[16]);
+            m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_DATE, pad("", 12));
+            m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_TIME, pad("", 8));
+            m.addParameter(CMQCFC.MQCACF_UOW_START_DATE, pad("", 12));
+            m.addParameter(CMQCFC.MQCACF_UOW_START_TIME, pad("", 8));
+            m.addParameter(CMQC.MQIA_APPL_TYPE, CMQC.MQAT_JAVA);
+            m.addParameter(CMQCFC.MQIACF_CONNECT_OPTIONS, 0x40);
+            m.addParameter(CMQCFC.MQIACF_UOW_STATE, 0);
+            m.addParameter(CMQCFC.MQIACF_UOW_TYPE, 0);
+            m.addParameter(CMQCFC.MQIACF_ASYNC_STATE, 0);
+            m.addParameter(CMQCFC.MQIACF_CONN_INFO_TYPE, CMQCFC.MQIACF_CONN_INFO_CONN);
+        }
+        return m;
+    }
+
+    private static String pad(String s, int length) {
+        StringBuilder sb = new StringBuilder(length).append(s);
+        while (sb.length() < length) sb.append(' ');
+        return sb.toString();
+    }
+
+    static void synthetic(int total, int matching, int iterations) {
+        String tag = "BENCH-TARGET";
+        PCFMessage[] all = new PCFMessage[total];
+        int stride = Math.max(1, total / Math.max(1, matching));
+        for (int i = 0; i < total; i++) {
+            all[i] = reply(i, i % stride == 0 && i / stride < matching ? tag : "OTHER-" + (i % 50), true, i == total - 1);
+        }
+        List<PCFMessage> filtered = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (i % stride == 0 && i / stride < matching) {
+                filtered.add(reply(i, tag, false, false));
+            }
+        }
+        PCFMessage[] projected = filtered.toArray(new PCFMessage[0]);
+
+        // Warm up both paths before timing
+        for (int i = 0; i < 5; i++) {
+            decodeMatching(all, tag, "QM1");
+            decodeAll(projected, "QM1");
+        }
+
+        Measurement before = new Measurement("BEFORE  ALL + client-side APPLTAG filter");
+        Measurement after = new Measurement("AFTER   WHERE(APPLTAG EQ) + projected attrs");
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            before.matched = decodeMatching(all, tag, "QM1").size();
+            before.decodeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            after.matched = decodeAll(projected, "QM1").size();
+            after.decodeNanos += System.nanoTime() - start;
+        }
+        before.replies = all.length;
+        before.bytes = bytes(all);
+        after.replies = projected.length;
+        after.bytes = bytes(projected);
+
+        System.out.printf("Synthetic QM: %d connections, %d with the target APPLTAG, %d iterations%n", total, matching, iterations);
+        before.print(iterations);
+        after.print(iterations);
+        System.out.printf("Bytes: %.1fx less, decode: %.1fx faster%n",
+            (double) before.bytes / Math.max(1, after.bytes), (double) before.decodeNanos / Math.max(1, after.decodeNanos));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String qm = null;
+        String appTag = null;
+        int synthetic = 0;
+        int matching = 100;
+        int iterations = 10;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--qm":         qm = args[++i]; break;
+                case "--appltag":    appTag = args[++i]; break;
+                case "--synthetic":  synthetic = Integer.parseInt(args[++i]); break;
+                case "--matching":   matching = Integer.parseInt(args[++i]); break;
+                case "--iterations": iterations = Integer.parseInt(args[++i]); break;
+                default:
+                    throw new IllegalArgumentException("Unknown arg: " + args[i]);
+            }
+        }
+
+        if (synthetic > 0) {
+            synthetic(synthetic, matching, iterations);
+            return;
+        }
+        if (qm == null || appTag == null) {
+            System.out.println("Usage: PCFFilterBenchmark --qm NAME:host:port --appltag TAG | --synthetic N [--matching M]");
+            return;
+        }
+
+        PCFAgentPool.Endpoint endpoint = PCFClusterInquiry.parseEndpoint(qm, "APP.SVRCONN", "app", "passw0rd");
+        liveBefore(endpoint, appTag, 1);
+        liveAfter(endpoint, appTag, 1);
+        liveBefore(endpoint, appTag, iterations).print(iterations);
+        liveAfter(endpoint, appTag, iterations).print(iterations);
+        System.out.println(PCFAgentPool.shared().stats());
+    }
+}
@@ -0,0 +1,349 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Embedded time-series store for the monitors, in one fixed-size memory-mapped file.
+ *
+ * Every series (e.g. "qm.connections/QM1") owns three ring buffers:
+ *   SECOND  1s slots,  {@code pcf.metrics.secondSlots} (default 900, 15 minutes)
+ *   MINUTE  1m slots,  {@code pcf.metrics.minuteSlots} (default 1440, 24 hours)
+ *   HOUR    1h slots,  {@code pcf.metrics.hourSlots}   (default 336, 14 days)
+ * A sample is folded into the current slot of all three rings (count, sum, min, max), so the
+ * coarser rings are the downsampled history and nothing has to be rolled up later. A slot
+ * remembers its period; a slot left over from an earlier lap of the ring reads as empty.
+ *
+ * The file is sized once from {@code pcf.metrics.maxSeries} (default 1024) and never grows:
+ * 1024 series take about 64 MB, which holds a 12-QM cluster's connection counts, channel
+ * message counts, queue depths and per-APPLTAG sessions for two weeks. Samples for series
+ * beyond maxSeries are dropped and counted. Reopening the file continues the same rings;
+ * the sizes stored in an existing file win over the system properties.
+ *
+ * Usage:
+ *   PCFMetricStore store = PCFMetricStore.open(Paths.get("PCF_MONITOR.metrics"));
+ *   store.record(PCFMetricStore.connections("QM1"), System.currentTimeMillis(), 42);
+ *   List<PCFMetricStore.Point> points = store.query(PCFMetricStore.connections("QM1"), from, to);
+ *
+ *   java PCFMetricStore PCF_MONITOR.metrics                         # list series
+ *   java PCFMetricStore PCF_MONITOR.metrics qm.connections/QM1 -6h  # points, resolution picked from range
+ *   java PCFMetricStore PCF_MONITOR.metrics qm.connections/QM1 -7d now HOUR
+ */
+public final class PCFMetricStore implements Closeable {
+
+    public enum Resolution {
+        SECOND(1), MINUTE(60), HOUR(3600);
+
+        public final int seconds;
+
+        Resolution(int seconds) {
+            this.seconds = seconds;
+        }
+    }
+
+    public static class Point {
+        public final long timeMillis;
+        public final int count;
+        public final double min;
+        public final double max;
+        public final double avg;
+
+        Point(long timeMillis, int count, double min, double max, double sum) {
+            this.timeMillis = timeMillis;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.avg = sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s avg=%.2f min=%.0f max=%.0f n=%d",
+                new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(timeMillis)), avg, min, max, count);
+        }
+    }
+
+    private static final int MAGIC = 0x50434D54; // "PCMT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int NAME_BYTES = 128;
+    // int period (+1, 0 = empty), int count, float min, float max, double sum
+    private static final int SLOT_BYTES = 24;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int maxSeries;
+    private final int[] slots = new int[Resolution.values().length];
+    private final long baseEpochSecond;
+    private final int seriesBytes;
+    private final int dataOffset;
+    private final Map<String, Integer> index = new HashMap<>();
+    private long droppedSamples;
+
+    private PCFMetricStore(Path file, int maxSeries, int secondSlots, int minuteSlots, int hourSlots) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean existing = channel.size() >= HEADER_BYTES;
+        if (existing) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                channel.close();
+                throw new IOException(file + " is not a metric store");
+            }
+            maxSeries = header.getInt();
+            secondSlots = header.getInt();
+            minuteSlots = header.getInt();
+            hourSlots = header.getInt();
+            this.baseEpochSecond = header.getLong();
+        } else {
+            this.baseEpochSecond = System.currentTimeMillis() / 1000 / Resolution.HOUR.seconds * Resolution.HOUR.seconds;
+        }
+        this.maxSeries = maxSeries;
+        slots[Resolution.SECOND.ordinal()] = secondSlots;
+        slots[Resolution.MINUTE.ordinal()] = minuteSlots;
+        slots[Resolution.HOUR.ordinal()] = hourSlots;
+        this.seriesBytes = (secondSlots + minuteSlots + hourSlots) * SLOT_BYTES;
+        this.dataOffset = HEADER_BYTES + maxSeries * NAME_BYTES;
+
+        long size = (long) dataOffset + (long) maxSeries * seriesBytes;
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Metric store of " + size + " bytes exceeds 2 GB; lower pcf.metrics.maxSeries or slot counts");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (existing) {
+            loadDirectory();
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, maxSeries);
+            buffer.putInt(12, secondSlots);
+            buffer.putInt(16, minuteSlots);
+            buffer.putInt(20, hourSlots);
+            buffer.putLong(24, baseEpochSecond);
+        }
+    }
+
+    /**
+     * Opens or creates the store, sized from the pcf.metrics.* system properties.
+     */
+    public static PCFMetricStore open(Path file) throws IOException {
+        return new PCFMetricStore(file,
+            Integer.getInteger("pcf.metrics.maxSeries", 1024),
+            Integer.getInteger("pcf.metrics.secondSlots", 900),
+            Integer.getInteger("pcf.metrics.minuteSlots", 1440),
+            Integer.getInteger("pcf.metrics.hourSlots", 336));
+    }
+
+    public static PCFMetricStore open(Path file, int maxSeries, int secondSlots, int minuteSlots, int hourSlots)
+            throws IOException {
+        return new PCFMetricStore(file, maxSeries, secondSlots, minuteSlots, hourSlots);
+    }
+
+    // Series names used by the monitors
+
+    public static String connections(String queueManager) {
+        return "qm.connections/" + queueManager;
+    }
+
+    public static String channelMessages(String queueManager, String channel) {
+        return "channel.msgs/" + queueManager + "/" + channel;
+    }
+
+    public static String queueDepth(String queueManager, String queue) {
+        return "queue.depth/" + queueManager + "/" + queue;
+    }
+
+    public static String applTagSessions(String queueManager, String applTag) {
+        return "appltag.sessions/" + queueManager + "/" + applTag;
+    }
+
+    /**
+     * Folds one sample into the 1s, 1m and 1h slots covering {@code timeMillis}.
+     */
+    public synchronized void record(String series, long timeMillis, double value) {
+        long offsetSeconds = timeMillis / 1000 - baseEpochSecond;
+        Integer id = seriesId(series);
+        if (id == null || offsetSeconds < 0) {
+            droppedSamples++;
+            return;
+        }
+        int ringOffset = dataOffset + id * seriesBytes;
+        for (Resolution resolution : Resolution.values()) {
+            int ringSlots = slots[resolution.ordinal()];
+            long period = offsetSeconds / resolution.seconds;
+            int position = ringOffset + (int) (period % ringSlots) * SLOT_BYTES;
+            int stamp = (int) period + 1;
+            if (buffer.getInt(position) != stamp) {
+                buffer.putInt(position, stamp);
+                buffer.putInt(position + 4, 1);
+                buffer.putFloat(position + 8, (float) value);
+                buffer.putFloat(position + 12, (float) value);
+                buffer.putDouble(position + 16, value);
+            } else {
+                buffer.putInt(position + 4, buffer.getInt(position + 4) + 1);
+                buffer.putFloat(position + 8, Math.min(buffer.getFloat(position + 8), (float) value));
+                buffer.putFloat(position + 12, Math.max(buffer.getFloat(position + 12), (float) value));
+                buffer.putDouble(position + 16, buffer.getDouble(position + 16) + value);
+            }
+            ringOffset += ringSlots * SLOT_BYTES;
+        }
+    }
+
+    /**
+     * Points in [fromMillis, toMillis) at the finest resolution whose ring still covers fromMillis.
+     */
+    public List<Point> query(String series, long fromMillis, long toMillis) {
+        long age = System.currentTimeMillis() - fromMillis;
+        for (Resolution resolution : Resolution.values()) {
+            if (age <= (long) slots[resolution.ordinal()] * resolution.seconds * 1000) {
+                return query(series, fromMillis, toMillis, resolution);
+            }
+        }
+        return query(series, fromMillis, toMillis, Resolution.HOUR);
+    }
+
+    public synchronized List<Point> query(String series, long fromMillis, long toMillis, Resolution resolution) {
+        List<Point> points = new ArrayList<>();
+        Integer id = index.get(series);
+        if (id == null) {
+            return points;
+        }
+        int ringOffset = dataOffset + id * seriesBytes;
+        for (Resolution r : Resolution.values()) {
+            if (r == resolution) {
+                break;
+            }
+            ringOffset += slots[r.ordinal()] * SLOT_BYTES;
+        }
+        int ringSlots = slots[resolution.ordinal()];
+        long first = Math.max(0, Math.floorDiv(fromMillis / 1000 - baseEpochSecond, resolution.seconds));
+        long last = Math.floorDiv((toMillis - 1) / 1000 - baseEpochSecond, resolution.seconds);
+        // Only the newest lap of the ring can still be present
+        first = Math.max(first, last - ringSlots + 1);
+        for (long period = first; period <= last; period++) {
+            int position = ringOffset + (int) (period % ringSlots) * SLOT_BYTES;
+            if (buffer.getInt(position) != (int) period + 1) {
+                continue;
+            }
+            points.add(new Point((baseEpochSecond + period * resolution.seconds) * 1000,
+                buffer.getInt(position + 4), buffer.getFloat(position + 8), buffer.getFloat(position + 12),
+                buffer.getDouble(position + 16)));
+        }
+        return points;
+    }
+
+    public synchronized List<String> series() {
+        List<String> names = new ArrayList<>(index.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Samples dropped because the store already holds maxSeries series.
+     */
+    public synchronized long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Writes dirty pages to disk; the OS does this on its own too, this only bounds the loss on a crash.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private Integer seriesId(String series) {
+        Integer id = index.get(series);
+        if (id != null || index.size() >= maxSeries) {
+            return id;
+        }
+        byte[] name = series.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_BYTES - 2) {
+            return null;
+        }
+        id = index.size();
+        int position = HEADER_BYTES + id * NAME_BYTES;
+        buffer.putShort(position, (short) name.length);
+        for (int i = 0; i < name.length; i++) {
+            buffer.put(position + 2 + i, name[i]);
+        }
+        buffer.putInt(32, id + 1);
+        index.put(series, id);
+        return id;
+    }
+
+    private void loadDirectory() {
+        int count = buffer.getInt(32);
+        for (int id = 0; id < count; id++) {
+            int position = HEADER_BYTES + id * NAME_BYTES;
+            byte[] name = new byte[buffer.getShort(position)];
+            for (int i = 0; i < name.length; i++) {
+                name[i] = buffer.get(position + 2 + i);
+            }
+            index.put(new String(name, StandardCharsets.UTF_8), id);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: PCFMetricStore <file> [series [from] [to] [SECOND|MINUTE|HOUR]]");
+            System.out.println("  from/to: ISO instant, 'now' or relative like -15m, -6h, -7d (default -1h, now)");
+            return;
+        }
+        try (PCFMetricStore store = open(Paths.get(args[0]))) {
+            long now = System.currentTimeMillis();
+            if (args.length == 1) {
+                for (String series : store.series()) {
+                    List<Point> latest = store.query(series, now - 3600_000L, now + 1000, Resolution.MINUTE);
+                    System.out.println(series + (latest.isEmpty() ? "" : "  last: " + latest.get(latest.size() - 1)));
+                }
+                return;
+            }
+            long from = parseTime(args.length > 2 ? args[2] : "-1h", now);
+            long to = parseTime(args.length > 3 ? args[3] : "now", now) + 1000;
+            List<Point> points = args.length > 4
+                ? store.query(args[1], from, to, Resolution.valueOf(args[4].toUpperCase()))
+                : store.query(args[1], from, to);
+            for (Point point : points) {
+                System.out.println(point);
+            }
+            System.out.println(points.size() + " points");
+        }
+    }
+
+    private static long parseTime(String value, long now) {
+        if ("now".equalsIgnoreCase(value)) {
+            return now;
+        }
+        if (value.startsWith("-")) {
+            long amount = Long.parseLong(value.substring(1, value.length() - 1));
+            switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+                case 's': return now - amount * 1000;
+                case 'm': return now - amount * 60_000;
+                case 'h': return now - amount * 3600_000;
+                case 'd': return now - amount * 86_400_000;
+                default: throw new IllegalArgumentException("Unknown unit in " + value);
+            }
+        }
+        return java.time.Instant.parse(value).toEpochMilli();
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Adapts how often each PCF query runs instead of a fixed refresh for every monitor.
+ *
+ * Every query (a QM plus a name such as "DIS CONN") has its own interval:
+ *   - a poll that saw changes halves the interval, down to {@code pcf.poll.minMillis} (default 1000)
+ *   - each quiet poll grows it by half, up to {@code pcf.poll.maxMillis} (default 30000)
+ *   - when a QM stops answering, all other QMs are polled at the minimum for
+ *     {@code pcf.poll.failoverMillis} (default 60000), since that is when connections move; this
+ *     happens once per outage, on its first failed poll, after which they back off as usual until
+ *     the QM has answered again and fails anew. The failed QM itself backs off. Callers with their
+ *     own failover signal can call {@link #onFailover}
+ *   - the command server of each QM gets a budget ({@code pcf.poll.budget}, default 0.05): the
+ *     measured response times of all queries on a QM may use at most that fraction of wall time,
+ *     so big QMs whose DIS CONN takes seconds are never polled faster than they can afford
+ *
+ * Loops that poll several QMs per pass ask {@link #isDue} and report with {@link #completed} /
+ * {@link #failed}; independent queries can be handed to {@link #schedule} and run on the
+ * scheduler's own threads, one poll at a time per query.
+ *
+ * Usage:
+ *   PCFPollScheduler scheduler = PCFPollScheduler.fromSystemProperties(5000);
+ *   PCFPollScheduler.Query conns = scheduler.register("QM1", "DIS CONN");
+ *   while (true) {
+ *       if (scheduler.isDue(conns)) {
+ *           long start = System.nanoTime();
+ *           int changes = poll();
+ *           scheduler.completed(conns, System.nanoTime() - start, changes);
+ *       }
+ *       Thread.sleep(scheduler.millisUntilNextDue());
+ *   }
+ */
+public final class PCFPollScheduler implements AutoCloseable {
+
+    public interface Poll {
+        /** Runs the query and returns how many changes it saw since the previous poll. */
+        int poll() throws Exception;
+    }
+
+    public static final class Query {
+        public final String queueManager;
+        public final String name;
+        private long intervalMillis;
+        private long nextDueMillis;
+        private double latencyMillis = -1;
+        private long polls;
+        private long failures;
+        private int lastChanges;
+
+        private Query(String queueManager, String name, long intervalMillis) {
+            this.queueManager = queueManager;
+            this.name = name;
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%s %s every %.1fs (latency %.0fms, %d polls, %d failed, last %d changes)",
+                queueManager, name, intervalMillis / 1000.0, Math.max(0, latencyMillis), polls, failures, lastChanges);
+        }
+    }
+
+    // Weight of the newest response time in the moving average
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final double budget;
+    private final long failoverMillis;
+    private final long initialMillis;
+    private final List<Query> queries = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Long> failoverUntil = new ConcurrentHashMap<>();
+    // QMs whose last poll failed: the rest of the cluster was tightened when they went down
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService executor;
+
+    public PCFPollScheduler(long initialMillis, long minMillis, long maxMillis, double budget, long failoverMillis) {
+        this.initialMillis = initialMillis;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.budget = budget;
+        this.failoverMillis = failoverMillis;
+    }
+
+    public static PCFPollScheduler fromSystemProperties(long initialMillis) {
+        return new PCFPollScheduler(initialMillis,
+            Long.getLong("pcf.poll.minMillis", 1000),
+            Long.getLong("pcf.poll.maxMillis", 30000),
+            Double.parseDouble(System.getProperty("pcf.poll.budget", "0.05")),
+            Long.getLong("pcf.poll.failoverMillis", 60000));
+    }
+
+    public Query register(String queueManager, String name) {
+        Query query = new Query(queueManager, name, Math.max(minMillis, Math.min(maxMillis, initialMillis)));
+        queries.add(query);
+        return query;
+    }
+
+    public boolean isDue(Query query) {
+        synchronized (query) {
+            return System.currentTimeMillis() >= query.nextDueMillis;
+        }
+    }
+
+    public void completed(Query query, long latencyNanos, int changes) {
+        long now = System.currentTimeMillis();
+        failing.remove(query.queueManager);
+        synchronized (query) {
+            recordLatency(query, latencyNanos);
+            query.polls++;
+            query.lastChanges = changes;
+            long interval;
+            if (inFailover(query.queueManager, now)) {
+                interval = minMillis;
+            } else if (changes > 0) {
+                interval = query.intervalMillis / 2;
+            } else {
+                interval = query.intervalMillis + query.intervalMillis / 2;
+            }
+            query.intervalMillis = Math.max(budgetFloor(query), Math.max(minMillis, Math.min(maxMillis, interval)));
+            query.nextDueMillis = now + query.intervalMillis;
+        }
+    }
+
+    /**
+     * The QM did not answer: back off on it and, if it answered until now, watch the rest of the
+     * cluster closely, since its connections are about to reconnect there.
+     */
+    public void failed(Query query, long latencyNanos, Exception e) {
+        long now = System.currentTimeMillis();
+        synchronized (query) {
+            recordLatency(query, latencyNanos);
+            query.polls++;
+            query.failures++;
+            query.intervalMillis = Math.min(maxMillis, query.intervalMillis * 2);
+            query.nextDueMillis = now + query.intervalMillis;
+        }
+        if (!failing.add(query.queueManager)) {
+            // Still the same outage: the others were tightened already and may back off
+            return;
+        }
+        for (String qm : queueManagers()) {
+            if (!qm.equals(query.queueManager)) {
+                onFailover(qm);
+            }
+        }
+    }
+
+    /**
+     * Polls the QM (all QMs when null) at the minimum interval for the failover window, starting now.
+     */
+    public void onFailover(String queueManager) {
+        long now = System.currentTimeMillis();
+        for (Query query : queries) {
+            if (queueManager == null || queueManager.equals(query.queueManager)) {
+                failoverUntil.put(query.queueManager, now + failoverMillis);
+                tighten(query, now);
+            }
+        }
+    }
+
+    public long millisUntilNextDue() {
+        long now = System.currentTimeMillis();
+        long next = maxMillis;
+        for (Query query : queries) {
+            synchronized (query) {
+                next = Math.min(next, query.nextDueMillis - now);
+            }
+        }
+        return Math.max(0, next);
+    }
+
+    public long getIntervalMillis(Query query) {
+        synchronized (query) {
+            return query.intervalMillis;
+        }
+    }
+
+    /**
+     * Runs the query on the scheduler's threads, rescheduling it after each poll.
+     */
+    public synchronized void schedule(Query query, Poll poll) {
+        if (executor == null) {
+            executor = Executors.newScheduledThreadPool(Integer.getInteger("pcf.poll.threads", 4), r -> {
+                Thread t = new Thread(r, "pcf-poll");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        executor.execute(() -> run(query, poll));
+    }
+
+    public List<Query> getQueries() {
+        return Collections.unmodifiableList(queries);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run(Query query, Poll poll) {
+        long start = System.nanoTime();
+        try {
+            completed(query, System.nanoTime() - start, poll.poll());
+        } catch (Exception e) {
+            failed(query, System.nanoTime() - start, e);
+        }
+        synchronized (this) {
+            if (executor != null && !executor.isShutdown()) {
+                long delay;
+                synchronized (query) {
+                    delay = Math.max(0, query.nextDueMillis - System.currentTimeMillis());
+                }
+                executor.schedule(() -> run(query, poll), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void tighten(Query query, long now) {
+        synchronized (query) {
+            query.intervalMillis = Math.max(minMillis, budgetFloor(query));
+            query.nextDueMillis = Math.min(query.nextDueMillis, now + query.intervalMillis);
+        }
+    }
+
+    private boolean inFailover(String queueManager, long now) {
+        Long until = failoverUntil.get(queueManager);
+        return until != null && now < until;
+    }
+
+    private void recordLatency(Query query, long latencyNanos) {
+        double millis = latencyNanos / 1_000_000.0;
+        query.latencyMillis = query.latencyMillis < 0 ? millis
+            : query.latencyMillis + LATENCY_WEIGHT * (millis - query.latencyMillis);
+    }
+
+    /**
+     * Shortest interval that keeps the QM's command server within budget, with its share split
+     * evenly between the queries on that QM.
+     */
+    private long budgetFloor(Query query) {
+        if (query.latencyMillis <= 0 || budget <= 0) {
+            return 0;
+        }
+        int sharing = 0;
+        for (Query q : queries) {
+            if (q.queueManager.equals(query.queueManager)) {
+                sharing++;
+            }
+        }
+        return (long) Math.min(maxMillis, query.latencyMillis * sharing / budget);
+    }
+
+    private Set<String> queueManagers() {
+        Set<String> names = new TreeSet<>();
+        for (Query query : queries) {
+            names.add(query.queueManager);
+        }
+        return names;
+    }
+}
@@ -1,18 +1,40 @@
 import com.ibm.mq.*;
 import com.ibm.mq.constants.*;
 import com.ibm.mq.headers.pcf.*;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 import java.text.SimpleDateFormat;
 
 /**
  * PCF Realtime Monitor - Continuously monitors MQ connections using PCF
  * Filters by APPTAG and shows parent-child relationships in real-time
+ *
+ * Each refresh is fed through a PCFSnapshotDiffer; the console, the log file and the
+ * change counters subscribe to its ADDED/REMOVED/MOVED/CHANGED events. With "changes"
+ * as third argument only the events are printed instead of redrawing every connection,
+ * which is what to use on queue managers with thousands of connections.
+ *
+ * Each refresh also records connections per QM, APP.SVRCONN messages, local queue depths,
+ * sessions per APPLTAG and change counts into a PCFMetricStore ({@code -Dpcf.metrics.file},
+ * default PCF_MONITOR.metrics), a fixed-size file instead of a log that grows every refresh.
+ * Query it with: java PCFMetricStore PCF_MONITOR.metrics [series] [-6h]
+ *
+ * refreshSeconds is only the starting interval: a PCFPollScheduler polls each QM again sooner
+ * when its connections changed, less often while it is quiet, within its command-server budget,
+ * and closely for a while after another QM stopped answering. A QM that is not due keeps its
+ * previous connections in the display and in the differ.
+ *
+ * Usage: PCFRealtimeMonitor [tagFilter] [refreshSeconds] [changes]
  */
 public class PCFRealtimeMonitor {
     
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS");
-    private static PrintWriter logFile;
+    private static PCFMetricStore metrics;
+    private static final Map<PCFSnapshotDiffer.ChangeType, Integer> changeCounts =
+        new EnumMap<>(PCFSnapshotDiffer.ChangeType.class);
     
     static class ConnectionGroup {
         String appTag;
@@ -74,35 +96,92 @@ public class PCFRealtimeMonitor {
         if (args.length > 1) {
             refreshInterval = Integer.parseInt(args[1]);
         }
+        boolean changesOnly = args.length > 2 && "changes".equalsIgnoreCase(args[2]);
         
-        // Initialize logging
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        logFile = new PrintWriter(new FileWriter("PCF_MONITOR_" + timestamp + ".log"));
+        // Fixed-size metric history, continued across runs
+        String metricsFile = System.getProperty("pcf.metrics.file", "PCF_MONITOR.metrics");
+        metrics = PCFMetricStore.open(Paths.get(metricsFile));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                metrics.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + metricsFile + ": " + e.getMessage());
+            }
+        }));
         
         System.out.println("========================================");
         System.out.println(" PCF REALTIME CONNECTION MONITOR");
         System.out.println("========================================");
         System.out.println("Tag Filter: " + (tagFilter != null ? tagFilter : "ALL"));
-        System.out.println("Refresh Interval: " + refreshInterval + " seconds");
-        System.out.println("Log File: PCF_MONITOR_" + timestamp + ".log");
+        System.out.println("Refresh Interval: " + refreshInterval + " seconds (adaptive)");
+        System.out.println("Display: " + (changesOnly ? "changes only" : "full"));
+        System.out.println("Metrics File: " + metricsFile + " (" + metrics.series().size() + " series)");
         System.out.println("Press Ctrl+C to stop monitoring");
         System.out.println("========================================\n");
         
-        // Monitor loop
-        Map<String, ConnectionGroup> previousGroups = new HashMap<>();
+        // Change events instead of comparing full lists between refreshes
+        PCFSnapshotDiffer differ = new PCFSnapshotDiffer();
+        List<PCFSnapshotDiffer.ChangeEvent> changes = new ArrayList<>();
+        differ.subscribe(changes::add);
+        differ.subscribe(event -> changeCounts.merge(event.type, 1, Integer::sum));
+        if (changesOnly) {
+            // The first refresh is the baseline; print it as a count, not one ADDED line per connection
+            differ.subscribe(event -> {
+                if (differ.getPolls() > 1) {
+                    System.out.println("[" + dateFormat.format(new Date()) + "] " + event);
+                }
+            });
+        }
+        
+        // Per-QM poll intervals instead of one fixed refresh
+        PCFPollScheduler scheduler = PCFPollScheduler.fromSystemProperties(refreshInterval * 1000L);
+        Map<String, PCFPollScheduler.Query> polls = new LinkedHashMap<>();
+        for (int qmNum = 1; qmNum <= 3; qmNum++) {
+            polls.put("QM" + qmNum, scheduler.register("QM" + qmNum, "DIS CONN"));
+        }
+        Map<String, List<ConnectionDetail>> lastResults = new HashMap<>();
         
+        // Monitor loop
         while (true) {
             Map<String, ConnectionGroup> currentGroups = new HashMap<>();
+            List<String> unavailable = new ArrayList<>();
+            Map<String, Long> polled = new HashMap<>();
+            changes.clear();
+            differ.begin();
             
-            // Query each Queue Manager
+            // Query each Queue Manager that is due; the others keep their last result
             for (int qmNum = 1; qmNum <= 3; qmNum++) {
                 String qmName = "QM" + qmNum;
+                PCFPollScheduler.Query poll = polls.get(qmName);
                 
                 try {
-                    List<ConnectionDetail> connections = queryQueueManager(qmName, qmNum, tagFilter);
+                    List<ConnectionDetail> connections;
+                    if (scheduler.isDue(poll)) {
+                        long start = System.nanoTime();
+                        try {
+                            connections = queryQueueManager(qmName, qmNum, tagFilter);
+                            recordChannelAndQueueMetrics(qmName, qmNum);
+                        } catch (Exception e) {
+                            scheduler.failed(poll, System.nanoTime() - start, e);
+                            lastResults.remove(qmName);
+                            throw e;
+                        }
+                        polled.put(qmName, System.nanoTime() - start);
+                        recordConnectionMetrics(qmName, connections);
+                        lastResults.put(qmName, connections);
+                    } else {
+                        // Not polled: the differ carries its connections over like an unavailable QM
+                        unavailable.add(qmName);
+                        connections = lastResults.getOrDefault(qmName, Collections.emptyList());
+                    }
                     
                     // Group by application tag
                     for (ConnectionDetail conn : connections) {
+                        if (polled.containsKey(qmName)) {
+                            differ.observe(conn.connectionId, conn.queueManager, conn.applicationTag,
+                                conn.channelName, conn.connectionName, conn.userId, conn.pid, conn.tid);
+                        }
+                        
                         String tag = conn.applicationTag != null ? conn.applicationTag : "UNTAGGED";
                         
                         ConnectionGroup group = currentGroups.computeIfAbsent(tag, k -> {
@@ -118,9 +197,36 @@ public class PCFRealtimeMonitor {
                         group.lastSeen = new Date();
                     }
                 } catch (Exception e) {
+                    unavailable.add(qmName);
                     System.err.println("Error querying " + qmName + ": " + e.getMessage());
                 }
             }
+            differ.end(unavailable);
+            if (differ.getPolls() > 1) {
+                recordChangeMetrics(changes);
+            }
+            // Each polled QM's next interval depends on the changes seen on it
+            for (Map.Entry<String, Long> entry : polled.entrySet()) {
+                int qmChanges = 0;
+                for (PCFSnapshotDiffer.ChangeEvent event : changes) {
+                    if (entry.getKey().equals(event.queueManager) || entry.getKey().equals(event.previousQueueManager)) {
+                        qmChanges++;
+                    }
+                }
+                scheduler.completed(polls.get(entry.getKey()), entry.getValue(), differ.getPolls() > 1 ? qmChanges : 0);
+            }
+            
+            if (changesOnly) {
+                if (differ.getPolls() == 1) {
+                    System.out.println("[" + dateFormat.format(new Date()) + "] Tracking " + differ.size() + " connections");
+                }
+                Thread.sleep(Math.max(100, scheduler.millisUntilNextDue()));
+                continue;
+            }
+            if (polled.isEmpty()) {
+                Thread.sleep(Math.max(100, scheduler.millisUntilNextDue()));
+                continue;
+            }
             
             // Clear screen (Unix/Linux)
             System.out.print("\033[H\033[2J");
@@ -159,23 +265,7 @@ public class PCFRealtimeMonitor {
                         System.out.println("  " + conn);
                     }
                     
-                    // Check for changes
-                    ConnectionGroup previous = previousGroups.get(group.appTag);
-                    if (previous != null) {
-                        int diff = group.connections.size() - previous.connections.size();
-                        if (diff > 0) {
-                            System.out.println("  [+] " + diff + " new connection(s)");
-                        } else if (diff < 0) {
-                            System.out.println("  [-] " + Math.abs(diff) + " connection(s) closed");
-                        }
-                    } else {
-                        System.out.println("  [NEW] Group first seen");
-                    }
-                    
                     System.out.println();
-                    
-                    // Log to file
-                    logGroup(group);
                 }
             }
             
@@ -203,102 +293,91 @@ public class PCFRealtimeMonitor {
                 System.out.printf("  %s: %d connections (%.1f%%)\n", qm, count, percent);
             }
             
-            System.out.println("\nRefreshing in " + refreshInterval + " seconds...");
+            // Show what changed since the last refresh
+            System.out.println("\nChanges since last refresh: " + (differ.getPolls() == 1 ? "(first refresh)" : changes.size()));
+            for (PCFSnapshotDiffer.ChangeEvent event : changes.subList(0, Math.min(changes.size(), 20))) {
+                System.out.println("  " + event);
+            }
+            if (changes.size() > 20) {
+                System.out.println("  ... " + (changes.size() - 20) + " more");
+            }
+            System.out.println("Changes since start: " + changeCounts);
             
-            // Store for next iteration
-            previousGroups = currentGroups;
+            System.out.println("\nPolling:");
+            for (PCFPollScheduler.Query poll : scheduler.getQueries()) {
+                System.out.println("  " + poll);
+            }
             
-            // Wait for next refresh
-            Thread.sleep(refreshInterval * 1000);
+            // Wait until the next QM is due
+            Thread.sleep(Math.max(100, scheduler.millisUntilNextDue()));
         }
     }
     
     private static List<ConnectionDetail> queryQueueManager(String qmName, int qmNum, String tagFilter) throws Exception {
         List<ConnectionDetail> connections = new ArrayList<>();
-        PCFMessageAgent agent = null;
-        MQQueueManager qmgr = null;
+        // Agents are pooled per QM, so each refresh is a request/response on an open connection
+        PCFAgentPool.Endpoint endpoint = PCFAgentPool.Endpoint.client(
+            qmName, "10.10.10." + (9 + qmNum), 1414, "APP.SVRCONN", "app", "passw0rd");
         
-        try {
-            // Connect to QM
-            Hashtable<String, Object> props = new Hashtable<>();
-            props.put(CMQC.HOST_NAME_PROPERTY, "10.10.10." + (9 + qmNum));
-            props.put(CMQC.PORT_PROPERTY, 1414);
-            props.put(CMQC.CHANNEL_PROPERTY, "APP.SVRCONN");
-            props.put(CMQC.USER_ID_PROPERTY, "app");
-            props.put(CMQC.PASSWORD_PROPERTY, "passw0rd");
-            props.put(CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
-            
-            qmgr = new MQQueueManager(qmName, props);
-            agent = new PCFMessageAgent(qmgr);
-            
-            // Create PCF request
-            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
-            request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, "APP.SVRCONN");
-            request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
-            
-            // Send request
-            PCFMessage[] responses = agent.send(request);
+        // Create PCF request
+        PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+        request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, "APP.SVRCONN");
+        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
+        
+        // Send request
+        PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
+        
+        // Process responses
+        for (PCFMessage response : responses) {
+            ConnectionDetail conn = new ConnectionDetail();
+            conn.queueManager = qmName;
             
-            // Process responses
-            for (PCFMessage response : responses) {
-                ConnectionDetail conn = new ConnectionDetail();
-                conn.queueManager = qmName;
+            try {
+                // Get connection ID
+                byte[] connIdBytes = response.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID);
+                conn.connectionId = bytesToHex(connIdBytes);
                 
+                // Get app tag
                 try {
-                    // Get connection ID
-                    byte[] connIdBytes = response.getByteParameterValue(CMQCFC.MQBACF_CONNECTION_ID);
-                    conn.connectionId = bytesToHex(connIdBytes);
-                    
-                    // Get app tag
-                    try {
-                        conn.applicationTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
-                    } catch (PCFException e) {
-                        // No app tag
-                    }
-                    
-                    // Apply filter
-                    if (tagFilter != null && (conn.applicationTag == null || 
-                        !conn.applicationTag.startsWith(tagFilter))) {
-                        continue;
-                    }
-                    
-                    // Get other attributes
-                    try { 
-                        conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME); 
-                    } catch (PCFException e) {}
-                    
-                    try { 
-                        conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME); 
-                    } catch (PCFException e) {}
-                    
-                    try { 
-                        conn.userId = response.getStringParameterValue(CMQCFC.MQCACH_USER_ID); 
-                    } catch (PCFException e) {}
-                    
-                    try { 
-                        conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID); 
-                    } catch (PCFException e) {}
-                    
-                    try { 
-                        conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID); 
-                    } catch (PCFException e) {}
-                    
-                    // Try to determine if parent (heuristic: first connection in a group)
-                    conn.isParent = false; // Will be determined by grouping logic
-                    
-                    connections.add(conn);
-                    
+                    conn.applicationTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
                 } catch (PCFException e) {
-                    // Skip connections without required fields
+                    // No app tag
                 }
-            }
-            
-        } finally {
-            if (agent != null) {
-                try { agent.disconnect(); } catch (Exception e) {}
-            }
-            if (qmgr != null) {
-                try { qmgr.disconnect(); } catch (Exception e) {}
+                
+                // Apply filter
+                if (tagFilter != null && (conn.applicationTag == null || 
+                    !conn.applicationTag.startsWith(tagFilter))) {
+                    continue;
+                }
+                
+                // Get other attributes
+                try { 
+                    conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME); 
+                } catch (PCFException e) {}
+                
+                try { 
+                    conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME); 
+                } catch (PCFException e) {}
+                
+                try { 
+                    conn.userId = response.getStringParameterValue(CMQCFC.MQCACH_USER_ID); 
+                } catch (PCFException e) {}
+                
+                try { 
+                    conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID); 
+                } catch (PCFException e) {}
+                
+                try { 
+                    conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID); 
+                } catch (PCFException e) {}
+                
+                // Try to determine if parent (heuristic: first connection in a group)
+                conn.isParent = false; // Will be determined by grouping logic
+                
+                connections.add(conn);
+                
+            } catch (PCFException e) {
+                // Skip connections without required fields
             }
         }
         
@@ -321,11 +400,67 @@ public class PCFRealtimeMonitor {
         return connections;
     }
     
-    private static void logGroup(ConnectionGroup group) {
-        logFile.println("[" + dateFormat.format(new Date()) + "] " + group.appTag + 
-                       " - " + group.connections.size() + " connections on " + group.queueManager +
-                       " (Consistent: " + group.isConsistent() + ")");
-        logFile.flush();
+    /**
+     * Connections on the QM and, per APPLTAG, the connections that are not the parent.
+     */
+    private static void recordConnectionMetrics(String qmName, List<ConnectionDetail> connections) {
+        long now = System.currentTimeMillis();
+        metrics.record(PCFMetricStore.connections(qmName), now, connections.size());
+        Map<String, Integer> sessions = new HashMap<>();
+        for (ConnectionDetail conn : connections) {
+            String tag = conn.applicationTag != null ? conn.applicationTag.trim() : "UNTAGGED";
+            sessions.merge(tag, conn.isParent ? 0 : 1, Integer::sum);
+        }
+        sessions.forEach((tag, count) -> metrics.record(PCFMetricStore.applTagSessions(qmName, tag), now, count));
+    }
+    
+    /**
+     * MSGS of the running APP.SVRCONN instances and CURDEPTH of the non-SYSTEM local queues.
+     * These are only for the metric history, so a failing inquiry is reported and skipped.
+     */
+    private static void recordChannelAndQueueMetrics(String qmName, int qmNum) {
+        long now = System.currentTimeMillis();
+        PCFAgentPool.Endpoint endpoint = PCFAgentPool.Endpoint.client(
+            qmName, "10.10.10." + (9 + qmNum), 1414, "APP.SVRCONN", "app", "passw0rd");
+        try {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS);
+            request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, "APP.SVRCONN");
+            request.addParameter(CMQCFC.MQIACH_CHANNEL_INSTANCE_ATTRS, new int[] { CMQCFC.MQIACH_MSGS });
+            long messages = 0;
+            for (PCFMessage response : PCFAgentPool.shared().send(endpoint, request)) {
+                messages += response.getIntParameterValue(CMQCFC.MQIACH_MSGS);
+            }
+            metrics.record(PCFMetricStore.channelMessages(qmName, "APP.SVRCONN"), now, messages);
+        } catch (Exception e) {
+            System.err.println("Channel status on " + qmName + " not recorded: " + e.getMessage());
+        }
+        try {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q);
+            request.addParameter(CMQC.MQCA_Q_NAME, System.getProperty("pcf.metrics.queues", "*"));
+            request.addParameter(CMQC.MQIA_Q_TYPE, CMQC.MQQT_LOCAL);
+            request.addParameter(CMQCFC.MQIACF_Q_ATTRS, new int[] { CMQC.MQCA_Q_NAME, CMQC.MQIA_CURRENT_Q_DEPTH });
+            for (PCFMessage response : PCFAgentPool.shared().send(endpoint, request)) {
+                String queue = response.getStringParameterValue(CMQC.MQCA_Q_NAME).trim();
+                if (!queue.startsWith("SYSTEM.")) {
+                    metrics.record(PCFMetricStore.queueDepth(qmName, queue), now,
+                        response.getIntParameterValue(CMQC.MQIA_CURRENT_Q_DEPTH));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Queue depths on " + qmName + " not recorded: " + e.getMessage());
+        }
+    }
+    
+    private static void recordChangeMetrics(List<PCFSnapshotDiffer.ChangeEvent> changes) {
+        long now = System.currentTimeMillis();
+        Map<PCFSnapshotDiffer.ChangeType, Integer> counts = new EnumMap<>(PCFSnapshotDiffer.ChangeType.class);
+        for (PCFSnapshotDiffer.ChangeType type : PCFSnapshotDiffer.ChangeType.values()) {
+            counts.put(type, 0);
+        }
+        for (PCFSnapshotDiffer.ChangeEvent event : changes) {
+            counts.merge(event.type, 1, Integer::sum);
+        }
+        counts.forEach((type, count) -> metrics.record("changes/" + type, now, count));
     }
     
     private static String bytesToHex(byte[] bytes) {
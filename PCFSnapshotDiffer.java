@@ -0,0 +1,277 @@
+import java.util.*;
+
+/**
+ * Turns consecutive DIS CONN snapshots into change events instead of full lists.
+ *
+ * Connections are keyed by CONNECTION_ID ({@link ConnectionKey}); between two polls the differ
+ * emits
+ *   ADDED    - connection id not in the previous snapshot
+ *   REMOVED  - connection id gone (not reported for a QM that did not answer this poll)
+ *   MOVED    - a REMOVED and an ADDED connection of the same client (APPLTAG, host, PID, TID)
+ *              on different queue managers, e.g. a uniform cluster rebalance
+ *   CHANGED  - same connection id, different APPLTAG / channel / CONNAME / user / PID / TID
+ *
+ * Only the previous snapshot is kept, as one small record per connection with repeated
+ * strings (QM, APPLTAG, channel, user) shared; the table of shared strings is rebuilt each poll
+ * from the strings that poll's snapshot still uses. Subscribers (console, log file, metrics) get
+ * each poll's events in the order REMOVED, MOVED, ADDED, CHANGED.
+ *
+ * Usage:
+ *   PCFSnapshotDiffer differ = new PCFSnapshotDiffer();
+ *   differ.subscribe(event -> System.out.println(event));
+ *   differ.apply(snapshot.connections(), snapshot.unavailable());   // every poll
+ */
+public class PCFSnapshotDiffer {
+
+    public enum ChangeType { ADDED, REMOVED, MOVED, CHANGED }
+
+    public interface Listener {
+        void onChange(ChangeEvent event);
+    }
+
+    public static class ChangeEvent {
+        public final ChangeType type;
+        public final String connectionId;
+        public final String queueManager;
+        public final String applicationTag;
+        public final String connectionName;
+        /** MOVED: connection id and QM before the move */
+        public final String previousConnectionId;
+        public final String previousQueueManager;
+        /** CHANGED: names of the attributes that differ */
+        public final List<String> changedAttributes;
+
+        ChangeEvent(ChangeType type, Connection current, Connection previous, List<String> changedAttributes) {
+            Connection c = current != null ? current : previous;
+            this.type = type;
+            this.connectionId = c.connectionId;
+            this.queueManager = c.queueManager;
+            this.applicationTag = c.applicationTag;
+            this.connectionName = c.connectionName;
+            this.previousConnectionId = type == ChangeType.MOVED ? previous.connectionId : null;
+            this.previousQueueManager = type == ChangeType.MOVED ? previous.queueManager : null;
+            this.changedAttributes = changedAttributes;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case MOVED:
+                    return String.format("MOVED   %s -> %s  %s  APPLTAG=%s CONNAME=%s (was %s)",
+                        previousQueueManager, queueManager, connectionId, applicationTag, connectionName, previousConnectionId);
+                case CHANGED:
+                    return String.format("CHANGED %-6s %s  APPLTAG=%s %s", queueManager, connectionId, applicationTag, changedAttributes);
+                default:
+                    return String.format("%-7s %-6s %s  APPLTAG=%s CONNAME=%s", type, queueManager, connectionId, applicationTag, connectionName);
+            }
+        }
+    }
+
+    /**
+     * Compact per-connection record kept between polls.
+     */
+    static final class Connection {
+        final String connectionId;
+        final String queueManager;
+        final String applicationTag;
+        final String channelName;
+        final String connectionName;
+        final String userId;
+        final int pid;
+        final int tid;
+
+        Connection(String connectionId, String queueManager, String applicationTag, String channelName,
+                   String connectionName, String userId, int pid, int tid) {
+            this.connectionId = connectionId;
+            this.queueManager = queueManager;
+            this.applicationTag = applicationTag;
+            this.channelName = channelName;
+            this.connectionName = connectionName;
+            this.userId = userId;
+            this.pid = pid;
+            this.tid = tid;
+        }
+
+        /** Same client across a reconnect: APPLTAG, client host (CONNAME without port), PID, TID */
+        String clientIdentity() {
+            String host = connectionName;
+            int paren = host != null ? host.indexOf('(') : -1;
+            if (paren >= 0) {
+                host = host.substring(0, paren);
+            }
+            return applicationTag + '|' + host + '|' + pid + '|' + tid;
+        }
+
+        List<String> diff(Connection other) {
+            List<String> changed = null;
+            if (!Objects.equals(applicationTag, other.applicationTag)) changed = add(changed, "APPLTAG");
+            if (!Objects.equals(channelName, other.channelName)) changed = add(changed, "CHANNEL");
+            if (!Objects.equals(connectionName, other.connectionName)) changed = add(changed, "CONNAME");
+            if (!Objects.equals(userId, other.userId)) changed = add(changed, "USERID");
+            if (pid != other.pid) changed = add(changed, "PID");
+            if (tid != other.tid) changed = add(changed, "TID");
+            return changed;
+        }
+
+        private static List<String> add(List<String> list, String name) {
+            if (list == null) list = new ArrayList<>(2);
+            list.add(name);
+            return list;
+        }
+    }
+
+    private final List<Listener> listeners = new ArrayList<>();
+    // Shared strings of the previous snapshot, and of the one being built
+    private Map<String, String> strings = new HashMap<>();
+    private Map<String, String> nextStrings;
+    private Map<ConnectionKey, Connection> previous = new HashMap<>();
+    private Map<ConnectionKey, Connection> current;
+    private List<Connection> added;
+    private List<ChangeEvent> changed;
+    private long polls;
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Diffs one complete poll. Connections of QMs in {@code unavailable} are carried over as-is.
+     */
+    public List<ChangeEvent> apply(Collection<PCFUtils.ConnectionDetails> snapshot, Collection<String> unavailable) {
+        begin();
+        for (PCFUtils.ConnectionDetails c : snapshot) {
+            observe(c.connectionId, c.queueManager, c.appTag, c.channelName, c.connectionName, c.userId, c.pid, c.tid);
+        }
+        return end(unavailable);
+    }
+
+    /**
+     * Starts a poll; feed it with {@link #observe} and finish with {@link #end}.
+     */
+    public void begin() {
+        current = new HashMap<>(Math.max(16, previous.size() * 4 / 3));
+        added = new ArrayList<>();
+        changed = new ArrayList<>();
+        nextStrings = new HashMap<>(Math.max(16, strings.size() * 4 / 3));
+    }
+
+    public void observe(String connectionId, String queueManager, String applicationTag, String channelName,
+                        String connectionName, String userId, int pid, int tid) {
+        ConnectionKey key = ConnectionKey.of(connectionId);
+        if (key == null) {
+            return;
+        }
+        Connection connection = new Connection(connectionId, shared(queueManager), shared(trim(applicationTag)),
+            shared(trim(channelName)), trim(connectionName), shared(trim(userId)), pid, tid);
+        Connection before = previous.remove(key);
+        if (before == null) {
+            added.add(connection);
+        } else {
+            List<String> attributes = connection.diff(before);
+            if (attributes != null) {
+                changed.add(new ChangeEvent(ChangeType.CHANGED, connection, before, attributes));
+            }
+        }
+        current.put(key, connection);
+    }
+
+    public List<ChangeEvent> end(Collection<String> unavailable) {
+        Set<String> down = unavailable != null ? new HashSet<>(unavailable) : Collections.emptySet();
+        List<ChangeEvent> events = new ArrayList<>();
+
+        // Index this poll's new connections by client so a removal elsewhere can be paired as a move
+        Map<String, Deque<Connection>> addedByClient = new HashMap<>();
+        for (Connection c : added) {
+            addedByClient.computeIfAbsent(c.clientIdentity(), k -> new ArrayDeque<>()).add(c);
+        }
+
+        Set<Connection> moved = new HashSet<>();
+        List<ChangeEvent> moves = new ArrayList<>();
+        for (Map.Entry<ConnectionKey, Connection> gone : previous.entrySet()) {
+            Connection before = gone.getValue();
+            if (down.contains(before.queueManager)) {
+                current.put(gone.getKey(), before); // QM did not answer: keep, don't report
+                keepStrings(before);
+                continue;
+            }
+            Deque<Connection> candidates = addedByClient.get(before.clientIdentity());
+            Connection after = candidates != null ? pollOtherQm(candidates, before.queueManager) : null;
+            if (after != null) {
+                moved.add(after);
+                moves.add(new ChangeEvent(ChangeType.MOVED, after, before, null));
+            } else {
+                events.add(new ChangeEvent(ChangeType.REMOVED, null, before, null));
+            }
+        }
+        events.addAll(moves);
+        for (Connection c : added) {
+            if (!moved.contains(c)) {
+                events.add(new ChangeEvent(ChangeType.ADDED, c, null, null));
+            }
+        }
+        events.addAll(changed);
+
+        previous = current;
+        strings = nextStrings;
+        nextStrings = null;
+        current = null;
+        added = null;
+        changed = null;
+        polls++;
+
+        for (ChangeEvent event : events) {
+            for (Listener listener : listeners) {
+                listener.onChange(event);
+            }
+        }
+        return events;
+    }
+
+    public int size() {
+        return previous.size();
+    }
+
+    public long getPolls() {
+        return polls;
+    }
+
+    private static Connection pollOtherQm(Deque<Connection> candidates, String queueManager) {
+        for (Iterator<Connection> it = candidates.iterator(); it.hasNext(); ) {
+            Connection c = it.next();
+            if (!Objects.equals(c.queueManager, queueManager)) {
+                it.remove();
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The instance of {@code value} the snapshots share: the previous snapshot's if it had one,
+     * so unchanged connections keep pointing at the same strings.
+     */
+    private String shared(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = nextStrings.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        existing = strings.get(value);
+        String instance = existing != null ? existing : value;
+        nextStrings.put(instance, instance);
+        return instance;
+    }
+
+    private void keepStrings(Connection connection) {
+        shared(connection.queueManager);
+        shared(connection.applicationTag);
+        shared(connection.channelName);
+        shared(connection.userId);
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+}
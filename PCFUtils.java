@@ -11,8 +11,7 @@ import java.util.*;
  */
 public class PCFUtils {
     
-    private MQQueueManager queueManager;
-    private PCFMessageAgent pcfAgent;
+    private final PCFAgentPool.Endpoint endpoint;
     private String queueManagerName;
     
     /**
@@ -22,62 +21,57 @@ public class PCFUtils {
             throws Exception {
         this.queueManagerName = qmgrName;
         
-        Hashtable<String, Object> props = new Hashtable<>();
-        props.put(CMQC.CHANNEL_PROPERTY, channel);
-        props.put(CMQC.HOST_NAME_PROPERTY, hostName);
-        props.put(CMQC.PORT_PROPERTY, port);
-        props.put(CMQC.USER_ID_PROPERTY, userId);
-        props.put(CMQC.PASSWORD_PROPERTY, password);
-        
-        queueManager = new MQQueueManager(qmgrName, props);
-        pcfAgent = new PCFMessageAgent(queueManager);
+        this.endpoint = PCFAgentPool.Endpoint.client(qmgrName, hostName, port, channel, userId, password);
+        // Fail fast on bad connection details; the connected agent stays in the shared pool
+        PCFAgentPool.shared().acquire(endpoint).close();
     }
     
+    /**
+     * Connection attributes read by {@link #toConnectionDetails}. Requesting only these instead
+     * of MQIACF_ALL roughly halves each DIS CONN reply (no UOW ids, dates, options, ...).
+     */
+    public static final int[] CONNECTION_SUMMARY_ATTRS = {
+        CMQCFC.MQCACF_APPL_TAG,
+        CMQCFC.MQCACH_CHANNEL_NAME,
+        CMQCFC.MQCACH_CONNECTION_NAME,
+        CMQCFC.MQCACF_USER_IDENTIFIER,
+        CMQCFC.MQIACF_PROCESS_ID,
+        CMQCFC.MQIACF_THREAD_ID,
+        CMQCFC.MQBACF_CONN_TAG
+    };
+    
     /**
      * Get all connections with specific APPTAG
      * Equivalent to: DIS CONN(*) WHERE(APPLTAG EQ 'tag')
      */
     public List<ConnectionDetails> getConnectionsByAppTag(String appTag) throws Exception {
-        List<ConnectionDetails> connections = new ArrayList<>();
-        
+        List<ConnectionDetails> connections = inquireConnections(CMQCFC.MQCACF_APPL_TAG, appTag);
+        for (ConnectionDetails conn : connections) {
+            conn.appTag = conn.appTag != null ? conn.appTag.trim() : null;
+        }
+        return connections;
+    }
+    
+    /**
+     * DIS CONN(*) with a server-side string filter and only {@link #CONNECTION_SUMMARY_ATTRS}.
+     * The queue manager skips non-matching connections, so they are never sent or decoded.
+     * A value ending in '*' is a generic (LIKE) match.
+     */
+    public List<ConnectionDetails> inquireConnections(int filterParameter, String filterValue) throws Exception {
         PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
         request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
-        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
+        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, CONNECTION_SUMMARY_ATTRS);
+        if (filterValue != null) {
+            int operator = filterValue.endsWith("*") ? CMQCFC.MQCFOP_LIKE : CMQCFC.MQCFOP_EQUAL;
+            request.addFilterParameter(filterParameter, operator, filterValue);
+        }
         
-        PCFMessage[] responses = pcfAgent.send(request);
+        PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
+        List<ConnectionDetails> connections = new ArrayList<>(responses.length);
         
         for (PCFMessage response : responses) {
             try {
-                String connAppTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
-                
-                if (connAppTag != null && connAppTag.trim().equals(appTag)) {
-                    ConnectionDetails conn = new ConnectionDetails();
-                    
-                    // Extract all available fields
-                    conn.connectionId = bytesToHex(response.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
-                    conn.appTag = connAppTag.trim();
-                    conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME);
-                    conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME);
-                    conn.userId = response.getStringParameterValue(CMQCFC.MQCACF_USER_IDENTIFIER);
-                    
-                    try {
-                        conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID);
-                        conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID);
-                    } catch (Exception e) { /* Optional fields */ }
-                    
-                    // Extended connection ID may not be available in all versions
-                    
-                    try {
-                        conn.connectionTag = bytesToHex(response.getBytesParameterValue(CMQCFC.MQBACF_CONN_TAG));
-                    } catch (Exception e) { /* Optional field */ }
-                    
-                    try {
-                        conn.messagesSent = response.getIntParameterValue(CMQCFC.MQIACH_MSGS_SENT);
-                        conn.messagesReceived = response.getIntParameterValue(CMQCFC.MQIACH_MSGS_RCVD);
-                    } catch (Exception e) { /* Optional fields */ }
-                    
-                    connections.add(conn);
-                }
+                connections.add(parseConnectionResponse(response));
             } catch (Exception e) {
                 // Skip problematic connections
             }
@@ -86,33 +80,24 @@ public class PCFUtils {
         return connections;
     }
     
+    /**
+     * Get every connection on the queue manager, including CONNTAG
+     * Equivalent to: DIS CONN(*) TYPE(CONN) APPLTAG CHANNEL CONNAME USERID PID TID CONNTAG
+     */
+    public List<ConnectionDetails> getAllConnections() throws Exception {
+        return inquireConnections(0, null);
+    }
+    
+    public String getQueueManagerName() {
+        return queueManagerName;
+    }
+    
     /**
      * Get all active connections on a channel
      * Equivalent to: DIS CONN(*) WHERE(CHANNEL EQ 'channel')
      */
     public List<ConnectionDetails> getConnectionsByChannel(String channelName) throws Exception {
-        List<ConnectionDetails> connections = new ArrayList<>();
-        
-        PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
-        request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
-        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
-        
-        PCFMessage[] responses = pcfAgent.send(request);
-        
-        for (PCFMessage response : responses) {
-            try {
-                String connChannel = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME);
-                
-                if (connChannel != null && connChannel.trim().equals(channelName)) {
-                    ConnectionDetails conn = parseConnectionResponse(response);
-                    connections.add(conn);
-                }
-            } catch (Exception e) {
-                // Skip problematic connections
-            }
-        }
-        
-        return connections;
+        return inquireConnections(CMQCFC.MQCACH_CHANNEL_NAME, channelName);
     }
     
     /**
@@ -125,7 +110,7 @@ public class PCFUtils {
         PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CHANNEL_STATUS);
         request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, channelName);
         
-        PCFMessage[] responses = pcfAgent.send(request);
+        PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
         
         for (PCFMessage response : responses) {
             ChannelStatus status = new ChannelStatus();
@@ -155,7 +140,7 @@ public class PCFUtils {
      */
     public QueueManagerInfo getQueueManagerInfo() throws Exception {
         PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_MGR);
-        PCFMessage[] responses = pcfAgent.send(request);
+        PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
         
         if (responses.length > 0) {
             PCFMessage response = responses[0];
@@ -190,7 +175,7 @@ public class PCFUtils {
         request.addParameter(CMQC.MQCA_Q_NAME, queueName);
         request.addParameter(CMQC.MQIA_Q_TYPE, CMQC.MQQT_LOCAL);
         
-        PCFMessage[] responses = pcfAgent.send(request);
+        PCFMessage[] responses = PCFAgentPool.shared().send(endpoint, request);
         
         if (responses.length > 0) {
             PCFMessage response = responses[0];
@@ -260,50 +245,76 @@ public class PCFUtils {
     }
     
     /**
-     * Close PCF connection
+     * Release this utility. The PCF connection stays open in the shared {@link PCFAgentPool}
+     * for the next PCFUtils on the same QM and is closed when the JVM exits.
      */
     public void close() {
-        try {
-            if (pcfAgent != null) {
-                pcfAgent.disconnect();
-            }
-            if (queueManager != null && queueManager.isConnected()) {
-                queueManager.disconnect();
-            }
-        } catch (Exception e) {
-            // Ignore cleanup errors
-        }
+        // Nothing to release: requests borrow and return pooled agents
     }
     
     // Helper method
-    private String bytesToHex(byte[] bytes) {
+    static String bytesToHex(byte[] bytes) {
         if (bytes == null) return null;
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02X", b));
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.toUpperCase(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            hex[i * 2 + 1] = Character.toUpperCase(Character.forDigit(bytes[i] & 0xF, 16));
         }
-        return result.toString();
+        return new String(hex);
     }
     
     private ConnectionDetails parseConnectionResponse(PCFMessage response) throws Exception {
+        return toConnectionDetails(response, queueManagerName);
+    }
+    
+    /**
+     * Parse one DIS CONN response from the given queue manager.
+     * Single pass over the reply's parameters; absent attributes stay null/0 instead of throwing.
+     */
+    public static ConnectionDetails toConnectionDetails(PCFMessage response, String queueManagerName) throws Exception {
         ConnectionDetails conn = new ConnectionDetails();
+        conn.queueManager = queueManagerName;
         
-        conn.connectionId = bytesToHex(response.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
-        conn.appTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
-        conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME);
-        conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME);
-        conn.userId = response.getStringParameterValue(CMQCFC.MQCACF_USER_IDENTIFIER);
-        
-        try {
-            conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID);
-            conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID);
-        } catch (Exception e) { /* Optional */ }
+        Enumeration<?> parameters = response.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter parameter = (PCFParameter) parameters.nextElement();
+            Object value = parameter.getValue();
+            switch (parameter.getParameter()) {
+                case CMQCFC.MQBACF_CONNECTION_ID:
+                    conn.connectionId = value instanceof byte[] ? bytesToHex((byte[]) value) : null;
+                    break;
+                case CMQCFC.MQBACF_CONN_TAG:
+                    conn.connectionTag = value instanceof byte[] ? bytesToHex((byte[]) value) : null;
+                    break;
+                case CMQCFC.MQCACF_APPL_TAG:
+                    conn.appTag = value instanceof String ? (String) value : null;
+                    break;
+                case CMQCFC.MQCACH_CHANNEL_NAME:
+                    conn.channelName = value instanceof String ? (String) value : null;
+                    break;
+                case CMQCFC.MQCACH_CONNECTION_NAME:
+                    conn.connectionName = value instanceof String ? (String) value : null;
+                    break;
+                case CMQCFC.MQCACF_USER_IDENTIFIER:
+                    conn.userId = value instanceof String ? (String) value : null;
+                    break;
+                case CMQCFC.MQIACF_PROCESS_ID:
+                    conn.pid = value instanceof Integer ? (Integer) value : 0;
+                    break;
+                case CMQCFC.MQIACF_THREAD_ID:
+                    conn.tid = value instanceof Integer ? (Integer) value : 0;
+                    break;
+                default:
+                    // Not part of ConnectionDetails
+            }
+        }
         
         return conn;
     }
     
     // Data classes
     public static class ConnectionDetails {
+        public String queueManager;
         public String connectionId;
         public String extConnectionId;
         public String connectionTag;
@@ -11,15 +11,11 @@ import com.ibm.msg.client.jms.JmsPropertyContext;
 import com.ibm.msg.client.wmq.WMQConstants;
 
 import com.ibm.mq.MQException;
-import com.ibm.mq.MQQueueManager;
-import com.ibm.mq.constants.CMQC;
 import com.ibm.mq.constants.CMQCFC;
 import com.ibm.mq.headers.pcf.PCFMessage;
-import com.ibm.mq.headers.pcf.PCFMessageAgent;
 import com.ibm.mq.headers.pcf.PCFException;
 import com.ibm.mq.headers.MQDataException;
 import java.io.IOException;
-import java.util.Hashtable;
 
 /**
  * UcJmsPcfCorrelator
@@ -34,8 +30,8 @@ import java.util.Hashtable;
  * Notes:
  *  - APPLTAG is set with WMQ_APPLICATIONNAME; ALL HCONNs from this app share it.
  *  - Each Session creates its own HCONN; parent is the HCONN observed before sessions exist.
- *  - If your Uniform Cluster spans multiple QMs, run this PCF against the resolved QM
- *    and, if needed, against others in the cluster too (same APPLTAG filter).
+ *  - If your Uniform Cluster spans multiple QMs, pass --cluster QM1:host:port,QM2:host:port,...
+ *    to inquire every QM in parallel (see PCFClusterInquiry); otherwise only --qmgr is queried.
  */
 public class UcJmsPcfCorrelator {
 
@@ -46,6 +42,7 @@ public class UcJmsPcfCorrelator {
     String channel = null;
     String qmgr = "QM1";
     String ccdt = null;
+    String cluster = null;      // QM1:host:port,QM2:host:port,... -> inquire every QM in parallel
 
     String applTag = "UC-DIAG";
     int sessions = 5;
@@ -112,15 +109,23 @@ public class UcJmsPcfCorrelator {
     // 6) PCF snapshot AFTER sessions
     Map<String, PCFMessage> after = inquireByApplTag(a, a.qmgr, a.host, a.port, a.channel, a.applTag);
 
-    // 7) Identify children as AFTER \ BEFORE by CONNID
-    Set<String> beforeIds = before.keySet();
-    Set<String> afterIds  = after.keySet();
-
-    Set<String> childIds = new LinkedHashSet<>(afterIds);
-    childIds.removeAll(beforeIds);
+    // 7) Identify children as the connections the differ reports ADDED between the snapshots
+    PCFSnapshotDiffer differ = new PCFSnapshotDiffer();
+    differ.apply(toDetails(before), Collections.emptyList());
+    List<PCFSnapshotDiffer.ChangeEvent> changes = differ.apply(toDetails(after), Collections.emptyList());
+
+    Set<String> afterIds = after.keySet();
+    Set<String> childIds = new LinkedHashSet<>();
+    for (PCFSnapshotDiffer.ChangeEvent change : changes) {
+      if (change.type == PCFSnapshotDiffer.ChangeType.ADDED) {
+        childIds.add(change.connectionId);
+      } else {
+        System.out.println("Between snapshots: " + change);
+      }
+    }
 
     Set<String> parentIds = new LinkedHashSet<>(afterIds);
-    parentIds.retainAll(beforeIds); // those seen before are the parent (and any pre-existing)
+    parentIds.removeAll(childIds); // those seen before are the parent (and any pre-existing)
 
     // 8) Print report
     System.out.println();
@@ -162,62 +167,75 @@ public class UcJmsPcfCorrelator {
   private static Map<String, PCFMessage> inquireByApplTag(Args a, String qmgr, String host, int port,
                                                           String channel, String applTag) throws Exception {
     Map<String, PCFMessage> out = new LinkedHashMap<>();
-    PCFMessageAgent agent = null;
-    MQQueueManager queueManager = null;
-    try {
-      // Connect using MQQueueManager first
-      Hashtable<String, Object> props = new Hashtable<>();
-      props.put(com.ibm.mq.constants.CMQC.HOST_NAME_PROPERTY, host);
-      props.put(com.ibm.mq.constants.CMQC.PORT_PROPERTY, port);
-      props.put(com.ibm.mq.constants.CMQC.CHANNEL_PROPERTY, "APP.SVRCONN");
-      props.put(com.ibm.mq.constants.CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, false);
-      
-      queueManager = new MQQueueManager(qmgr, props);
-      agent = new PCFMessageAgent(queueManager);
-
-      PCFMessage req = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
-      // Filter by connection type and application tag
-      req.addParameter(CMQCFC.MQIACF_CONN_INFO_TYPE, CMQCFC.MQIACF_CONN_INFO_CONN);
-      // Don't use MQIACF_ALL - specify what we need
-      req.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] {
-        CMQCFC.MQIACF_ALL
-      });
-
-      PCFMessage[] resp = agent.send(req);
+    // Pooled agent: the before/after snapshots reuse one connection instead of reconnecting
+    PCFAgentPool.Endpoint endpoint = PCFAgentPool.Endpoint.client(qmgr, host, port, "APP.SVRCONN", null, null);
+
+    PCFMessage req = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+    // Filter by connection type and application tag
+    req.addParameter(CMQCFC.MQIACF_CONN_INFO_TYPE, CMQCFC.MQIACF_CONN_INFO_CONN);
+    // Don't use MQIACF_ALL - specify what we need
+    req.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] {
+      CMQCFC.MQIACF_ALL
+    });
+
+    if (a.cluster == null) {
+      PCFMessage[] resp = PCFAgentPool.shared().send(endpoint, req);
       for (PCFMessage m : resp) {
         String connIdHex = hex(m.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
         out.put(connIdHex, m);
       }
       return out;
-    } finally {
-      if (agent != null) {
-        try { agent.disconnect(); } catch (Exception ignore) {}
-      }
-      if (queueManager != null) {
-        try { queueManager.disconnect(); } catch (Exception ignore) {}
+    }
+
+    // --cluster: the group may have landed on any QM, so ask all of them at once
+    List<PCFAgentPool.Endpoint> cluster = new ArrayList<>();
+    for (String spec : a.cluster.split(",")) {
+      cluster.add(PCFClusterInquiry.parseEndpoint(spec.trim(), "APP.SVRCONN", null, null));
+    }
+    try (PCFClusterInquiry inquiry = new PCFClusterInquiry(cluster, a.connectTimeoutMs)) {
+      PCFClusterInquiry.ClusterSnapshot snapshot = inquiry.snapshot(PCFClusterInquiry.Inquiry.CONNECTION);
+      snapshot.printSummary();
+      for (PCFMessage[] resp : snapshot.responses(PCFClusterInquiry.Inquiry.CONNECTION).values()) {
+        for (PCFMessage m : resp) {
+          String connIdHex = hex(m.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
+          out.put(connIdHex, m);
+        }
       }
     }
+    return out;
   }
 
+  private static List<PCFUtils.ConnectionDetails> toDetails(Map<String, PCFMessage> snapshot) throws Exception {
+    List<PCFUtils.ConnectionDetails> details = new ArrayList<>(snapshot.size());
+    for (Map.Entry<String, PCFMessage> e : snapshot.entrySet()) {
+      ConnectionKey key = ConnectionKey.of(e.getKey());
+      details.add(PCFUtils.toConnectionDetails(e.getValue(), key != null ? key.queueManager : null));
+    }
+    return details;
+  }
+
+  // DIS CONN replies carry no QM name or identifier; the CONNECTION_ID holds the QM name
+  // (its first 12 characters), which is what ConnectionKey parses out of it
   private static String qmKey(PCFMessage m) {
-    String qmn = s(m, CMQC.MQCA_Q_MGR_NAME);
-    String qmi = s(m, CMQC.MQCA_Q_MGR_IDENTIFIER);
-    return (nz(qmn) + "/" + nz(qmi)).trim();
+    ConnectionKey key = ConnectionKey.of(connectionId(m));
+    return (key != null && key.queueManager != null) ? key.queueManager : "UNKNOWN";
   }
 
-  private static void printConn(PCFMessage m) {
-    String connIdHex = "";
+  private static String connectionId(PCFMessage m) {
     try {
-      connIdHex = hex(m.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
+      return hex(m.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID));
     } catch (PCFException e) {
-      connIdHex = "UNKNOWN";
+      return "UNKNOWN";
     }
+  }
+
+  private static void printConn(PCFMessage m) {
+    String connIdHex = connectionId(m);
     String channel   = s(m, CMQCFC.MQCACH_CHANNEL_NAME);
     String conname   = s(m, CMQCFC.MQCACH_CONNECTION_NAME);
     String user      = s(m, CMQCFC.MQCACF_USER_IDENTIFIER);
     String appltag   = s(m, CMQCFC.MQCACF_APPL_TAG);
-    String qmn       = s(m, CMQC.MQCA_Q_MGR_NAME);
-    String qmi       = s(m, CMQC.MQCA_Q_MGR_IDENTIFIER);
+    String qmn       = qmKey(m);
 
     Integer pidObj = i(m, CMQCFC.MQIACF_PROCESS_ID);
     Integer tidObj = i(m, CMQCFC.MQIACF_THREAD_ID);
@@ -225,8 +243,8 @@ public class UcJmsPcfCorrelator {
     String  tid = (tidObj == null ? "-" : String.valueOf(tidObj));
 
     System.out.printf(Locale.ROOT,
-      "CONNID=%s  QM=%s(%s)  PID/TID=%s/%s  CHL=%s  CONNAME=%s  USER=%s  APPLTAG=%s%n",
-      connIdHex, nz(qmn), nz(qmi), pid, tid, nz(channel), nz(conname), nz(user), nz(appltag));
+      "CONNID=%s  QM=%s  PID/TID=%s/%s  CHL=%s  CONNAME=%s  USER=%s  APPLTAG=%s%n",
+      connIdHex, qmn, pid, tid, nz(channel), nz(conname), nz(user), nz(appltag));
   }
 
   // ---------- small utils ----------
@@ -260,6 +278,7 @@ public class UcJmsPcfCorrelator {
         case "--channel":  r.channel = a[++i]; break;
         case "--qmgr":     r.qmgr = a[++i]; break;
         case "--ccdt":     r.ccdt = a[++i]; break;
+        case "--cluster":  r.cluster = a[++i]; break;
         case "--appltag":  r.applTag = a[++i]; break;
         case "--sessions": r.sessions = Integer.parseInt(a[++i]); break;
         case "--user":     r.user = a[++i]; break;
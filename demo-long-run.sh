@@ -24,7 +24,9 @@ echo ""
 
 # Configuration
 DEMO_DURATION=300  # 5 minutes
-SAMPLE_INTERVAL=15  # Sample every 15 seconds
+SAMPLE_INTERVAL=15  # Starting sample interval; adapts between the two bounds below
+MIN_SAMPLE_INTERVAL=5   # after a sample whose connection/session counts changed
+MAX_SAMPLE_INTERVAL=60  # grows by half on every quiet sample
 NUM_PRODUCERS=9    # 3 per QM
 NUM_CONSUMERS=6    # 2 per QM
 MESSAGES_PER_PRODUCER=100
@@ -286,18 +288,35 @@ log ""
 log "${CYAN}Collecting baseline...${NC}"
 collect_metrics 0 > /dev/null
 
-# Collect samples
-num_samples=$((DEMO_DURATION / SAMPLE_INTERVAL))
-for ((sample=1; sample<=num_samples; sample++)); do
+# Collect samples until the duration is over, sooner while counts are moving
+interval=$SAMPLE_INTERVAL
+end_time=$((SECONDS + DEMO_DURATION))
+sample=0
+previous_counts=$(grep -E "Connections:|Sessions:" "$RESULTS_DIR/samples/sample_0.txt" 2>/dev/null)
+while [ "$SECONDS" -lt "$end_time" ]; do
+    sample=$((sample + 1))
     log ""
-    log "${CYAN}Sample $sample of $num_samples ($(date '+%H:%M:%S'))${NC}"
+    log "${CYAN}Sample $sample ($(date '+%H:%M:%S'), interval ${interval}s)${NC}"
     collect_metrics $sample
     
-    if [ "$sample" -lt "$num_samples" ]; then
-        log "${YELLOW}Waiting ${SAMPLE_INTERVAL}s for next sample...${NC}"
-        sleep $SAMPLE_INTERVAL
+    counts=$(grep -E "Connections:|Sessions:" "$RESULTS_DIR/samples/sample_${sample}.txt" 2>/dev/null)
+    if [ "$counts" != "$previous_counts" ]; then
+        interval=$((interval / 2))
+        [ "$interval" -lt "$MIN_SAMPLE_INTERVAL" ] && interval=$MIN_SAMPLE_INTERVAL
+    else
+        interval=$((interval + interval / 2))
+        [ "$interval" -gt "$MAX_SAMPLE_INTERVAL" ] && interval=$MAX_SAMPLE_INTERVAL
+    fi
+    previous_counts=$counts
+    
+    remaining=$((end_time - SECONDS))
+    if [ "$remaining" -gt 0 ]; then
+        [ "$interval" -gt "$remaining" ] && interval=$remaining
+        log "${YELLOW}Waiting ${interval}s for next sample...${NC}"
+        sleep $interval
     fi
 done
+num_samples=$sample
 
 # PHASE 5: Stop Load Generation
 log ""
@@ -332,7 +351,7 @@ log "─────────────────────────
     echo ""
     echo "Test Configuration:"
     echo "  Duration: ${DEMO_DURATION} seconds"
-    echo "  Sample Interval: ${SAMPLE_INTERVAL} seconds"
+    echo "  Sample Interval: adaptive, ${MIN_SAMPLE_INTERVAL}-${MAX_SAMPLE_INTERVAL} seconds"
     echo "  Total Samples: $num_samples"
     echo "  Producers: $NUM_PRODUCERS (3 per QM)"
     echo "  Consumers: $NUM_CONSUMERS (2 per QM)"
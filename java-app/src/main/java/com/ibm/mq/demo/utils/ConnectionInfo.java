@@ -6,6 +6,7 @@ import javax.jms.JMSException;
 
 public class ConnectionInfo {
     private final Connection connection;
+    private volatile String[] decodedClientId;
     
     public ConnectionInfo(Connection connection) {
         this.connection = connection;
@@ -38,24 +39,36 @@ public class ConnectionInfo {
     }
     
     private String extractQMFromClientId(String clientId) {
+        // The client ID of a connection never changes, so decode it once
+        String[] cached = decodedClientId;
+        if (cached != null && cached[0].equals(clientId)) {
+            return cached[1];
+        }
+        String qmName = decodeQMFromClientId(clientId);
+        decodedClientId = new String[] { clientId, qmName };
+        return qmName;
+    }
+    
+    private static String decodeQMFromClientId(String clientId) {
         // Client ID format: ID:414d5120514d312020202020202020206e8a4166204b6003
         // The hex "414d5120514d31202020202020202020" decodes to "AMQ QM1        "
-        if (clientId.startsWith("ID:") && clientId.length() > 20) {
-            try {
-                String hex = clientId.substring(3, 35); // Get the QM name part
-                StringBuilder qmName = new StringBuilder();
-                for (int i = 8; i < hex.length() && i < 24; i += 2) {
-                    String hexByte = hex.substring(i, i + 2);
-                    char ch = (char) Integer.parseInt(hexByte, 16);
-                    if (ch != ' ' && ch != 0) {
-                        qmName.append(ch);
-                    }
+        if (clientId.startsWith("ID:") && clientId.length() >= 35) {
+            char[] qmName = new char[8];
+            int length = 0;
+            for (int i = 3 + 8; i < 3 + 24; i += 2) {
+                int high = Character.digit(clientId.charAt(i), 16);
+                int low = Character.digit(clientId.charAt(i + 1), 16);
+                if (high < 0 || low < 0) {
+                    length = 0;
+                    break;
                 }
-                if (qmName.length() > 0) {
-                    return qmName.toString();
+                char ch = (char) ((high << 4) | low);
+                if (ch != ' ' && ch != 0) {
+                    qmName[length++] = ch;
                 }
-            } catch (Exception e) {
-                // Fallback if parsing fails
+            }
+            if (length > 0) {
+                return new String(qmName, 0, length).intern();
             }
         }
         
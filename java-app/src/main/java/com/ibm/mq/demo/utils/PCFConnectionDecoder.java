@@ -0,0 +1,113 @@
+package com.ibm.mq.demo.utils;
+
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFParameter;
+
+import java.util.Enumeration;
+
+/**
+ * Single-pass decoder for DIS CONN (MQCMD_INQUIRE_CONNECTION) replies.
+ *
+ * Walks the reply's parameter list once and switches on the parameter id, instead of one
+ * getXxxParameterValue lookup per field (each a scan of the list) wrapped in try/catch.
+ * Attributes that are absent simply leave the field untouched, so no PCFException and no
+ * stack trace is created for them.
+ */
+public final class PCFConnectionDecoder {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private PCFConnectionDecoder() {
+    }
+
+    public static PCFMonitor.ConnectionDetails decode(PCFMessage response, String queueManager) {
+        return decode(response, queueManager, new PCFMonitor.ConnectionDetails());
+    }
+
+    /**
+     * Decodes into {@code target}, which callers polling in a loop can reuse.
+     */
+    public static PCFMonitor.ConnectionDetails decode(PCFMessage response, String queueManager,
+                                                      PCFMonitor.ConnectionDetails target) {
+        target.queueManager = queueManager;
+        Enumeration<?> parameters = response.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter parameter = (PCFParameter) parameters.nextElement();
+            Object value = parameter.getValue();
+            switch (parameter.getParameter()) {
+                case CMQCFC.MQBACF_CONNECTION_ID:
+                    if (value instanceof byte[]) {
+                        target.connectionId = toHex((byte[]) value);
+                    }
+                    break;
+                case CMQCFC.MQCACH_CHANNEL_NAME:
+                    target.channelName = asString(value);
+                    break;
+                case CMQCFC.MQCACH_CONNECTION_NAME:
+                    target.connectionName = asString(value);
+                    break;
+                case CMQCFC.MQCACF_APPL_TAG:
+                    target.applicationTag = asString(value);
+                    break;
+                case CMQCFC.MQCACF_APPL_NAME:
+                    target.applicationName = asString(value);
+                    break;
+                case CMQCFC.MQCACF_USER_IDENTIFIER:
+                    target.userId = asString(value);
+                    break;
+                case CMQC.MQIA_APPL_TYPE:
+                    if (value instanceof Integer) {
+                        target.applType = applicationType((Integer) value);
+                    }
+                    break;
+                case CMQCFC.MQIACF_PROCESS_ID:
+                    if (value instanceof Integer) {
+                        target.pid = (Integer) value;
+                    }
+                    break;
+                case CMQCFC.MQIACF_THREAD_ID:
+                    if (value instanceof Integer) {
+                        target.tid = (Integer) value;
+                    }
+                    break;
+                default:
+                    // Attribute not used by the monitor
+            }
+        }
+        return target;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    static String applicationType(int applType) {
+        switch (applType) {
+            case CMQC.MQAT_JAVA:
+                return "JAVA";
+            case CMQC.MQAT_USER:
+                return "USER";
+            case CMQC.MQAT_QMGR:
+                return "QMGR";
+            case CMQC.MQAT_CHANNEL_INITIATOR:
+                return "CHINIT";
+            case CMQC.MQAT_SYSTEM_EXTENSION:
+                return "SYSTEMEXT";
+            case CMQC.MQAT_AMQP:
+                return "AMQP";
+            default:
+                return "TYPE_" + applType;
+        }
+    }
+}
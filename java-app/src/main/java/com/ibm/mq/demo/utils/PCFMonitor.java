@@ -3,6 +3,7 @@ package com.ibm.mq.demo.utils;
 import com.ibm.mq.*;
 import com.ibm.mq.constants.CMQC;
 import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.MQDataException;
 import com.ibm.mq.headers.pcf.*;
 import java.io.IOException;
 import java.util.*;
@@ -62,7 +63,7 @@ public class PCFMonitor {
     /**
      * Connect to the Queue Manager for PCF operations
      */
-    public void connect() throws MQException, IOException {
+    public void connect() throws MQException, MQDataException, IOException {
         // Set up connection properties
         Hashtable<String, Object> props = new Hashtable<>();
         props.put(CMQC.HOST_NAME_PROPERTY, hostname);
@@ -93,101 +94,63 @@ public class PCFMonitor {
         }
     }
     
+    /**
+     * Connection attributes read from each DIS CONN reply; requested instead of MQIACF_ALL
+     * (APPLNAME is what the producers and consumers match their own connections on)
+     */
+    public static final int[] CONNECTION_ATTRS = {
+        CMQCFC.MQCACH_CHANNEL_NAME,
+        CMQCFC.MQCACH_CONNECTION_NAME,
+        CMQCFC.MQCACF_APPL_TAG,
+        CMQCFC.MQCACF_APPL_NAME,
+        CMQCFC.MQCACF_USER_IDENTIFIER,
+        CMQC.MQIA_APPL_TYPE,
+        CMQCFC.MQIACF_PROCESS_ID,
+        CMQCFC.MQIACF_THREAD_ID
+    };
+    
     /**
      * Get all active connections matching the specified channel
      */
-    public List<ConnectionDetails> getActiveConnections(String channelFilter) throws PCFException, IOException {
+    public List<ConnectionDetails> getActiveConnections(String channelFilter) throws PCFException, MQDataException, IOException {
+        return inquireConnections(CMQCFC.MQCACH_CHANNEL_NAME, channelFilter);
+    }
+    
+    /**
+     * Get the connections whose APPLTAG equals the tag, or starts with it when the tag ends in '*'
+     * Equivalent to: DIS CONN(*) WHERE(APPLTAG EQ 'tag')
+     */
+    public List<ConnectionDetails> getConnectionsByApplicationTag(String applicationTag) throws PCFException, MQDataException, IOException {
+        return inquireConnections(CMQCFC.MQCACF_APPL_TAG, applicationTag);
+    }
+    
+    /**
+     * DIS CONN(*) filtered on the queue manager (one string filter, EQ or generic LIKE) and
+     * limited to {@link #CONNECTION_ATTRS}, so non-matching connections are never sent back.
+     */
+    private List<ConnectionDetails> inquireConnections(int filterParameter, String filterValue) 
+            throws PCFException, MQDataException, IOException {
         List<ConnectionDetails> connections = new ArrayList<>();
         
         // Create PCF request to inquire connections
         PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+        request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
         
-        // Add filter for channel if specified
-        if (channelFilter != null && !channelFilter.isEmpty()) {
-            request.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, channelFilter);
+        // Add server-side filter if specified
+        if (filterValue != null && !filterValue.isEmpty()) {
+            int operator = filterValue.endsWith("*") ? CMQCFC.MQCFOP_LIKE : CMQCFC.MQCFOP_EQUAL;
+            request.addFilterParameter(filterParameter, operator, filterValue);
         }
         
-        // Request all connection attributes
-        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] {
-            CMQCFC.MQIACF_ALL
-        });
+        // Request only the attributes we read
+        request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, CONNECTION_ATTRS);
         
         // Send request and get responses
         PCFMessage[] responses = agent.send(request);
         
-        // Process each response
+        // Decode each response in one pass over its parameters
         for (PCFMessage response : responses) {
-            ConnectionDetails conn = new ConnectionDetails();
-            
-            // Extract connection ID (MQBACF_CONN_ID)
-            try {
-                byte[] connIdBytes = response.getByteParameterValue(CMQCFC.MQBACF_CONNECTION_ID);
-                conn.connectionId = bytesToHex(connIdBytes);
-            } catch (PCFException e) {
-                // Connection ID not available
-            }
-            
-            // Extract channel name
-            try {
-                conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME);
-            } catch (PCFException e) {
-                // Channel name not available
-            }
-            
-            // Extract connection name (IP address and port)
-            try {
-                conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME);
-            } catch (PCFException e) {
-                // Connection name not available
-            }
-            
-            // Extract application tag (MQCACF_APPL_TAG)
-            try {
-                conn.applicationTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
-            } catch (PCFException e) {
-                // Application tag not available
-            }
-            
-            // Extract application name
-            try {
-                conn.applicationName = response.getStringParameterValue(CMQCFC.MQCACF_APPL_NAME);
-            } catch (PCFException e) {
-                // Application name not available
-            }
-            
-            // Extract user ID
-            try {
-                conn.userId = response.getStringParameterValue(CMQCFC.MQCACH_USER_ID);
-            } catch (PCFException e) {
-                // User ID not available
-            }
-            
-            // Extract application type
-            try {
-                int applTypeInt = response.getIntParameterValue(CMQCFC.MQIACF_APPL_TYPE);
-                conn.applType = getApplicationTypeString(applTypeInt);
-            } catch (PCFException e) {
-                // Application type not available
-            }
-            
-            // Extract process ID
-            try {
-                conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID);
-            } catch (PCFException e) {
-                // PID not available
-            }
-            
-            // Extract thread ID
-            try {
-                conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID);
-            } catch (PCFException e) {
-                // TID not available
-            }
-            
-            // Set queue manager name
-            conn.queueManager = queueManagerName;
-            
-            connections.add(conn);
+            connections.add(PCFConnectionDecoder.decode(response, queueManagerName));
         }
         
         return connections;
@@ -197,7 +160,7 @@ public class PCFMonitor {
      * Get connections grouped by application tag to show parent-child relationships
      */
     public Map<String, List<ConnectionDetails>> getConnectionsByAppTag(String channelFilter) 
-            throws PCFException, IOException {
+            throws PCFException, MQDataException, IOException {
         
         Map<String, List<ConnectionDetails>> groupedConnections = new HashMap<>();
         List<ConnectionDetails> allConnections = getActiveConnections(channelFilter);
@@ -217,7 +180,7 @@ public class PCFMonitor {
     /**
      * Print parent-child correlation report
      */
-    public void printCorrelationReport(String channelFilter) throws PCFException, IOException {
+    public void printCorrelationReport(String channelFilter) throws PCFException, MQDataException, IOException {
         System.out.println("\n========================================");
         System.out.println("PCF PARENT-CHILD CORRELATION REPORT");
         System.out.println("Queue Manager: " + queueManagerName);
@@ -281,20 +244,18 @@ public class PCFMonitor {
     /**
      * Get correlation evidence for a specific application tag
      */
-    public String getCorrelationEvidence(String applicationTag) throws PCFException, IOException {
+    public String getCorrelationEvidence(String applicationTag) throws PCFException, MQDataException, IOException {
         StringBuilder evidence = new StringBuilder();
         
         evidence.append("PCF CORRELATION EVIDENCE FOR: ").append(applicationTag).append("\n");
         evidence.append("Queue Manager: ").append(queueManagerName).append("\n");
         evidence.append("Timestamp: ").append(new Date()).append("\n\n");
         
-        List<ConnectionDetails> connections = getActiveConnections("APP.SVRCONN");
-        
-        // Filter by application tag
+        // Filtered by the queue manager: tag itself or any tag starting with it. A DIS CONN takes
+        // one filter, so the channel is checked here, on the few connections that matched
         List<ConnectionDetails> matchingConns = new ArrayList<>();
-        for (ConnectionDetails conn : connections) {
-            if (applicationTag.equals(conn.applicationTag) || 
-                (conn.applicationTag != null && conn.applicationTag.startsWith(applicationTag))) {
+        for (ConnectionDetails conn : getConnectionsByApplicationTag(applicationTag + "*")) {
+            if (conn.channelName != null && "APP.SVRCONN".equals(conn.channelName.trim())) {
                 matchingConns.add(conn);
             }
         }
@@ -334,33 +295,4 @@ public class PCFMonitor {
         
         return evidence.toString();
     }
-    
-    /**
-     * Convert byte array to hex string
-     */
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02X", b));
-        }
-        return result.toString();
-    }
-    
-    /**
-     * Convert application type integer to string
-     */
-    private String getApplicationTypeString(int applType) {
-        switch (applType) {
-            case CMQC.MQAT_JAVA:
-                return "JAVA";
-            case CMQC.MQAT_JMS:
-                return "JMS";
-            case CMQC.MQAT_USER:
-                return "USER";
-            case CMQC.MQAT_SYSTEM:
-                return "SYSTEM";
-            default:
-                return "TYPE_" + applType;
-        }
-    }
-}
\ No newline at end of file
+}
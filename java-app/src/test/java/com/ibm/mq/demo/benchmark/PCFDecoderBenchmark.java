@@ -0,0 +1,129 @@
+package com.ibm.mq.demo.benchmark;
+
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.demo.utils.PCFConnectionDecoder;
+import com.ibm.mq.demo.utils.PCFMonitor;
+import com.ibm.mq.headers.pcf.PCFException;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes one poll's worth of DIS CONN replies with the previous per-attribute
+ * getXxxParameterValue + catch(PCFException) code and with PCFConnectionDecoder.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=PCFDecoderBenchmark
+ * Replay a recording (see PCFRecording) with: -Djmh.include="PCFDecoderBenchmark -p recording=dis-conn.pcf"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PCFDecoderBenchmark {
+
+    @Param({"1000"})
+    private int connections;
+
+    /** ALL = replies to MQIACF_ALL, PROJECTED = replies to PCFMonitor.CONNECTION_ATTRS */
+    @Param({"ALL", "PROJECTED"})
+    private String shape;
+
+    @Param({""})
+    private String recording;
+
+    private PCFMessage[] responses;
+    private final PCFMonitor.ConnectionDetails reused = new PCFMonitor.ConnectionDetails();
+
+    @Setup
+    public void setUp() throws Exception {
+        responses = recording.isEmpty()
+            ? PCFRecording.synthetic(connections, "ALL".equals(shape))
+            : PCFRecording.read(Paths.get(recording));
+    }
+
+    @Benchmark
+    public void legacyTryCatch(Blackhole bh) {
+        for (PCFMessage response : responses) {
+            bh.consume(legacyDecode(response));
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole bh) {
+        for (PCFMessage response : responses) {
+            bh.consume(PCFConnectionDecoder.decode(response, "QM1"));
+        }
+    }
+
+    @Benchmark
+    public void singlePassReusedRecord(Blackhole bh) {
+        for (PCFMessage response : responses) {
+            bh.consume(PCFConnectionDecoder.decode(response, "QM1", reused));
+        }
+    }
+
+    /**
+     * PCFMonitor.getActiveConnections before PCFConnectionDecoder.
+     */
+    private static PCFMonitor.ConnectionDetails legacyDecode(PCFMessage response) {
+        PCFMonitor.ConnectionDetails conn = new PCFMonitor.ConnectionDetails();
+        try {
+            byte[] connIdBytes = response.getBytesParameterValue(CMQCFC.MQBACF_CONNECTION_ID);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : connIdBytes) {
+                hex.append(String.format("%02X", b));
+            }
+            conn.connectionId = hex.toString();
+        } catch (PCFException e) {
+            // Connection ID not available
+        }
+        try {
+            conn.channelName = response.getStringParameterValue(CMQCFC.MQCACH_CHANNEL_NAME);
+        } catch (PCFException e) {
+            // Channel name not available
+        }
+        try {
+            conn.connectionName = response.getStringParameterValue(CMQCFC.MQCACH_CONNECTION_NAME);
+        } catch (PCFException e) {
+            // Connection name not available
+        }
+        try {
+            conn.applicationTag = response.getStringParameterValue(CMQCFC.MQCACF_APPL_TAG);
+        } catch (PCFException e) {
+            // Application tag not available
+        }
+        try {
+            conn.applicationName = response.getStringParameterValue(CMQCFC.MQCACF_APPL_NAME);
+        } catch (PCFException e) {
+            // Application name not available
+        }
+        try {
+            conn.userId = response.getStringParameterValue(CMQCFC.MQCACH_USER_ID);
+        } catch (PCFException e) {
+            // User ID not available
+        }
+        try {
+            conn.applType = "TYPE_" + response.getIntParameterValue(CMQC.MQIA_APPL_TYPE);
+        } catch (PCFException e) {
+            // Application type not available
+        }
+        try {
+            conn.pid = response.getIntParameterValue(CMQCFC.MQIACF_PROCESS_ID);
+        } catch (PCFException e) {
+            // PID not available
+        }
+        try {
+            conn.tid = response.getIntParameterValue(CMQCFC.MQIACF_THREAD_ID);
+        } catch (PCFException e) {
+            // TID not available
+        }
+        conn.queueManager = "QM1";
+        return conn;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ibm.mq.demo.benchmark;
+
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFMessageAgent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * Recorded DIS CONN replies for the decoder benchmark.
+ *
+ * A recording is a sequence of (int length, PCF bytes) records. Record one from a live queue manager with
+ *   java -cp target/test-classes:target/classes:target/lib/* com.ibm.mq.demo.benchmark.PCFRecording \
+ *        QM1 localhost 1414 APP.SVRCONN app passw0rd dis-conn.pcf
+ * Without a recording, the benchmark uses {@link #synthetic} replies with the same attribute layout.
+ */
+public final class PCFRecording {
+
+    private PCFRecording() {
+    }
+
+    public static void write(Path file, PCFMessage[] responses) throws Exception {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (PCFMessage response : responses) {
+                MQMessage message = new MQMessage();
+                response.write(message);
+                byte[] bytes = new byte[message.getMessageLength()];
+                message.seek(0);
+                message.readFully(bytes);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    public static PCFMessage[] read(Path file) throws Exception {
+        List<PCFMessage> responses = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            while (in.available() > 0) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                MQMessage message = new MQMessage();
+                message.write(bytes);
+                message.seek(0);
+                responses.add(new PCFMessage(message));
+            }
+        }
+        return responses.toArray(new PCFMessage[0]);
+    }
+
+    /**
+     * DIS CONN replies as a queue manager returns them: {@code all} for MQIACF_ALL (UOW ids,
+     * dates, options...), otherwise only the attributes PCFMonitor requests.
+     */
+    public static PCFMessage[] synthetic(int count, boolean all) {
+        PCFMessage[] responses = new PCFMessage[count];
+        for (int i = 0; i < count; i++) {
+            PCFMessage m = new PCFMessage(CMQCFC.MQCFT_RESPONSE, CMQCFC.MQCMD_INQUIRE_CONNECTION, i + 1, i == count - 1);
+            byte[] connectionId = new byte[24];
+            System.arraycopy("AMQCQM1         ".getBytes(), 0, connectionId, 0, 16);
+            for (int b = 0; b < 8; b++) {
+                connectionId[16 + b] = (byte) (i >>> (8 * (7 - b)));
+            }
+            m.addParameter(CMQCFC.MQBACF_CONNECTION_ID, connectionId);
+            m.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, pad("APP.SVRCONN", 20));
+            m.addParameter(CMQCFC.MQCACH_CONNECTION_NAME, pad("10.10.10.2(" + (40000 + i % 20000) + ")", 264));
+            m.addParameter(CMQCFC.MQCACF_APPL_TAG, pad("CONSUMER-" + (i % 50), 28));
+            m.addParameter(CMQCFC.MQCACF_USER_IDENTIFIER, pad("app", 12));
+            m.addParameter(CMQC.MQIA_APPL_TYPE, CMQC.MQAT_JAVA);
+            m.addParameter(CMQCFC.MQIACF_PROCESS_ID, 4242);
+            m.addParameter(CMQCFC.MQIACF_THREAD_ID, i % 64);
+            if (all) {
+                m.addParameter(CMQCFC.MQBACF_CONN_TAG, new byte[128]);
+                m.addParameter(CMQCFC.MQBACF_EXTERNAL_UOW_ID, new byte[128]);
+                m.addParameter(CMQCFC.MQBACF_ORIGIN_UOW_ID, new byte[128]);
+                m.addParameter(CMQCFC.MQBACF_Q_MGR_UOW_ID, new byte[16]);
+                m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_DATE, pad("", 12));
+                m.addParameter(CMQCFC.MQCACF_UOW_LOG_START_TIME, pad("", 8));
+                m.addParameter(CMQCFC.MQCACF_UOW_START_DATE, pad("", 12));
+                m.addParameter(CMQCFC.MQCACF_UOW_START_TIME, pad("", 8));
+                m.addParameter(CMQCFC.MQIACF_CONNECT_OPTIONS, 0x40);
+                m.addParameter(CMQCFC.MQIACF_UOW_STATE, 0);
+                m.addParameter(CMQCFC.MQIACF_UOW_TYPE, 0);
+                m.addParameter(CMQCFC.MQIACF_ASYNC_STATE, 0);
+                m.addParameter(CMQCFC.MQIACF_CONN_INFO_TYPE, CMQCFC.MQIACF_CONN_INFO_CONN);
+            }
+            responses[i] = m;
+        }
+        return responses;
+    }
+
+    private static String pad(String s, int length) {
+        StringBuilder sb = new StringBuilder(length).append(s);
+        while (sb.length() < length) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records DIS CONN(*) ALL from a live queue manager.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7) {
+            System.out.println("Usage: PCFRecording <qm> <host> <port> <channel> <user> <password> <file>");
+            return;
+        }
+        Hashtable<String, Object> props = new Hashtable<>();
+        props.put(CMQC.HOST_NAME_PROPERTY, args[1]);
+        props.put(CMQC.PORT_PROPERTY, Integer.parseInt(args[2]));
+        props.put(CMQC.CHANNEL_PROPERTY, args[3]);
+        props.put(CMQC.USER_ID_PROPERTY, args[4]);
+        props.put(CMQC.PASSWORD_PROPERTY, args[5]);
+        props.put(CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
+
+        MQQueueManager qmgr = new MQQueueManager(args[0], props);
+        PCFMessageAgent agent = new PCFMessageAgent(qmgr);
+        try {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_CONNECTION);
+            request.addParameter(CMQCFC.MQBACF_GENERIC_CONNECTION_ID, new byte[48]);
+            request.addParameter(CMQCFC.MQIACF_CONNECTION_ATTRS, new int[] { CMQCFC.MQIACF_ALL });
+            PCFMessage[] responses = agent.send(request);
+            write(Paths.get(args[6]), responses);
+            System.out.println("Recorded " + responses.length + " replies to " + args[6]);
+        } finally {
+            agent.disconnect();
+            qmgr.disconnect();
+        }
+    }
+}
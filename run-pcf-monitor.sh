@@ -38,7 +38,7 @@ done
 if [ ! -f "PCFRealtimeMonitor.class" ] || [ "PCFRealtimeMonitor.java" -nt "PCFRealtimeMonitor.class" ]; then
     echo
     echo "Compiling PCF monitor..."
-    javac -cp "libs/*:." PCFRealtimeMonitor.java
+    javac -cp "libs/*:." PCFRealtimeMonitor.java PCFMetricStore.java PCFPollScheduler.java
     if [ $? -ne 0 ]; then
         echo "  ✗ Compilation failed"
         exit 1
@@ -48,6 +48,7 @@ fi
 
 echo
 echo "Starting PCF monitor..."
+echo "Metric history: PCF_MONITOR.metrics (query with: java -cp . PCFMetricStore PCF_MONITOR.metrics [series] [-6h])"
 echo "Press Ctrl+C to stop"
 echo
 
@@ -0,0 +1,196 @@
+package com.ibm.mq.failover.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON message converter for hot payloads, wire compatible with the MappingJackson2MessageConverter
+ * in {@link MQConfig} (same {@code _type} property with the class name).
+ *
+ * Jackson readers and writers are looked up once per class and type id and reused, instead of
+ * being resolved on every conversion. The body format is one of:
+ *   - TEXT:  TextMessage with the JSON as a String, as before
+ *   - UTF8:  BytesMessage with UTF-8 JSON, streamed straight into and out of the message body
+ *            without a String or a full-size intermediate byte[]
+ *   - SMILE: BytesMessage with Jackson's binary JSON (Smile), typically smaller and faster to
+ *            parse than text, for consumers that use this converter too
+ *
+ * Bytes messages carry {@code _format} (json or smile) so a receiver decodes either one whatever
+ * its own send format; TextMessages are always JSON.
+ */
+public class CachedJsonMessageConverter implements MessageConverter {
+    
+    public enum Format { TEXT, UTF8, SMILE }
+    
+    public static final String TYPE_ID_PROPERTY = "_type";
+    public static final String FORMAT_PROPERTY = "_format";
+    
+    private final Format format;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+    private final Map<Class<?>, ObjectWriter> jsonWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> smileWriters = new ConcurrentHashMap<>();
+    private final Map<String, ObjectReader> jsonReaders = new ConcurrentHashMap<>();
+    private final Map<String, ObjectReader> smileReaders = new ConcurrentHashMap<>();
+    
+    public CachedJsonMessageConverter(Format format) {
+        this(format, new ObjectMapper(), new SmileMapper());
+    }
+    
+    public CachedJsonMessageConverter(Format format, ObjectMapper jsonMapper, ObjectMapper smileMapper) {
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+        this.smileMapper = smileMapper;
+    }
+    
+    public Format getFormat() {
+        return format;
+    }
+    
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        Class<?> type = object.getClass();
+        Message message;
+        try {
+            if (format == Format.TEXT) {
+                message = session.createTextMessage(writer(jsonWriters, jsonMapper, type).writeValueAsString(object));
+            } else {
+                BytesMessage bytes = session.createBytesMessage();
+                boolean smile = format == Format.SMILE;
+                writer(smile ? smileWriters : jsonWriters, smile ? smileMapper : jsonMapper, type)
+                    .writeValue(new BodyOutputStream(bytes), object);
+                bytes.setStringProperty(FORMAT_PROPERTY, smile ? "smile" : "json");
+                message = bytes;
+            }
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not write " + type.getName() + ": " + e.getMessage(), e);
+        }
+        message.setStringProperty(TYPE_ID_PROPERTY, type.getName());
+        return message;
+    }
+    
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        String typeId = message.getStringProperty(TYPE_ID_PROPERTY);
+        if (typeId == null) {
+            throw new MessageConversionException("Message has no " + TYPE_ID_PROPERTY + " property");
+        }
+        try {
+            if (message instanceof TextMessage) {
+                return reader(jsonReaders, jsonMapper, typeId).readValue(((TextMessage) message).getText());
+            }
+            if (message instanceof BytesMessage) {
+                boolean smile = "smile".equals(message.getStringProperty(FORMAT_PROPERTY));
+                return reader(smile ? smileReaders : jsonReaders, smile ? smileMapper : jsonMapper, typeId)
+                    .readValue(new BodyInputStream((BytesMessage) message));
+            }
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not read " + typeId + ": " + e.getMessage(), e);
+        }
+        throw new MessageConversionException("Unsupported message type " + message.getClass().getName());
+    }
+    
+    private static ObjectWriter writer(Map<Class<?>, ObjectWriter> cache, ObjectMapper mapper, Class<?> type) {
+        return cache.computeIfAbsent(type, mapper::writerFor);
+    }
+    
+    private ObjectReader reader(Map<String, ObjectReader> cache, ObjectMapper mapper, String typeId) {
+        ObjectReader reader = cache.get(typeId);
+        if (reader == null) {
+            try {
+                reader = mapper.readerFor(ClassUtils.forName(typeId, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new MessageConversionException("Unknown " + TYPE_ID_PROPERTY + " " + typeId, e);
+            }
+            cache.putIfAbsent(typeId, reader);
+        }
+        return reader;
+    }
+    
+    /**
+     * Jackson's output buffer written straight into the message body.
+     */
+    private static final class BodyOutputStream extends OutputStream {
+        private final BytesMessage message;
+        
+        private BodyOutputStream(BytesMessage message) {
+            this.message = message;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                message.writeByte((byte) b);
+            } catch (JMSException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                message.writeBytes(b, off, len);
+            } catch (JMSException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * The message body read into Jackson's input buffer.
+     */
+    private static final class BodyInputStream extends InputStream {
+        private final BytesMessage message;
+        private byte[] scratch;
+        
+        private BodyInputStream(BytesMessage message) {
+            this.message = message;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            try {
+                if (off == 0) {
+                    return message.readBytes(b, len);
+                }
+                // readBytes only fills from the start of the array
+                if (scratch == null || scratch.length < len) {
+                    scratch = new byte[len];
+                }
+                int read = message.readBytes(scratch, len);
+                if (read > 0) {
+                    System.arraycopy(scratch, 0, b, off, read);
+                }
+                return read;
+            } catch (JMSException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+}
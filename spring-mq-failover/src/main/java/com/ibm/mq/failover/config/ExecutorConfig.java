@@ -0,0 +1,72 @@
+package com.ibm.mq.failover.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for the listener containers and the test producers.
+ *
+ * With ibm.mq.virtual-threads.enabled each consumer blocked in receive, and each producer, is a
+ * virtual thread, so thousands of consumers cost a few KB of heap each instead of a platform
+ * thread stack. The project builds for Java 17; virtual threads are only used when the runtime
+ * is Java 21 or later and the property falls back to platform threads (with a warning) otherwise.
+ * Before Java 24 a virtual thread blocked inside a synchronized block of the MQ client pins its
+ * carrier thread, so the gain there is mostly memory rather than more parallel receives.
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+    
+    @Value("${ibm.mq.virtual-threads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+    
+    /**
+     * True when virtual threads are requested and the runtime has them.
+     */
+    public boolean useVirtualThreads() {
+        if (!virtualThreadsEnabled) {
+            return false;
+        }
+        if (!virtualThreadsSupported()) {
+            log.warn("ibm.mq.virtual-threads.enabled needs Java 21 or later (running {}), using platform threads",
+                Runtime.version());
+            return false;
+        }
+        return true;
+    }
+    
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+    
+    /**
+     * Threads for the listener container consumers, one per consumer. A ThreadFactory rather than
+     * an Executor bean, which would replace Boot's applicationTaskExecutor for @Async.
+     */
+    @Bean
+    public ThreadFactory mqListenerThreadFactory() {
+        log.info("Listener containers run on {} threads", useVirtualThreads() ? "virtual" : "platform");
+        return threadFactory("mq-listener-");
+    }
+    
+    /**
+     * Threads for the FailoverTestService producers.
+     */
+    @Bean
+    public ThreadFactory mqProducerThreadFactory() {
+        return threadFactory("mq-producer-");
+    }
+    
+    private ThreadFactory threadFactory(String prefix) {
+        if (useVirtualThreads()) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        return new CustomizableThreadFactory(prefix);
+    }
+}
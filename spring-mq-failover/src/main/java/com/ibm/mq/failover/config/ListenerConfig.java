@@ -1,17 +1,25 @@
 package com.ibm.mq.failover.config;
 
+import com.ibm.mq.failover.listener.BatchMessageListenerContainer;
+import com.ibm.mq.failover.listener.DrainCoordinator;
 import com.ibm.mq.failover.listener.FailoverMessageListener;
+import com.ibm.mq.failover.service.MQReasonCodes;
 import jakarta.jms.ConnectionFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
+import org.springframework.jms.config.JmsListenerEndpoint;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.springframework.util.ErrorHandler;
 
+import java.util.concurrent.ThreadFactory;
+
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
@@ -23,17 +31,38 @@ public class ListenerConfig {
     @Value("${ibm.mq.connection.pool.parent-connections:2}")
     private int parentConnections;
     
+    // 0 keeps the cap at parent-connections * sessions-per-connection
+    @Value("${ibm.mq.listener.max-concurrent-consumers:0}")
+    private int maxConcurrentConsumers;
+    
+    // Virtual or platform, see ExecutorConfig
+    private final ThreadFactory mqListenerThreadFactory;
+    
+    // Drains containers whose queue manager is quiescing
+    private final DrainCoordinator drainCoordinator;
+    
     @Bean
     public JmsListenerContainerFactory<DefaultMessageListenerContainer> mqListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory,
+            FailoverMessageListener messageListener) {
         
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        // Each container gets its own failure handling, so a quiescing QM drains only the
+        // container connected to it, and its listener counted on its own for the drain
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory() {
+            @Override
+            public DefaultMessageListenerContainer createListenerContainer(JmsListenerEndpoint endpoint) {
+                DefaultMessageListenerContainer container = super.createListenerContainer(endpoint);
+                configureFactoryContainer(endpoint.getId(), container, messageListener);
+                return container;
+            }
+        };
         factory.setConnectionFactory(connectionFactory);
         
         // Configure concurrent consumers (child sessions)
         factory.setConcurrency(String.format("%d-%d", 
             sessionsPerConnection, 
-            parentConnections * sessionsPerConnection));
+            maxConsumers()));
+        factory.setTaskExecutor(new SimpleAsyncTaskExecutor(mqListenerThreadFactory));
         
         // Session configuration
         factory.setSessionTransacted(true);
@@ -43,35 +72,47 @@ public class ListenerConfig {
         factory.setRecoveryInterval(5000L); // 5 seconds
         factory.setBackOff(new org.springframework.util.backoff.ExponentialBackOff());
         
-        // Error handler for connection failures
-        factory.setErrorHandler(new ErrorHandler() {
-            @Override
-            public void handleError(Throwable t) {
-                log.error("Error in message listener container", t);
-                if (isConnectionError(t)) {
-                    log.warn("Connection error detected, container will attempt recovery");
-                }
-            }
-            
-            private boolean isConnectionError(Throwable t) {
-                String message = t.getMessage();
-                return message != null && (
-                    message.contains("connection") || 
-                    message.contains("MQRC") ||
-                    message.contains("JMS"));
-            }
-        });
-        
         // Cache settings
         factory.setCacheLevel(DefaultJmsListenerContainerFactory.CACHE_CONNECTION);
         
         log.info("Configured JMS Listener Container Factory with {} concurrent consumers", 
-            parentConnections * sessionsPerConnection);
+            maxConsumers());
         
         return factory;
     }
     
+    private void configureFactoryContainer(String name, DefaultMessageListenerContainer container,
+                                           FailoverMessageListener messageListener) {
+        container.setupMessageListener(drainCoordinator.register(name, container, container.getMessageListener()));
+        
+        // Error handler for connection failures
+        container.setErrorHandler(new ErrorHandler() {
+            @Override
+            public void handleError(Throwable t) {
+                log.error("Error in message listener container {}", name, t);
+                if (drainCoordinator.onFailure(name, container, t)) {
+                    log.warn("Queue manager quiescing, draining container {} before it disconnects", name);
+                } else if (MQReasonCodes.isFailover(t)) {
+                    log.warn("Connection error detected (reason {}), container will attempt recovery",
+                        MQReasonCodes.reasonCode(t));
+                }
+            }
+        });
+        container.setExceptionListener(ex -> {
+            // Sessions may come back on another queue manager
+            messageListener.invalidateSessionMetadata();
+            drainCoordinator.onFailure(name, container, ex);
+        });
+    }
+    
+    @Value("${ibm.mq.listener.batch.size:50}")
+    private int batchSize;
+    
+    @Value("${ibm.mq.listener.batch.timeout-ms:100}")
+    private long batchTimeout;
+    
     @Bean
+    @ConditionalOnProperty(prefix = "ibm.mq.listener.batch", name = "enabled", havingValue = "false", matchIfMissing = true)
     public DefaultMessageListenerContainer customListenerContainer(
             ConnectionFactory connectionFactory,
             FailoverMessageListener messageListener) {
@@ -79,11 +120,12 @@ public class ListenerConfig {
         DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
         container.setDestinationName("DEV.QUEUE.1");
-        container.setMessageListener(messageListener);
+        container.setMessageListener(drainCoordinator.register("customListenerContainer", container, messageListener));
         
         // Configure multiple sessions per connection
         container.setConcurrentConsumers(sessionsPerConnection);
-        container.setMaxConcurrentConsumers(parentConnections * sessionsPerConnection);
+        container.setMaxConcurrentConsumers(maxConsumers());
+        container.setTaskExecutor(new SimpleAsyncTaskExecutor(mqListenerThreadFactory));
         
         // Session pooling
         container.setCacheLevel(DefaultMessageListenerContainer.CACHE_SESSION);
@@ -96,11 +138,65 @@ public class ListenerConfig {
         // Connection failure handling
         container.setExceptionListener(ex -> {
             log.error("JMS Exception in container: {}", ex.getMessage());
+            // Sessions may come back on another queue manager
+            messageListener.invalidateSessionMetadata();
+            if (drainCoordinator.onFailure("customListenerContainer", container, ex)) {
+                return;
+            }
+            if (ex.getMessage().contains("MQRC_Q_MGR_NOT_AVAILABLE")) {
+                log.warn("Queue Manager not available, triggering failover recovery");
+            }
+        });
+        
+        return container;
+    }
+    
+    /**
+     * Replaces customListenerContainer when ibm.mq.listener.batch.enabled is set: same queue,
+     * concurrency and failover handling, but up to batch.size messages per transaction.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ibm.mq.listener.batch", name = "enabled", havingValue = "true")
+    public BatchMessageListenerContainer batchListenerContainer(
+            ConnectionFactory connectionFactory,
+            FailoverMessageListener messageListener) {
+        
+        BatchMessageListenerContainer container = new BatchMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setDestinationName("DEV.QUEUE.1");
+        container.setBatchListener(drainCoordinator.register("batchListenerContainer", container, messageListener));
+        container.setBatchSize(batchSize);
+        container.setBatchTimeout(batchTimeout);
+        
+        container.setConcurrentConsumers(sessionsPerConnection);
+        container.setMaxConcurrentConsumers(maxConsumers());
+        container.setTaskExecutor(new SimpleAsyncTaskExecutor(mqListenerThreadFactory));
+        
+        // The batch is read from one cached consumer and committed once
+        container.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
+        container.setSessionTransacted(true);
+        
+        container.setRecoveryInterval(3000L);
+        container.setAcceptMessagesWhileStopping(false);
+        
+        container.setExceptionListener(ex -> {
+            log.error("JMS Exception in batch container: {}", ex.getMessage());
+            messageListener.invalidateSessionMetadata();
+            if (drainCoordinator.onFailure("batchListenerContainer", container, ex)) {
+                return;
+            }
             if (ex.getMessage().contains("MQRC_Q_MGR_NOT_AVAILABLE")) {
                 log.warn("Queue Manager not available, triggering failover recovery");
             }
         });
         
+        log.info("Configured batch listener container: up to {} messages or {} ms per transaction",
+            batchSize, batchTimeout);
+        
         return container;
     }
-}
\ No newline at end of file
+    
+    private int maxConsumers() {
+        return maxConcurrentConsumers > 0 ? maxConcurrentConsumers : parentConnections * sessionsPerConnection;
+    }
+}
@@ -44,6 +44,9 @@ public class MQConfig {
     @Value("${ibm.mq.reconnect-timeout}")
     private int reconnectTimeout;
     
+    @Value("${ibm.mq.converter.format:jackson}")
+    private String converterFormat;
+    
     @Bean
     @Primary
     public MQConnectionFactory mqConnectionFactory() throws JMSException {
@@ -107,6 +110,12 @@ public class MQConfig {
     
     @Bean
     public MessageConverter messageConverter() {
+        if (!"jackson".equalsIgnoreCase(converterFormat)) {
+            CachedJsonMessageConverter.Format format =
+                CachedJsonMessageConverter.Format.valueOf(converterFormat.toUpperCase());
+            log.info("Using cached JSON message converter with {} bodies", format);
+            return new CachedJsonMessageConverter(format);
+        }
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
         converter.setTypeIdPropertyName("_type");
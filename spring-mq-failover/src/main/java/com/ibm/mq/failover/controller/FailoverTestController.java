@@ -1,16 +1,40 @@
 package com.ibm.mq.failover.controller;
 
+import com.ibm.mq.failover.listener.DrainCoordinator;
+import com.ibm.mq.failover.model.AutoscalerStatus;
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.DrainReport;
+import com.ibm.mq.failover.model.MQIUsage;
+import com.ibm.mq.failover.model.MQStatisticsRecord;
+import com.ibm.mq.failover.model.TrackingPage;
+import com.ibm.mq.failover.model.TrackingQuery;
 import com.ibm.mq.failover.service.ConnTagCorrelationService;
 import com.ibm.mq.failover.service.ConnectionTrackingService;
+import com.ibm.mq.failover.service.ListenerAutoscaler;
+import com.ibm.mq.failover.service.LifecycleJournal;
+import com.ibm.mq.failover.service.LifecycleJournalReader;
+import com.ibm.mq.failover.service.MQStatisticsAggregator;
+import com.ibm.mq.failover.service.TrackingExportWriter;
 import com.ibm.mq.failover.test.FailoverTestService;
 import com.ibm.mq.failover.test.QueueManagerRehydrationTest;
 import com.ibm.mq.failover.test.RehydrationTestResult;
+import com.ibm.mq.failover.test.RollingRestartOrchestrator;
+import com.ibm.mq.failover.test.RollingRestartResult;
 import com.ibm.mq.failover.test.TestResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -23,6 +47,11 @@ public class FailoverTestController {
     private final QueueManagerRehydrationTest rehydrationTest;
     private final ConnectionTrackingService trackingService;
     private final ConnTagCorrelationService correlationService;
+    private final ObjectProvider<LifecycleJournal> lifecycleJournal;
+    private final ObjectProvider<MQStatisticsAggregator> statisticsAggregator;
+    private final ObjectProvider<ListenerAutoscaler> listenerAutoscaler;
+    private final DrainCoordinator drainCoordinator;
+    private final RollingRestartOrchestrator rollingRestartOrchestrator;
     
     @PostMapping("/test/start")
     public ResponseEntity<String> startFailoverTest() {
@@ -50,10 +79,79 @@ public class FailoverTestController {
         return ResponseEntity.ok(report);
     }
     
+    @PostMapping("/test/rolling-restart")
+    public ResponseEntity<String> startRollingRestart() {
+        log.info("Starting rolling restart via REST API");
+        
+        rollingRestartOrchestrator.runRollingRestart()
+            .thenAccept(result -> log.info("Rolling restart completed, zero loss: {}", result.isZeroLoss()));
+        
+        return ResponseEntity.ok("Rolling restart started. Check logs or GET /api/failover/test/rolling-restart.");
+    }
+    
+    /**
+     * Result of the last rolling restart: per step throughput, p99 latency, recovery and
+     * convergence time, and messages lost or duplicated.
+     */
+    @GetMapping("/test/rolling-restart")
+    public ResponseEntity<RollingRestartResult> getRollingRestartResult() {
+        RollingRestartResult result = rollingRestartOrchestrator.getLastResult();
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/connections")
-    public ResponseEntity<String> getConnectionStatus() {
-        String table = trackingService.generateConnectionTable();
-        return ResponseEntity.ok(table);
+    public ResponseEntity<StreamingResponseBody> getConnectionStatus(
+            @RequestParam(required = false) String qm,
+            @RequestParam(required = false) ConnectionInfo.ConnectionStatus status,
+            @RequestParam(required = false) String appTag) {
+        return export(TrackingExportWriter.Format.TEXT, query(qm, status, appTag, 0L, 0));
+    }
+    
+    /**
+     * Streams the tracking table as JSON lines or CSV, one row per parent connection or session.
+     * Pages hold {@code limit} parent connections with all their sessions; pass the
+     * {@code X-Next-Cursor} response header back as {@code cursor} to fetch the next page.
+     */
+    @GetMapping("/connections/export")
+    public ResponseEntity<StreamingResponseBody> exportConnections(
+            @RequestParam(defaultValue = "JSONL") TrackingExportWriter.Format format,
+            @RequestParam(required = false) String qm,
+            @RequestParam(required = false) ConnectionInfo.ConnectionStatus status,
+            @RequestParam(required = false) String appTag,
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return export(format, query(qm, status, appTag, cursor, limit));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> export(TrackingExportWriter.Format format, TrackingQuery query) {
+        TrackingPage page = trackingService.selectConnections(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"));
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", String.valueOf(page.getNextCursor()));
+        }
+        return response.body(out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            trackingService.writeConnections(page, TrackingExportWriter.of(format, writer));
+            if (format == TrackingExportWriter.Format.TEXT) {
+                writer.write("Retention: " + trackingService.getTrackingStats().getSummary() + "\n");
+            }
+            writer.flush();
+        });
+    }
+    
+    private static TrackingQuery query(String qm, ConnectionInfo.ConnectionStatus status, String appTag,
+                                       long cursor, int limit) {
+        return TrackingQuery.builder()
+            .queueManager(qm)
+            .status(status)
+            .applicationTag(appTag)
+            .cursor(cursor)
+            .limit(limit)
+            .build();
     }
     
     @GetMapping("/correlation")
@@ -67,4 +165,59 @@ public class FailoverTestController {
         correlationService.verifyParentChildGrouping(connectionId);
         return ResponseEntity.ok("Verification complete. Check logs for details.");
     }
-}
\ No newline at end of file
+    
+    /**
+     * Tracking table rebuilt from the lifecycle journal, e.g. {@code ?at=2025-09-05T02:15:00Z}.
+     */
+    @GetMapping("/journal/replay")
+    public ResponseEntity<List<ConnectionInfo>> replayJournal(@RequestParam(required = false) String at) throws IOException {
+        LifecycleJournal journal = lifecycleJournal.getIfAvailable();
+        if (journal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(LifecycleJournalReader.replay(journal.getDirectory(), at != null ? Instant.parse(at) : null));
+    }
+    
+    /**
+     * Aggregated statistics/accounting buckets, e.g. {@code ?kind=QUEUE_STATISTICS&qm=QM1&from=2025-09-05T02:00:00Z}.
+     * Without {@code kind}, MQI accounting summed per queue manager and APPLTAG over the range.
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<List<MQIUsage>> getStatistics(
+            @RequestParam(required = false) MQStatisticsRecord.Kind kind,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String qm,
+            @RequestParam(required = false) String appTag) {
+        MQStatisticsAggregator aggregator = statisticsAggregator.getIfAvailable();
+        if (aggregator == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Instant fromInstant = from != null ? Instant.parse(from) : null;
+        Instant toInstant = to != null ? Instant.parse(to) : null;
+        if (kind == null) {
+            return ResponseEntity.ok(aggregator.applicationCost(fromInstant, toInstant));
+        }
+        return ResponseEntity.ok(aggregator.query(kind, fromInstant, toInstant, qm, appTag));
+    }
+    
+    /**
+     * Last autoscaler evaluation: backlog and arrival rate per QM, desired consumers and parent connections.
+     */
+    @GetMapping("/autoscaler")
+    public ResponseEntity<AutoscalerStatus> getAutoscalerStatus() {
+        ListenerAutoscaler autoscaler = listenerAutoscaler.getIfAvailable();
+        if (autoscaler == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(autoscaler.getStatus());
+    }
+    
+    /**
+     * Recent graceful drains after quiesce signals: timings, throughput dip and rollbacks avoided.
+     */
+    @GetMapping("/drains")
+    public ResponseEntity<List<DrainReport>> getDrains() {
+        return ResponseEntity.ok(drainCoordinator.getReports());
+    }
+}
@@ -0,0 +1,19 @@
+package com.ibm.mq.failover.listener;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+
+import java.util.List;
+
+/**
+ * Listener for {@link BatchMessageListenerContainer}: receives all messages of one transaction.
+ *
+ * Throwing rolls back the whole batch; the messages are redelivered (and eventually backed out)
+ * together.
+ */
+@FunctionalInterface
+public interface BatchMessageListener {
+    
+    void onMessages(List<Message> messages, Session session) throws JMSException;
+}
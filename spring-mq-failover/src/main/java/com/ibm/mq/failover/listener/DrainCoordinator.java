@@ -0,0 +1,264 @@
+package com.ibm.mq.failover.listener;
+
+import com.ibm.mq.failover.model.DrainReport;
+import com.ibm.mq.failover.service.MQReasonCodes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains listener containers when their queue manager is ended for maintenance, instead of
+ * waiting for it to break the connections.
+ *
+ * A controlled shutdown (endmqm, or a channel stopped in quiesce mode) first shows up as
+ * MQRC_Q_MGR_QUIESCING / STOPPING or MQRC_CONNECTION_QUIESCING / STOPPING on the connections of
+ * that queue manager, while commits still succeed. When a container reports one of these through
+ * its exception listener ({@link #onFailure(String, DefaultMessageListenerContainer, Throwable)})
+ * it is drained on a separate thread:
+ *   1. stop: consumers take no new messages (acceptMessagesWhileStopping is off)
+ *   2. wait up to {@code ibm.mq.drain.timeout-ms} for the container's in-flight messages
+ *   3. shutdown: the invokers commit what they were processing and the connection is closed
+ *   4. initialize and start: a new connection through the CCDT, which skips the quiescing
+ *      queue manager since it refuses new connections
+ *
+ * Every container is {@link #register registered} with its listener wrapped in an
+ * {@link InFlightListener}, so in-flight, processed and rolled-back counts are its own even though
+ * the containers share one listener bean; containers of the listener factory get their own
+ * exception listener and error handler (see ListenerConfig), so only the container whose queue
+ * manager is ending is drained. Each drain is reported ({@link #getReports},
+ * mq.listener.drains{outcome}) with the throughput dip against the container's rate before the
+ * signal, and the in-flight messages that committed rather than being rolled back.
+ */
+@Slf4j
+@Component
+public class DrainCoordinator {
+    
+    private static final int MAX_REPORTS = 50;
+    // Throughput before a drain is measured over this window
+    private static final long RATE_WINDOW_MILLIS = 10_000;
+    
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final MeterRegistry registry;
+    private final Timer drainTimer;
+    private final Counter rollbacksAvoided;
+    
+    private final Map<DefaultMessageListenerContainer, Tracked> containers = new ConcurrentHashMap<>();
+    private final Set<DefaultMessageListenerContainer> draining = ConcurrentHashMap.newKeySet();
+    private final Deque<DrainReport> reports = new ArrayDeque<>();
+    
+    /**
+     * A registered container: its counting listener and (time, processed count) samples, oldest first.
+     */
+    private static final class Tracked {
+        final String name;
+        final InFlightListener listener;
+        final Deque<long[]> samples = new ArrayDeque<>();
+        
+        Tracked(String name, InFlightListener listener) {
+            this.name = name;
+            this.listener = listener;
+        }
+    }
+    
+    @Autowired
+    public DrainCoordinator(
+            MeterRegistry registry,
+            @Value("${ibm.mq.drain.timeout-ms:20000}") long timeoutMillis) {
+        this(registry,
+            Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "mq-drain");
+                thread.setDaemon(true);
+                return thread;
+            }),
+            timeoutMillis);
+    }
+    
+    DrainCoordinator(MeterRegistry registry, Executor executor, long timeoutMillis) {
+        this.registry = registry;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.drainTimer = Timer.builder("mq.listener.drain.duration")
+            .description("Time from a quiesce signal until the container was reconnected")
+            .register(registry);
+        this.rollbacksAvoided = Counter.builder("mq.listener.drain.rollbacks-avoided")
+            .description("In-flight messages committed during a drain instead of rolled back by the disconnect")
+            .register(registry);
+    }
+    
+    /**
+     * Wraps {@code listener} to count the container's own work. The caller installs the returned
+     * listener on the container (setupMessageListener, or setBatchListener for batch containers).
+     */
+    public InFlightListener register(String name, DefaultMessageListenerContainer container, Object listener) {
+        InFlightListener counting = new InFlightListener(listener);
+        containers.put(container, new Tracked(name, counting));
+        return counting;
+    }
+    
+    /**
+     * Drains the container if the failure means its queue manager is quiescing. Returns whether
+     * a drain was started.
+     */
+    public boolean onFailure(String name, DefaultMessageListenerContainer container, Throwable failure) {
+        if (!MQReasonCodes.isQuiescing(failure)) {
+            return false;
+        }
+        if (!containers.containsKey(container)) {
+            // Not wrapped, so nothing to wait for: the drain only reconnects
+            log.debug("Container {} not registered, draining without in-flight counts", name);
+            register(name, container, container.getMessageListener());
+        }
+        if (!draining.add(container)) {
+            log.debug("Container {} already draining", name);
+            return false;
+        }
+        int reasonCode = MQReasonCodes.reasonCode(failure);
+        log.warn("Queue manager of container {} is ending (reason {}), draining", name, reasonCode);
+        executor.execute(() -> {
+            try {
+                drain(name, container, reasonCode);
+            } finally {
+                draining.remove(container);
+            }
+        });
+        return true;
+    }
+    
+    public List<DrainReport> getReports() {
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+    
+    /**
+     * Samples each container's processed count for its throughput before a drain.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void sample() {
+        long now = System.currentTimeMillis();
+        for (Tracked tracked : containers.values()) {
+            synchronized (tracked.samples) {
+                tracked.samples.addLast(new long[] {now, tracked.listener.getProcessed()});
+                while (tracked.samples.size() > 2 && now - tracked.samples.peekFirst()[0] > RATE_WINDOW_MILLIS) {
+                    tracked.samples.removeFirst();
+                }
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+    
+    DrainReport drain(String name, DefaultMessageListenerContainer container, int reasonCode) {
+        Tracked tracked = containers.get(container);
+        InFlightListener listener = tracked.listener;
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        double before = recentThroughput(tracked);
+        long processedAtStart = listener.getProcessed();
+        long failedAtStart = listener.getFailed();
+        int inFlightAtStart = listener.getInFlight();
+        DrainReport.Outcome outcome = DrainReport.Outcome.DRAINED;
+        String error = null;
+        
+        container.stop();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (listener.getInFlight() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int stillInFlight = listener.getInFlight();
+        if (stillInFlight > 0) {
+            outcome = DrainReport.Outcome.TIMED_OUT;
+            log.warn("Container {} still has {} messages in flight after {} ms, reconnecting anyway",
+                name, stillInFlight, timeoutMillis);
+        }
+        long drained = System.nanoTime();
+        
+        try {
+            // Waits for the invokers to commit, then closes the connection
+            container.shutdown();
+            container.initialize();
+            container.start();
+        } catch (RuntimeException e) {
+            outcome = DrainReport.Outcome.FAILED;
+            error = e.getMessage();
+            log.error("Reconnecting container {} after drain failed: {}", name, e.getMessage());
+        }
+        long end = System.nanoTime();
+        
+        int rolledBack = (int) (listener.getFailed() - failedAtStart);
+        int avoided = Math.max(0, inFlightAtStart - rolledBack - stillInFlight);
+        double seconds = Math.max((end - start) / 1e9, 0.001);
+        double during = (listener.getProcessed() - processedAtStart) / seconds;
+        DrainReport report = DrainReport.builder()
+            .container(name)
+            .reasonCode(reasonCode)
+            .startedAt(startedAt)
+            .outcome(outcome)
+            .drainMillis(TimeUnit.NANOSECONDS.toMillis(drained - start))
+            .reconnectMillis(TimeUnit.NANOSECONDS.toMillis(end - drained))
+            .inFlightAtStart(inFlightAtStart)
+            .rolledBack(rolledBack)
+            .rollbacksAvoided(avoided)
+            .throughputBefore(before)
+            .throughputDuring(during)
+            .throughputDipPercent(before > 0 ? Math.max(0, 100 * (1 - during / before)) : 0)
+            .error(error)
+            .build();
+        
+        drainTimer.record(end - start, TimeUnit.NANOSECONDS);
+        rollbacksAvoided.increment(avoided);
+        registry.counter("mq.listener.drains", "outcome", outcome.name()).increment();
+        synchronized (reports) {
+            reports.addLast(report);
+            while (reports.size() > MAX_REPORTS) {
+                reports.removeFirst();
+            }
+        }
+        log.info("Drained container {}: {} in {} ms + {} ms reconnect, {} in flight, {} rollbacks avoided, "
+                + "throughput {} -> {} msg/s", name, outcome, report.getDrainMillis(), report.getReconnectMillis(),
+            inFlightAtStart, avoided, String.format("%.1f", before), String.format("%.1f", during));
+        return report;
+    }
+    
+    private static double recentThroughput(Tracked tracked) {
+        synchronized (tracked.samples) {
+            if (tracked.samples.size() < 2) {
+                return 0;
+            }
+            long[] first = tracked.samples.peekFirst();
+            long[] last = tracked.samples.peekLast();
+            return last[0] > first[0] ? (last[1] - first[1]) * 1000.0 / (last[0] - first[0]) : 0;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ibm.mq.failover.listener;
 
 import com.ibm.mq.failover.service.ConnectionTrackingService;
+import com.ibm.mq.failover.service.FailoverMetrics;
 import com.ibm.mq.jms.MQConnection;
 import com.ibm.mq.jms.MQSession;
 import com.ibm.msg.client.jms.JmsPropertyContext;
@@ -8,48 +9,95 @@ import com.ibm.msg.client.wmq.WMQConstants;
 import jakarta.jms.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.jms.listener.SessionAwareMessageListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Listener for the test queue that records which connection and queue manager each session
+ * consumes on.
+ *
+ * Connection id, CONNTAG and queue manager are read from the session's property context once per
+ * connection and cached by CONNECTION_ID, which child sessions share with their parent: a container
+ * that opens a session per receive (CACHE_CONNECTION) pays one property read per message instead of
+ * three. Sessions that are reused skip even that through a weak per-session entry, which goes away
+ * with the session. The connection's entry is dropped when a session throws and all entries are
+ * dropped by {@link #invalidateSessionMetadata()} when a container reports an exception or reconnects.
+ * Per-message logging is DEBUG only; at INFO one message in
+ * {@code ibm.mq.listener.diagnostics-sample-every} is logged with its session metadata.
+ *
+ * Also consumes batches from {@link BatchMessageListenerContainer}; a batch is processed in order
+ * and the container commits it once.
+ *
+ * Message counts, redeliveries and processing time per queue manager go to {@link FailoverMetrics}.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class FailoverMessageListener implements SessionAwareMessageListener<Message> {
+public class FailoverMessageListener implements SessionAwareMessageListener<Message>, BatchMessageListener {
     
     private final ConnectionTrackingService trackingService;
+    private final FailoverMetrics metrics;
     private final ConcurrentHashMap<String, String> sessionToConnectionMap = new ConcurrentHashMap<>();
+    // Connection ids only change on reconnect; past this many the cache starts over
+    private static final int MAX_CACHED_CONNECTIONS = 1024;
+    
+    private final ConcurrentHashMap<String, SessionMetadata> connectionMetadata = new ConcurrentHashMap<>();
+    // Weak and keyed by session identity: MQSession and Spring's cached session proxies do not override equals
+    private final Map<Session, SessionMetadata> sessionMetadata = Collections.synchronizedMap(new WeakHashMap<>());
     private final AtomicInteger messageCount = new AtomicInteger(0);
     private final AtomicInteger errorCount = new AtomicInteger(0);
+    // Messages inside onMessage/onMessages right now
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger metadataLookups = new AtomicInteger(0);
+    
+    @Value("${ibm.mq.listener.diagnostics-sample-every:1000}")
+    private int diagnosticsSampleEvery = 1000;
+    
+    /**
+     * Connection identity of one session, read once from its property context, and the meters of
+     * its queue manager.
+     */
+    static final class SessionMetadata {
+        final String connectionId;
+        final String connTag;
+        final String queueManager;
+        final FailoverMetrics.QueueManagerMeters meters;
+        
+        SessionMetadata(String connectionId, String connTag, String queueManager,
+                        FailoverMetrics.QueueManagerMeters meters) {
+            this.connectionId = connectionId;
+            this.connTag = connTag;
+            this.queueManager = queueManager;
+            this.meters = meters;
+        }
+    }
     
     @Override
     @JmsListener(destination = "${ibm.mq.test-queue}", containerFactory = "mqListenerContainerFactory")
     public void onMessage(Message message, Session session) throws JMSException {
-        String threadName = Thread.currentThread().getName();
-        long threadId = Thread.currentThread().getId();
         int msgNum = messageCount.incrementAndGet();
+        long start = System.nanoTime();
+        SessionMetadata metadata = null;
+        inFlight.incrementAndGet();
         
         try {
-            // Extract connection and session information
-            String connectionId = extractConnectionId(session);
-            String sessionConnTag = extractSessionConnTag(session);
-            String queueManager = extractQueueManager(session);
-            
-            log.info("[MSG-{}] Received message on thread: {} (ID: {})", msgNum, threadName, threadId);
-            log.info("[MSG-{}] Session QM: {}, CONNTAG: {}, ConnectionID: {}", 
-                msgNum, queueManager, sessionConnTag, connectionId);
-            
-            // Track session-to-connection mapping
-            sessionToConnectionMap.put(sessionConnTag, connectionId);
+            metadata = metadataOf(session);
+            logReceived(msgNum, metadata);
             
             // Process the message
             if (message instanceof TextMessage) {
                 TextMessage textMessage = (TextMessage) message;
                 String content = textMessage.getText();
-                log.info("[MSG-{}] Message content: {}", msgNum, content);
+                log.debug("[MSG-{}] Message content: {}", msgNum, content);
                 
                 // Simulate processing
                 processMessage(content, session);
@@ -60,18 +108,156 @@ public class FailoverMessageListener implements SessionAwareMessageListener<Mess
                 message.acknowledge();
                 log.debug("[MSG-{}] Message acknowledged", msgNum);
             }
+            metadata.meters.recordMessage(isRedelivered(message), System.nanoTime() - start, true);
             
         } catch (JMSException e) {
-            errorCount.incrementAndGet();
-            log.error("[MSG-{}] Error processing message: {}", msgNum, e.getMessage(), e);
+            metersOf(metadata).recordMessage(isRedelivered(message), System.nanoTime() - start, false);
+            handleListenerFailure(msgNum, session, metadata, e);
+            throw e; // Rethrow to trigger retry/DLQ handling
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    @Override
+    public void onMessages(List<Message> messages, Session session) throws JMSException {
+        int lastMsgNum = messageCount.addAndGet(messages.size());
+        int msgNum = lastMsgNum - messages.size();
+        long start = System.nanoTime();
+        int redelivered = 0;
+        SessionMetadata metadata = null;
+        inFlight.addAndGet(messages.size());
+        
+        try {
+            metadata = metadataOf(session);
+            log.debug("[MSG-{}..{}] Received batch of {}", msgNum + 1, lastMsgNum, messages.size());
             
-            // Check if this is a connection failure
-            if (isConnectionError(e)) {
-                log.warn("[MSG-{}] Connection error detected, session will be reestablished", msgNum);
-                handleConnectionFailure(session);
+            for (Message message : messages) {
+                msgNum++;
+                logReceived(msgNum, metadata);
+                if (isRedelivered(message)) {
+                    redelivered++;
+                }
+                if (message instanceof TextMessage) {
+                    TextMessage textMessage = (TextMessage) message;
+                    String content = textMessage.getText();
+                    log.debug("[MSG-{}] Message content: {}", msgNum, content);
+                    processMessage(content, session);
+                }
             }
+            // No per-message acknowledge: the container commits or acknowledges the batch
+            metadata.meters.recordBatch(messages.size(), redelivered, System.nanoTime() - start, true);
             
-            throw e; // Rethrow to trigger retry/DLQ handling
+        } catch (JMSException e) {
+            metersOf(metadata).recordBatch(messages.size(), redelivered, System.nanoTime() - start, false);
+            handleListenerFailure(msgNum, session, metadata, e);
+            throw e; // The container rolls back the whole batch
+        } finally {
+            inFlight.addAndGet(-messages.size());
+        }
+    }
+    
+    /**
+     * Drops all cached session metadata, e.g. after the connection reported an exception or
+     * reconnected to another queue manager.
+     */
+    public void invalidateSessionMetadata() {
+        int cached = connectionMetadata.size();
+        connectionMetadata.clear();
+        sessionMetadata.clear();
+        log.info("Invalidated cached metadata of {} connections", cached);
+    }
+    
+    /**
+     * Number of full property-context reads so far; one per connection unless invalidated.
+     */
+    public int getMetadataLookups() {
+        return metadataLookups.get();
+    }
+    
+    public int getMessageCount() {
+        return messageCount.get();
+    }
+    
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+    
+    /**
+     * Messages being processed right now, across all containers using this listener.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    private SessionMetadata metadataOf(Session session) {
+        SessionMetadata metadata = sessionMetadata.get(session);
+        if (metadata != null) {
+            return metadata;
+        }
+        String connectionId = extractConnectionId(session);
+        if ("UNKNOWN".equals(connectionId)) {
+            // Nothing to share it under: read it for this session only
+            metadata = readSessionMetadata(session, connectionId);
+        } else {
+            if (connectionMetadata.size() >= MAX_CACHED_CONNECTIONS) {
+                connectionMetadata.clear();
+            }
+            metadata = connectionMetadata.computeIfAbsent(connectionId, id -> readSessionMetadata(session, id));
+        }
+        sessionMetadata.put(session, metadata);
+        return metadata;
+    }
+    
+    private SessionMetadata readSessionMetadata(Session session, String connectionId) {
+        metadataLookups.incrementAndGet();
+        String queueManager = extractQueueManager(session);
+        SessionMetadata metadata = new SessionMetadata(connectionId, extractSessionConnTag(session),
+            queueManager, metrics.forQueueManager(queueManager));
+        // Track session-to-connection mapping
+        sessionToConnectionMap.put(metadata.connTag, metadata.connectionId);
+        log.debug("Session on QM {} (CONNTAG: {}, ConnectionID: {})",
+            metadata.queueManager, metadata.connTag, metadata.connectionId);
+        return metadata;
+    }
+    
+    private FailoverMetrics.QueueManagerMeters metersOf(SessionMetadata metadata) {
+        return metadata != null ? metadata.meters : metrics.forQueueManager(null);
+    }
+    
+    private static boolean isRedelivered(Message message) {
+        try {
+            return message.getJMSRedelivered();
+        } catch (JMSException e) {
+            return false;
+        }
+    }
+    
+    private void logReceived(int msgNum, SessionMetadata metadata) {
+        if (log.isDebugEnabled()) {
+            log.debug("[MSG-{}] Received on thread {}, session QM: {}, CONNTAG: {}, ConnectionID: {}",
+                msgNum, Thread.currentThread().getName(), metadata.queueManager, metadata.connTag, metadata.connectionId);
+        } else if (diagnosticsSampleEvery > 0 && msgNum % diagnosticsSampleEvery == 0) {
+            log.info("[MSG-{}] Sampled: thread {}, session QM: {}, CONNTAG: {}, ConnectionID: {}, errors so far: {}",
+                msgNum, Thread.currentThread().getName(), metadata.queueManager, metadata.connTag,
+                metadata.connectionId, errorCount.get());
+        }
+    }
+    
+    private void handleListenerFailure(int msgNum, Session session, SessionMetadata metadata, JMSException e) {
+        errorCount.incrementAndGet();
+        log.error("[MSG-{}] Error processing message: {}", msgNum, e.getMessage(), e);
+        
+        // The session may be recovered onto another connection; read its metadata again next time
+        sessionMetadata.remove(session);
+        if (metadata != null) {
+            connectionMetadata.remove(metadata.connectionId, metadata);
+        }
+        
+        // Check if this is a connection failure
+        if (isConnectionError(e)) {
+            log.warn("[MSG-{}] Connection error detected, session will be reestablished", msgNum);
+            handleConnectionFailure(metadata != null ? metadata.connTag : extractSessionConnTag(session), e);
         }
     }
     
@@ -92,7 +278,7 @@ public class FailoverMessageListener implements SessionAwareMessageListener<Mess
         }
         
         // Normal processing
-        log.info("Message processed successfully: {}", content);
+        log.debug("Message processed successfully: {}", content);
     }
     
     private String extractConnectionId(Session session) {
@@ -168,9 +354,8 @@ public class FailoverMessageListener implements SessionAwareMessageListener<Mess
                message.contains("connection") && message.contains("lost");
     }
     
-    private void handleConnectionFailure(Session session) {
+    private void handleConnectionFailure(String sessionTag, JMSException cause) {
         try {
-            String sessionTag = extractSessionConnTag(session);
             String connectionId = sessionToConnectionMap.get(sessionTag);
             
             log.info("Handling connection failure for session: {}, connection: {}", 
@@ -179,7 +364,7 @@ public class FailoverMessageListener implements SessionAwareMessageListener<Mess
             // Update tracking service
             if (connectionId != null) {
                 trackingService.updateConnectionStatus(connectionId, 
-                    com.ibm.mq.failover.model.ConnectionInfo.ConnectionStatus.RECONNECTING);
+                    com.ibm.mq.failover.model.ConnectionInfo.ConnectionStatus.RECONNECTING, cause.getMessage());
             }
             
         } catch (Exception e) {
@@ -192,6 +377,7 @@ public class FailoverMessageListener implements SessionAwareMessageListener<Mess
         log.info("Messages processed: {}", messageCount.get());
         log.info("Errors encountered: {}", errorCount.get());
         log.info("Active session mappings: {}", sessionToConnectionMap.size());
+        log.info("Cached connection metadata: {} ({} lookups)", connectionMetadata.size(), metadataLookups.get());
         log.info("Session-Connection mappings: {}", sessionToConnectionMap);
     }
 }
\ No newline at end of file
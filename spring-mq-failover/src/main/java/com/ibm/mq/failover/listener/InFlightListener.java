@@ -0,0 +1,81 @@
+package com.ibm.mq.failover.listener;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the listener of one container and counts the messages it is processing, has processed
+ * and has thrown on, so a drain of that container ({@link DrainCoordinator}) waits for and
+ * reports only its own work, even when several containers share one listener bean.
+ *
+ * Delegates to a {@link SessionAwareMessageListener}, a plain {@link MessageListener} or a
+ * {@link BatchMessageListener}.
+ */
+public class InFlightListener implements SessionAwareMessageListener<Message>, BatchMessageListener {
+
+    private final Object delegate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public InFlightListener(Object delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(Message message, Session session) throws JMSException {
+        inFlight.incrementAndGet();
+        try {
+            if (delegate instanceof SessionAwareMessageListener) {
+                ((SessionAwareMessageListener<Message>) delegate).onMessage(message, session);
+            } else {
+                ((MessageListener) delegate).onMessage(message);
+            }
+            processed.incrementAndGet();
+        } catch (JMSException | RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void onMessages(List<Message> messages, Session session) throws JMSException {
+        inFlight.addAndGet(messages.size());
+        try {
+            ((BatchMessageListener) delegate).onMessages(messages, session);
+            processed.addAndGet(messages.size());
+        } catch (JMSException | RuntimeException e) {
+            // The whole batch rolls back
+            failed.addAndGet(messages.size());
+            throw e;
+        } finally {
+            inFlight.addAndGet(-messages.size());
+        }
+    }
+
+    public Object getDelegate() {
+        return delegate;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ibm.mq.failover.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Last evaluation of the listener autoscaler: what it saw per queue manager and what it decided.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutoscalerStatus {
+    private Instant evaluatedAt;
+    private int currentConsumers;
+    private int desiredConsumers;
+    private int desiredParentConnections;
+    private double messagesPerConsumerSecond;
+    private Map<String, Integer> depthByQueueManager;
+    private Map<String, Double> arrivalRateByQueueManager;
+    private Map<String, Integer> neededByQueueManager;
+    private String decision;
+}
@@ -0,0 +1,288 @@
+package com.ibm.mq.failover.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed, immutable identity of an MQ connection.
+ *
+ * Built once from either a full CONNTAG ({@code MQCT<16-hex-handle><QM>_<yyyy-MM-dd_HH.mm.ss><APPLTAG>})
+ * or a 48-hex-char CONNECTION_ID ({@code 414D5143<QM padded to 12 bytes><16-hex-handle>}).
+ * Both forms carry the same connection handle and queue manager, but a CONNECTION_ID has room for
+ * only the first 12 characters of the name. Equality therefore compares the handle as a
+ * {@code long} and the queue manager as the CONNECTION_ID holds it, so the key parsed from a
+ * CONNTAG equals the key parsed from the matching CONNECTION_ID for any name length. Those
+ * 12-character names are interned in a bounded table, so equal keys usually share one string.
+ *
+ * Values that match neither format are kept as opaque keys compared by their raw string.
+ */
+public final class ConnTag {
+
+    private static final String CONNTAG_PREFIX = "MQCT";
+    private static final String CONNECTION_ID_PREFIX = "414D5143"; // "AMQC"
+    private static final int HANDLE_HEX_LENGTH = 16;
+    private static final int CONNECTION_ID_LENGTH = 48;
+    private static final int TIMESTAMP_LENGTH = 19; // yyyy-MM-dd_HH.mm.ss
+    private static final int QM_FIELD_LENGTH = (CONNECTION_ID_LENGTH - CONNECTION_ID_PREFIX.length() - HANDLE_HEX_LENGTH) / 2;
+    // Far more than the queue managers one application sees; cleared when full
+    private static final int MAX_INTERNED = 1024;
+
+    private static final ConcurrentHashMap<String, String> INTERNED = new ConcurrentHashMap<>();
+
+    private final long handle;
+    private final String queueManager;
+    private final String queueManagerKey;
+    private final long queueManagerTimestamp;
+    private final String applicationTag;
+    private final String opaque;
+    private final int hash;
+
+    private ConnTag(long handle, String queueManager, long queueManagerTimestamp, String applicationTag) {
+        this.handle = handle;
+        this.queueManagerKey = intern(queueManagerField(queueManager));
+        this.queueManager = queueManager.equals(queueManagerKey) ? queueManagerKey : queueManager;
+        this.queueManagerTimestamp = queueManagerTimestamp;
+        this.applicationTag = applicationTag;
+        this.opaque = null;
+        this.hash = 31 * Long.hashCode(handle) + queueManagerKey.hashCode();
+    }
+
+    private ConnTag(String opaque) {
+        this.handle = 0L;
+        this.queueManager = null;
+        this.queueManagerKey = null;
+        this.queueManagerTimestamp = 0L;
+        this.applicationTag = null;
+        this.opaque = opaque;
+        this.hash = opaque.hashCode();
+    }
+
+    /**
+     * Parses either supported format, falling back to an opaque key. Returns null for null input.
+     */
+    public static ConnTag of(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.startsWith(CONNTAG_PREFIX)) {
+            return parse(value);
+        }
+        return fromConnectionId(value);
+    }
+
+    /**
+     * Parses a full CONNTAG as returned by JMS_IBM_CONNECTION_TAG.
+     */
+    public static ConnTag parse(String connTag) {
+        if (connTag == null) {
+            return null;
+        }
+        int handleEnd = CONNTAG_PREFIX.length() + HANDLE_HEX_LENGTH;
+        if (!connTag.startsWith(CONNTAG_PREFIX) || connTag.length() <= handleEnd) {
+            return opaque(connTag);
+        }
+        if (!isHex(connTag, CONNTAG_PREFIX.length(), handleEnd)) {
+            return opaque(connTag);
+        }
+        long handle = parseHex(connTag, CONNTAG_PREFIX.length(), handleEnd);
+
+        // QM names may contain '_', so the QM ends at the '_' that introduces a timestamp
+        int separator = -1;
+        for (int i = connTag.indexOf('_', handleEnd + 1); i >= 0; i = connTag.indexOf('_', i + 1)) {
+            if (isTimestampAt(connTag, i + 1)) {
+                separator = i;
+                break;
+            }
+        }
+
+        if (separator < 0) {
+            return new ConnTag(handle, connTag.substring(handleEnd), 0L, "");
+        }
+        int timestampEnd = separator + 1 + TIMESTAMP_LENGTH;
+        return new ConnTag(handle,
+            connTag.substring(handleEnd, separator),
+            parseTimestamp(connTag, separator + 1),
+            connTag.substring(timestampEnd));
+    }
+
+    /**
+     * Parses a 48-hex-char CONNECTION_ID as returned by JMS_IBM_CONNECTION_ID or PCF MQBACF_CONNECTION_ID.
+     */
+    public static ConnTag fromConnectionId(String connectionId) {
+        if (connectionId == null) {
+            return null;
+        }
+        if (connectionId.length() != CONNECTION_ID_LENGTH
+                || !connectionId.regionMatches(true, 0, CONNECTION_ID_PREFIX, 0, CONNECTION_ID_PREFIX.length())
+                || !isHex(connectionId, 0, CONNECTION_ID_LENGTH)) {
+            return opaque(connectionId);
+        }
+
+        int qmStart = CONNECTION_ID_PREFIX.length();
+        int handleStart = CONNECTION_ID_LENGTH - HANDLE_HEX_LENGTH;
+        char[] name = new char[(handleStart - qmStart) / 2];
+        int length = 0;
+        for (int i = qmStart; i < handleStart; i += 2) {
+            int ch = (Character.digit(connectionId.charAt(i), 16) << 4) | Character.digit(connectionId.charAt(i + 1), 16);
+            if (ch == ' ' || ch == 0) {
+                break;
+            }
+            name[length++] = (char) ch;
+        }
+
+        return new ConnTag(parseHex(connectionId, handleStart, CONNECTION_ID_LENGTH),
+            new String(name, 0, length), 0L, "");
+    }
+
+    private static ConnTag opaque(String value) {
+        return new ConnTag(value);
+    }
+
+    public boolean isParsed() {
+        return opaque == null;
+    }
+
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * The 16-hex-char connection handle; this is the group id shared by a parent and its sessions.
+     */
+    public String getHandleHex() {
+        if (opaque != null) {
+            return opaque;
+        }
+        String hex = Long.toHexString(handle).toUpperCase();
+        return "0".repeat(HANDLE_HEX_LENGTH - hex.length()) + hex;
+    }
+
+    /**
+     * The queue manager name; from a CONNECTION_ID only its first 12 characters.
+     */
+    public String getQueueManager() {
+        return queueManager;
+    }
+
+    /**
+     * Queue manager timestamp embedded in the CONNTAG as epoch seconds, or 0 when not known.
+     */
+    public long getQueueManagerTimestamp() {
+        return queueManagerTimestamp;
+    }
+
+    public String getApplicationTag() {
+        return applicationTag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConnTag)) {
+            return false;
+        }
+        ConnTag other = (ConnTag) o;
+        if (hash != other.hash) {
+            return false;
+        }
+        if (opaque != null || other.opaque != null) {
+            return opaque != null && opaque.equals(other.opaque);
+        }
+        return handle == other.handle
+            && (queueManagerKey == other.queueManagerKey || queueManagerKey.equals(other.queueManagerKey));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return opaque != null ? opaque : queueManager + "/" + getHandleHex();
+    }
+
+    /**
+     * The queue manager name as the CONNECTION_ID field holds it: at most 12 characters, without
+     * the blank padding.
+     */
+    private static String queueManagerField(String queueManager) {
+        String field = queueManager.length() > QM_FIELD_LENGTH ? queueManager.substring(0, QM_FIELD_LENGTH) : queueManager;
+        int end = field.length();
+        while (end > 0 && field.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return field.substring(0, end);
+    }
+
+    private static String intern(String value) {
+        String existing = INTERNED.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            INTERNED.clear();
+        }
+        existing = INTERNED.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int to) {
+        long value = 0L;
+        for (int i = from; i < to; i++) {
+            value = (value << 4) | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static boolean isTimestampAt(String s, int start) {
+        if (s.length() < start + TIMESTAMP_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char c = s.charAt(start + i);
+            boolean ok;
+            switch (i) {
+                case 4: case 7: ok = c == '-'; break;
+                case 10: ok = c == '_'; break;
+                case 13: case 16: ok = c == '.'; break;
+                default: ok = c >= '0' && c <= '9';
+            }
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseTimestamp(String s, int start) {
+        try {
+            return LocalDateTime.of(
+                digits(s, start, 4), digits(s, start + 5, 2), digits(s, start + 8, 2),
+                digits(s, start + 11, 2), digits(s, start + 14, 2), digits(s, start + 17, 2))
+                .toEpochSecond(ZoneOffset.UTC);
+        } catch (java.time.DateTimeException e) {
+            return 0L;
+        }
+    }
+
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+}
@@ -1,9 +1,15 @@
 package com.ibm.mq.failover.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Builder;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -26,10 +32,25 @@ public class ConnectionInfo {
     private ConnectionStatus status;
     private String parentConnectionId;
     private boolean isParent;
+    // Order in which the connection was tracked; the cursor for paginated exports
+    private long trackingSequence;
     
     @Builder.Default
     private List<SessionInfo> sessions = new CopyOnWriteArrayList<>();
     
+    // Parsed once from connectionId / fullConnTag; reset by their setters
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile ConnTag connectionKey;
+    
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile ConnTag connTagKey;
+    
     public enum ConnectionStatus {
         CONNECTED,
         RECONNECTING,
@@ -42,16 +63,43 @@ public class ConnectionInfo {
         session.setParentConnectionId(this.connectionId);
     }
     
+    public void setConnectionId(String connectionId) {
+        this.connectionId = connectionId;
+        this.connectionKey = null;
+    }
+    
+    public void setFullConnTag(String fullConnTag) {
+        this.fullConnTag = fullConnTag;
+        this.connTagKey = null;
+    }
+    
+    /**
+     * Parsed CONNECTION_ID; equal to the {@link #getConnTagKey()} of the same connection.
+     */
+    @JsonIgnore
+    public ConnTag getConnectionKey() {
+        ConnTag key = connectionKey;
+        if (key == null && connectionId != null) {
+            key = ConnTag.of(connectionId);
+            connectionKey = key;
+        }
+        return key;
+    }
+    
+    @JsonIgnore
+    public ConnTag getConnTagKey() {
+        ConnTag key = connTagKey;
+        if (key == null && fullConnTag != null) {
+            key = ConnTag.of(fullConnTag);
+            connTagKey = key;
+        }
+        return key;
+    }
+    
     public String getExtractedQueueManager() {
-        if (connectionId != null && connectionId.length() >= 32) {
-            String prefix = connectionId.substring(0, 32);
-            if (prefix.startsWith("414D5143514D31")) {
-                return "QM1";
-            } else if (prefix.startsWith("414D5143514D32")) {
-                return "QM2";
-            } else if (prefix.startsWith("414D5143514D33")) {
-                return "QM3";
-            }
+        ConnTag key = getConnectionKey();
+        if (key != null && key.isParsed() && !key.getQueueManager().isEmpty()) {
+            return key.getQueueManager();
         }
         return resolvedQueueManager;
     }
@@ -0,0 +1,41 @@
+package com.ibm.mq.failover.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One graceful drain of a listener container after its queue manager started quiescing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrainReport {
+    
+    public enum Outcome {
+        // In-flight work finished and the container reconnected
+        DRAINED,
+        // Work was still in flight at the drain timeout; reconnected anyway
+        TIMED_OUT,
+        // Reconnecting failed; the container keeps recovering on its own
+        FAILED
+    }
+    
+    private String container;
+    private int reasonCode;
+    private Instant startedAt;
+    private Outcome outcome;
+    private long drainMillis;
+    private long reconnectMillis;
+    private int inFlightAtStart;
+    private int rolledBack;
+    private int rollbacksAvoided;
+    private double throughputBefore;
+    private double throughputDuring;
+    private double throughputDipPercent;
+    private String error;
+}
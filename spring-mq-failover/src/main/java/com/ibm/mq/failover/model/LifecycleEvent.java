@@ -0,0 +1,40 @@
+package com.ibm.mq.failover.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.Instant;
+
+/**
+ * One record of the connection/session lifecycle journal.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifecycleEvent {
+    private EventType type;
+    private long sequence;
+    private long wallClockNanos;
+    private long monotonicNanos;
+    private String connectionId;
+    private String queueManager;
+    private String connTag;
+    private int sessionNumber;
+    private ConnectionInfo.ConnectionStatus status;
+    private String detail;
+
+    public enum EventType {
+        CONNECT,
+        SESSION_CREATE,
+        SESSION_CLOSE,
+        EXCEPTION,
+        RECONNECT,
+        CLOSE
+    }
+
+    public Instant getTimestamp() {
+        return Instant.ofEpochSecond(0L, wallClockNanos);
+    }
+}
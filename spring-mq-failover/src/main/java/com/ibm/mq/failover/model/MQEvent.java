@@ -0,0 +1,109 @@
+package com.ibm.mq.failover.model;
+
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One decoded MQ event message (channel, queue manager or configuration event).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MQEvent {
+    private Category category;
+    private Type type;
+    private int reason;
+    private String queueManager;
+    private String channelName;
+    private String connectionName;
+    private String objectName;
+    private int objectType;
+    private int reasonQualifier;
+    private int errorIdentifier;
+    private String userId;
+    private String applicationName;
+    private Instant putTime;
+    // Event queue (QM/queue) or replay file the message came from
+    private String source;
+
+    public enum Category {
+        CHANNEL,
+        QUEUE_MANAGER,
+        CONFIGURATION,
+        OTHER;
+
+        public static Category fromCommand(int command) {
+            switch (command) {
+                case CMQCFC.MQCMD_CHANNEL_EVENT: return CHANNEL;
+                case CMQCFC.MQCMD_Q_MGR_EVENT: return QUEUE_MANAGER;
+                case CMQCFC.MQCMD_CONFIG_EVENT: return CONFIGURATION;
+                default: return OTHER;
+            }
+        }
+    }
+
+    public enum Type {
+        CHANNEL_STARTED(CMQC.MQRC_CHANNEL_STARTED),
+        CHANNEL_STOPPED(CMQC.MQRC_CHANNEL_STOPPED),
+        CHANNEL_STOPPED_BY_USER(CMQC.MQRC_CHANNEL_STOPPED_BY_USER),
+        CHANNEL_ACTIVATED(CMQC.MQRC_CHANNEL_ACTIVATED),
+        CHANNEL_NOT_ACTIVATED(CMQC.MQRC_CHANNEL_NOT_ACTIVATED),
+        CHANNEL_CONV_ERROR(CMQC.MQRC_CHANNEL_CONV_ERROR),
+        CHANNEL_SSL_ERROR(CMQC.MQRC_CHANNEL_SSL_ERROR),
+        CHANNEL_BLOCKED(CMQC.MQRC_CHANNEL_BLOCKED),
+        CHANNEL_BLOCKED_WARNING(CMQC.MQRC_CHANNEL_BLOCKED_WARNING),
+        CHANNEL_AUTO_DEF_OK(CMQC.MQRC_CHANNEL_AUTO_DEF_OK),
+        CHANNEL_AUTO_DEF_ERROR(CMQC.MQRC_CHANNEL_AUTO_DEF_ERROR),
+        QMGR_ACTIVE(CMQC.MQRC_Q_MGR_ACTIVE),
+        QMGR_NOT_ACTIVE(CMQC.MQRC_Q_MGR_NOT_ACTIVE),
+        NOT_AUTHORIZED(CMQC.MQRC_NOT_AUTHORIZED),
+        UNKNOWN_OBJECT_NAME(CMQC.MQRC_UNKNOWN_OBJECT_NAME),
+        GET_INHIBITED(CMQC.MQRC_GET_INHIBITED),
+        PUT_INHIBITED(CMQC.MQRC_PUT_INHIBITED),
+        CONFIG_CREATE_OBJECT(CMQC.MQRC_CONFIG_CREATE_OBJECT),
+        CONFIG_CHANGE_OBJECT(CMQC.MQRC_CONFIG_CHANGE_OBJECT),
+        CONFIG_DELETE_OBJECT(CMQC.MQRC_CONFIG_DELETE_OBJECT),
+        CONFIG_REFRESH_OBJECT(CMQC.MQRC_CONFIG_REFRESH_OBJECT),
+        OTHER(0);
+
+        private static final Map<Integer, Type> BY_REASON = new HashMap<>();
+
+        static {
+            for (Type type : values()) {
+                if (type != OTHER) {
+                    BY_REASON.put(type.reason, type);
+                }
+            }
+        }
+
+        private final int reason;
+
+        Type(int reason) {
+            this.reason = reason;
+        }
+
+        public int getReason() {
+            return reason;
+        }
+
+        public static Type fromReason(int reason) {
+            return BY_REASON.getOrDefault(reason, OTHER);
+        }
+    }
+
+    /**
+     * Key of the channel instance this event is about: QM, channel and partner address.
+     */
+    public String getChannelInstanceKey() {
+        return queueManager + "/" + channelName + "/" + connectionName;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ibm.mq.failover.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Aggregated MQI counts for one time bucket, queue manager, queue and APPLTAG.
+ * {@code queueName} is null for MQI-level rows, {@code applicationTag} null for statistics rows.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MQIUsage {
+    private MQStatisticsRecord.Kind kind;
+    private Instant bucketStart;
+    private int bucketSeconds;
+    private String queueManager;
+    private String queueName;
+    private String applicationTag;
+    private Map<MQStatisticsRecord.Counter, Long> counters;
+    // Distinct connections reported in the bucket, and how many of them are in the CONNTAG tracking
+    private int connections;
+    private int trackedConnections;
+}
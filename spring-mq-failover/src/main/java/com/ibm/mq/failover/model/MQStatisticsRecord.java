@@ -0,0 +1,93 @@
+package com.ibm.mq.failover.model;
+
+import com.ibm.mq.constants.CMQCFC;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MQI counts from one statistics or accounting message, for one queue or for the whole
+ * connection / queue manager ({@code queueName} null).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MQStatisticsRecord {
+    private Kind kind;
+    private String queueManager;
+    private String queueName;
+    // Accounting only: the connection the counts belong to
+    private String applicationName;
+    private String connectionId;
+    private String channelName;
+    private String connectionName;
+    private Instant intervalStart;
+    private Instant intervalEnd;
+    @Builder.Default
+    private long[] counters = new long[Counter.values().length];
+
+    public enum Kind {
+        MQI_STATISTICS,
+        QUEUE_STATISTICS,
+        MQI_ACCOUNTING,
+        QUEUE_ACCOUNTING;
+
+        public static Kind fromCommand(int command) {
+            switch (command) {
+                case CMQCFC.MQCMD_STATISTICS_MQI: return MQI_STATISTICS;
+                case CMQCFC.MQCMD_STATISTICS_Q: return QUEUE_STATISTICS;
+                case CMQCFC.MQCMD_ACCOUNTING_MQI: return MQI_ACCOUNTING;
+                case CMQCFC.MQCMD_ACCOUNTING_Q: return QUEUE_ACCOUNTING;
+                default: return null;
+            }
+        }
+
+        public boolean isAccounting() {
+            return this == MQI_ACCOUNTING || this == QUEUE_ACCOUNTING;
+        }
+    }
+
+    /**
+     * Counters taken from the message; list-valued ones (non-persistent/persistent, per object type) are summed.
+     */
+    public enum Counter {
+        CONNS(CMQCFC.MQIAMO_CONNS),
+        DISCS(CMQCFC.MQIAMO_DISCS),
+        OPENS(CMQCFC.MQIAMO_OPENS),
+        CLOSES(CMQCFC.MQIAMO_CLOSES),
+        PUTS(CMQCFC.MQIAMO_PUTS),
+        PUT1S(CMQCFC.MQIAMO_PUT1S),
+        PUTS_FAILED(CMQCFC.MQIAMO_PUTS_FAILED),
+        GETS(CMQCFC.MQIAMO_GETS),
+        GETS_FAILED(CMQCFC.MQIAMO_GETS_FAILED),
+        BROWSES(CMQCFC.MQIAMO_BROWSES),
+        COMMITS(CMQCFC.MQIAMO_COMMITS),
+        BACKOUTS(CMQCFC.MQIAMO_BACKOUTS),
+        INQS(CMQCFC.MQIAMO_INQS),
+        SETS(CMQCFC.MQIAMO_SETS),
+        PUT_BYTES(CMQCFC.MQIAMO64_PUT_BYTES),
+        GET_BYTES(CMQCFC.MQIAMO64_GET_BYTES);
+
+        private final int parameter;
+
+        Counter(int parameter) {
+            this.parameter = parameter;
+        }
+
+        public int getParameter() {
+            return parameter;
+        }
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    public void add(Counter counter, long value) {
+        counters[counter.ordinal()] += value;
+    }
+}
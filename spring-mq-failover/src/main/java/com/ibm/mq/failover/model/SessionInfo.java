@@ -1,9 +1,15 @@
 package com.ibm.mq.failover.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Builder;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Data
@@ -24,6 +30,13 @@ public class SessionInfo {
     private boolean transacted;
     private Integer acknowledgeMode;
     
+    // Parsed once from fullConnTag; reset by its setter
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile ConnTag connTagKey;
+    
     public enum SessionStatus {
         ACTIVE,
         IDLE,
@@ -32,6 +45,21 @@ public class SessionInfo {
         CLOSED
     }
     
+    public void setFullConnTag(String fullConnTag) {
+        this.fullConnTag = fullConnTag;
+        this.connTagKey = null;
+    }
+    
+    @JsonIgnore
+    public ConnTag getConnTagKey() {
+        ConnTag key = connTagKey;
+        if (key == null && fullConnTag != null) {
+            key = ConnTag.of(fullConnTag);
+            connTagKey = key;
+        }
+        return key;
+    }
+    
     public String getCorrelationKey() {
         return String.format("%s-%s-%d", parentConnectionId, sessionTag, sessionNumber);
     }
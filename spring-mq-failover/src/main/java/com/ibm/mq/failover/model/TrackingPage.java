@@ -0,0 +1,16 @@
+package com.ibm.mq.failover.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * One page of parent connections selected by a {@link TrackingQuery}.
+ */
+@Data
+@AllArgsConstructor
+public class TrackingPage {
+    private List<ConnectionInfo> connections;
+    /** Cursor for the next page, or null when this is the last one. */
+    private Long nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.ibm.mq.failover.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter and page window for exporting the tracking table.
+ *
+ * The cursor is the tracking sequence of the last connection already returned (0 to start);
+ * the limit counts parent connections, and each is exported with all of its sessions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingQuery {
+    private String queueManager;
+    private ConnectionInfo.ConnectionStatus status;
+    private String applicationTag;
+    private long cursor;
+    private int limit;
+
+    public static TrackingQuery all() {
+        return new TrackingQuery();
+    }
+
+    public boolean matches(ConnectionInfo connection) {
+        return (queueManager == null || queueManager.equals(connection.getExtractedQueueManager()))
+            && (status == null || status == connection.getStatus())
+            && (applicationTag == null || applicationTag.equals(connection.getApplicationTag()));
+    }
+}
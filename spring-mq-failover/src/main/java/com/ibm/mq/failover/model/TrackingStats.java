@@ -0,0 +1,32 @@
+package com.ibm.mq.failover.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+/**
+ * Point-in-time view of the tracking store: what is currently held in memory
+ * plus the aggregate history of everything already evicted from it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingStats {
+    private int trackedConnections;
+    private int terminatedConnections;
+    private int trackedSessions;
+    private long closedSessions;
+    private long evictedConnections;
+    private long evictedSessions;
+    private Map<ConnectionInfo.ConnectionStatus, Long> transitionsByStatus;
+    private Map<ConnectionInfo.ConnectionStatus, Long> evictedByStatus;
+
+    public String getSummary() {
+        return String.format("%d tracked (%d terminated), %d sessions, evicted %d connections / %d sessions, %d sessions closed",
+            trackedConnections, terminatedConnections, trackedSessions,
+            evictedConnections, evictedSessions, closedSessions);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.jms.MQConnectionFactory;
+import com.ibm.mq.jms.MQQueue;
+import com.ibm.msg.client.wmq.WMQConstants;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageListener;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.function.Consumer;
+
+/**
+ * Listeners on the queue managers' SYSTEM.ADMIN.* queues (events, statistics, accounting),
+ * delivering each PCF message as a raw {@link MQEventRecording.Record}.
+ */
+final class AdminQueueListeners {
+
+    // Admin messages are read in the queue manager's conversion to this CCSID
+    static final int RECEIVE_CCSID = 1208;
+
+    private AdminQueueListeners() {
+    }
+
+    static MQConnectionFactory connectionFactory(String queueManager, String host, int port, String channel,
+                                                 String user, String password, String applicationName) throws JMSException {
+        MQConnectionFactory factory = new MQConnectionFactory();
+        factory.setTransportType(WMQConstants.WMQ_CM_CLIENT);
+        factory.setQueueManager(queueManager);
+        factory.setHostName(host);
+        factory.setPort(port);
+        factory.setChannel(channel);
+        factory.setStringProperty(WMQConstants.WMQ_APPLICATIONNAME, applicationName);
+        if (user != null && !user.isEmpty()) {
+            factory.setStringProperty(WMQConstants.USERID, user);
+            factory.setStringProperty(WMQConstants.PASSWORD, password);
+        }
+        return factory;
+    }
+
+    /**
+     * Starts a single-consumer listener, so messages are handled in the order the QM put them.
+     * Messages that are not PCF (not a BytesMessage) are passed to {@code rejected}.
+     */
+    static DefaultMessageListenerContainer start(MQConnectionFactory factory, String source, String queueName,
+                                                 Consumer<MQEventRecording.Record> handler,
+                                                 Consumer<String> rejected) throws JMSException {
+        // Raw PCF body (no JMS/RFH2 mapping), converted by the QM so strings arrive in RECEIVE_CCSID
+        MQQueue queue = new MQQueue(queueName);
+        queue.setIntProperty(WMQConstants.WMQ_MESSAGE_BODY, WMQConstants.WMQ_MESSAGE_BODY_MQ);
+        queue.setIntProperty(WMQConstants.WMQ_RECEIVE_CONVERSION, WMQConstants.WMQ_RECEIVE_CONVERSION_QMGR);
+        queue.setIntProperty(WMQConstants.WMQ_RECEIVE_CCSID, RECEIVE_CCSID);
+
+        DefaultMessageListenerContainer container = new DefaultMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.setDestination(queue);
+        container.setMessageListener((MessageListener) message -> {
+            try {
+                if (!(message instanceof BytesMessage)) {
+                    rejected.accept("not a PCF message: " + message.getJMSMessageID());
+                    return;
+                }
+                BytesMessage bytes = (BytesMessage) message;
+                byte[] body = new byte[(int) bytes.getBodyLength()];
+                bytes.readBytes(body);
+                handler.accept(new MQEventRecording.Record(message.getJMSTimestamp(),
+                    message.getIntProperty(WMQConstants.JMS_IBM_ENCODING), RECEIVE_CCSID, body));
+            } catch (JMSException e) {
+                rejected.accept(e.getMessage());
+            }
+        });
+        container.setConcurrentConsumers(1);
+        container.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
+        container.setRecoveryInterval(5000L);
+        container.setBeanName("admin-" + source);
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+}
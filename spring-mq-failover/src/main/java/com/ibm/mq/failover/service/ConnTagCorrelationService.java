@@ -1,5 +1,6 @@
 package com.ibm.mq.failover.service;
 
+import com.ibm.mq.failover.model.ConnTag;
 import com.ibm.mq.failover.model.ConnectionInfo;
 import com.ibm.mq.failover.model.SessionInfo;
 import lombok.Data;
@@ -19,8 +20,8 @@ import java.util.stream.Collectors;
 public class ConnTagCorrelationService {
     
     private final ConnectionTrackingService trackingService;
-    private final Map<String, ConnTagGroup> connTagGroups = new ConcurrentHashMap<>();
-    private final Map<String, String> connTagToQueueManager = new ConcurrentHashMap<>();
+    private final Map<ConnTag, ConnTagGroup> connTagGroups = new ConcurrentHashMap<>();
+    private final Map<ConnTag, String> connTagToQueueManager = new ConcurrentHashMap<>();
     
     @Data
     public static class ConnTagGroup {
@@ -71,11 +72,14 @@ public class ConnTagCorrelationService {
         
         for (ConnectionInfo parent : parents) {
             String connTag = parent.getFullConnTag();
-            String groupId = extractGroupId(connTag);
+            ConnTag groupKey = parent.getConnTagKey();
+            if (groupKey == null) {
+                continue;
+            }
             
-            ConnTagGroup group = connTagGroups.computeIfAbsent(groupId, k -> {
+            ConnTagGroup group = connTagGroups.computeIfAbsent(groupKey, k -> {
                 ConnTagGroup newGroup = new ConnTagGroup();
-                newGroup.setGroupId(k);
+                newGroup.setGroupId(k.getHandleHex());
                 newGroup.setBaseConnTag(connTag);
                 newGroup.setQueueManager(parent.getExtractedQueueManager());
                 newGroup.setCreatedAt(LocalDateTime.now());
@@ -88,7 +92,10 @@ public class ConnTagCorrelationService {
                 group.addSession(session);
                 
                 // Track CONNTAG to QM mapping
-                connTagToQueueManager.put(session.getFullConnTag(), session.getQueueManager());
+                ConnTag sessionKey = session.getConnTagKey();
+                if (sessionKey != null && session.getQueueManager() != null) {
+                    connTagToQueueManager.put(sessionKey, session.getQueueManager());
+                }
             }
             
             group.setLastVerified(LocalDateTime.now());
@@ -98,19 +105,6 @@ public class ConnTagCorrelationService {
         printCorrelationReport();
     }
     
-    private String extractGroupId(String connTag) {
-        // Extract the base CONNTAG identifier that groups parent and children
-        if (connTag != null && connTag.length() >= 20) {
-            // Format: MQCTXXXXXXXXXXXXXXXX...
-            // Extract the hex portion after MQCT
-            if (connTag.startsWith("MQCT")) {
-                return connTag.substring(4, Math.min(20, connTag.length()));
-            }
-            return connTag.substring(0, Math.min(20, connTag.length()));
-        }
-        return connTag;
-    }
-    
     public void verifyParentChildGrouping(String parentConnectionId) {
         ConnectionInfo parent = trackingService.getAllParentConnections().stream()
             .filter(c -> c.getConnectionId().equals(parentConnectionId))
@@ -192,16 +186,23 @@ public class ConnTagCorrelationService {
             log.info("  {}: {} groups", qm, count));
     }
     
+    /**
+     * The groups of the last correlation run.
+     */
+    public List<ConnTagGroup> getGroups() {
+        return new ArrayList<>(connTagGroups.values());
+    }
+    
     public boolean verifyFailoverCoherence(String beforeConnTag, String afterConnTag) {
         log.info("Verifying failover coherence...");
         log.info("Before CONNTAG: {}", beforeConnTag);
         log.info("After CONNTAG: {}", afterConnTag);
         
-        String beforeGroup = extractGroupId(beforeConnTag);
-        String afterGroup = extractGroupId(afterConnTag);
+        ConnTag beforeGroup = ConnTag.parse(beforeConnTag);
+        ConnTag afterGroup = ConnTag.parse(afterConnTag);
         
-        ConnTagGroup beforeGroupData = connTagGroups.get(beforeGroup);
-        ConnTagGroup afterGroupData = connTagGroups.get(afterGroup);
+        ConnTagGroup beforeGroupData = beforeGroup != null ? connTagGroups.get(beforeGroup) : null;
+        ConnTagGroup afterGroupData = afterGroup != null ? connTagGroups.get(afterGroup) : null;
         
         if (beforeGroupData != null && afterGroupData != null) {
             log.info("Before: {}", beforeGroupData.getGroupSummary());
@@ -1,7 +1,12 @@
 package com.ibm.mq.failover.service;
 
+import com.ibm.mq.failover.model.ConnTag;
 import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.MQEvent;
 import com.ibm.mq.failover.model.SessionInfo;
+import com.ibm.mq.failover.model.TrackingPage;
+import com.ibm.mq.failover.model.TrackingQuery;
+import com.ibm.mq.failover.model.TrackingStats;
 import com.ibm.mq.jms.MQConnection;
 import com.ibm.mq.jms.MQSession;
 import com.ibm.msg.client.jms.JmsPropertyContext;
@@ -10,23 +15,111 @@ import jakarta.jms.Connection;
 import jakarta.jms.JMSException;
 import jakarta.jms.Session;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @Service
 public class ConnectionTrackingService {
     
-    private final Map<String, ConnectionInfo> parentConnections = new ConcurrentHashMap<>();
-    private final Map<String, List<SessionInfo>> sessionsByConnection = new ConcurrentHashMap<>();
+    // Keyed by the parsed CONNECTION_ID so lookups hash a long + interned QM instead of a 48-char string.
+    // A parent and its sessions are only added or removed inside sessionsByConnection.compute for
+    // that key, so a session is never tracked against a parent that is being removed.
+    private final Map<ConnTag, ConnectionInfo> parentConnections = new ConcurrentHashMap<>();
+    private final Map<ConnTag, Queue<SessionInfo>> sessionsByConnection = new ConcurrentHashMap<>();
+    // Session CONNTAG/CONNECTION_ID -> parent key, for findOwningConnection without a scan
+    private final Map<ConnTag, SessionOwner> sessionOwners = new ConcurrentHashMap<>();
+    // Same connections in tracking order, so exports can page with a stable cursor
+    private final ConcurrentSkipListMap<Long, ConnectionInfo> connectionsBySequence = new ConcurrentSkipListMap<>();
+    private final AtomicLong trackingSequence = new AtomicLong(0);
     private final AtomicInteger connectionCounter = new AtomicInteger(0);
     private final AtomicInteger sessionCounter = new AtomicInteger(0);
     
+    // CLOSED/FAILED connections in the order they terminated; the head is always the oldest
+    private final Queue<TerminatedConnection> terminatedConnections = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger terminatedCount = new AtomicInteger(0);
+    private final AtomicInteger trackedSessions = new AtomicInteger(0);
+    
+    // Aggregate history, kept after the entries themselves are evicted
+    private final LongAdder evictedConnections = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private final LongAdder closedSessions = new LongAdder();
+    private final Map<ConnectionInfo.ConnectionStatus, LongAdder> transitionsByStatus = counterPerStatus();
+    private final Map<ConnectionInfo.ConnectionStatus, LongAdder> evictedByStatus = counterPerStatus();
+    
+    @Value("${tracking.retention.max-terminated-connections:1000}")
+    private int maxTerminatedConnections = 1000;
+    
+    @Value("${tracking.retention.terminated-ttl-seconds:300}")
+    private long terminatedTtlSeconds = 300;
+    
+    // Latest channel event per channel instance (QM/channel/partner address), from the event queues
+    private final Map<String, MQEvent> channelStates = new ConcurrentHashMap<>();
+    
+    // Optional durable record of lifecycle events (tracking.journal.enabled)
+    private LifecycleJournal journal;
+    private final List<StatusListener> statusListeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Notified after a tracked connection changed status, on the thread that changed it.
+     */
+    public interface StatusListener {
+        void statusChanged(ConnectionInfo connection, ConnectionInfo.ConnectionStatus status);
+    }
+    
+    /**
+     * The parent a session key belongs to and how many tracked sessions carry that key (sessions
+     * of one connection may share its CONNTAG). Only changed inside the map's compute methods.
+     */
+    private static final class SessionOwner {
+        private final ConnTag parent;
+        private int sessions;
+        
+        private SessionOwner(ConnTag parent) {
+            this.parent = parent;
+        }
+    }
+    
+    private static final class TerminatedConnection {
+        private final ConnTag connectionId;
+        private final LocalDateTime statusChangedAt;
+        private final long terminatedAtNanos;
+        
+        private TerminatedConnection(ConnTag connectionId, LocalDateTime statusChangedAt) {
+            this.connectionId = connectionId;
+            this.statusChangedAt = statusChangedAt;
+            this.terminatedAtNanos = System.nanoTime();
+        }
+    }
+    
+    @Autowired(required = false)
+    public void setLifecycleJournal(LifecycleJournal journal) {
+        this.journal = journal;
+    }
+    
+    public void addStatusListener(StatusListener listener) {
+        statusListeners.add(listener);
+    }
+    
     public ConnectionInfo trackConnection(Connection connection, String trackingKey) {
         try {
             String connectionId = extractConnectionId(connection);
@@ -46,10 +139,27 @@ public class ConnectionTrackingService {
                 .lastUpdated(LocalDateTime.now())
                 .status(ConnectionInfo.ConnectionStatus.CONNECTED)
                 .isParent(true)
+                .trackingSequence(trackingSequence.incrementAndGet())
                 .build();
             
-            parentConnections.put(connectionId, info);
-            sessionsByConnection.put(connectionId, new ArrayList<>());
+            ConnTag key = info.getConnectionKey();
+            connectionsBySequence.put(info.getTrackingSequence(), info);
+            sessionsByConnection.compute(key, (k, previousSessions) -> {
+                ConnectionInfo previous = parentConnections.put(k, info);
+                if (previous != null) {
+                    connectionsBySequence.remove(previous.getTrackingSequence(), previous);
+                }
+                if (previousSessions != null) {
+                    // Same CONNECTION_ID tracked again: the old sessions are gone with the old entry
+                    trackedSessions.addAndGet(-previousSessions.size());
+                    unindexSessions(k, previousSessions);
+                }
+                return new ConcurrentLinkedQueue<>();
+            });
+            transitionsByStatus.get(ConnectionInfo.ConnectionStatus.CONNECTED).increment();
+            if (journal != null) {
+                journal.recordConnect(info);
+            }
             
             log.info("Tracked parent connection: ID={}, QM={}, CONNTAG={}, AppTag={}", 
                 connectionId, queueManager, connTag, trackingKey);
@@ -82,13 +192,29 @@ public class ConnectionTrackingService {
                 .acknowledgeMode(session.getAcknowledgeMode())
                 .build();
             
-            List<SessionInfo> sessions = sessionsByConnection.computeIfAbsent(
-                parentConnectionId, k -> new ArrayList<>());
-            sessions.add(info);
-            
-            ConnectionInfo parent = parentConnections.get(parentConnectionId);
-            if (parent != null) {
+            ConnTag key = ConnTag.of(parentConnectionId);
+            boolean[] tracked = new boolean[1];
+            sessionsByConnection.compute(key, (k, sessions) -> {
+                ConnectionInfo parent = parentConnections.get(k);
+                if (parent == null) {
+                    // Parent never tracked or already evicted: nothing would ever remove the session
+                    return sessions;
+                }
+                Queue<SessionInfo> group = sessions != null ? sessions : new ConcurrentLinkedQueue<>();
+                group.add(info);
                 parent.addSession(info);
+                trackedSessions.incrementAndGet();
+                indexSession(k, info);
+                tracked[0] = true;
+                return group;
+            });
+            if (!tracked[0]) {
+                log.debug("Session #{} not tracked: parent {} is not tracked", sessionNumber, parentConnectionId);
+                return info;
+            }
+            if (journal != null) {
+                journal.recordSessionCreate(parentConnectionId, queueManager, info.getFullConnTag(),
+                    sessionNumber, info.getThreadName());
             }
             
             log.info("Tracked session #{}: ParentID={}, QM={}, CONNTAG={}, Thread={}", 
@@ -101,6 +227,50 @@ public class ConnectionTrackingService {
         }
     }
     
+    /**
+     * Closes a tracked JMS session and drops it from the store, also when the close fails.
+     */
+    public void closeSession(Session session, SessionInfo info) throws JMSException {
+        try {
+            session.close();
+        } finally {
+            closeSession(info);
+        }
+    }
+    
+    /**
+     * Marks a session as closed and drops it from the store. Use this for sessions that
+     * close while their parent stays connected, so session churn does not accumulate.
+     */
+    public void closeSession(SessionInfo session) {
+        if (session == null) {
+            return;
+        }
+        session.setStatus(SessionInfo.SessionStatus.CLOSED);
+        ConnTag key = ConnTag.of(session.getParentConnectionId());
+        if (key == null) {
+            return;
+        }
+        boolean[] removed = new boolean[1];
+        sessionsByConnection.computeIfPresent(key, (k, sessions) -> {
+            if (sessions.remove(session)) {
+                trackedSessions.decrementAndGet();
+                closedSessions.increment();
+                unindexSession(k, session);
+                removed[0] = true;
+            }
+            ConnectionInfo parent = parentConnections.get(k);
+            if (parent != null) {
+                parent.getSessions().remove(session);
+            }
+            return sessions;
+        });
+        if (removed[0] && journal != null) {
+            journal.recordSessionClose(session.getParentConnectionId(), session.getQueueManager(),
+                session.getFullConnTag(), session.getSessionNumber());
+        }
+    }
+    
     private String extractConnectionId(Connection connection) throws JMSException {
         if (connection instanceof MQConnection) {
             MQConnection mqConn = (MQConnection) connection;
@@ -225,76 +395,309 @@ public class ConnectionTrackingService {
     }
     
     public Map<String, List<SessionInfo>> getSessionGroupsByConnection() {
-        return new HashMap<>(sessionsByConnection);
+        Map<String, List<SessionInfo>> groups = new HashMap<>();
+        sessionsByConnection.forEach((key, sessions) -> {
+            ConnectionInfo parent = parentConnections.get(key);
+            SessionInfo first = sessions.peek();
+            String connectionId = parent != null ? parent.getConnectionId()
+                : first != null ? first.getParentConnectionId() : key.toString();
+            groups.put(connectionId, new ArrayList<>(sessions));
+        });
+        return groups;
     }
     
     public List<ConnectionInfo> getAllParentConnections() {
         return new ArrayList<>(parentConnections.values());
     }
     
+    /**
+     * The tracked parent connection for a CONNECTION_ID or CONNTAG, either its own or one of its
+     * sessions' (each JMS session is a separate HCONN on the queue manager). Null if not tracked.
+     */
+    public ConnectionInfo findOwningConnection(String connectionId) {
+        ConnTag key = ConnTag.of(connectionId);
+        if (key == null) {
+            return null;
+        }
+        ConnectionInfo parent = parentConnections.get(key);
+        if (parent != null) {
+            return parent;
+        }
+        SessionOwner owner = sessionOwners.get(key);
+        return owner != null ? parentConnections.get(owner.parent) : null;
+    }
+    
+    private void indexSession(ConnTag parentKey, SessionInfo session) {
+        ConnTag sessionKey = session.getConnTagKey();
+        if (sessionKey == null || !sessionKey.isParsed()) {
+            return;
+        }
+        sessionOwners.compute(sessionKey, (k, owner) -> {
+            if (owner == null || !owner.parent.equals(parentKey)) {
+                owner = new SessionOwner(parentKey);
+            }
+            owner.sessions++;
+            return owner;
+        });
+    }
+    
+    private void unindexSession(ConnTag parentKey, SessionInfo session) {
+        ConnTag sessionKey = session.getConnTagKey();
+        if (sessionKey == null) {
+            return;
+        }
+        sessionOwners.computeIfPresent(sessionKey, (k, owner) ->
+            !owner.parent.equals(parentKey) || --owner.sessions > 0 ? owner : null);
+    }
+    
+    private void unindexSessions(ConnTag parentKey, Collection<SessionInfo> sessions) {
+        for (SessionInfo session : sessions) {
+            unindexSession(parentKey, session);
+        }
+    }
+
     public void updateConnectionStatus(String connectionId, ConnectionInfo.ConnectionStatus status) {
-        ConnectionInfo conn = parentConnections.get(connectionId);
+        updateConnectionStatus(connectionId, status, null);
+    }
+    
+    /**
+     * @param reason optional cause (e.g. the MQRC text of the exception) kept in the lifecycle journal
+     */
+    public void updateConnectionStatus(String connectionId, ConnectionInfo.ConnectionStatus status, String reason) {
+        ConnTag key = ConnTag.of(connectionId);
+        ConnectionInfo conn = key != null ? parentConnections.get(key) : null;
         if (conn != null) {
-            conn.setStatus(status);
-            conn.setLastUpdated(LocalDateTime.now());
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (conn) {
+                conn.setStatus(status);
+                conn.setLastUpdated(now);
+            }
+            transitionsByStatus.get(status).increment();
+            if (journal != null) {
+                journal.recordStatus(conn, status, reason);
+            }
+            for (StatusListener listener : statusListeners) {
+                listener.statusChanged(conn, status);
+            }
             log.info("Updated connection {} status to {}", connectionId, status);
+            
+            // Every terminal update is queued; earlier entries for the same connection go stale
+            if (isTerminal(status)) {
+                terminatedConnections.add(new TerminatedConnection(key, now));
+                if (terminatedCount.incrementAndGet() > maxTerminatedConnections) {
+                    evictTerminated(false);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Moves every CONNECTED connection on {@code queueManager} to {@code status}, e.g. when a
+     * queue manager event reports that QM stopping. Returns the number of connections updated.
+     */
+    public int updateQueueManagerStatus(String queueManager, ConnectionInfo.ConnectionStatus status, String reason) {
+        return updateQueueManagerStatus(queueManager, status, reason, null);
+    }
+    
+    /**
+     * As above, but only for connections created or last updated before {@code before}: an event
+     * read after the QM restarted must not touch connections already live on the restarted QM.
+     * A null {@code before} applies to all of them.
+     */
+    public int updateQueueManagerStatus(String queueManager, ConnectionInfo.ConnectionStatus status, String reason,
+                                        Instant before) {
+        LocalDateTime cutoff = before != null ? LocalDateTime.ofInstant(before, ZoneId.systemDefault()) : null;
+        int updated = 0;
+        for (ConnectionInfo conn : parentConnections.values()) {
+            if (conn.getStatus() == ConnectionInfo.ConnectionStatus.CONNECTED
+                    && queueManager.equals(conn.getExtractedQueueManager())
+                    && (cutoff == null || conn.getLastUpdated() == null || conn.getLastUpdated().isBefore(cutoff))) {
+                updateConnectionStatus(conn.getConnectionId(), status, reason);
+                updated++;
+            }
         }
+        return updated;
+    }
+    
+    /**
+     * Records a channel event from the QM event queues as the latest state of its channel instance.
+     * Events older than the instance's current state (e.g. a backlog read after a restart) are ignored.
+     */
+    public void updateChannelState(MQEvent event) {
+        channelStates.merge(event.getChannelInstanceKey(), event, (current, update) ->
+            current.getPutTime() != null && update.getPutTime() != null
+                && update.getPutTime().isBefore(current.getPutTime()) ? current : update);
+    }
+    
+    /**
+     * Latest channel event per channel instance (QM/channel/partner address).
+     */
+    public Map<String, MQEvent> getChannelStates() {
+        return Collections.unmodifiableMap(channelStates);
+    }
+    
+    /**
+     * Channel instances on {@code queueManager} whose latest event is a start or activation.
+     */
+    public int getRunningChannelCount(String queueManager) {
+        int running = 0;
+        for (MQEvent event : channelStates.values()) {
+            if (queueManager.equals(event.getQueueManager())
+                    && (event.getType() == MQEvent.Type.CHANNEL_STARTED || event.getType() == MQEvent.Type.CHANNEL_ACTIVATED)) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Periodic age-based eviction of CLOSED/FAILED connections and their sessions.
+     */
+    @Scheduled(fixedDelayString = "${tracking.retention.sweep-interval-ms:30000}")
+    public void evictExpiredConnections() {
+        evictTerminated(true);
+    }
+    
+    private void evictTerminated(boolean byAge) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(terminatedTtlSeconds);
+        long now = System.nanoTime();
+        
+        TerminatedConnection head;
+        while ((head = terminatedConnections.peek()) != null) {
+            boolean overCapacity = terminatedCount.get() > maxTerminatedConnections;
+            boolean expired = byAge && now - head.terminatedAtNanos >= ttlNanos;
+            if (!overCapacity && !expired) {
+                break;
+            }
+            // Only the thread that wins the removal of this head evicts it
+            if (terminatedConnections.remove(head)) {
+                terminatedCount.decrementAndGet();
+                evict(head);
+            }
+        }
+    }
+    
+    private void evict(TerminatedConnection entry) {
+        ConnectionInfo conn = parentConnections.get(entry.connectionId);
+        if (conn == null) {
+            return;
+        }
+        // The parent and its sessions go together: no session can be added in between
+        int[] sessionCount = {-1};
+        sessionsByConnection.compute(entry.connectionId, (k, sessions) -> {
+            synchronized (conn) {
+                // Stale entry: the connection reconnected, was re-terminated or re-tracked after this entry was queued
+                if (parentConnections.get(k) != conn || !isTerminal(conn.getStatus())
+                        || !entry.statusChangedAt.equals(conn.getLastUpdated())) {
+                    return sessions;
+                }
+                parentConnections.remove(k, conn);
+                connectionsBySequence.remove(conn.getTrackingSequence(), conn);
+            }
+            sessionCount[0] = sessions != null ? sessions.size() : 0;
+            if (sessions != null) {
+                unindexSessions(k, sessions);
+            }
+            trackedSessions.addAndGet(-sessionCount[0]);
+            return null;
+        });
+        if (sessionCount[0] < 0) {
+            return;
+        }
+        evictedSessions.add(sessionCount[0]);
+        evictedConnections.increment();
+        evictedByStatus.get(conn.getStatus()).increment();
+        
+        log.debug("Evicted {} connection {} with {} sessions", conn.getStatus(), conn.getConnectionId(), sessionCount[0]);
+    }
+    
+    public TrackingStats getTrackingStats() {
+        return TrackingStats.builder()
+            .trackedConnections(parentConnections.size())
+            .terminatedConnections(terminatedCount.get())
+            .trackedSessions(trackedSessions.get())
+            .closedSessions(closedSessions.sum())
+            .evictedConnections(evictedConnections.sum())
+            .evictedSessions(evictedSessions.sum())
+            .transitionsByStatus(snapshot(transitionsByStatus))
+            .evictedByStatus(snapshot(evictedByStatus))
+            .build();
+    }
+    
+    private static boolean isTerminal(ConnectionInfo.ConnectionStatus status) {
+        return status == ConnectionInfo.ConnectionStatus.CLOSED || status == ConnectionInfo.ConnectionStatus.FAILED;
+    }
+    
+    private static Map<ConnectionInfo.ConnectionStatus, LongAdder> counterPerStatus() {
+        Map<ConnectionInfo.ConnectionStatus, LongAdder> counters = new EnumMap<>(ConnectionInfo.ConnectionStatus.class);
+        for (ConnectionInfo.ConnectionStatus status : ConnectionInfo.ConnectionStatus.values()) {
+            counters.put(status, new LongAdder());
+        }
+        return counters;
+    }
+    
+    private static Map<ConnectionInfo.ConnectionStatus, Long> snapshot(
+            Map<ConnectionInfo.ConnectionStatus, LongAdder> counters) {
+        Map<ConnectionInfo.ConnectionStatus, Long> values = new EnumMap<>(ConnectionInfo.ConnectionStatus.class);
+        counters.forEach((status, counter) -> values.put(status, counter.sum()));
+        return values;
     }
     
     public void printConnectionTable() {
         log.info("\n{}", generateConnectionTable());
     }
     
-    public String generateConnectionTable() {
-        StringBuilder table = new StringBuilder();
-        table.append("\n================== CONNECTION AND SESSION TRACKING TABLE ==================\n");
-        table.append(String.format("| %-3s | %-7s | %-4s | %-7s | %-48s | %-50s | %-14s | %-25s |\n",
-            "#", "Type", "Conn", "Session", "CONNECTION_ID", "FULL_CONNTAG", "Queue Manager", "APPLTAG"));
-        table.append("|-----|---------|------|---------|--------------------------------------------------|" +
-            "----------------------------------------------------|----------------|---------------------------|\n");
-        
-        int rowNum = 1;
-        for (ConnectionInfo parent : parentConnections.values()) {
-            // Parent connection row
-            table.append(String.format("| %-3d | %-7s | C%-3d | %-7s | %-48s | %-50s | %-14s | %-25s |\n",
-                rowNum++,
-                "Parent",
-                connectionCounter.get(),
-                "-",
-                parent.getConnectionId(),
-                parent.getFullConnTag(),
-                parent.getExtractedQueueManager(),
-                parent.getApplicationTag()));
-            
-            // Child sessions
-            List<SessionInfo> sessions = sessionsByConnection.get(parent.getConnectionId());
+    /**
+     * Selects one page of parent connections in tracking order. Only references are collected;
+     * rows are produced later by {@link #writeConnections}.
+     */
+    public TrackingPage selectConnections(TrackingQuery query) {
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        List<ConnectionInfo> page = new ArrayList<>(Math.min(limit, 1024));
+        for (ConnectionInfo connection : connectionsBySequence.tailMap(query.getCursor(), false).values()) {
+            if (!query.matches(connection)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new TrackingPage(page, page.get(page.size() - 1).getTrackingSequence());
+            }
+            page.add(connection);
+        }
+        return new TrackingPage(page, null);
+    }
+    
+    /**
+     * Streams the page as rows: each parent connection followed by its sessions.
+     */
+    public void writeConnections(TrackingPage page, TrackingExportWriter writer) throws IOException {
+        writer.begin();
+        for (ConnectionInfo parent : page.getConnections()) {
+            writer.connection(parent);
+            Queue<SessionInfo> sessions = sessionsByConnection.get(parent.getConnectionKey());
             if (sessions != null) {
                 for (SessionInfo session : sessions) {
-                    table.append(String.format("| %-3d | %-7s | C%-3d | S%-6d | %-48s | %-50s | %-14s | %-25s |\n",
-                        rowNum++,
-                        "Session",
-                        connectionCounter.get(),
-                        session.getSessionNumber(),
-                        parent.getConnectionId(),
-                        session.getFullConnTag(),
-                        session.getQueueManager(),
-                        parent.getApplicationTag()));
+                    writer.session(parent, session);
                 }
             }
         }
-        
-        table.append("\nSummary: ");
-        table.append(String.format("%d Parent Connections, %d Total Sessions\n", 
-            parentConnections.size(), 
-            sessionsByConnection.values().stream().mapToInt(List::size).sum()));
-        
-        // Group by Queue Manager
-        Map<String, Long> qmDistribution = parentConnections.values().stream()
-            .collect(Collectors.groupingBy(ConnectionInfo::getExtractedQueueManager, 
-                Collectors.counting()));
-        
-        table.append("Distribution by QM: ").append(qmDistribution).append("\n");
-        
+        writer.end();
+    }
+    
+    public void exportConnections(TrackingQuery query, TrackingExportWriter.Format format, Writer out) throws IOException {
+        writeConnections(selectConnections(query), TrackingExportWriter.of(format, out));
+    }
+    
+    /**
+     * Text view of the whole table, rendered from the same row stream as the exports.
+     */
+    public String generateConnectionTable() {
+        StringWriter table = new StringWriter();
+        try {
+            exportConnections(TrackingQuery.all(), TrackingExportWriter.Format.TEXT, table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        table.append("Retention: ").append(getTrackingStats().getSummary()).append("\n");
         return table.toString();
     }
 }
\ No newline at end of file
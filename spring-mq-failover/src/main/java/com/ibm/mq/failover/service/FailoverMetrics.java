@@ -0,0 +1,192 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.SessionInfo;
+import com.ibm.mq.failover.model.TrackingStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the listeners, connection tracking and CONNTAG correlation, scraped from
+ * /actuator/prometheus.
+ *
+ *   mq.listener.messages{qm}                   messages consumed per queue manager (rate = throughput)
+ *   mq.listener.redeliveries{qm}               messages delivered again after a rollback
+ *   mq.listener.processing{qm,mode,outcome}    listener time per message (mode=single) or batch
+ *   mq.connection.reconnects{qm}               tracked connections that went RECONNECTING
+ *   mq.connection.transitions{status}          all status changes recorded by tracking
+ *   mq.sessions.active{qm}                     active tracked sessions per queue manager
+ *   mq.tracking.connections / mq.tracking.sessions
+ *   mq.conntag.groups{coherent}                CONNTAG groups whose sessions are (not) all on the parent's QM
+ *
+ * The listener hot path resolves the per-QM meters once per session ({@link #forQueueManager}),
+ * so a message costs a counter increment and a timer record. The gauges that walk the tracking
+ * store are refreshed every tracking.metrics.refresh-interval-ms rather than on each scrape.
+ */
+@Slf4j
+@Component
+public class FailoverMetrics {
+    
+    private final MeterRegistry registry;
+    private final ConnectionTrackingService trackingService;
+    private final ConnTagCorrelationService correlationService;
+    private final Map<String, QueueManagerMeters> queueManagers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> reconnects = new ConcurrentHashMap<>();
+    private final MultiGauge activeSessions;
+    private final MultiGauge connTagGroups;
+    
+    /**
+     * Meters of one queue manager, held by the listener per session.
+     */
+    public static final class QueueManagerMeters {
+        private final Counter messages;
+        private final Counter redeliveries;
+        private final Timer singleSuccess;
+        private final Timer singleError;
+        private final Timer batchSuccess;
+        private final Timer batchError;
+        
+        private QueueManagerMeters(MeterRegistry registry, String queueManager) {
+            messages = Counter.builder("mq.listener.messages")
+                .description("Messages consumed by the listeners")
+                .tag("qm", queueManager)
+                .register(registry);
+            redeliveries = Counter.builder("mq.listener.redeliveries")
+                .description("Messages received with JMSRedelivered set")
+                .tag("qm", queueManager)
+                .register(registry);
+            singleSuccess = timer(registry, queueManager, "single", "success");
+            singleError = timer(registry, queueManager, "single", "error");
+            batchSuccess = timer(registry, queueManager, "batch", "success");
+            batchError = timer(registry, queueManager, "batch", "error");
+        }
+        
+        private static Timer timer(MeterRegistry registry, String queueManager, String mode, String outcome) {
+            return Timer.builder("mq.listener.processing")
+                .description("Listener processing time per message, or per batch for the batch container")
+                .tags("qm", queueManager, "mode", mode, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+        
+        /**
+         * Messages consumed from this queue manager since startup.
+         */
+        public double getMessageCount() {
+            return messages.count();
+        }
+        
+        public void recordMessage(boolean redelivered, long nanos, boolean success) {
+            messages.increment();
+            if (redelivered) {
+                redeliveries.increment();
+            }
+            (success ? singleSuccess : singleError).record(nanos, TimeUnit.NANOSECONDS);
+        }
+        
+        public void recordBatch(int size, int redelivered, long nanos, boolean success) {
+            messages.increment(size);
+            if (redelivered > 0) {
+                redeliveries.increment(redelivered);
+            }
+            (success ? batchSuccess : batchError).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public FailoverMetrics(MeterRegistry registry, ConnectionTrackingService trackingService,
+                           ConnTagCorrelationService correlationService) {
+        this.registry = registry;
+        this.trackingService = trackingService;
+        this.correlationService = correlationService;
+        
+        activeSessions = MultiGauge.builder("mq.sessions.active")
+            .description("Active tracked sessions per queue manager")
+            .register(registry);
+        connTagGroups = MultiGauge.builder("mq.conntag.groups")
+            .description("CONNTAG groups by whether all sessions share the parent's queue manager")
+            .register(registry);
+        
+        Gauge.builder("mq.tracking.connections", trackingService, t -> t.getTrackingStats().getTrackedConnections())
+            .description("Parent connections held by the tracking store")
+            .register(registry);
+        Gauge.builder("mq.tracking.sessions", trackingService, t -> t.getTrackingStats().getTrackedSessions())
+            .description("Sessions held by the tracking store")
+            .register(registry);
+        for (ConnectionInfo.ConnectionStatus status : ConnectionInfo.ConnectionStatus.values()) {
+            FunctionCounter.builder("mq.connection.transitions", trackingService,
+                    t -> t.getTrackingStats().getTransitionsByStatus().get(status))
+                .description("Connection status changes recorded by tracking")
+                .tag("status", status.name())
+                .register(registry);
+        }
+        
+        trackingService.addStatusListener((connection, status) -> {
+            if (status == ConnectionInfo.ConnectionStatus.RECONNECTING) {
+                reconnects.computeIfAbsent(queueManagerTag(connection.getExtractedQueueManager()),
+                    qm -> Counter.builder("mq.connection.reconnects")
+                        .description("Tracked connections that started reconnecting")
+                        .tag("qm", qm)
+                        .register(registry))
+                    .increment();
+            }
+        });
+    }
+    
+    public QueueManagerMeters forQueueManager(String queueManager) {
+        return queueManagers.computeIfAbsent(queueManagerTag(queueManager), qm -> new QueueManagerMeters(registry, qm));
+    }
+    
+    @Scheduled(fixedDelayString = "${tracking.metrics.refresh-interval-ms:10000}")
+    public void refresh() {
+        Map<String, Integer> sessionsByQueueManager = new HashMap<>();
+        for (ConnectionInfo connection : trackingService.getAllParentConnections()) {
+            if (connection.getStatus() == ConnectionInfo.ConnectionStatus.CLOSED
+                    || connection.getStatus() == ConnectionInfo.ConnectionStatus.FAILED) {
+                continue;
+            }
+            for (SessionInfo session : connection.getSessions()) {
+                if (session.getStatus() == SessionInfo.SessionStatus.ACTIVE) {
+                    sessionsByQueueManager.merge(queueManagerTag(session.getQueueManager()), 1, Integer::sum);
+                }
+            }
+        }
+        List<MultiGauge.Row<?>> sessionRows = new ArrayList<>();
+        sessionsByQueueManager.forEach((qm, count) -> sessionRows.add(MultiGauge.Row.of(Tags.of("qm", qm), count)));
+        activeSessions.register(sessionRows, true);
+        
+        int coherent = 0;
+        int incoherent = 0;
+        for (ConnTagCorrelationService.ConnTagGroup group : correlationService.getGroups()) {
+            if (group.isCoherent()) {
+                coherent++;
+            } else {
+                incoherent++;
+            }
+        }
+        connTagGroups.register(List.of(
+            MultiGauge.Row.of(Tags.of("coherent", "true"), coherent),
+            MultiGauge.Row.of(Tags.of("coherent", "false"), incoherent)), true);
+        
+        log.debug("Refreshed metrics: sessions per QM {}, CONNTAG groups {} coherent / {} not",
+            sessionsByQueueManager, coherent, incoherent);
+    }
+    
+    private static String queueManagerTag(String queueManager) {
+        return queueManager == null || queueManager.isBlank() ? "UNKNOWN" : queueManager.trim();
+    }
+}
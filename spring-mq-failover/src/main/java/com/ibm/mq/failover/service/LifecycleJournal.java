@@ -0,0 +1,288 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.LifecycleEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only journal of connection and session lifecycle events in memory-mapped segment files.
+ *
+ * Every record has the same size, so an append is a slot claim (one atomic increment) followed by
+ * plain writes into the mapping; nothing is allocated or locked on the hot path. The record header
+ * is written last with release semantics, so a reader never sees a half-written record, and a
+ * crash leaves at most the in-flight records uncommitted. Segments are never overwritten: a full
+ * segment, or a restart, starts the next file. Use {@link LifecycleJournalReader} to read or replay.
+ *
+ * Whenever a segment is opened, the oldest segments beyond {@code tracking.journal.max-segments}
+ * and those last written more than {@code tracking.journal.max-age-hours} ago are deleted (0
+ * disables either limit); each segment is preallocated, so the count bounds the disk used.
+ *
+ * Segment layout: a {@value #FILE_HEADER_SIZE}-byte header followed by fixed records
+ * of {@value #RECORD_SIZE} bytes, little-endian:
+ * <pre>
+ *   0  int   commit marker (COMMIT_MAGIC | event type code), 0 while uncommitted
+ *   4  int   session number, -1 for connection events
+ *   8  long  sequence
+ *  16  long  wall clock, epoch nanoseconds
+ *  24  long  System.nanoTime()
+ *  32  byte  connection status (ordinal + 1), 0 if none
+ *  40  48    CONNECTION_ID
+ *  88  48    queue manager
+ * 136  128   CONNTAG
+ * 264  56    detail (APPLTAG, thread or error text)
+ * </pre>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "tracking.journal", name = "enabled", havingValue = "true")
+public class LifecycleJournal {
+
+    static final int FILE_MAGIC = 0x4A4C514D; // "MQLJ"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 320;
+    static final int COMMIT_MAGIC = 0x4C4A0000;
+    static final String SEGMENT_PREFIX = "lifecycle-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    static final int OFF_MARKER = 0;
+    static final int OFF_SESSION = 4;
+    static final int OFF_SEQUENCE = 8;
+    static final int OFF_WALL_NANOS = 16;
+    static final int OFF_MONO_NANOS = 24;
+    static final int OFF_STATUS = 32;
+    static final int OFF_CONNECTION_ID = 40;
+    static final int OFF_QUEUE_MANAGER = 88;
+    static final int OFF_CONNTAG = 136;
+    static final int OFF_DETAIL = 264;
+    static final int LEN_CONNECTION_ID = 48;
+    static final int LEN_QUEUE_MANAGER = 48;
+    static final int LEN_CONNTAG = 128;
+    static final int LEN_DETAIL = 56;
+
+    static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final Duration maxAge;
+    private final long wallClockBase;
+    private final long nanoTimeBase;
+    private final LongAdder appended = new LongAdder();
+    private volatile Segment current;
+
+    private static final class Segment {
+        private final int index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicInteger nextSlot = new AtomicInteger();
+
+        private Segment(int index, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        private int claim() {
+            int slot = nextSlot.getAndIncrement();
+            return slot < capacity ? slot : -1;
+        }
+    }
+
+    @Autowired
+    public LifecycleJournal(
+            @Value("${tracking.journal.directory:./journal}") String directory,
+            @Value("${tracking.journal.records-per-segment:65536}") int recordsPerSegment,
+            @Value("${tracking.journal.max-segments:8}") int maxSegments,
+            @Value("${tracking.journal.max-age-hours:168}") long maxAgeHours) throws IOException {
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        // Keep the segment just rolled from, writers may still be finishing in it
+        this.maxSegments = maxSegments > 0 ? Math.max(2, maxSegments) : 0;
+        this.maxAge = maxAgeHours > 0 ? Duration.ofHours(maxAgeHours) : null;
+        Instant now = Instant.now();
+        this.wallClockBase = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.nanoTimeBase = System.nanoTime();
+
+        Files.createDirectories(this.directory);
+        this.current = openSegment(LifecycleJournalReader.lastSegmentIndex(this.directory) + 1);
+        prune();
+        log.info("Lifecycle journal opened: {} ({} records per segment)", this.directory.toAbsolutePath(), recordsPerSegment);
+    }
+    
+    /**
+     * Without retention, for tests and tools.
+     */
+    LifecycleJournal(String directory, int recordsPerSegment) throws IOException {
+        this(directory, recordsPerSegment, 0, 0);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public void recordConnect(ConnectionInfo connection) {
+        append(LifecycleEvent.EventType.CONNECT, connection.getConnectionId(), connection.getExtractedQueueManager(),
+            connection.getFullConnTag(), -1, connection.getStatus(), connection.getApplicationTag());
+    }
+
+    public void recordSessionCreate(String connectionId, String queueManager, String connTag, int sessionNumber, String threadName) {
+        append(LifecycleEvent.EventType.SESSION_CREATE, connectionId, queueManager, connTag, sessionNumber, null, threadName);
+    }
+
+    public void recordSessionClose(String connectionId, String queueManager, String connTag, int sessionNumber) {
+        append(LifecycleEvent.EventType.SESSION_CLOSE, connectionId, queueManager, connTag, sessionNumber, null, null);
+    }
+
+    /**
+     * Records a status change as RECONNECT (back to CONNECTED), CLOSE, or EXCEPTION (FAILED/RECONNECTING).
+     */
+    public void recordStatus(ConnectionInfo connection, ConnectionInfo.ConnectionStatus status, String detail) {
+        LifecycleEvent.EventType type;
+        switch (status) {
+            case CONNECTED: type = LifecycleEvent.EventType.RECONNECT; break;
+            case CLOSED: type = LifecycleEvent.EventType.CLOSE; break;
+            default: type = LifecycleEvent.EventType.EXCEPTION;
+        }
+        append(type, connection.getConnectionId(), connection.getExtractedQueueManager(),
+            connection.getFullConnTag(), -1, status, detail);
+    }
+
+    public void append(LifecycleEvent.EventType type, String connectionId, String queueManager, String connTag,
+                       int sessionNumber, ConnectionInfo.ConnectionStatus status, String detail) {
+        long monotonic = System.nanoTime();
+        Segment segment;
+        int slot;
+        while ((slot = (segment = current).claim()) < 0) {
+            roll(segment);
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = FILE_HEADER_SIZE + slot * RECORD_SIZE;
+        buffer.putInt(offset + OFF_SESSION, sessionNumber);
+        buffer.putLong(offset + OFF_SEQUENCE, (long) segment.index * recordsPerSegment + slot);
+        buffer.putLong(offset + OFF_WALL_NANOS, wallClockBase + (monotonic - nanoTimeBase));
+        buffer.putLong(offset + OFF_MONO_NANOS, monotonic);
+        buffer.put(offset + OFF_STATUS, (byte) (status != null ? status.ordinal() + 1 : 0));
+        putAscii(buffer, offset + OFF_CONNECTION_ID, LEN_CONNECTION_ID, connectionId);
+        putAscii(buffer, offset + OFF_QUEUE_MANAGER, LEN_QUEUE_MANAGER, queueManager);
+        putAscii(buffer, offset + OFF_CONNTAG, LEN_CONNTAG, connTag);
+        putAscii(buffer, offset + OFF_DETAIL, LEN_DETAIL, detail);
+
+        // Publish: the marker is the last write, so readers only ever see complete records
+        INT_VIEW.setRelease(buffer, offset + OFF_MARKER, COMMIT_MAGIC | (type.ordinal() + 1));
+        appended.increment();
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current != full) {
+            return; // another writer already rolled
+        }
+        try {
+            full.buffer.force();
+            full.channel.close(); // the mapping stays valid for writers still finishing in it
+            current = openSegment(full.index + 1);
+            log.info("Lifecycle journal rolled to segment {}", current.index);
+            prune();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll lifecycle journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes segments beyond the count limit, oldest first, and segments past the age limit.
+     * The current segment is never deleted.
+     */
+    private void prune() {
+        try {
+            List<Path> segments = LifecycleJournalReader.segments(directory);
+            Instant cutoff = maxAge != null ? Instant.now().minus(maxAge) : null;
+            int excess = maxSegments > 0 ? segments.size() - maxSegments : 0;
+            int deleted = 0;
+            for (Path segment : segments) {
+                if (LifecycleJournalReader.segmentIndex(segment) == current.index) {
+                    continue;
+                }
+                boolean overCount = deleted < excess;
+                boolean expired = cutoff != null && Files.getLastModifiedTime(segment).toInstant().isBefore(cutoff);
+                if (overCount || expired) {
+                    Files.deleteIfExists(segment);
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                log.info("Lifecycle journal retention deleted {} segments from {}", deleted, directory);
+            }
+        } catch (IOException e) {
+            // Appends go on; retention is retried at the next segment
+            log.warn("Lifecycle journal retention failed in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private Segment openSegment(int index) throws IOException {
+        Path file = directory.resolve(LifecycleJournalReader.segmentFileName(index));
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = FILE_HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, recordsPerSegment);
+        buffer.putInt(16, index);
+        buffer.putLong(24, wallClockBase + (System.nanoTime() - nanoTimeBase));
+        return new Segment(index, channel, buffer, recordsPerSegment);
+    }
+
+    private static void putAscii(MappedByteBuffer buffer, int offset, int length, String value) {
+        if (value == null) {
+            return; // slots start zeroed
+        }
+        int count = Math.min(value.length(), length);
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            buffer.put(offset + i, (byte) (c > 0 && c < 0x80 ? c : '?'));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        Segment segment = current;
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing lifecycle journal segment {}: {}", segment.index, e.getMessage());
+        }
+    }
+}
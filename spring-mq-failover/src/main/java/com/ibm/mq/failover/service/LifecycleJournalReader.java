@@ -0,0 +1,229 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnTag;
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.LifecycleEvent;
+import com.ibm.mq.failover.model.SessionInfo;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static com.ibm.mq.failover.service.LifecycleJournal.*;
+
+/**
+ * Reads {@link LifecycleJournal} segments and replays them into the tracking table as it was at a
+ * given moment. Works on a live journal (only committed records are returned) and on the files
+ * left behind after a crash.
+ */
+public final class LifecycleJournalReader {
+
+    private static final LifecycleEvent.EventType[] EVENT_TYPES = LifecycleEvent.EventType.values();
+    private static final ConnectionInfo.ConnectionStatus[] STATUSES = ConnectionInfo.ConnectionStatus.values();
+
+    private LifecycleJournalReader() {
+    }
+
+    static String segmentFileName(int index) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static int lastSegmentIndex(Path directory) throws IOException {
+        List<Path> segments = segments(directory);
+        return segments.isEmpty() ? 0 : segmentIndex(segments.get(segments.size() - 1));
+    }
+
+    /**
+     * Segment files in append order.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingInt(LifecycleJournalReader::segmentIndex));
+        return segments;
+    }
+
+    /**
+     * Streams every committed record in append order, stopping after {@code until} (epoch nanos) if given.
+     */
+    public static void read(Path directory, Long until, Consumer<LifecycleEvent> consumer) throws IOException {
+        for (Path segment : segments(directory)) {
+            if (!readSegment(segment, until, consumer)) {
+                return;
+            }
+        }
+    }
+
+    public static List<LifecycleEvent> readAll(Path directory) throws IOException {
+        List<LifecycleEvent> events = new ArrayList<>();
+        read(directory, null, events::add);
+        return events;
+    }
+
+    /**
+     * Rebuilds the tracking table from the journal: every connection known at {@code at}
+     * (or at the end of the journal when null) with its status and open sessions.
+     */
+    public static List<ConnectionInfo> replay(Path directory, Instant at) throws IOException {
+        Long until = at != null ? at.getEpochSecond() * 1_000_000_000L + at.getNano() : null;
+        Map<ConnTag, ConnectionInfo> connections = new LinkedHashMap<>();
+        read(directory, until, event -> apply(connections, event));
+        return new ArrayList<>(connections.values());
+    }
+
+    private static void apply(Map<ConnTag, ConnectionInfo> connections, LifecycleEvent event) {
+        ConnTag key = ConnTag.of(event.getConnectionId());
+        if (key == null) {
+            return;
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(event.getTimestamp(), ZoneId.systemDefault());
+
+        switch (event.getType()) {
+            case CONNECT:
+                connections.put(key, ConnectionInfo.builder()
+                    .connectionId(event.getConnectionId())
+                    .connectionTag(event.getConnTag())
+                    .fullConnTag(event.getConnTag())
+                    .queueManager(event.getQueueManager())
+                    .resolvedQueueManager(event.getQueueManager())
+                    .applicationTag(event.getDetail())
+                    .createdAt(time)
+                    .lastUpdated(time)
+                    .status(ConnectionInfo.ConnectionStatus.CONNECTED)
+                    .isParent(true)
+                    .build());
+                break;
+            case SESSION_CREATE: {
+                ConnectionInfo parent = connections.get(key);
+                if (parent != null) {
+                    parent.addSession(SessionInfo.builder()
+                        .sessionId("SESSION-" + event.getSequence())
+                        .sessionTag(event.getConnTag())
+                        .fullConnTag(event.getConnTag())
+                        .queueManager(event.getQueueManager())
+                        .sessionNumber(event.getSessionNumber())
+                        .createdAt(time)
+                        .status(SessionInfo.SessionStatus.ACTIVE)
+                        .threadName(event.getDetail())
+                        .build());
+                }
+                break;
+            }
+            case SESSION_CLOSE: {
+                ConnectionInfo parent = connections.get(key);
+                if (parent != null) {
+                    parent.getSessions().removeIf(s -> s.getSessionNumber() == event.getSessionNumber()
+                        && Objects.equals(s.getFullConnTag(), event.getConnTag()));
+                }
+                break;
+            }
+            default: {
+                ConnectionInfo parent = connections.get(key);
+                if (parent != null && event.getStatus() != null) {
+                    parent.setStatus(event.getStatus());
+                    parent.setLastUpdated(time);
+                }
+            }
+        }
+    }
+
+    private static boolean readSegment(Path segment, Long until, Consumer<LifecycleEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (channel.size() < FILE_HEADER_SIZE) {
+                return true;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Not a lifecycle journal segment: " + segment);
+            }
+            if (until != null && buffer.getLong(24) > until) {
+                return false;
+            }
+
+            long capacity = Math.min(buffer.getInt(12), (channel.size() - FILE_HEADER_SIZE) / RECORD_SIZE);
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = FILE_HEADER_SIZE + slot * RECORD_SIZE;
+                int marker = (int) INT_VIEW.getAcquire(buffer, offset + OFF_MARKER);
+                // Slots are claimed in order; a zero marker is either unused or still being written
+                if ((marker & 0xFFFF0000) != COMMIT_MAGIC) {
+                    continue;
+                }
+                long wallNanos = buffer.getLong(offset + OFF_WALL_NANOS);
+                if (until != null && wallNanos > until) {
+                    continue; // concurrent writers may commit slightly out of time order
+                }
+                int status = buffer.get(offset + OFF_STATUS);
+                consumer.accept(LifecycleEvent.builder()
+                    .type(EVENT_TYPES[(marker & 0xFFFF) - 1])
+                    .sessionNumber(buffer.getInt(offset + OFF_SESSION))
+                    .sequence(buffer.getLong(offset + OFF_SEQUENCE))
+                    .wallClockNanos(wallNanos)
+                    .monotonicNanos(buffer.getLong(offset + OFF_MONO_NANOS))
+                    .status(status > 0 ? STATUSES[status - 1] : null)
+                    .connectionId(getAscii(buffer, offset + OFF_CONNECTION_ID, LEN_CONNECTION_ID))
+                    .queueManager(getAscii(buffer, offset + OFF_QUEUE_MANAGER, LEN_QUEUE_MANAGER))
+                    .connTag(getAscii(buffer, offset + OFF_CONNTAG, LEN_CONNTAG))
+                    .detail(getAscii(buffer, offset + OFF_DETAIL, LEN_DETAIL))
+                    .build());
+            }
+        }
+        return true;
+    }
+
+    private static String getAscii(MappedByteBuffer buffer, int offset, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        while (count < length) {
+            byte b = buffer.get(offset + count);
+            if (b == 0) {
+                break;
+            }
+            chars[count++] = (char) b;
+        }
+        return count == 0 ? null : new String(chars, 0, count);
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Offline replay after a crash: {@code LifecycleJournalReader <journal-dir> [ISO-8601 instant]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: LifecycleJournalReader <journal-dir> [2025-09-05T02:15:00Z]");
+            return;
+        }
+        Instant at = args.length > 1 ? Instant.parse(args[1]) : null;
+        List<ConnectionInfo> connections = replay(Paths.get(args[0]), at);
+
+        System.out.println("Tracking table at " + (at != null ? at : "end of journal") + ":");
+        for (ConnectionInfo c : connections) {
+            System.out.printf("%-8s %-48s %-14s %-25s %s%n",
+                c.getStatus(), c.getConnectionId(), c.getExtractedQueueManager(), c.getApplicationTag(), c.getFullConnTag());
+            for (SessionInfo s : c.getSessions()) {
+                System.out.printf("  S%-6d %-14s %s%n", s.getSessionNumber(), s.getQueueManager(), s.getFullConnTag());
+            }
+        }
+        System.out.println(connections.size() + " connections");
+    }
+}
@@ -0,0 +1,338 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.AutoscalerStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Sizes the listener containers from the backlog of the test queue instead of Spring's
+ * idle-consumer scaling, which only sees whether its own consumers are busy.
+ *
+ * Every interval each queue manager's depth is read with PCF INQUIRE_Q_STATUS and its dequeue
+ * rate taken from the listener's message counter ({@link FailoverMetrics}); the arrival rate is
+ * the dequeue rate plus the change in depth. While there is a backlog, the observed rate per
+ * active consumer is learned, and each queue manager needs
+ *
+ *   ceil((arrival rate + depth / target-drain-seconds) / rate per consumer)
+ *
+ * consumers, capped at max-consumers-per-qm. The sum, at least min-consumers, is the desired
+ * consumer count across all containers:
+ *   - above the current count it is applied at once, so backlog is cleared quickly
+ *   - below 3/4 of the current count for scale-down-delay-seconds, the count steps down by one
+ *     parent connection's worth of sessions, then waits another delay before the next step
+ *   - a queue manager that does not answer keeps what it needed last time
+ *
+ * The containers share one JMS connection (CACHE_CONNECTION), so the parent connection count
+ * for the desired sessions is reported ({@link #getStatus}, mq.autoscaler.parent-connections)
+ * rather than applied.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "ibm.mq.listener.autoscale", name = "enabled", havingValue = "true")
+public class ListenerAutoscaler {
+    
+    // Scale down only once demand is well below what is running
+    private static final double SCALE_DOWN_RATIO = 0.75;
+    // Weight of the newest sample in the per-consumer rate
+    private static final double RATE_WEIGHT = 0.3;
+    
+    @FunctionalInterface
+    public interface DepthProbe {
+        int depth(String queueManager) throws Exception;
+    }
+    
+    @Builder
+    static final class Settings {
+        private final int targetDrainSeconds;
+        private final int minConsumers;
+        private final int maxConsumersPerQm;
+        private final long scaleDownDelayMillis;
+        private final int sessionsPerConnection;
+    }
+    
+    private final FailoverMetrics metrics;
+    private final Supplier<List<DefaultMessageListenerContainer>> containers;
+    private final List<String> queueManagers;
+    private final DepthProbe probe;
+    private final Settings settings;
+    private final MultiGauge depthGauge;
+    
+    private final Map<String, Integer> lastDepth = new HashMap<>();
+    private final Map<String, Double> lastConsumed = new HashMap<>();
+    private final Map<String, Integer> lastNeeded = new HashMap<>();
+    private long lastEvaluation;
+    private long belowSince = -1;
+    private double perConsumerRate;
+    private volatile AutoscalerStatus status = AutoscalerStatus.builder().decision("not evaluated yet").build();
+    
+    @Autowired
+    public ListenerAutoscaler(
+            FailoverMetrics metrics,
+            MeterRegistry registry,
+            ObjectProvider<DefaultMessageListenerContainer> containerBeans,
+            JmsListenerEndpointRegistry endpointRegistry,
+            @Value("${ibm.mq.listener.autoscale.queue-managers:QM1:10.10.10.10:1414,QM2:10.10.10.11:1414,QM3:10.10.10.12:1414}") String queueManagers,
+            @Value("${ibm.mq.test-queue}") String queue,
+            @Value("${ibm.mq.channel:APP.SVRCONN}") String channel,
+            @Value("${ibm.mq.user:}") String user,
+            @Value("${ibm.mq.password:}") String password,
+            @Value("${ibm.mq.listener.autoscale.target-drain-seconds:30}") int targetDrainSeconds,
+            @Value("${ibm.mq.listener.autoscale.min-consumers:5}") int minConsumers,
+            @Value("${ibm.mq.listener.autoscale.max-consumers-per-qm:50}") int maxConsumersPerQm,
+            @Value("${ibm.mq.listener.autoscale.scale-down-delay-seconds:120}") int scaleDownDelaySeconds,
+            @Value("${ibm.mq.connection.pool.sessions-per-connection:5}") int sessionsPerConnection) {
+        this(metrics, registry,
+            () -> listenerContainers(containerBeans, endpointRegistry),
+            queueManagerNames(queueManagers),
+            new PCFQueueDepthProbe(queueManagers, queue, channel, user, password),
+            Settings.builder()
+                .targetDrainSeconds(targetDrainSeconds)
+                .minConsumers(minConsumers)
+                .maxConsumersPerQm(maxConsumersPerQm)
+                .scaleDownDelayMillis(scaleDownDelaySeconds * 1000L)
+                .sessionsPerConnection(sessionsPerConnection)
+                .build());
+    }
+    
+    ListenerAutoscaler(FailoverMetrics metrics, MeterRegistry registry,
+                       Supplier<List<DefaultMessageListenerContainer>> containers, List<String> queueManagers,
+                       DepthProbe probe, Settings settings) {
+        this.metrics = metrics;
+        this.containers = containers;
+        this.queueManagers = queueManagers;
+        this.probe = probe;
+        this.settings = settings;
+        
+        depthGauge = MultiGauge.builder("mq.queue.depth")
+            .description("Depth of the listener queue per queue manager")
+            .register(registry);
+        Gauge.builder("mq.autoscaler.consumers.desired", this, a -> a.status.getDesiredConsumers())
+            .description("Consumers the autoscaler wants across all listener containers")
+            .register(registry);
+        Gauge.builder("mq.autoscaler.consumers.current", this, a -> a.status.getCurrentConsumers())
+            .description("Consumer limit the listener containers run with")
+            .register(registry);
+        Gauge.builder("mq.autoscaler.parent-connections.desired", this, a -> a.status.getDesiredParentConnections())
+            .description("Parent connections needed for the desired consumers")
+            .register(registry);
+    }
+    
+    public AutoscalerStatus getStatus() {
+        return status;
+    }
+    
+    @Scheduled(fixedDelayString = "${ibm.mq.listener.autoscale.interval-ms:5000}")
+    public void evaluate() {
+        evaluate(System.currentTimeMillis());
+    }
+    
+    synchronized AutoscalerStatus evaluate(long now) {
+        List<DefaultMessageListenerContainer> targets = containers.get();
+        if (targets.isEmpty()) {
+            return status;
+        }
+        int current = 0;
+        for (DefaultMessageListenerContainer container : targets) {
+            current += container.getMaxConcurrentConsumers();
+        }
+        int active = activeConsumers(targets);
+        double seconds = lastEvaluation > 0 ? (now - lastEvaluation) / 1000.0 : 0;
+        lastEvaluation = now;
+        
+        Map<String, Integer> depths = new TreeMap<>();
+        Map<String, Double> arrivals = new TreeMap<>();
+        double dequeueRate = 0;
+        int backlog = 0;
+        for (String qm : queueManagers) {
+            double consumed = metrics.forQueueManager(qm).getMessageCount();
+            Double previousConsumed = lastConsumed.put(qm, consumed);
+            Integer depth = inquireDepth(qm);
+            if (depth == null) {
+                continue;
+            }
+            Integer previousDepth = lastDepth.put(qm, depth);
+            depths.put(qm, depth);
+            backlog += depth;
+            if (seconds > 0 && previousConsumed != null) {
+                double rate = (consumed - previousConsumed) / seconds;
+                dequeueRate += rate;
+                double growth = previousDepth != null ? (depth - previousDepth) / seconds : 0;
+                arrivals.put(qm, Math.max(0, rate + growth));
+            }
+        }
+        publishDepths(depths);
+        
+        // Only a busy consumer shows what one consumer can do
+        if (backlog > 0 && active > 0 && dequeueRate > 0) {
+            double sample = dequeueRate / active;
+            perConsumerRate = perConsumerRate <= 0 ? sample : perConsumerRate + RATE_WEIGHT * (sample - perConsumerRate);
+        }
+        
+        Map<String, Integer> needed = new TreeMap<>();
+        int total = 0;
+        for (String qm : queueManagers) {
+            Integer depth = depths.get(qm);
+            int need;
+            if (depth == null) {
+                // Unreachable: its consumers are reconnecting elsewhere, keep their share
+                need = lastNeeded.getOrDefault(qm, 0);
+            } else if (perConsumerRate > 0) {
+                double demand = arrivals.getOrDefault(qm, 0.0) + (double) depth / settings.targetDrainSeconds;
+                need = (int) Math.ceil(demand / perConsumerRate);
+            } else {
+                // No rate learned yet: grow by one parent connection's sessions while there is backlog
+                need = depth > 0 ? ceilDiv(current, queueManagers.size()) + settings.sessionsPerConnection : 0;
+            }
+            need = Math.min(need, settings.maxConsumersPerQm);
+            needed.put(qm, need);
+            lastNeeded.put(qm, need);
+            total += need;
+        }
+        int desired = Math.max(settings.minConsumers, Math.min(total, settings.maxConsumersPerQm * queueManagers.size()));
+        
+        String decision;
+        if (seconds == 0) {
+            decision = "baseline";
+        } else if (desired > current) {
+            apply(targets, desired);
+            belowSince = -1;
+            decision = "scaled up from " + current;
+        } else if (desired < current * SCALE_DOWN_RATIO) {
+            if (belowSince < 0) {
+                belowSince = now;
+            }
+            long waited = now - belowSince;
+            if (waited >= settings.scaleDownDelayMillis) {
+                int target = Math.max(desired, current - settings.sessionsPerConnection);
+                apply(targets, target);
+                // The next step waits a full delay again
+                belowSince = now;
+                decision = "scaled down from " + current + " to " + target;
+            } else {
+                decision = "scale down in " + (settings.scaleDownDelayMillis - waited) / 1000 + "s";
+            }
+        } else {
+            belowSince = -1;
+            decision = "hold";
+        }
+        
+        int running = 0;
+        for (DefaultMessageListenerContainer container : targets) {
+            running += container.getMaxConcurrentConsumers();
+        }
+        status = AutoscalerStatus.builder()
+            .evaluatedAt(Instant.ofEpochMilli(now))
+            .currentConsumers(running)
+            .desiredConsumers(desired)
+            .desiredParentConnections(ceilDiv(desired, settings.sessionsPerConnection))
+            .messagesPerConsumerSecond(perConsumerRate)
+            .depthByQueueManager(depths)
+            .arrivalRateByQueueManager(arrivals)
+            .neededByQueueManager(needed)
+            .decision(decision)
+            .build();
+        if (running != current) {
+            log.info("Autoscaler {}: {} consumers ({} parent connections), backlog {}, {} msg/s per consumer",
+                decision, running, status.getDesiredParentConnections(), depths, String.format("%.1f", perConsumerRate));
+        } else {
+            log.debug("Autoscaler {}: desired {} of {}, backlog {}", decision, desired, current, depths);
+        }
+        return status;
+    }
+    
+    /**
+     * Consumers currently running in the containers.
+     */
+    int activeConsumers(List<DefaultMessageListenerContainer> targets) {
+        int active = 0;
+        for (DefaultMessageListenerContainer container : targets) {
+            active += container.getActiveConsumerCount();
+        }
+        return active;
+    }
+    
+    @PreDestroy
+    public void close() throws Exception {
+        if (probe instanceof AutoCloseable) {
+            ((AutoCloseable) probe).close();
+        }
+    }
+    
+    private Integer inquireDepth(String queueManager) {
+        try {
+            return probe.depth(queueManager);
+        } catch (Exception e) {
+            log.warn("Could not read queue depth on {}: {}", queueManager, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Spreads the consumers evenly over the containers. Concurrent and max are set together so
+     * the count takes effect now rather than when Spring's idle scaling gets to it; the order
+     * keeps concurrent <= max at every step.
+     */
+    private static void apply(List<DefaultMessageListenerContainer> targets, int consumers) {
+        int each = Math.max(1, ceilDiv(consumers, targets.size()));
+        for (DefaultMessageListenerContainer container : targets) {
+            if (each >= container.getMaxConcurrentConsumers()) {
+                container.setMaxConcurrentConsumers(each);
+                container.setConcurrentConsumers(each);
+            } else {
+                container.setConcurrentConsumers(each);
+                container.setMaxConcurrentConsumers(each);
+            }
+        }
+    }
+    
+    private void publishDepths(Map<String, Integer> depths) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        depths.forEach((qm, depth) -> rows.add(MultiGauge.Row.of(Tags.of("qm", qm), depth)));
+        depthGauge.register(rows, true);
+    }
+    
+    private static List<DefaultMessageListenerContainer> listenerContainers(
+            ObjectProvider<DefaultMessageListenerContainer> containerBeans, JmsListenerEndpointRegistry endpointRegistry) {
+        List<DefaultMessageListenerContainer> result = new ArrayList<>(containerBeans.orderedStream().toList());
+        for (MessageListenerContainer container : endpointRegistry.getListenerContainers()) {
+            if (container instanceof DefaultMessageListenerContainer) {
+                result.add((DefaultMessageListenerContainer) container);
+            }
+        }
+        return result;
+    }
+    
+    private static List<String> queueManagerNames(String queueManagers) {
+        List<String> names = new ArrayList<>();
+        for (String spec : queueManagers.split(",")) {
+            names.add(spec.trim().split(":")[0]);
+        }
+        return names;
+    }
+    
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,370 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.jms.MQConnectionFactory;
+import com.ibm.mq.jms.MQQueue;
+import com.ibm.msg.client.wmq.WMQConstants;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Sender for high message rates, next to the jmsTemplate bean.
+ *
+ * The template opens and closes a MessageProducer (an MQOPEN and MQCLOSE round trip) around
+ * every send, because the caching factory is configured without producer caching. This sender
+ * keeps its own connection and small pools of sessions, each caching one producer per queue, so
+ * a send is a single MQPUT:
+ *   - {@link #send} puts one message outside syncpoint
+ *   - {@link #sendBatch} puts a list on one transacted session and commits once
+ *   - {@link #sendAsync} pipelines puts with async put enabled on the queue
+ *     ({@code ibm.mq.sender.async-put}); at most
+ *     {@code ibm.mq.sender.max-in-flight} are unconfirmed, the future completes when the
+ *     completion listener fires. A session goes back to the pool as soon as send returns, so
+ *     one session carries many unconfirmed puts; it counts them and is only closed once they
+ *     are confirmed (JMS forbids closing it from its own completion listener)
+ *
+ * Sessions that fail are closed and replaced on next use; a connection exception (e.g. the
+ * queue manager went away beyond client reconnect) discards the connection and every idle
+ * session, and sessions of the old connection are closed when returned.
+ */
+@Slf4j
+@Service
+public class MQBatchSender {
+    
+    // How long closing a session waits for its unconfirmed async sends
+    private static final long COMPLETION_TIMEOUT_MILLIS = 30_000;
+    
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    // (queue name, async put) -> destination
+    private final BiFunction<String, Boolean, Destination> destinations;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final SessionPool transacted;
+    private final SessionPool autoAcknowledge;
+    private final AtomicInteger generation = new AtomicInteger();
+    private Connection connection;
+    
+    @Autowired
+    public MQBatchSender(
+            MQConnectionFactory mqConnectionFactory,
+            MessageConverter messageConverter,
+            @Value("${ibm.mq.sender.sessions:4}") int sessions,
+            @Value("${ibm.mq.sender.max-in-flight:1000}") int maxInFlight,
+            @Value("${ibm.mq.sender.async-put:true}") boolean asyncPut) {
+        this(mqConnectionFactory, messageConverter, sessions, maxInFlight,
+            (queue, async) -> mqQueue(queue, async && asyncPut));
+    }
+    
+    public MQBatchSender(ConnectionFactory connectionFactory, MessageConverter messageConverter,
+                         int sessions, int maxInFlight, BiFunction<String, Boolean, Destination> destinations) {
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = messageConverter;
+        this.destinations = destinations;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.transacted = new SessionPool(true, sessions);
+        this.autoAcknowledge = new SessionPool(false, sessions);
+    }
+    
+    /**
+     * One session and the producers it has opened, one per queue (and per put mode).
+     */
+    private final class SenderSession {
+        private final Session session;
+        private final int generation;
+        private final Map<String, MessageProducer> producers = new HashMap<>();
+        // Async sends not yet confirmed; guarded by this
+        private int pending;
+        // An async send failed in its listener, which may not close the session itself
+        private volatile boolean failed;
+        
+        private SenderSession(Session session, int generation) {
+            this.session = session;
+            this.generation = generation;
+        }
+        
+        private MessageProducer producer(String queue, boolean async) throws JMSException {
+            String key = async ? "async:" + queue : queue;
+            MessageProducer producer = producers.get(key);
+            if (producer == null) {
+                producer = session.createProducer(destinations.apply(queue, async));
+                producers.put(key, producer);
+            }
+            return producer;
+        }
+        
+        private synchronized void sent() {
+            pending++;
+        }
+        
+        private synchronized void completed(boolean success) {
+            if (!success) {
+                failed = true;
+            }
+            if (--pending == 0) {
+                notifyAll();
+            }
+        }
+        
+        private synchronized void awaitCompletions() {
+            long deadline = System.currentTimeMillis() + COMPLETION_TIMEOUT_MILLIS;
+            try {
+                for (long wait = COMPLETION_TIMEOUT_MILLIS; pending > 0 && wait > 0;
+                     wait = deadline - System.currentTimeMillis()) {
+                    wait(wait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (pending > 0) {
+                log.warn("Closing sender session with {} async sends still unconfirmed", pending);
+            }
+        }
+        
+        private void close() {
+            awaitCompletions();
+            try {
+                // Closes its producers too
+                session.close();
+            } catch (JMSException e) {
+                log.debug("Closing sender session failed: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * At most {@code size} sessions of one kind, created on demand and reused.
+     */
+    private final class SessionPool {
+        private final boolean sessionTransacted;
+        private final Semaphore permits;
+        private final ConcurrentLinkedQueue<SenderSession> idle = new ConcurrentLinkedQueue<>();
+        
+        private SessionPool(boolean sessionTransacted, int size) {
+            this.sessionTransacted = sessionTransacted;
+            this.permits = new Semaphore(size);
+        }
+        
+        private SenderSession borrow() throws JMSException {
+            permits.acquireUninterruptibly();
+            SenderSession sender;
+            while ((sender = idle.poll()) != null) {
+                if (!sender.failed) {
+                    return sender;
+                }
+                sender.close();
+            }
+            try {
+                int current = generation.get();
+                return new SenderSession(connection().createSession(sessionTransacted,
+                    sessionTransacted ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE), current);
+            } catch (JMSException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        
+        private void release(SenderSession sender, boolean broken) {
+            if (broken || sender.failed || sender.generation != generation.get()) {
+                sender.close();
+            } else {
+                idle.offer(sender);
+            }
+            permits.release();
+        }
+        
+        private void clear() {
+            SenderSession sender;
+            while ((sender = idle.poll()) != null) {
+                sender.close();
+            }
+        }
+    }
+    
+    /**
+     * Converts and puts one message outside syncpoint.
+     */
+    public void send(String queue, Object payload) throws JMSException {
+        SenderSession sender = autoAcknowledge.borrow();
+        boolean broken = true;
+        try {
+            sender.producer(queue, false).send(messageConverter.toMessage(payload, sender.session));
+            broken = false;
+        } finally {
+            autoAcknowledge.release(sender, broken);
+        }
+    }
+    
+    /**
+     * Converts and puts all payloads in one transaction: either all of them are on the queue
+     * afterwards or, if this throws, none.
+     */
+    public int sendBatch(String queue, List<?> payloads) throws JMSException {
+        if (payloads.isEmpty()) {
+            return 0;
+        }
+        SenderSession sender = transacted.borrow();
+        boolean broken = true;
+        try {
+            MessageProducer producer = sender.producer(queue, false);
+            for (Object payload : payloads) {
+                producer.send(messageConverter.toMessage(payload, sender.session));
+            }
+            sender.session.commit();
+            broken = false;
+            return payloads.size();
+        } catch (JMSException | RuntimeException e) {
+            rollback(sender.session);
+            throw e;
+        } finally {
+            transacted.release(sender, broken);
+        }
+    }
+    
+    /**
+     * Puts one message without waiting for the queue manager, blocking only while max-in-flight
+     * sends are unconfirmed. The future fails if the put fails.
+     */
+    public CompletableFuture<Void> sendAsync(String queue, Object payload) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        inFlight.acquireUninterruptibly();
+        SenderSession sender;
+        try {
+            sender = autoAcknowledge.borrow();
+        } catch (JMSException | RuntimeException e) {
+            inFlight.release();
+            result.completeExceptionally(e);
+            return result;
+        }
+        boolean broken = true;
+        sender.sent();
+        try {
+            Message message = messageConverter.toMessage(payload, sender.session);
+            sender.producer(queue, true).send(message, new CompletionListener() {
+                @Override
+                public void onCompletion(Message sent) {
+                    // Before the future, whose stages may close or reset this sender
+                    sender.completed(true);
+                    inFlight.release();
+                    result.complete(null);
+                }
+                
+                @Override
+                public void onException(Message failed, Exception e) {
+                    sender.completed(false);
+                    inFlight.release();
+                    result.completeExceptionally(e);
+                }
+            });
+            broken = false;
+        } catch (JMSException | RuntimeException e) {
+            // No listener will fire for a send that threw
+            sender.completed(false);
+            inFlight.release();
+            result.completeExceptionally(e);
+        } finally {
+            // Others may send on the session while this put is unconfirmed
+            autoAcknowledge.release(sender, broken);
+        }
+        return result;
+    }
+    
+    /**
+     * Sends not yet confirmed by their completion listener.
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+    
+    /**
+     * Drops the connection and idle sessions so the next send connects again, e.g. after a
+     * failure that means the queue manager is going away.
+     */
+    public void reconnect() {
+        reset(generation.get());
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        generation.incrementAndGet();
+        transacted.clear();
+        autoAcknowledge.clear();
+        if (connection != null) {
+            closeQuietly(connection);
+            connection = null;
+        }
+    }
+    
+    private synchronized Connection connection() throws JMSException {
+        if (connection == null) {
+            Connection created = connectionFactory.createConnection();
+            int current = generation.get();
+            created.setExceptionListener(e -> {
+                log.warn("Sender connection failed, reconnecting on next send: {}", e.getMessage());
+                reset(current);
+            });
+            connection = created;
+        }
+        return connection;
+    }
+    
+    private synchronized void reset(int failedGeneration) {
+        if (generation.compareAndSet(failedGeneration, failedGeneration + 1)) {
+            transacted.clear();
+            autoAcknowledge.clear();
+            if (connection != null) {
+                closeQuietly(connection);
+                connection = null;
+            }
+        }
+    }
+    
+    private static void rollback(Session session) {
+        try {
+            session.rollback();
+        } catch (JMSException e) {
+            log.debug("Rollback of failed batch failed: {}", e.getMessage());
+        }
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.debug("Closing sender connection failed: {}", e.getMessage());
+        }
+    }
+    
+    private static Destination mqQueue(String name, boolean asyncPut) {
+        try {
+            MQQueue queue = new MQQueue(name);
+            if (asyncPut) {
+                queue.setIntProperty(WMQConstants.WMQ_PUT_ASYNC_ALLOWED, WMQConstants.WMQ_PUT_ASYNC_ALLOWED_ENABLED);
+            }
+            return queue;
+        } catch (JMSException e) {
+            throw new IllegalArgumentException("Invalid queue name " + name, e);
+        }
+    }
+}
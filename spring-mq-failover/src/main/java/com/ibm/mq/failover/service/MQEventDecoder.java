@@ -0,0 +1,101 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.failover.model.MQEvent;
+import com.ibm.mq.headers.MQDataException;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFParameter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Enumeration;
+
+/**
+ * Decodes PCF event messages (MQCFT_EVENT) from the SYSTEM.ADMIN.*.EVENT queues into {@link MQEvent}.
+ *
+ * The event type comes from the reason code in the PCF header; the parameters are read in one
+ * pass over the message, so attributes an event does not carry are simply left unset.
+ */
+public final class MQEventDecoder {
+
+    private MQEventDecoder() {
+    }
+
+    /**
+     * Decodes the raw body of an event message written with the given MQMD encoding and CCSID.
+     */
+    public static MQEvent decode(byte[] body, int encoding, int ccsid, Instant putTime, String source)
+            throws IOException, MQDataException {
+        MQMessage message = new MQMessage();
+        message.encoding = encoding;
+        message.characterSet = ccsid;
+        message.write(body);
+        message.seek(0);
+        return decode(new PCFMessage(message), putTime, source);
+    }
+
+    public static MQEvent decode(PCFMessage pcf, Instant putTime, String source) {
+        MQEvent event = MQEvent.builder()
+            .category(MQEvent.Category.fromCommand(pcf.getCommand()))
+            .type(MQEvent.Type.fromReason(pcf.getReason()))
+            .reason(pcf.getReason())
+            .putTime(putTime)
+            .source(source)
+            .build();
+
+        Enumeration<?> parameters = pcf.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter parameter = (PCFParameter) parameters.nextElement();
+            Object value = parameter.getValue();
+            switch (parameter.getParameter()) {
+                case CMQC.MQCA_Q_MGR_NAME:
+                    event.setQueueManager(asString(value));
+                    break;
+                case CMQCFC.MQCACH_CHANNEL_NAME:
+                    event.setChannelName(asString(value));
+                    break;
+                case CMQCFC.MQCACH_CONNECTION_NAME:
+                    event.setConnectionName(asString(value));
+                    break;
+                case CMQC.MQCA_Q_NAME:
+                    event.setObjectName(asString(value));
+                    break;
+                case CMQCFC.MQIACF_OBJECT_TYPE:
+                    event.setObjectType(asInt(value));
+                    break;
+                case CMQCFC.MQIACF_REASON_QUALIFIER:
+                    event.setReasonQualifier(asInt(value));
+                    break;
+                case CMQCFC.MQIACF_ERROR_IDENTIFIER:
+                    event.setErrorIdentifier(asInt(value));
+                    break;
+                case CMQCFC.MQCACF_USER_IDENTIFIER:
+                case CMQCFC.MQCACF_EVENT_USER_ID:
+                    event.setUserId(asString(value));
+                    break;
+                case CMQCFC.MQCACF_APPL_NAME:
+                case CMQCFC.MQCACF_EVENT_APPL_NAME:
+                    event.setApplicationName(asString(value));
+                    break;
+                default:
+                    // Not used by the tracking layer
+            }
+        }
+
+        // Configuration events name a channel object by its channel name
+        if (event.getObjectName() == null && event.getCategory() == MQEvent.Category.CONFIGURATION) {
+            event.setObjectName(event.getChannelName());
+        }
+        return event;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? ((String) value).trim() : null;
+    }
+
+    private static int asInt(Object value) {
+        return value instanceof Integer ? (Integer) value : 0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.MQEvent;
+import com.ibm.mq.jms.MQConnectionFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Push-based consumer of the queue manager event queues.
+ *
+ * One single-consumer listener per (QM, event queue) receives channel, queue manager and
+ * configuration events as the queue manager emits them, decodes them with {@link MQEventDecoder}
+ * and applies them to the tracking layer:
+ * <ul>
+ *   <li>QMGR_NOT_ACTIVE moves the QM's CONNECTED connections tracked before the event's put time
+ *       to RECONNECTING; the event is only readable once the QM is back, so connections made to
+ *       the restarted QM are left alone</li>
+ *   <li>channel events update the per channel instance state in {@link ConnectionTrackingService}</li>
+ *   <li>every event goes to the {@link #subscribe subscribers}</li>
+ * </ul>
+ * Event messages are consumed, as with any event monitor; the QMs need CHLEV, STRSTPEV, AUTHOREV
+ * and CONFIGEV enabled (see mq/scripts). With {@code tracking.events.record-file} every received
+ * message is also appended to a {@link MQEventRecording}; with {@code tracking.events.replay-file}
+ * no queue manager is contacted and the recording is replayed at startup instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "tracking.events", name = "enabled", havingValue = "true")
+public class MQEventMonitor {
+
+    private final ConnectionTrackingService trackingService;
+    private final String queueManagers;
+    private final List<String> queues;
+    private final String channel;
+    private final String user;
+    private final String password;
+    private final String recordFile;
+    private final String replayFile;
+
+    private final List<DefaultMessageListenerContainer> containers = new ArrayList<>();
+    private final List<Consumer<MQEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<MQEvent.Type, LongAdder> eventsByType = new EnumMap<>(MQEvent.Type.class);
+    private final LongAdder undecodable = new LongAdder();
+    private MQEventRecording recording;
+
+    public MQEventMonitor(
+            ConnectionTrackingService trackingService,
+            @Value("${tracking.events.queue-managers:QM1:10.10.10.10:1414,QM2:10.10.10.11:1414,QM3:10.10.10.12:1414}") String queueManagers,
+            @Value("${tracking.events.queues:SYSTEM.ADMIN.CHANNEL.EVENT,SYSTEM.ADMIN.QMGR.EVENT,SYSTEM.ADMIN.CONFIG.EVENT}") List<String> queues,
+            @Value("${ibm.mq.channel:APP.SVRCONN}") String channel,
+            @Value("${ibm.mq.user:}") String user,
+            @Value("${ibm.mq.password:}") String password,
+            @Value("${tracking.events.record-file:}") String recordFile,
+            @Value("${tracking.events.replay-file:}") String replayFile) {
+        this.trackingService = trackingService;
+        this.queueManagers = queueManagers;
+        this.queues = queues;
+        this.channel = channel;
+        this.user = user;
+        this.password = password;
+        this.recordFile = recordFile;
+        this.replayFile = replayFile;
+        for (MQEvent.Type type : MQEvent.Type.values()) {
+            eventsByType.put(type, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void start() throws Exception {
+        if (!replayFile.isEmpty()) {
+            int replayed = replay(Paths.get(replayFile));
+            log.info("Replayed {} MQ events from {}", replayed, replayFile);
+            return;
+        }
+        if (!recordFile.isEmpty()) {
+            recording = MQEventRecording.append(Paths.get(recordFile));
+        }
+        for (String spec : queueManagers.split(",")) {
+            String[] parts = spec.trim().split(":");
+            MQConnectionFactory factory = AdminQueueListeners.connectionFactory(parts[0], parts[1],
+                Integer.parseInt(parts[2]), channel, user, password, "MQ-EVENT-MONITOR");
+            for (String queue : queues) {
+                String source = parts[0] + "/" + queue.trim();
+                containers.add(AdminQueueListeners.start(factory, source, queue.trim(),
+                    record -> onRecord(record, source), this::rejected));
+            }
+        }
+        log.info("MQ event monitor listening on {} event queues", containers.size());
+    }
+
+    public void subscribe(Consumer<MQEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Decodes and applies every event in a recording, in order. Returns the number of events applied.
+     */
+    public int replay(Path file) throws IOException {
+        int applied = 0;
+        for (MQEventRecording.Record record : MQEventRecording.read(file)) {
+            try {
+                apply(MQEventDecoder.decode(record.body, record.encoding, record.ccsid,
+                    Instant.ofEpochMilli(record.putTimeMillis), file.getFileName().toString()));
+                applied++;
+            } catch (Exception e) {
+                undecodable.increment();
+                log.warn("Skipping undecodable event record in {}: {}", file, e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Applies one decoded event to the tracking layer and passes it to the subscribers.
+     */
+    public void apply(MQEvent event) {
+        eventsByType.get(event.getType()).increment();
+        switch (event.getType()) {
+            case QMGR_NOT_ACTIVE:
+                int updated = trackingService.updateQueueManagerStatus(event.getQueueManager(),
+                    ConnectionInfo.ConnectionStatus.RECONNECTING, "QMGR_NOT_ACTIVE event", event.getPutTime());
+                log.warn("Queue manager {} not active: {} tracked connections now RECONNECTING",
+                    event.getQueueManager(), updated);
+                break;
+            case QMGR_ACTIVE:
+                log.info("Queue manager {} active", event.getQueueManager());
+                break;
+            default:
+                if (event.getCategory() == MQEvent.Category.CHANNEL) {
+                    trackingService.updateChannelState(event);
+                    log.debug("Channel {} on {} from {}: {}", event.getChannelName(), event.getQueueManager(),
+                        event.getConnectionName(), event.getType());
+                } else if (event.getCategory() == MQEvent.Category.CONFIGURATION) {
+                    log.info("Configuration event on {}: {} {} by {}", event.getQueueManager(), event.getType(),
+                        event.getObjectName(), event.getUserId());
+                }
+        }
+        for (Consumer<MQEvent> subscriber : subscribers) {
+            subscriber.accept(event);
+        }
+    }
+
+    /**
+     * Latest channel event per channel instance (QM/channel/partner address).
+     */
+    public Map<String, MQEvent> getChannelStates() {
+        return trackingService.getChannelStates();
+    }
+
+    public Map<MQEvent.Type, Long> getEventCounts() {
+        Map<MQEvent.Type, Long> counts = new EnumMap<>(MQEvent.Type.class);
+        eventsByType.forEach((type, counter) -> counts.put(type, counter.sum()));
+        return counts;
+    }
+
+    public long getUndecodableCount() {
+        return undecodable.sum();
+    }
+
+    private void rejected(String reason) {
+        undecodable.increment();
+        log.warn("Undecodable event message: {}", reason);
+    }
+
+    private void onRecord(MQEventRecording.Record record, String source) {
+        try {
+            if (recording != null) {
+                recording.write(record);
+            }
+            apply(MQEventDecoder.decode(record.body, record.encoding, record.ccsid,
+                Instant.ofEpochMilli(record.putTimeMillis), source));
+        } catch (Exception e) {
+            undecodable.increment();
+            log.warn("Undecodable event message from {}: {}", source, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (DefaultMessageListenerContainer container : containers) {
+            container.shutdown();
+        }
+        containers.clear();
+        if (recording != null) {
+            try {
+                recording.close();
+            } catch (IOException e) {
+                log.warn("Error closing MQ event recording {}: {}", recordFile, e.getMessage());
+            }
+        }
+    }
+}
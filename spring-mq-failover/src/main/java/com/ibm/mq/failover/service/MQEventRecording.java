@@ -0,0 +1,92 @@
+package com.ibm.mq.failover.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File of raw PCF messages as taken off the event, statistics or accounting queues, for replay
+ * without a queue manager.
+ *
+ * Each record is the message body exactly as received plus what is needed to decode it again:
+ * <pre>
+ *   long  put time, epoch millis
+ *   int   MQMD encoding
+ *   int   MQMD CCSID
+ *   int   body length
+ *   byte[] PCF body
+ * </pre>
+ */
+public final class MQEventRecording implements Closeable {
+
+    public static final class Record {
+        public final long putTimeMillis;
+        public final int encoding;
+        public final int ccsid;
+        public final byte[] body;
+
+        public Record(long putTimeMillis, int encoding, int ccsid, byte[] body) {
+            this.putTimeMillis = putTimeMillis;
+            this.encoding = encoding;
+            this.ccsid = ccsid;
+            this.body = body;
+        }
+    }
+
+    private final DataOutputStream out;
+
+    private MQEventRecording(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens {@code file} for appending, creating it if needed.
+     */
+    public static MQEventRecording append(Path file) throws IOException {
+        return new MQEventRecording(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))));
+    }
+
+    public synchronized void write(Record record) throws IOException {
+        out.writeLong(record.putTimeMillis);
+        out.writeInt(record.encoding);
+        out.writeInt(record.ccsid);
+        out.writeInt(record.body.length);
+        out.write(record.body);
+        out.flush();
+    }
+
+    public static List<Record> read(Path file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long putTime;
+                try {
+                    putTime = in.readLong();
+                } catch (EOFException end) {
+                    break;
+                }
+                int encoding = in.readInt();
+                int ccsid = in.readInt();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                records.add(new Record(putTime, encoding, ccsid, body));
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
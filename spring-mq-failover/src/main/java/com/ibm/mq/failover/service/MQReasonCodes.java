@@ -0,0 +1,89 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.constants.CMQC;
+import jakarta.jms.JMSException;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MQ reason codes behind JMS exceptions.
+ *
+ * The MQ JMS client links the MQException with the reason code to the JMSException; when that
+ * is missing (e.g. an exception rewrapped by Spring) the code is taken from the message text,
+ * which reads "... reason '2009' ('MQRC_CONNECTION_BROKEN')".
+ */
+public final class MQReasonCodes {
+    
+    public static final int NONE = 0;
+    
+    // The queue manager went away or is going: reconnecting elsewhere can succeed
+    private static final Set<Integer> FAILOVER = Set.of(
+        CMQC.MQRC_CONNECTION_BROKEN,
+        CMQC.MQRC_Q_MGR_NOT_AVAILABLE,
+        CMQC.MQRC_Q_MGR_QUIESCING,
+        CMQC.MQRC_Q_MGR_STOPPING,
+        CMQC.MQRC_CONNECTION_QUIESCING,
+        CMQC.MQRC_CONNECTION_STOPPING,
+        CMQC.MQRC_RECONNECTING,
+        CMQC.MQRC_RECONNECT_FAILED,
+        CMQC.MQRC_HOST_NOT_AVAILABLE);
+    
+    // The queue manager is being ended in a controlled way: work in progress may still commit
+    private static final Set<Integer> QUIESCING = Set.of(
+        CMQC.MQRC_Q_MGR_QUIESCING,
+        CMQC.MQRC_Q_MGR_STOPPING,
+        CMQC.MQRC_CONNECTION_QUIESCING,
+        CMQC.MQRC_CONNECTION_STOPPING);
+    
+    private static final Pattern REASON = Pattern.compile("'(\\d{4})' \\('MQRC_");
+    
+    private MQReasonCodes() {
+    }
+    
+    /**
+     * The first reason code in the cause chain, or {@link #NONE}.
+     */
+    public static int reasonCode(Throwable failure) {
+        for (Throwable t = failure; t != null; t = next(t)) {
+            if (t instanceof MQException) {
+                return ((MQException) t).getReason();
+            }
+        }
+        for (Throwable t = failure; t != null; t = next(t)) {
+            if (t.getMessage() != null) {
+                Matcher matcher = REASON.matcher(t.getMessage());
+                if (matcher.find()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+        }
+        return NONE;
+    }
+    
+    /**
+     * Whether the failure means the queue manager is gone or leaving, so the work should be
+     * retried on a new connection.
+     */
+    public static boolean isFailover(Throwable failure) {
+        return FAILOVER.contains(reasonCode(failure));
+    }
+    
+    /**
+     * Whether the failure is a planned shutdown of the queue manager (endmqm, or the channel
+     * being stopped in quiesce mode) rather than a crash.
+     */
+    public static boolean isQuiescing(Throwable failure) {
+        return QUIESCING.contains(reasonCode(failure));
+    }
+    
+    private static Throwable next(Throwable t) {
+        if (t instanceof JMSException && ((JMSException) t).getLinkedException() != null
+                && ((JMSException) t).getLinkedException() != t.getCause()) {
+            return ((JMSException) t).getLinkedException();
+        }
+        return t.getCause() == t ? null : t.getCause();
+    }
+}
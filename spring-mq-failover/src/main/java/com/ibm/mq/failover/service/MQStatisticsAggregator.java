@@ -0,0 +1,320 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.MQIUsage;
+import com.ibm.mq.failover.model.MQStatisticsRecord;
+import com.ibm.mq.jms.MQConnectionFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingests MQ statistics and accounting messages and aggregates their MQI counts into time buckets
+ * per queue manager, queue and APPLTAG.
+ *
+ * Accounting records carry the CONNECTION_ID of the HCONN they describe; it is joined with the
+ * CONNTAG tracking ({@link ConnectionTrackingService#findOwningConnection}) so session HCONNs are
+ * charged to their parent's application tag, giving per-application MQI cost per QM
+ * ({@link #applicationCost}). Statistics records give per-queue put/get rates ({@link #query}).
+ *
+ * Input is either the SYSTEM.ADMIN.STATISTICS.QUEUE / SYSTEM.ADMIN.ACCOUNTING.QUEUE of each
+ * queue manager (needs STATMQI/STATQ and ACCTMQI/ACCTQ enabled), or with
+ * {@code tracking.statistics.replay-file} an {@link MQEventRecording} replayed at startup.
+ * Only the newest {@code retention-buckets} buckets are kept.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "tracking.statistics", name = "enabled", havingValue = "true")
+public class MQStatisticsAggregator {
+
+    private final ConnectionTrackingService trackingService;
+    private final String queueManagers;
+    private final List<String> queues;
+    private final String channel;
+    private final String user;
+    private final String password;
+    private final int bucketSeconds;
+    private final int retentionBuckets;
+    private final String recordFile;
+    private final String replayFile;
+
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong newestBucket = new AtomicLong(Long.MIN_VALUE);
+    private final List<DefaultMessageListenerContainer> containers = new ArrayList<>();
+    private final LongAdder ingested = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder undecodable = new LongAdder();
+    private MQEventRecording recording;
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class BucketKey {
+        private final long bucketStart;
+        private final MQStatisticsRecord.Kind kind;
+        private final String queueManager;
+        private final String queueName;
+        private final String applicationTag;
+    }
+
+    private static final class Bucket {
+        private final long[] counters = new long[MQStatisticsRecord.Counter.values().length];
+        private final Set<String> connections = new HashSet<>();
+        private final Set<String> trackedConnections = new HashSet<>();
+
+        private synchronized void add(MQStatisticsRecord record, boolean tracked) {
+            long[] values = record.getCounters();
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] += values[i];
+            }
+            if (record.getConnectionId() != null) {
+                connections.add(record.getConnectionId());
+                if (tracked) {
+                    trackedConnections.add(record.getConnectionId());
+                }
+            }
+        }
+    }
+
+    public MQStatisticsAggregator(
+            ConnectionTrackingService trackingService,
+            @Value("${tracking.statistics.queue-managers:QM1:10.10.10.10:1414,QM2:10.10.10.11:1414,QM3:10.10.10.12:1414}") String queueManagers,
+            @Value("${tracking.statistics.queues:SYSTEM.ADMIN.STATISTICS.QUEUE,SYSTEM.ADMIN.ACCOUNTING.QUEUE}") List<String> queues,
+            @Value("${ibm.mq.channel:APP.SVRCONN}") String channel,
+            @Value("${ibm.mq.user:}") String user,
+            @Value("${ibm.mq.password:}") String password,
+            @Value("${tracking.statistics.bucket-seconds:60}") int bucketSeconds,
+            @Value("${tracking.statistics.retention-buckets:1440}") int retentionBuckets,
+            @Value("${tracking.statistics.record-file:}") String recordFile,
+            @Value("${tracking.statistics.replay-file:}") String replayFile) {
+        this.trackingService = trackingService;
+        this.queueManagers = queueManagers;
+        this.queues = queues;
+        this.channel = channel;
+        this.user = user;
+        this.password = password;
+        this.bucketSeconds = bucketSeconds;
+        this.retentionBuckets = retentionBuckets;
+        this.recordFile = recordFile;
+        this.replayFile = replayFile;
+    }
+
+    @PostConstruct
+    public void start() throws Exception {
+        if (!replayFile.isEmpty()) {
+            int replayed = replay(Paths.get(replayFile));
+            log.info("Replayed {} statistics/accounting messages from {}", replayed, replayFile);
+            return;
+        }
+        if (!recordFile.isEmpty()) {
+            recording = MQEventRecording.append(Paths.get(recordFile));
+        }
+        for (String spec : queueManagers.split(",")) {
+            String[] parts = spec.trim().split(":");
+            MQConnectionFactory factory = AdminQueueListeners.connectionFactory(parts[0], parts[1],
+                Integer.parseInt(parts[2]), channel, user, password, "MQ-STATISTICS");
+            for (String queue : queues) {
+                String source = parts[0] + "/" + queue.trim();
+                containers.add(AdminQueueListeners.start(factory, source, queue.trim(),
+                    record -> onRecord(record, source), this::rejected));
+            }
+        }
+        log.info("MQ statistics ingestion listening on {} queues, {}s buckets", containers.size(), bucketSeconds);
+    }
+
+    /**
+     * Ingests every message in a recording, in order. Returns the number of messages ingested.
+     */
+    public int replay(Path file) throws IOException {
+        int messages = 0;
+        for (MQEventRecording.Record record : MQEventRecording.read(file)) {
+            try {
+                ingest(MQStatisticsDecoder.decode(record.body, record.encoding, record.ccsid,
+                    Instant.ofEpochMilli(record.putTimeMillis)));
+                messages++;
+            } catch (Exception e) {
+                undecodable.increment();
+                log.warn("Skipping undecodable statistics record in {}: {}", file, e.getMessage());
+            }
+        }
+        return messages;
+    }
+
+    public void ingest(List<MQStatisticsRecord> records) {
+        for (MQStatisticsRecord record : records) {
+            String applicationTag = null;
+            boolean tracked = false;
+            if (record.getKind().isAccounting()) {
+                // APPLNAME is the APPLTAG truncated to 28 chars; prefer the tracked full tag
+                ConnectionInfo owner = record.getConnectionId() != null
+                    ? trackingService.findOwningConnection(record.getConnectionId()) : null;
+                tracked = owner != null && owner.getApplicationTag() != null;
+                applicationTag = tracked ? owner.getApplicationTag() : record.getApplicationName();
+                if (tracked) {
+                    joined.increment();
+                }
+            }
+
+            Instant at = record.getIntervalEnd() != null ? record.getIntervalEnd() : record.getIntervalStart();
+            long bucketStart = Math.floorDiv(at != null ? at.getEpochSecond() : 0L, bucketSeconds) * bucketSeconds;
+            BucketKey key = new BucketKey(bucketStart, record.getKind(), record.getQueueManager(),
+                record.getQueueName(), applicationTag);
+            buckets.computeIfAbsent(key, k -> new Bucket()).add(record, tracked);
+            ingested.increment();
+
+            if (bucketStart > newestBucket.getAndAccumulate(bucketStart, Math::max)) {
+                evictBefore(bucketStart - (long) retentionBuckets * bucketSeconds);
+            }
+        }
+    }
+
+    /**
+     * Buckets in [from, to) of the given kind; null filters match anything.
+     */
+    public List<MQIUsage> query(MQStatisticsRecord.Kind kind, Instant from, Instant to,
+                                String queueManager, String applicationTag) {
+        List<MQIUsage> rows = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            if (matches(key, kind, from, to, queueManager, applicationTag)) {
+                rows.add(toUsage(key, key.bucketStart, bucket.counters, bucket.connections, bucket.trackedConnections));
+            }
+        });
+        rows.sort(Comparator.comparing(MQIUsage::getBucketStart)
+            .thenComparing(MQIUsage::getQueueManager, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(MQIUsage::getQueueName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    /**
+     * MQI accounting summed over [from, to) per queue manager and APPLTAG, highest put+get first.
+     */
+    public List<MQIUsage> applicationCost(Instant from, Instant to) {
+        Map<List<String>, long[]> counters = new HashMap<>();
+        Map<List<String>, Set<String>> connections = new HashMap<>();
+        Map<List<String>, Set<String>> tracked = new HashMap<>();
+        buckets.forEach((key, bucket) -> {
+            if (!matches(key, MQStatisticsRecord.Kind.MQI_ACCOUNTING, from, to, null, null)) {
+                return;
+            }
+            List<String> group = Arrays.asList(key.queueManager, key.applicationTag);
+            long[] sum = counters.computeIfAbsent(group, g -> new long[MQStatisticsRecord.Counter.values().length]);
+            synchronized (bucket) {
+                for (int i = 0; i < sum.length; i++) {
+                    sum[i] += bucket.counters[i];
+                }
+                connections.computeIfAbsent(group, g -> new HashSet<>()).addAll(bucket.connections);
+                tracked.computeIfAbsent(group, g -> new HashSet<>()).addAll(bucket.trackedConnections);
+            }
+        });
+
+        List<MQIUsage> rows = new ArrayList<>();
+        counters.forEach((group, sum) -> rows.add(toUsage(
+            new BucketKey(0L, MQStatisticsRecord.Kind.MQI_ACCOUNTING, group.get(0), null, group.get(1)),
+            from != null ? from.getEpochSecond() : 0L, sum, connections.get(group), tracked.get(group))));
+        rows.sort(Comparator.comparingLong((MQIUsage u) -> u.getCounters().get(MQStatisticsRecord.Counter.PUTS)
+            + u.getCounters().get(MQStatisticsRecord.Counter.GETS)).reversed());
+        return rows;
+    }
+
+    public long getIngestedCount() {
+        return ingested.sum();
+    }
+
+    /**
+     * Accounting records whose connection was found in the CONNTAG tracking.
+     */
+    public long getJoinedCount() {
+        return joined.sum();
+    }
+
+    public long getUndecodableCount() {
+        return undecodable.sum();
+    }
+
+    private boolean matches(BucketKey key, MQStatisticsRecord.Kind kind, Instant from, Instant to,
+                            String queueManager, String applicationTag) {
+        return (kind == null || key.kind == kind)
+            && (from == null || key.bucketStart + bucketSeconds > from.getEpochSecond())
+            && (to == null || key.bucketStart < to.getEpochSecond())
+            && (queueManager == null || queueManager.equals(key.queueManager))
+            && (applicationTag == null || applicationTag.equals(key.applicationTag));
+    }
+
+    private MQIUsage toUsage(BucketKey key, long bucketStart, long[] values, Set<String> connections,
+                             Set<String> tracked) {
+        Map<MQStatisticsRecord.Counter, Long> counters = new EnumMap<>(MQStatisticsRecord.Counter.class);
+        for (MQStatisticsRecord.Counter counter : MQStatisticsRecord.Counter.values()) {
+            counters.put(counter, values[counter.ordinal()]);
+        }
+        return MQIUsage.builder()
+            .kind(key.kind)
+            .bucketStart(Instant.ofEpochSecond(bucketStart))
+            .bucketSeconds(bucketSeconds)
+            .queueManager(key.queueManager)
+            .queueName(key.queueName)
+            .applicationTag(key.applicationTag)
+            .counters(counters)
+            .connections(connections.size())
+            .trackedConnections(tracked.size())
+            .build();
+    }
+
+    private void evictBefore(long oldestKept) {
+        buckets.keySet().removeIf(key -> key.bucketStart < oldestKept);
+    }
+
+    private void rejected(String reason) {
+        undecodable.increment();
+        log.warn("Undecodable statistics message: {}", reason);
+    }
+
+    private void onRecord(MQEventRecording.Record record, String source) {
+        try {
+            if (recording != null) {
+                recording.write(record);
+            }
+            ingest(MQStatisticsDecoder.decode(record.body, record.encoding, record.ccsid,
+                Instant.ofEpochMilli(record.putTimeMillis)));
+        } catch (Exception e) {
+            undecodable.increment();
+            log.warn("Undecodable statistics message from {}: {}", source, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (DefaultMessageListenerContainer container : containers) {
+            container.shutdown();
+        }
+        containers.clear();
+        if (recording != null) {
+            try {
+                recording.close();
+            } catch (IOException e) {
+                log.warn("Error closing statistics recording {}: {}", recordFile, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.failover.model.MQStatisticsRecord;
+import com.ibm.mq.headers.MQDataException;
+import com.ibm.mq.headers.pcf.MQCFGR;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFParameter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes statistics (SYSTEM.ADMIN.STATISTICS.QUEUE) and accounting (SYSTEM.ADMIN.ACCOUNTING.QUEUE)
+ * PCF messages into {@link MQStatisticsRecord}s.
+ *
+ * MQI statistics/accounting give one record; queue statistics/accounting give one record per
+ * queue group (MQGACF_Q_STATISTICS_DATA / MQGACF_Q_ACCOUNTING_DATA), each carrying the
+ * message-level QM, connection and interval fields.
+ */
+public final class MQStatisticsDecoder {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH.mm.ss");
+    private static final Map<Integer, MQStatisticsRecord.Counter> COUNTERS = new HashMap<>();
+
+    static {
+        for (MQStatisticsRecord.Counter counter : MQStatisticsRecord.Counter.values()) {
+            COUNTERS.put(counter.getParameter(), counter);
+        }
+    }
+
+    private MQStatisticsDecoder() {
+    }
+
+    /**
+     * Decodes the raw body of a statistics or accounting message; other messages give an empty list.
+     */
+    public static List<MQStatisticsRecord> decode(byte[] body, int encoding, int ccsid, Instant putTime)
+            throws IOException, MQDataException {
+        MQMessage message = new MQMessage();
+        message.encoding = encoding;
+        message.characterSet = ccsid;
+        message.write(body);
+        message.seek(0);
+        return decode(new PCFMessage(message), putTime);
+    }
+
+    public static List<MQStatisticsRecord> decode(PCFMessage pcf, Instant putTime) {
+        MQStatisticsRecord.Kind kind = MQStatisticsRecord.Kind.fromCommand(pcf.getCommand());
+        if (kind == null) {
+            return Collections.emptyList();
+        }
+
+        MQStatisticsRecord header = MQStatisticsRecord.builder().kind(kind).build();
+        List<Enumeration<?>> groups = new ArrayList<>();
+        String startDate = null, startTime = null, endDate = null, endTime = null;
+
+        Enumeration<?> parameters = pcf.getParameters();
+        while (parameters.hasMoreElements()) {
+            PCFParameter parameter = (PCFParameter) parameters.nextElement();
+            if (parameter instanceof MQCFGR) {
+                groups.add(((MQCFGR) parameter).getParameters());
+                continue;
+            }
+            Object value = parameter.getValue();
+            switch (parameter.getParameter()) {
+                case CMQC.MQCA_Q_MGR_NAME:
+                    header.setQueueManager(asString(value));
+                    break;
+                case CMQCFC.MQCACF_APPL_NAME:
+                    header.setApplicationName(asString(value));
+                    break;
+                case CMQCFC.MQBACF_CONNECTION_ID:
+                    header.setConnectionId(value instanceof byte[] ? toHex((byte[]) value) : null);
+                    break;
+                case CMQCFC.MQCACH_CHANNEL_NAME:
+                    header.setChannelName(asString(value));
+                    break;
+                case CMQCFC.MQCACH_CONNECTION_NAME:
+                    header.setConnectionName(asString(value));
+                    break;
+                case CMQCFC.MQCAMO_START_DATE:
+                    startDate = asString(value);
+                    break;
+                case CMQCFC.MQCAMO_START_TIME:
+                    startTime = asString(value);
+                    break;
+                case CMQCFC.MQCAMO_END_DATE:
+                    endDate = asString(value);
+                    break;
+                case CMQCFC.MQCAMO_END_TIME:
+                    endTime = asString(value);
+                    break;
+                default:
+                    addCounter(header, parameter.getParameter(), value);
+            }
+        }
+        header.setIntervalStart(toInstant(startDate, startTime, putTime));
+        header.setIntervalEnd(toInstant(endDate, endTime, putTime));
+
+        if (groups.isEmpty()) {
+            return Collections.singletonList(header);
+        }
+        List<MQStatisticsRecord> records = new ArrayList<>(groups.size());
+        for (Enumeration<?> group : groups) {
+            MQStatisticsRecord record = MQStatisticsRecord.builder()
+                .kind(kind)
+                .queueManager(header.getQueueManager())
+                .applicationName(header.getApplicationName())
+                .connectionId(header.getConnectionId())
+                .channelName(header.getChannelName())
+                .connectionName(header.getConnectionName())
+                .intervalStart(header.getIntervalStart())
+                .intervalEnd(header.getIntervalEnd())
+                .build();
+            while (group.hasMoreElements()) {
+                PCFParameter parameter = (PCFParameter) group.nextElement();
+                if (parameter.getParameter() == CMQC.MQCA_Q_NAME) {
+                    record.setQueueName(asString(parameter.getValue()));
+                } else {
+                    addCounter(record, parameter.getParameter(), parameter.getValue());
+                }
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static void addCounter(MQStatisticsRecord record, int parameter, Object value) {
+        MQStatisticsRecord.Counter counter = COUNTERS.get(parameter);
+        if (counter != null) {
+            record.add(counter, sum(value));
+        }
+    }
+
+    private static long sum(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        long total = 0;
+        if (value instanceof int[]) {
+            for (int v : (int[]) value) {
+                total += v;
+            }
+        } else if (value instanceof long[]) {
+            for (long v : (long[]) value) {
+                total += v;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * MQCAMO dates and times are the queue manager's local yyyy-MM-dd and HH.mm.ss.
+     */
+    private static Instant toInstant(String date, String time, Instant fallback) {
+        if (date == null || time == null) {
+            return fallback;
+        }
+        try {
+            return LocalDate.parse(date).atTime(LocalTime.parse(time, TIME)).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            return fallback;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? ((String) value).trim() : null;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Character.toUpperCase(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            chars[i * 2 + 1] = Character.toUpperCase(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,124 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFMessageAgent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current depth of one queue on each queue manager, from PCF INQUIRE_Q_STATUS.
+ *
+ * Keeps one PCF agent per queue manager and reconnects it after a failure, so a queue manager
+ * that is down only fails its own inquiries. The agent is built on a queue manager connection
+ * this probe opens, and {@link PCFMessageAgent#disconnect()} leaves such a connection open, so
+ * each agent is kept with its connection and both are closed together.
+ */
+@Slf4j
+public class PCFQueueDepthProbe implements ListenerAutoscaler.DepthProbe, AutoCloseable {
+    
+    private final Map<String, String[]> endpoints = new LinkedHashMap<>();
+    private final String queue;
+    private final String channel;
+    private final String user;
+    private final String password;
+    private final Map<String, Agent> agents = new ConcurrentHashMap<>();
+    
+    private static final class Agent {
+        final MQQueueManager queueManager;
+        final PCFMessageAgent pcf;
+        
+        Agent(MQQueueManager queueManager, PCFMessageAgent pcf) {
+            this.queueManager = queueManager;
+            this.pcf = pcf;
+        }
+    }
+    
+    /**
+     * @param queueManagers {@code QM1:host:port,QM2:host:port,...}
+     */
+    public PCFQueueDepthProbe(String queueManagers, String queue, String channel, String user, String password) {
+        for (String spec : queueManagers.split(",")) {
+            String[] parts = spec.trim().split(":");
+            endpoints.put(parts[0], parts);
+        }
+        this.queue = queue;
+        this.channel = channel;
+        this.user = user;
+        this.password = password;
+    }
+    
+    @Override
+    public int depth(String queueManager) throws Exception {
+        Agent agent = agents.computeIfAbsent(queueManager, this::connect);
+        try {
+            PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_STATUS);
+            request.addParameter(CMQC.MQCA_Q_NAME, queue);
+            request.addParameter(CMQCFC.MQIACF_Q_STATUS_ATTRS, new int[] {CMQC.MQIA_CURRENT_Q_DEPTH});
+            PCFMessage[] responses = agent.pcf.send(request);
+            return responses[0].getIntParameterValue(CMQC.MQIA_CURRENT_Q_DEPTH);
+        } catch (Exception e) {
+            // Reconnect on the next inquiry, possibly after the queue manager restarted
+            agents.remove(queueManager, agent);
+            disconnect(agent);
+            throw e;
+        }
+    }
+    
+    @Override
+    public void close() {
+        agents.values().forEach(PCFQueueDepthProbe::disconnect);
+        agents.clear();
+    }
+    
+    private Agent connect(String queueManager) {
+        String[] endpoint = endpoints.get(queueManager);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("No endpoint configured for " + queueManager);
+        }
+        Hashtable<String, Object> properties = new Hashtable<>();
+        properties.put(CMQC.TRANSPORT_PROPERTY, CMQC.TRANSPORT_MQSERIES_CLIENT);
+        properties.put(CMQC.HOST_NAME_PROPERTY, endpoint[1]);
+        properties.put(CMQC.PORT_PROPERTY, Integer.parseInt(endpoint[2]));
+        properties.put(CMQC.CHANNEL_PROPERTY, channel);
+        properties.put(CMQC.APPNAME_PROPERTY, "MQ-AUTOSCALER");
+        if (user != null && !user.isEmpty()) {
+            properties.put(CMQC.USER_ID_PROPERTY, user);
+            properties.put(CMQC.PASSWORD_PROPERTY, password);
+            properties.put(CMQC.USE_MQCSP_AUTHENTICATION_PROPERTY, true);
+        }
+        MQQueueManager connection = null;
+        try {
+            connection = new MQQueueManager(queueManager, properties);
+            return new Agent(connection, new PCFMessageAgent(connection));
+        } catch (Exception e) {
+            if (connection != null) {
+                disconnectQueueManager(connection);
+            }
+            throw new IllegalStateException("PCF connect to " + queueManager + " failed: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void disconnect(Agent agent) {
+        try {
+            agent.pcf.disconnect();
+        } catch (Exception e) {
+            log.debug("PCF disconnect failed: {}", e.getMessage());
+        }
+        disconnectQueueManager(agent.queueManager);
+    }
+    
+    private static void disconnectQueueManager(MQQueueManager queueManager) {
+        try {
+            queueManager.disconnect();
+        } catch (Exception e) {
+            log.debug("Queue manager disconnect failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.jms.MQConnection;
+import com.ibm.mq.jms.MQConnectionFactory;
+import com.ibm.msg.client.wmq.WMQConstants;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reactive API over the MQ connection factory, next to the listener containers and jmsTemplate.
+ *
+ * {@link #receiveWithAck} is a Flux of messages whose gets follow downstream demand: the consumer
+ * thread only calls receive while there is outstanding request, so a slow subscriber leaves
+ * messages on the queue instead of in memory. Each subscription has its own connection and a
+ * transacted session. A transaction holds up to {@code ibm.mq.reactive.commit-every} messages and
+ * is committed only once the subscriber has {@link AcknowledgeableMessage#acknowledge acknowledged}
+ * all of them, when it is full or demand or the queue runs out; a {@link AcknowledgeableMessage#reject
+ * reject}, a failover or a cancel with unacknowledged messages rolls it back and its messages are
+ * redelivered, so processing is at least once (acknowledged messages in a rolled-back transaction
+ * come again). {@link #receive} acknowledges each message as it is emitted: simpler, but a
+ * message whose processing fails or is cut short after the commit is lost, so processing is at
+ * most once. {@link #consumersPerQueueManager} shows where the receivers of a queue are connected
+ * and {@link #reconnectConsumer} moves one off a queue manager.
+ *
+ * {@link #send} and {@link #sendAll} put through {@link MQBatchSender} on a pool of
+ * {@code ibm.mq.reactive.concurrency} threads; sendAll requests only as many payloads as it has
+ * sends running. A failure whose reason code means the queue manager is gone or leaving
+ * ({@link MQReasonCodes#isFailover}) drops the sender's connection and is retried with backoff,
+ * so the retry reconnects through the CCDT to a queue manager that is up; other failures are
+ * passed on as they are.
+ */
+@Slf4j
+@Service
+public class ReactiveMQClient {
+    
+    @Builder
+    static final class Settings {
+        private final int concurrency;
+        private final int commitEvery;
+        private final long receiveTimeoutMillis;
+        private final int maxRetries;
+        private final Duration retryBackoff;
+    }
+    
+    private final ConnectionFactory connectionFactory;
+    private final MQBatchSender sender;
+    private final ThreadFactory receiverThreads;
+    private final Scheduler sendScheduler;
+    private final Settings settings;
+    private final Set<Receiver> receivers = ConcurrentHashMap.newKeySet();
+    
+    @Autowired
+    public ReactiveMQClient(
+            MQConnectionFactory mqConnectionFactory,
+            MQBatchSender sender,
+            ThreadFactory mqListenerThreadFactory,
+            ThreadFactory mqProducerThreadFactory,
+            @Value("${ibm.mq.reactive.concurrency:8}") int concurrency,
+            @Value("${ibm.mq.reactive.commit-every:50}") int commitEvery,
+            @Value("${ibm.mq.reactive.receive-timeout-ms:1000}") long receiveTimeoutMillis,
+            @Value("${ibm.mq.reactive.max-retries:5}") int maxRetries,
+            @Value("${ibm.mq.reactive.retry-backoff-ms:500}") long retryBackoffMillis) {
+        this(mqConnectionFactory, sender, mqListenerThreadFactory, mqProducerThreadFactory,
+            Settings.builder()
+                .concurrency(concurrency)
+                .commitEvery(commitEvery)
+                .receiveTimeoutMillis(receiveTimeoutMillis)
+                .maxRetries(maxRetries)
+                .retryBackoff(Duration.ofMillis(retryBackoffMillis))
+                .build());
+    }
+    
+    ReactiveMQClient(ConnectionFactory connectionFactory, MQBatchSender sender,
+                     ThreadFactory receiverThreads, ThreadFactory senderThreads, Settings settings) {
+        this.connectionFactory = connectionFactory;
+        this.sender = sender;
+        this.receiverThreads = receiverThreads;
+        this.settings = settings;
+        this.sendScheduler = Schedulers.fromExecutorService(
+            Executors.newFixedThreadPool(settings.concurrency, senderThreads), "mq-reactive-send");
+    }
+    
+    /**
+     * A received message and its place in the receiver's transaction. Acknowledge it once it is
+     * processed; the transaction commits when all its messages are acknowledged. Either call may
+     * come from any thread; calls for a transaction already rolled back are ignored.
+     */
+    public static final class AcknowledgeableMessage {
+        private final Message message;
+        private final Receiver receiver;
+        private final long transaction;
+        
+        private AcknowledgeableMessage(Message message, Receiver receiver, long transaction) {
+            this.message = message;
+            this.receiver = receiver;
+            this.transaction = transaction;
+        }
+        
+        public Message getMessage() {
+            return message;
+        }
+        
+        public void acknowledge() {
+            receiver.acknowledge(transaction);
+        }
+        
+        /**
+         * Rolls back the transaction: this message and the others in it are redelivered.
+         */
+        public void reject() {
+            receiver.reject(transaction);
+        }
+    }
+    
+    /**
+     * Messages from the queue, received only while the subscriber has demand and committed once
+     * the subscriber acknowledged them. Cancelling stops the consumer, rolls back what is not
+     * acknowledged and closes its connection.
+     */
+    public Flux<AcknowledgeableMessage> receiveWithAck(String queue) {
+        return Flux.create(sink -> {
+            Receiver receiver = new Receiver(queue, sink);
+            sink.onRequest(n -> receiver.wake());
+            sink.onDispose(receiver::stop);
+            receiver.start();
+        });
+    }
+    
+    /**
+     * As {@link #receiveWithAck}, acknowledging each message as it is handed to the subscriber:
+     * at most once for processing.
+     */
+    public Flux<Message> receive(String queue) {
+        return receiveWithAck(queue).map(received -> {
+            received.acknowledge();
+            return received.getMessage();
+        });
+    }
+    
+    /**
+     * Receivers of the queue that are connected, per queue manager.
+     */
+    public Map<String, Integer> consumersPerQueueManager(String queue) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Receiver receiver : receivers) {
+            String queueManager = receiver.queueManager;
+            if (receiver.queue.equals(queue) && queueManager != null) {
+                counts.merge(queueManager, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Has one receiver of the queue connected to the queue manager end its transaction as on
+     * cancel and connect again, through the CCDT, possibly elsewhere. False if there is none.
+     */
+    public boolean reconnectConsumer(String queue, String queueManager) {
+        for (Receiver receiver : receivers) {
+            if (receiver.queue.equals(queue) && queueManager.equals(receiver.queueManager) && !receiver.reconnect) {
+                receiver.reconnect = true;
+                receiver.wake();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Converts and puts one message outside syncpoint, retrying on failover.
+     */
+    public Mono<Void> send(String queue, Object payload) {
+        return Mono.<Void>fromCallable(() -> {
+                sender.send(queue, payload);
+                return null;
+            })
+            .subscribeOn(sendScheduler)
+            .retryWhen(failoverRetry(queue));
+    }
+    
+    /**
+     * Puts every payload with at most {@code ibm.mq.reactive.concurrency} sends running, emitting
+     * each payload once it is on the queue (not necessarily in order).
+     */
+    public <T> Flux<T> sendAll(String queue, Publisher<T> payloads) {
+        return sendAll(queue, payloads, settings.concurrency);
+    }
+    
+    public <T> Flux<T> sendAll(String queue, Publisher<T> payloads, int concurrency) {
+        return Flux.from(payloads).flatMap(payload -> send(queue, payload).thenReturn(payload), concurrency);
+    }
+    
+    @PreDestroy
+    public void close() {
+        sendScheduler.dispose();
+    }
+    
+    private Retry failoverRetry(String queue) {
+        return Retry.backoff(settings.maxRetries, settings.retryBackoff)
+            .filter(MQReasonCodes::isFailover)
+            .doBeforeRetry(signal -> {
+                log.warn("Send to {} failed with reason {}, reconnecting (retry {})", queue,
+                    MQReasonCodes.reasonCode(signal.failure()), signal.totalRetries() + 1);
+                sender.reconnect();
+            })
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+    
+    /**
+     * The consumer of one subscription, on its own thread: connects, receives while there is
+     * demand and reconnects after a failover.
+     */
+    private final class Receiver implements Runnable {
+        private final String queue;
+        private final FluxSink<AcknowledgeableMessage> sink;
+        private volatile boolean stopped;
+        private volatile boolean reconnect;
+        private volatile String queueManager;
+        private volatile Thread thread;
+        private int failures;
+        // Current transaction and its acknowledgements, guarded by this
+        private long transaction;
+        private int acknowledged;
+        private boolean rejected;
+        
+        private Receiver(String queue, FluxSink<AcknowledgeableMessage> sink) {
+            this.queue = queue;
+            this.sink = sink;
+        }
+        
+        private void start() {
+            receivers.add(this);
+            thread = receiverThreads.newThread(this);
+            thread.start();
+        }
+        
+        private void wake() {
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+        
+        private void stop() {
+            stopped = true;
+            wake();
+        }
+        
+        private synchronized void acknowledge(long of) {
+            if (of == transaction) {
+                acknowledged++;
+                wake();
+            }
+        }
+        
+        private synchronized void reject(long of) {
+            if (of == transaction) {
+                rejected = true;
+                wake();
+            }
+        }
+        
+        private synchronized boolean isRejected() {
+            return rejected;
+        }
+        
+        private synchronized boolean allAcknowledged(int delivered) {
+            return acknowledged >= delivered;
+        }
+        
+        /**
+         * Ends the transaction on the receiver's side: acknowledgements that arrive from here on
+         * belong to an older transaction and are ignored.
+         */
+        private synchronized long nextTransaction() {
+            acknowledged = 0;
+            rejected = false;
+            return ++transaction;
+        }
+        
+        @Override
+        public void run() {
+            while (!stopped) {
+                Connection connection = null;
+                try {
+                    connection = connectionFactory.createConnection();
+                    Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                    MessageConsumer consumer = session.createConsumer(session.createQueue(queue));
+                    connection.start();
+                    reconnect = false;
+                    queueManager = queueManagerOf(connection);
+                    consume(session, consumer);
+                } catch (JMSException | RuntimeException e) {
+                    if (stopped) {
+                        break;
+                    }
+                    if (!MQReasonCodes.isFailover(e) || ++failures > settings.maxRetries) {
+                        stopped = true;
+                        sink.error(e);
+                        break;
+                    }
+                    long backoff = settings.retryBackoff.toMillis() << Math.min(failures - 1, 10);
+                    log.warn("Receiver on {} failed with reason {}, reconnecting in {}ms", queue,
+                        MQReasonCodes.reasonCode(e), backoff);
+                    pause(backoff);
+                } finally {
+                    queueManager = null;
+                    closeQuietly(connection);
+                }
+            }
+            receivers.remove(this);
+        }
+        
+        private void consume(Session session, MessageConsumer consumer) throws JMSException {
+            // Messages from an earlier connection's transaction were rolled back with it
+            long current = nextTransaction();
+            int delivered = 0;
+            while (!stopped && !reconnect) {
+                if (isRejected()) {
+                    session.rollback();
+                    current = nextTransaction();
+                    delivered = 0;
+                    continue;
+                }
+                boolean complete = delivered > 0 && allAcknowledged(delivered);
+                boolean full = delivered >= settings.commitEvery;
+                if (full || sink.requestedFromDownstream() == 0) {
+                    if (complete) {
+                        current = commit(session);
+                        delivered = 0;
+                    }
+                    if (!complete || !full) {
+                        // Woken by an acknowledgement or new demand
+                        pause(settings.receiveTimeoutMillis);
+                    }
+                    continue;
+                }
+                Message message = delivered == 0
+                    ? consumer.receive(settings.receiveTimeoutMillis)
+                    : consumer.receiveNoWait();
+                if (message == null) {
+                    if (complete) {
+                        current = commit(session);
+                        delivered = 0;
+                    } else if (delivered > 0) {
+                        pause(settings.receiveTimeoutMillis);
+                    }
+                    continue;
+                }
+                if (stopped) {
+                    // Cancelled while receiving: leave it on the queue
+                    session.rollback();
+                    return;
+                }
+                failures = 0;
+                delivered++;
+                sink.next(new AcknowledgeableMessage(message, this, current));
+            }
+            if (delivered > 0) {
+                if (allAcknowledged(delivered) && !isRejected()) {
+                    session.commit();
+                } else {
+                    session.rollback();
+                }
+            }
+            nextTransaction();
+        }
+        
+        private long commit(Session session) throws JMSException {
+            long next = nextTransaction();
+            session.commit();
+            return next;
+        }
+        
+        /**
+         * Waits until woken by new demand or a stop, or for the given time.
+         */
+        private void pause(long millis) {
+            if (!stopped) {
+                LockSupport.parkNanos(this, millis * 1_000_000L);
+            }
+        }
+    }
+    
+    private static String queueManagerOf(Connection connection) {
+        if (connection instanceof MQConnection) {
+            try {
+                String queueManager = ((MQConnection) connection).getPropertyContext()
+                    .getStringProperty(WMQConstants.JMS_IBM_RESOLVED_QUEUE_MANAGER);
+                if (queueManager != null && !queueManager.trim().isEmpty()) {
+                    return queueManager.trim();
+                }
+            } catch (JMSException e) {
+                log.debug("Resolved queue manager not available: {}", e.getMessage());
+            }
+        }
+        return "UNKNOWN";
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                log.debug("Closing receiver connection failed: {}", e.getMessage());
+            }
+        }
+    }
+}
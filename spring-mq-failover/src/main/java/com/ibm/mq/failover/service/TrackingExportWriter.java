@@ -0,0 +1,243 @@
+package com.ibm.mq.failover.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.SessionInfo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Formatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes tracking table rows straight to an output stream, one row per parent connection or
+ * session, without building the whole table in memory. The JSON lines, CSV and text table
+ * formats all render the same row stream produced by {@link ConnectionTrackingService#writeConnections}.
+ */
+public abstract class TrackingExportWriter {
+
+    public enum Format {
+        JSONL("application/x-ndjson"),
+        CSV("text/csv"),
+        TEXT("text/plain");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    protected final Writer out;
+
+    protected TrackingExportWriter(Writer out) {
+        this.out = out;
+    }
+
+    public static TrackingExportWriter of(Format format, Writer out) throws IOException {
+        switch (format) {
+            case JSONL: return new JsonLines(out);
+            case CSV: return new Csv(out);
+            default: return new TextTable(out);
+        }
+    }
+
+    public void begin() throws IOException {
+    }
+
+    public abstract void connection(ConnectionInfo connection) throws IOException;
+
+    public abstract void session(ConnectionInfo parent, SessionInfo session) throws IOException;
+
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    private static final class JsonLines extends TrackingExportWriter {
+        private final JsonGenerator json;
+
+        private JsonLines(Writer out) throws IOException {
+            super(out);
+            this.json = JSON_FACTORY.createGenerator(out);
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void connection(ConnectionInfo c) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "PARENT");
+            json.writeNumberField("connection", c.getTrackingSequence());
+            json.writeStringField("connectionId", c.getConnectionId());
+            json.writeStringField("fullConnTag", c.getFullConnTag());
+            json.writeStringField("queueManager", c.getExtractedQueueManager());
+            json.writeStringField("applicationTag", c.getApplicationTag());
+            json.writeStringField("status", c.getStatus() != null ? c.getStatus().name() : null);
+            json.writeStringField("createdAt", c.getCreatedAt() != null ? c.getCreatedAt().toString() : null);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void session(ConnectionInfo parent, SessionInfo s) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "SESSION");
+            json.writeNumberField("connection", parent.getTrackingSequence());
+            if (s.getSessionNumber() != null) {
+                json.writeNumberField("session", s.getSessionNumber());
+            }
+            json.writeStringField("connectionId", parent.getConnectionId());
+            json.writeStringField("fullConnTag", s.getFullConnTag());
+            json.writeStringField("queueManager", s.getQueueManager());
+            json.writeStringField("applicationTag", parent.getApplicationTag());
+            json.writeStringField("status", s.getStatus() != null ? s.getStatus().name() : null);
+            json.writeStringField("createdAt", s.getCreatedAt() != null ? s.getCreatedAt().toString() : null);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void end() throws IOException {
+            json.flush();
+            super.end();
+        }
+    }
+
+    private static final class Csv extends TrackingExportWriter {
+        private Csv(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out.write("type,connection,session,connectionId,fullConnTag,queueManager,applicationTag,status,createdAt\n");
+        }
+
+        @Override
+        public void connection(ConnectionInfo c) throws IOException {
+            out.write("PARENT,");
+            out.write(Long.toString(c.getTrackingSequence()));
+            out.write(",,");
+            row(c.getConnectionId(), c.getFullConnTag(), c.getExtractedQueueManager(), c.getApplicationTag(),
+                c.getStatus(), c.getCreatedAt());
+        }
+
+        @Override
+        public void session(ConnectionInfo parent, SessionInfo s) throws IOException {
+            out.write("SESSION,");
+            out.write(Long.toString(parent.getTrackingSequence()));
+            out.write(',');
+            if (s.getSessionNumber() != null) {
+                out.write(Integer.toString(s.getSessionNumber()));
+            }
+            out.write(',');
+            row(parent.getConnectionId(), s.getFullConnTag(), s.getQueueManager(), parent.getApplicationTag(),
+                s.getStatus(), s.getCreatedAt());
+        }
+
+        private void row(String connectionId, String connTag, String queueManager, String applicationTag,
+                         Object status, Object createdAt) throws IOException {
+            field(connectionId);
+            out.write(',');
+            field(connTag);
+            out.write(',');
+            field(queueManager);
+            out.write(',');
+            field(applicationTag);
+            out.write(',');
+            field(status != null ? status.toString() : null);
+            out.write(',');
+            field(createdAt != null ? createdAt.toString() : null);
+            out.write('\n');
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char ch = value.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    private static final class TextTable extends TrackingExportWriter {
+        private int rowNum = 1;
+        private int connections;
+        private int sessions;
+        private final Map<String, Long> qmDistribution = new TreeMap<>();
+        private final Formatter formatter;
+
+        private TextTable(Writer out) {
+            super(out);
+            this.formatter = new Formatter(out);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out.write("\n================== CONNECTION AND SESSION TRACKING TABLE ==================\n");
+            formatter.format("| %-3s | %-7s | %-4s | %-7s | %-48s | %-50s | %-14s | %-25s |\n",
+                "#", "Type", "Conn", "Session", "CONNECTION_ID", "FULL_CONNTAG", "Queue Manager", "APPLTAG");
+            out.write("|-----|---------|------|---------|--------------------------------------------------|" +
+                "----------------------------------------------------|----------------|---------------------------|\n");
+        }
+
+        @Override
+        public void connection(ConnectionInfo parent) throws IOException {
+            connections++;
+            qmDistribution.merge(String.valueOf(parent.getExtractedQueueManager()), 1L, Long::sum);
+            formatter.format("| %-3d | %-7s | C%-3d | %-7s | %-48s | %-50s | %-14s | %-25s |\n",
+                rowNum++,
+                "Parent",
+                parent.getTrackingSequence(),
+                "-",
+                parent.getConnectionId(),
+                parent.getFullConnTag(),
+                parent.getExtractedQueueManager(),
+                parent.getApplicationTag());
+        }
+
+        @Override
+        public void session(ConnectionInfo parent, SessionInfo session) throws IOException {
+            sessions++;
+            formatter.format("| %-3d | %-7s | C%-3d | S%-6d | %-48s | %-50s | %-14s | %-25s |\n",
+                rowNum++,
+                "Session",
+                parent.getTrackingSequence(),
+                session.getSessionNumber(),
+                parent.getConnectionId(),
+                session.getFullConnTag(),
+                session.getQueueManager(),
+                parent.getApplicationTag());
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.write("\nSummary: ");
+            formatter.format("%d Parent Connections, %d Total Sessions\n", connections, sessions);
+            out.write("Distribution by QM: " + qmDistribution + "\n");
+            formatter.flush();
+            if (formatter.ioException() != null) {
+                throw formatter.ioException();
+            }
+            super.end();
+        }
+    }
+}
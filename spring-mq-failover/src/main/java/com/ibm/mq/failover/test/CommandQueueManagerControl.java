@@ -0,0 +1,70 @@
+package com.ibm.mq.failover.test;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a command to stop or start a queue manager. In the templates {qm} is the queue manager
+ * name and {container} the same in lower case.
+ */
+@Slf4j
+public class CommandQueueManagerControl implements QueueManagerControl {
+    
+    private static final long TIMEOUT_SECONDS = 60;
+    
+    private final String stopCommand;
+    private final String startCommand;
+    
+    public CommandQueueManagerControl(String stopCommand, String startCommand) {
+        this.stopCommand = stopCommand;
+        this.startCommand = startCommand;
+    }
+    
+    @Override
+    public void stop(String queueManager) throws Exception {
+        run(command(stopCommand, queueManager));
+    }
+    
+    @Override
+    public void start(String queueManager) throws Exception {
+        run(command(startCommand, queueManager));
+    }
+    
+    static List<String> command(String template, String queueManager) {
+        List<String> command = new ArrayList<>();
+        for (String part : template.trim().split("\\s+")) {
+            command.add(part.replace("{qm}", queueManager).replace("{container}", queueManager.toLowerCase()));
+        }
+        return command;
+    }
+    
+    private static void run(List<String> command) throws IOException, InterruptedException {
+        log.info("Running {}", String.join(" ", command));
+        // Output goes to a file, not a pipe: a command (or a child it leaves running) that keeps
+        // the pipe open would block the read and the timeout would never apply
+        Path output = Files.createTempFile("qm-control", ".log");
+        try {
+            Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException(command.get(0) + " did not finish within " + TIMEOUT_SECONDS + "s");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(String.join(" ", command) + " exited with " + process.exitValue() + ": "
+                    + Files.readString(output, StandardCharsets.UTF_8).trim());
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
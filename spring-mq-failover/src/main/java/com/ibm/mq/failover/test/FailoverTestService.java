@@ -26,6 +26,8 @@ public class FailoverTestService {
     private final MQConnectionFactory mqConnectionFactory;
     private final ConnectionTrackingService trackingService;
     private final ConnTagCorrelationService correlationService;
+    // Virtual or platform, see ExecutorConfig
+    private final ThreadFactory mqProducerThreadFactory;
     
     @Value("${ibm.mq.test-queue}")
     private String testQueue;
@@ -44,6 +46,7 @@ public class FailoverTestService {
     
     private final Map<String, Connection> activeConnections = new ConcurrentHashMap<>();
     private final Map<String, List<Session>> connectionSessions = new ConcurrentHashMap<>();
+    private final Map<Session, SessionInfo> sessionInfos = new ConcurrentHashMap<>();
     private final AtomicBoolean testRunning = new AtomicBoolean(false);
     private final AtomicInteger messagesSent = new AtomicInteger(0);
     private final AtomicInteger messagesReceived = new AtomicInteger(0);
@@ -162,6 +165,7 @@ public class FailoverTestService {
                 sessions.add(session);
                 
                 SessionInfo sessionInfo = trackingService.trackSession(session, connectionId, i);
+                sessionInfos.put(session, sessionInfo);
                 result.addChildSession(sessionInfo);
                 
                 log.info("Created session {} for connection {}: QM={}, CONNTAG={}", 
@@ -188,7 +192,7 @@ public class FailoverTestService {
                         session.createQueue(testQueue));
                     
                     // Send messages periodically
-                    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+                    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(mqProducerThreadFactory);
                     executor.scheduleAtFixedRate(() -> {
                         try {
                             String messageText = String.format("MSG-%d-CONN-%s-TIME-%d",
@@ -261,7 +265,7 @@ public class FailoverTestService {
                 log.warn("Forcibly closing session at index {}", randomIndex);
                 
                 // Force close the session
-                targetSession.close();
+                trackingService.closeSession(targetSession, sessionInfos.remove(targetSession));
                 
                 // Simulate thread death
                 Thread sessionThread = new Thread(() -> {
@@ -355,23 +359,25 @@ public class FailoverTestService {
         connectionSessions.values().forEach(sessions -> 
             sessions.forEach(session -> {
                 try {
-                    session.close();
+                    trackingService.closeSession(session, sessionInfos.remove(session));
                 } catch (Exception e) {
                     log.debug("Error closing session", e);
                 }
             }));
         
         // Close all connections
-        activeConnections.values().forEach(connection -> {
+        activeConnections.forEach((connectionId, connection) -> {
             try {
                 connection.close();
             } catch (Exception e) {
                 log.debug("Error closing connection", e);
             }
+            trackingService.updateConnectionStatus(connectionId, ConnectionInfo.ConnectionStatus.CLOSED);
         });
         
         activeConnections.clear();
         connectionSessions.clear();
+        sessionInfos.clear();
         
         // Restart any stopped QMs
         restartQueueManagers();
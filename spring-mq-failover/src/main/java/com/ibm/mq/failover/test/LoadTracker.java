@@ -0,0 +1,162 @@
+package com.ibm.mq.failover.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequence numbers sent and received by the steady load of a rolling restart, with the latency
+ * of every receipt, for throughput, p99 latency and loss/duplicate counts over any time window.
+ * Sends that failed are counted apart: in doubt when the connection went away during the put, so
+ * the message may still be on the queue, failed otherwise. Neither counts as sent, so neither is
+ * lost if it never arrives. Times are System.nanoTime().
+ */
+class LoadTracker {
+    
+    /**
+     * Receipts in one time window.
+     */
+    static final class Window {
+        final int received;
+        final double throughput;
+        final double p99LatencyMillis;
+        
+        Window(int received, double throughput, double p99LatencyMillis) {
+            this.received = received;
+            this.throughput = throughput;
+            this.p99LatencyMillis = p99LatencyMillis;
+        }
+    }
+    
+    private final Map<Long, Boolean> sent = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+    // {received at, latency}
+    private final ConcurrentLinkedQueue<long[]> receipts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong received = new AtomicLong();
+    private final Map<Long, Boolean> inDoubt = new ConcurrentHashMap<>();
+    private final AtomicInteger failed = new AtomicInteger();
+    
+    void sent(long sequence) {
+        sent.put(sequence, Boolean.TRUE);
+    }
+    
+    void sendFailed(long sequence, boolean doubtful) {
+        if (doubtful) {
+            inDoubt.put(sequence, Boolean.TRUE);
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+    
+    void received(long sequence, long sentNanos, long receivedNanos) {
+        deliveries.computeIfAbsent(sequence, s -> new AtomicInteger()).incrementAndGet();
+        receipts.add(new long[] {receivedNanos, receivedNanos - sentNanos});
+        received.incrementAndGet();
+    }
+    
+    Window window(long fromNanos, long toNanos) {
+        List<Long> latencies = new ArrayList<>();
+        for (long[] receipt : receipts) {
+            if (receipt[0] >= fromNanos && receipt[0] < toNanos) {
+                latencies.add(receipt[1]);
+            }
+        }
+        double seconds = Math.max((toNanos - fromNanos) / 1e9, 1e-3);
+        return new Window(latencies.size(), latencies.size() / seconds, p99Millis(latencies));
+    }
+    
+    /**
+     * Time from {@code fromNanos} until throughput stayed at or above {@code rate} messages per
+     * second: the end of the last whole second before {@code toNanos} with fewer receipts, or 0
+     * if there was none.
+     */
+    long recoveryNanos(long fromNanos, long toNanos, double rate) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        int buckets = (int) ((toNanos - fromNanos) / second);
+        int[] counts = new int[buckets];
+        for (long[] receipt : receipts) {
+            if (receipt[0] >= fromNanos && receipt[0] < fromNanos + buckets * second) {
+                counts[(int) ((receipt[0] - fromNanos) / second)]++;
+            }
+        }
+        for (int i = buckets - 1; i >= 0; i--) {
+            if (counts[i] < rate) {
+                return (i + 1) * second;
+            }
+        }
+        return 0;
+    }
+    
+    int getSent() {
+        return sent.size();
+    }
+    
+    long getReceived() {
+        return received.get();
+    }
+    
+    int getFailed() {
+        return failed.get();
+    }
+    
+    int getInDoubt() {
+        return inDoubt.size();
+    }
+    
+    /**
+     * In-doubt sends that were received after all.
+     */
+    int getInDoubtReceived() {
+        int arrived = 0;
+        for (Long sequence : inDoubt.keySet()) {
+            if (deliveries.containsKey(sequence)) {
+                arrived++;
+            }
+        }
+        return arrived;
+    }
+    
+    /**
+     * Sent messages never received.
+     */
+    int getLost() {
+        int lost = 0;
+        for (Long sequence : sent.keySet()) {
+            if (!deliveries.containsKey(sequence)) {
+                lost++;
+            }
+        }
+        return lost;
+    }
+    
+    /**
+     * Deliveries beyond the first of each message.
+     */
+    int getDuplicated() {
+        int duplicated = 0;
+        for (AtomicInteger count : deliveries.values()) {
+            duplicated += count.get() - 1;
+        }
+        return duplicated;
+    }
+    
+    boolean allReceived() {
+        return getLost() == 0;
+    }
+    
+    private static double p99Millis(List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(0.99 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
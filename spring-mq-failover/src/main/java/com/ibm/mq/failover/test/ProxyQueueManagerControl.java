@@ -0,0 +1,51 @@
+package com.ibm.mq.failover.test;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Disables and enables the queue manager's proxy through the Toxiproxy HTTP API
+ * (POST /proxies/{name} with {"enabled": ...}). A disabled proxy drops existing client
+ * connections and refuses new ones, which looks like a queue manager outage to the clients
+ * while the queue manager itself keeps running.
+ */
+@Slf4j
+public class ProxyQueueManagerControl implements QueueManagerControl {
+    
+    private final String apiUrl;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    
+    public ProxyQueueManagerControl(String apiUrl) {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+    }
+    
+    @Override
+    public void stop(String queueManager) throws Exception {
+        setEnabled(queueManager, false);
+    }
+    
+    @Override
+    public void start(String queueManager) throws Exception {
+        setEnabled(queueManager, true);
+    }
+    
+    private void setEnabled(String queueManager, boolean enabled) throws IOException, InterruptedException {
+        String proxy = queueManager.toLowerCase();
+        log.info("{} proxy {}", enabled ? "Enabling" : "Disabling", proxy);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + "/proxies/" + proxy))
+            .timeout(Duration.ofSeconds(10))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"enabled\": " + enabled + "}"))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Proxy " + proxy + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
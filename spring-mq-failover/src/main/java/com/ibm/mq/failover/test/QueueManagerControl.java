@@ -0,0 +1,37 @@
+package com.ibm.mq.failover.test;
+
+/**
+ * Stops and starts one queue manager for {@link RollingRestartOrchestrator}.
+ *
+ * Both calls return once the command was issued or accepted; the orchestrator itself waits for
+ * the cluster to settle.
+ */
+public interface QueueManagerControl {
+    
+    void stop(String queueManager) throws Exception;
+    
+    void start(String queueManager) throws Exception;
+    
+    /**
+     * docker stop / start of the container named after the queue manager in lower case, as in
+     * docker-compose.yml.
+     */
+    static QueueManagerControl docker() {
+        return new CommandQueueManagerControl("docker stop {container}", "docker start {container}");
+    }
+    
+    /**
+     * Local commands, e.g. "endmqm -r -w {qm}" and "strmqm {qm}".
+     */
+    static QueueManagerControl commands(String stopCommand, String startCommand) {
+        return new CommandQueueManagerControl(stopCommand, startCommand);
+    }
+    
+    /**
+     * Cuts and restores client traffic to the queue manager through a Toxiproxy-compatible fault
+     * proxy, with one proxy per queue manager named after it in lower case.
+     */
+    static QueueManagerControl proxy(String apiUrl) {
+        return new ProxyQueueManagerControl(apiUrl);
+    }
+}
@@ -26,6 +26,7 @@ public class QueueManagerRehydrationTest {
     private final MQConnectionFactory mqConnectionFactory;
     private final ConnectionTrackingService trackingService;
     private final ConnTagCorrelationService correlationService;
+    private final Map<Session, SessionInfo> sessionInfos = new ConcurrentHashMap<>();
     
     @Value("${ibm.mq.test-queue}")
     private String testQueue;
@@ -179,6 +180,7 @@ public class QueueManagerRehydrationTest {
             sessions.add(session);
             
             SessionInfo sessionInfo = trackingService.trackSession(session, connId, i);
+            sessionInfos.put(session, sessionInfo);
             log.info("Created session {} for connection {}: QM={}", 
                 i, connId, sessionInfo.getQueueManager());
         }
@@ -377,19 +379,20 @@ public class QueueManagerRehydrationTest {
         sessionMap.values().forEach(sessions -> 
             sessions.forEach(session -> {
                 try {
-                    session.close();
+                    trackingService.closeSession(session, sessionInfos.remove(session));
                 } catch (Exception e) {
                     log.debug("Error closing session", e);
                 }
             }));
         
         // Close connections
-        connections.values().forEach(conn -> {
+        connections.forEach((connId, conn) -> {
             try {
                 conn.close();
             } catch (Exception e) {
                 log.debug("Error closing connection", e);
             }
+            trackingService.updateConnectionStatus(connId, ConnectionInfo.ConnectionStatus.CLOSED);
         });
         
         // Ensure all QMs are running
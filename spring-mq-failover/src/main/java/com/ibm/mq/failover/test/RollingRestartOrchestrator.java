@@ -0,0 +1,443 @@
+package com.ibm.mq.failover.test;
+
+import com.ibm.mq.failover.service.MQBatchSender;
+import com.ibm.mq.failover.service.MQReasonCodes;
+import com.ibm.mq.failover.service.ReactiveMQClient;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Restarts QM1..QMn one at a time under a steady load and checks that no message was lost.
+ *
+ * The load puts {@code rolling-restart.rate} sequence-numbered messages per second on its own
+ * queue ({@code rolling-restart.queue}, so the application listeners do not take them) and
+ * receives them again through {@link ReactiveMQClient}, with one consumer per queue manager so
+ * that, once the cluster has balanced them, messages put on any queue manager are taken. After a baseline period each queue
+ * manager in turn is stopped through the {@link QueueManagerControl} (docker, local commands
+ * or a fault proxy), left down for {@code down-seconds} and started again. The next one is only
+ * touched once the cluster has converged: every queue manager has one of the load's consumers
+ * again, within {@code balance-tolerance} of each other, and throughput is back to 90% of the
+ * baseline. While a queue manager has none, a consumer is moved off the busiest one each poll (it
+ * reconnects through the CCDT, so it may take a few). A step that does not converge within
+ * {@code converge-timeout-seconds} ends the run.
+ *
+ * When all steps are done the load stops sending and waits up to {@code drain-timeout-seconds}
+ * for the last messages; the result lists per step throughput, p99 latency, recovery and
+ * convergence time, and for the run the messages lost and duplicated and the sends that failed
+ * or are in doubt. Lost messages or failed sends fail the run.
+ */
+@Slf4j
+@Component
+public class RollingRestartOrchestrator {
+    
+    private static final double RECOVERED_RATIO = 0.9;
+    
+    /**
+     * Sends sequence-numbered messages and reports each receipt to the tracker.
+     */
+    interface SteadyLoad {
+        void start(String runId, LoadTracker tracker);
+        
+        void stopSending();
+        
+        void close();
+    }
+    
+    @FunctionalInterface
+    public interface RebalanceProbe {
+        Map<String, Integer> consumersPerQueueManager();
+        
+        /**
+         * Moves one consumer off the queue manager, if this probe can.
+         */
+        default void moveConsumer(String fromQueueManager) {
+        }
+    }
+    
+    @Builder
+    static final class Settings {
+        private final long baselineMillis;
+        private final long downMillis;
+        private final long convergeTimeoutMillis;
+        private final long pollMillis;
+        private final long drainTimeoutMillis;
+        private final int balanceTolerance;
+    }
+    
+    private final QueueManagerControl control;
+    private final SteadyLoad load;
+    private final RebalanceProbe probe;
+    private final List<String> queueManagers;
+    private final Settings settings;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile RollingRestartResult lastResult;
+    
+    @Autowired
+    public RollingRestartOrchestrator(
+            MQBatchSender sender,
+            ReactiveMQClient reactiveClient,
+            MessageConverter messageConverter,
+            ThreadFactory mqProducerThreadFactory,
+            @Value("${failover.rolling-restart.control:docker}") String control,
+            @Value("${failover.rolling-restart.stop-command:endmqm -r -w {qm}}") String stopCommand,
+            @Value("${failover.rolling-restart.start-command:strmqm {qm}}") String startCommand,
+            @Value("${failover.rolling-restart.proxy-url:http://localhost:8474}") String proxyUrl,
+            @Value("${failover.rolling-restart.queue-managers:QM1,QM2,QM3}") List<String> queueManagers,
+            @Value("${failover.rolling-restart.queue:DEV.QUEUE.2}") String queue,
+            @Value("${failover.rolling-restart.rate:100}") int rate,
+            @Value("${failover.rolling-restart.baseline-seconds:20}") int baselineSeconds,
+            @Value("${failover.rolling-restart.down-seconds:30}") int downSeconds,
+            @Value("${failover.rolling-restart.converge-timeout-seconds:120}") int convergeTimeoutSeconds,
+            @Value("${failover.rolling-restart.drain-timeout-seconds:60}") int drainTimeoutSeconds,
+            @Value("${failover.rolling-restart.balance-tolerance:1}") int balanceTolerance) {
+        this(control(control, stopCommand, startCommand, proxyUrl),
+            new MQSteadyLoad(sender, reactiveClient, messageConverter, mqProducerThreadFactory, queue, rate,
+                queueManagers.size()),
+            new ConsumerProbe(reactiveClient, queue),
+            queueManagers,
+            Settings.builder()
+                .baselineMillis(baselineSeconds * 1000L)
+                .downMillis(downSeconds * 1000L)
+                .convergeTimeoutMillis(convergeTimeoutSeconds * 1000L)
+                .pollMillis(2000)
+                .drainTimeoutMillis(drainTimeoutSeconds * 1000L)
+                .balanceTolerance(balanceTolerance)
+                .build());
+    }
+    
+    RollingRestartOrchestrator(QueueManagerControl control, SteadyLoad load, RebalanceProbe probe,
+                               List<String> queueManagers, Settings settings) {
+        this.control = control;
+        this.load = load;
+        this.probe = probe;
+        this.queueManagers = queueManagers;
+        this.settings = settings;
+    }
+    
+    @Async
+    public CompletableFuture<RollingRestartResult> runRollingRestart() {
+        return CompletableFuture.completedFuture(run());
+    }
+    
+    public RollingRestartResult getLastResult() {
+        return lastResult;
+    }
+    
+    RollingRestartResult run() {
+        RollingRestartResult result = new RollingRestartResult();
+        if (!running.compareAndSet(false, true)) {
+            result.setSuccess(false);
+            result.setErrorMessage("Rolling restart already in progress");
+            return result;
+        }
+        
+        String runId = "RR-" + System.currentTimeMillis();
+        result.setRunId(runId);
+        result.setStartTime(LocalDateTime.now());
+        result.setQueueManagers(new ArrayList<>(queueManagers));
+        LoadTracker tracker = new LoadTracker();
+        log.info("=== Starting rolling restart {} of {} ===", runId, queueManagers);
+        
+        try {
+            load.start(runId, tracker);
+            pause(settings.baselineMillis);
+            long now = System.nanoTime();
+            LoadTracker.Window baseline = tracker.window(now - TimeUnit.MILLISECONDS.toNanos(settings.baselineMillis), now);
+            result.setBaselineThroughput(baseline.throughput);
+            result.setBaselineP99LatencyMillis(baseline.p99LatencyMillis);
+            log.info("Baseline: {} msg/s, p99 {} ms", String.format("%.1f", baseline.throughput),
+                String.format("%.1f", baseline.p99LatencyMillis));
+            
+            for (String queueManager : queueManagers) {
+                RollingRestartResult.Step step = restart(queueManager, tracker, baseline.throughput);
+                result.getSteps().add(step);
+                if (step.getError() != null) {
+                    result.setSuccess(false);
+                }
+                if (!step.isConverged()) {
+                    result.setSuccess(false);
+                    result.setErrorMessage("Cluster did not converge after restarting " + queueManager
+                        + ", remaining queue managers left alone");
+                    break;
+                }
+            }
+            
+            load.stopSending();
+            awaitDrain(tracker);
+        } catch (RuntimeException e) {
+            log.error("Rolling restart {} failed", runId, e);
+            result.setSuccess(false);
+            result.setErrorMessage(e.getMessage());
+        } finally {
+            load.close();
+            running.set(false);
+        }
+        
+        result.setMessagesSent(tracker.getSent());
+        result.setMessagesReceived(tracker.getReceived());
+        result.setMessagesLost(tracker.getLost());
+        result.setMessagesDuplicated(tracker.getDuplicated());
+        result.setSendsFailed(tracker.getFailed());
+        result.setSendsInDoubt(tracker.getInDoubt());
+        result.setSendsInDoubtReceived(tracker.getInDoubtReceived());
+        if (!result.isZeroLoss() || result.getSendsFailed() > 0) {
+            result.setSuccess(false);
+        }
+        result.setEndTime(LocalDateTime.now());
+        lastResult = result;
+        log.info(result.generateReport());
+        return result;
+    }
+    
+    private RollingRestartResult.Step restart(String queueManager, LoadTracker tracker, double baselineRate) {
+        RollingRestartResult.Step step = new RollingRestartResult.Step();
+        step.setQueueManager(queueManager);
+        step.setStartTime(LocalDateTime.now());
+        List<String> errors = new ArrayList<>();
+        
+        log.info("--- Stopping {} ---", queueManager);
+        long start = System.nanoTime();
+        try {
+            control.stop(queueManager);
+        } catch (Exception e) {
+            errors.add("stop: " + e.getMessage());
+            log.error("Stopping {} failed: {}", queueManager, e.getMessage());
+        }
+        pause(settings.downMillis);
+        
+        log.info("--- Starting {} ---", queueManager);
+        long restarted = System.nanoTime();
+        try {
+            control.start(queueManager);
+        } catch (Exception e) {
+            errors.add("start: " + e.getMessage());
+            log.error("Starting {} failed: {}", queueManager, e.getMessage());
+        }
+        boolean converged = awaitConvergence(tracker, baselineRate);
+        long end = System.nanoTime();
+        
+        LoadTracker.Window window = tracker.window(start, end);
+        step.setError(errors.isEmpty() ? null : String.join("; ", errors));
+        step.setDownMillis(TimeUnit.NANOSECONDS.toMillis(restarted - start));
+        step.setConvergeMillis(TimeUnit.NANOSECONDS.toMillis(end - restarted));
+        step.setConverged(converged);
+        step.setRecoveryMillis(TimeUnit.NANOSECONDS.toMillis(
+            tracker.recoveryNanos(start, end, RECOVERED_RATIO * baselineRate)));
+        step.setReceived(window.received);
+        step.setThroughput(window.throughput);
+        step.setP99LatencyMillis(window.p99LatencyMillis);
+        log.info("Step {}: {} msg/s, p99 {} ms, recovery {} ms, converged {} after {} ms", queueManager,
+            String.format("%.1f", window.throughput), String.format("%.1f", window.p99LatencyMillis),
+            step.getRecoveryMillis(), converged, step.getConvergeMillis());
+        return step;
+    }
+    
+    private boolean awaitConvergence(LoadTracker tracker, double baselineRate) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.convergeTimeoutMillis);
+        while (true) {
+            long now = System.nanoTime();
+            boolean balanced = balanced(probe.consumersPerQueueManager());
+            boolean flowing = baselineRate <= 0
+                || tracker.window(now - second, now).throughput >= RECOVERED_RATIO * baselineRate;
+            if (balanced && flowing) {
+                return true;
+            }
+            if (now >= deadline) {
+                log.warn("Not converged after {} ms: balanced {}, throughput recovered {}",
+                    settings.convergeTimeoutMillis, balanced, flowing);
+                return false;
+            }
+            pause(settings.pollMillis);
+        }
+    }
+    
+    /**
+     * True if every queue manager has consumers, within the tolerance of each other; otherwise
+     * asks the probe to move one off the busiest queue manager.
+     */
+    private boolean balanced(Map<String, Integer> consumers) {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        String busiest = null;
+        for (String queueManager : queueManagers) {
+            int count = consumers.getOrDefault(queueManager, 0);
+            min = Math.min(min, count);
+            if (count > max) {
+                max = count;
+                busiest = queueManager;
+            }
+        }
+        if (min > 0 && max - min <= settings.balanceTolerance) {
+            return true;
+        }
+        if (busiest != null && max > 1) {
+            probe.moveConsumer(busiest);
+        }
+        return false;
+    }
+    
+    private void awaitDrain(LoadTracker tracker) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.drainTimeoutMillis);
+        while (!tracker.allReceived() && System.nanoTime() < deadline) {
+            pause(Math.min(settings.pollMillis, 500));
+        }
+    }
+    
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rolling restart interrupted", e);
+        }
+    }
+    
+    private static QueueManagerControl control(String type, String stopCommand, String startCommand, String proxyUrl) {
+        switch (type.toLowerCase()) {
+            case "docker":
+                return QueueManagerControl.docker();
+            case "process":
+                return QueueManagerControl.commands(stopCommand, startCommand);
+            case "proxy":
+                return QueueManagerControl.proxy(proxyUrl);
+            default:
+                throw new IllegalArgumentException("Unknown rolling restart control " + type
+                    + ", expected docker, process or proxy");
+        }
+    }
+    
+    /**
+     * Where the load's own consumers are connected: the application's other connections say
+     * nothing about whether messages put on each queue manager are taken.
+     */
+    private static final class ConsumerProbe implements RebalanceProbe {
+        private final ReactiveMQClient reactiveClient;
+        private final String queue;
+        
+        private ConsumerProbe(ReactiveMQClient reactiveClient, String queue) {
+            this.reactiveClient = reactiveClient;
+            this.queue = queue;
+        }
+        
+        @Override
+        public Map<String, Integer> consumersPerQueueManager() {
+            return reactiveClient.consumersPerQueueManager(queue);
+        }
+        
+        @Override
+        public void moveConsumer(String fromQueueManager) {
+            if (reactiveClient.reconnectConsumer(queue, fromQueueManager)) {
+                log.info("Moving a rolling restart consumer off {}", fromQueueManager);
+            }
+        }
+    }
+    
+    /**
+     * The load over MQ: a producer thread puts through {@link MQBatchSender}, and the messages of
+     * this run are taken back from the same queue by {@code consumers} {@link ReactiveMQClient}
+     * subscriptions, each with its own connection.
+     */
+    private static final class MQSteadyLoad implements SteadyLoad {
+        private final MQBatchSender sender;
+        private final ReactiveMQClient reactiveClient;
+        private final MessageConverter messageConverter;
+        private final ThreadFactory threadFactory;
+        private final String queue;
+        private final int rate;
+        private final int consumers;
+        private ScheduledExecutorService producer;
+        private Disposable.Composite consumer;
+        
+        private MQSteadyLoad(MQBatchSender sender, ReactiveMQClient reactiveClient, MessageConverter messageConverter,
+                             ThreadFactory threadFactory, String queue, int rate, int consumers) {
+            this.sender = sender;
+            this.reactiveClient = reactiveClient;
+            this.messageConverter = messageConverter;
+            this.threadFactory = threadFactory;
+            this.queue = queue;
+            this.rate = rate;
+            this.consumers = consumers;
+        }
+        
+        @Override
+        public void start(String runId, LoadTracker tracker) {
+            consumer = Disposables.composite();
+            for (int i = 0; i < consumers; i++) {
+                consumer.add(reactiveClient.receiveWithAck(queue).subscribe(delivery -> {
+                    long received = System.nanoTime();
+                    try {
+                        Object body = messageConverter.fromMessage(delivery.getMessage());
+                        if (body instanceof Map && runId.equals(((Map<?, ?>) body).get("run"))) {
+                            Map<?, ?> payload = (Map<?, ?>) body;
+                            tracker.received(((Number) payload.get("seq")).longValue(),
+                                ((Number) payload.get("sentNanos")).longValue(), received);
+                        }
+                    } catch (Exception e) {
+                        log.debug("Skipping unreadable message on {}: {}", queue, e.getMessage());
+                    }
+                    // Only counted messages are committed, so a failover before this redelivers them
+                    delivery.acknowledge();
+                }, e -> log.error("Rolling restart consumer on {} stopped: {}", queue, e.getMessage())));
+            }
+            
+            AtomicLong sequence = new AtomicLong();
+            producer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            producer.scheduleAtFixedRate(() -> {
+                long seq = sequence.incrementAndGet();
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("run", runId);
+                payload.put("seq", seq);
+                payload.put("sentNanos", System.nanoTime());
+                try {
+                    sender.send(queue, payload);
+                    tracker.sent(seq);
+                } catch (Exception e) {
+                    boolean doubtful = MQReasonCodes.isFailover(e);
+                    tracker.sendFailed(seq, doubtful);
+                    log.debug("Send {} failed{}: {}", seq, doubtful ? ", in doubt" : "", e.getMessage());
+                }
+            }, 0, Math.max(1, 1_000_000 / rate), TimeUnit.MICROSECONDS);
+        }
+        
+        @Override
+        public void stopSending() {
+            if (producer != null) {
+                producer.shutdown();
+                try {
+                    producer.awaitTermination(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        
+        @Override
+        public void close() {
+            stopSending();
+            if (consumer != null) {
+                consumer.dispose();
+            }
+        }
+    }
+}
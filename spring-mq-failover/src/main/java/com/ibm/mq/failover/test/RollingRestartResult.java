@@ -0,0 +1,89 @@
+package com.ibm.mq.failover.test;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RollingRestartResult {
+    private boolean success = true;
+    private String errorMessage;
+    private String runId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<String> queueManagers = new ArrayList<>();
+    
+    // Steady load before the first restart
+    private double baselineThroughput;
+    private double baselineP99LatencyMillis;
+    
+    private List<Step> steps = new ArrayList<>();
+    
+    // Whole run, after the final drain
+    private int messagesSent;
+    private long messagesReceived;
+    private int messagesLost;
+    private int messagesDuplicated;
+    // Sends that threw: in doubt when the connection broke during the put, failed otherwise
+    private int sendsFailed;
+    private int sendsInDoubt;
+    private int sendsInDoubtReceived;
+    
+    @Data
+    public static class Step {
+        private String queueManager;
+        private LocalDateTime startTime;
+        private String error;
+        private long downMillis;
+        // From the stop until received throughput stayed at 90% of the baseline or more
+        private long recoveryMillis;
+        // From the start until the load's consumers are spread over all queue managers again
+        private long convergeMillis;
+        private boolean converged;
+        private int received;
+        private double throughput;
+        private double p99LatencyMillis;
+    }
+    
+    public boolean isZeroLoss() {
+        return messagesLost == 0;
+    }
+    
+    public String generateReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("\n================== ROLLING RESTART REPORT ==================\n");
+        report.append(String.format("Status: %s\n", success ? "SUCCESS" : "FAILED"));
+        if (errorMessage != null) {
+            report.append(String.format("Error: %s\n", errorMessage));
+        }
+        if (startTime != null && endTime != null) {
+            report.append(String.format("Duration: %d seconds\n", Duration.between(startTime, endTime).getSeconds()));
+        }
+        report.append(String.format("Run: %s, queue managers: %s\n", runId, String.join(", ", queueManagers)));
+        report.append(String.format("Baseline: %.1f msg/s, p99 %.1f ms\n", baselineThroughput, baselineP99LatencyMillis));
+        
+        report.append("\n=== Steps ===\n");
+        report.append(String.format("  %-6s %10s %12s %12s %10s %10s %10s\n",
+            "QM", "down ms", "recovery ms", "converge ms", "msg/s", "p99 ms", "converged"));
+        for (Step step : steps) {
+            report.append(String.format("  %-6s %10d %12d %12d %10.1f %10.1f %10s\n",
+                step.queueManager, step.downMillis, step.recoveryMillis, step.convergeMillis,
+                step.throughput, step.p99LatencyMillis, step.converged ? "yes" : "NO"));
+            if (step.error != null) {
+                report.append(String.format("         error: %s\n", step.error));
+            }
+        }
+        
+        report.append("\n=== Messages ===\n");
+        report.append(String.format("  Sent: %d, received: %d, lost: %d, duplicated: %d\n",
+            messagesSent, messagesReceived, messagesLost, messagesDuplicated));
+        report.append(String.format("  Sends failed: %d, in doubt: %d (%d of them received)\n",
+            sendsFailed, sendsInDoubt, sendsInDoubtReceived));
+        report.append(String.format("  Zero loss: %s\n", isZeroLoss() ? "YES" : "NO"));
+        report.append("============================================================\n");
+        return report.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.ibm.mq.failover;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Text and bytes messages held in memory, for converter tests and benchmarks without a provider.
+ *
+ * {@link #session()} returns a session that only creates these messages. A bytes message is
+ * readable straight after it was written, as if it had been sent and received.
+ */
+public final class InMemoryMessages {
+
+    private InMemoryMessages() {
+    }
+
+    public static Session session() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] {Session.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "createTextMessage":
+                        TextMessage text = textMessage();
+                        if (args != null && args.length == 1) {
+                            text.setText((String) args[0]);
+                        }
+                        return text;
+                    case "createBytesMessage":
+                        return bytesMessage();
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    public static TextMessage textMessage() {
+        Map<String, Object> properties = new HashMap<>();
+        String[] body = new String[1];
+        return (TextMessage) Proxy.newProxyInstance(TextMessage.class.getClassLoader(), new Class<?>[] {TextMessage.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setText":
+                        body[0] = (String) args[0];
+                        return null;
+                    case "getText":
+                        return body[0];
+                    default:
+                        return property(properties, method.getName(), args);
+                }
+            });
+    }
+
+    public static BytesMessage bytesMessage() {
+        Map<String, Object> properties = new HashMap<>();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int[] position = new int[1];
+        byte[][] readable = new byte[1][];
+        return (BytesMessage) Proxy.newProxyInstance(BytesMessage.class.getClassLoader(), new Class<?>[] {BytesMessage.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "writeByte":
+                        written.write((Byte) args[0]);
+                        readable[0] = null;
+                        return null;
+                    case "writeBytes":
+                        byte[] source = (byte[]) args[0];
+                        if (args.length == 3) {
+                            written.write(source, (Integer) args[1], (Integer) args[2]);
+                        } else {
+                            written.write(source, 0, source.length);
+                        }
+                        readable[0] = null;
+                        return null;
+                    case "readBytes":
+                        if (readable[0] == null) {
+                            readable[0] = written.toByteArray();
+                        }
+                        byte[] target = (byte[]) args[0];
+                        int length = args.length == 2 ? (Integer) args[1] : target.length;
+                        int remaining = readable[0].length - position[0];
+                        if (remaining <= 0) {
+                            return -1;
+                        }
+                        int read = Math.min(length, remaining);
+                        System.arraycopy(readable[0], position[0], target, 0, read);
+                        position[0] += read;
+                        return read;
+                    case "reset":
+                        position[0] = 0;
+                        return null;
+                    case "getBodyLength":
+                        return (long) written.size();
+                    default:
+                        return property(properties, method.getName(), args);
+                }
+            });
+    }
+
+    private static Object property(Map<String, Object> properties, String method, Object[] args) {
+        if (method.startsWith("set") && method.endsWith("Property")) {
+            properties.put((String) args[0], args[1]);
+            return null;
+        }
+        if (method.equals("getStringProperty")) {
+            Object value = properties.get((String) args[0]);
+            return value == null ? null : value.toString();
+        }
+        if (method.equals("propertyExists")) {
+            return properties.containsKey((String) args[0]);
+        }
+        if (method.equals("hashCode")) {
+            return System.identityHashCode(properties);
+        }
+        if (method.equals("toString")) {
+            return "InMemoryMessage" + properties;
+        }
+        throw new UnsupportedOperationException(method);
+    }
+}
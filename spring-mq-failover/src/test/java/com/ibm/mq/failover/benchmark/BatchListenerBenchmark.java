@@ -0,0 +1,153 @@
+package com.ibm.mq.failover.benchmark;
+
+import com.ibm.mq.failover.listener.BatchMessageListenerContainer;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes batchSize messages through the single-message DefaultMessageListenerContainer (one
+ * transaction per message) and through BatchMessageListenerContainer (one transaction per batch).
+ *
+ * The consumer always has a message ready; commitMicros stands in for the sync-point a transacted
+ * MQ session pays on commit (a round trip, plus a log force for persistent messages), so the
+ * difference between the two is the per-message commit that batching saves plus the container's
+ * own per-receive overhead. Results are per batchSize messages.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=BatchListenerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchListenerBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    private int batchSize;
+
+    @Param({"0", "100"})
+    private int commitMicros;
+
+    private SingleContainer single;
+    private BatchContainer batched;
+    private Session session;
+    private MessageConsumer consumer;
+
+    /**
+     * Exposes one receive loop iteration; there is no invoker outside a running container.
+     */
+    static class SingleContainer extends DefaultMessageListenerContainer {
+        @Override
+        protected void messageReceived(Object invoker, Session session) {
+        }
+
+        @Override
+        protected void noMessageReceived(Object invoker, Session session) {
+        }
+
+        boolean poll(Session session, MessageConsumer consumer) throws JMSException {
+            return doReceiveAndExecute(this, session, consumer, null);
+        }
+    }
+
+    static class BatchContainer extends BatchMessageListenerContainer {
+        @Override
+        protected void messageReceived(Object invoker, Session session) {
+        }
+
+        @Override
+        protected void noMessageReceived(Object invoker, Session session) {
+        }
+
+        boolean poll(Session session, MessageConsumer consumer) throws JMSException {
+            return doReceiveAndExecute(this, session, consumer, null);
+        }
+    }
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        TextMessage message = stub(TextMessage.class, (name, args) -> "getText".equals(name) ? "payload" : null);
+        consumer = stub(MessageConsumer.class, (name, args) -> name.startsWith("receive") ? message : null);
+        session = stub(Session.class, (name, args) -> {
+            switch (name) {
+                case "getTransacted":
+                    return true;
+                case "getAcknowledgeMode":
+                    return Session.SESSION_TRANSACTED;
+                case "commit":
+                    spin(commitMicros);
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        ConnectionFactory connectionFactory = stub(ConnectionFactory.class, (name, args) -> null);
+
+        single = new SingleContainer();
+        single.setConnectionFactory(connectionFactory);
+        single.setSessionTransacted(true);
+        single.setAcceptMessagesWhileStopping(true);
+        single.setMessageListener((jakarta.jms.MessageListener) blackhole::consume);
+
+        batched = new BatchContainer();
+        batched.setConnectionFactory(connectionFactory);
+        batched.setSessionTransacted(true);
+        batched.setAcceptMessagesWhileStopping(true);
+        batched.setBatchSize(batchSize);
+        batched.setBatchListener((messages, s) -> {
+            for (Message m : messages) {
+                blackhole.consume(m);
+            }
+        });
+    }
+
+    @Benchmark
+    public void singleMessageTransactions() throws JMSException {
+        for (int i = 0; i < batchSize; i++) {
+            single.poll(session, consumer);
+        }
+    }
+
+    @Benchmark
+    public void batchTransaction() throws JMSException {
+        batched.poll(session, consumer);
+    }
+
+    private static void spin(int micros) {
+        long until = System.nanoTime() + micros * 1000L;
+        while (micros > 0 && System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    return answer.answer(method.getName(), args);
+            }
+        });
+    }
+}
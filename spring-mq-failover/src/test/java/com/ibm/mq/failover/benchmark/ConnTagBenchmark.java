@@ -0,0 +1,151 @@
+package com.ibm.mq.failover.benchmark;
+
+import com.ibm.mq.failover.model.ConnTag;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the string handling the tracking services used before ConnTag
+ * (prefix checks, substring group ids, String-keyed maps) with parsing once
+ * into ConnTag keys.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=ConnTagBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnTagBenchmark {
+
+    private static final String[] QMS = {"QM1", "QM2", "QM3"};
+
+    @Param({"10000"})
+    private int connections;
+
+    private String[] connTags;
+    private String[] connectionIds;
+    private ConnTag[] keys;
+
+    private Map<String, Integer> byGroupId;
+    private Map<String, Integer> byConnectionId;
+    private Map<ConnTag, Integer> byConnTag;
+
+    @Setup
+    public void setUp() {
+        connTags = new String[connections];
+        connectionIds = new String[connections];
+        keys = new ConnTag[connections];
+        byGroupId = new HashMap<>();
+        byConnectionId = new HashMap<>();
+        byConnTag = new HashMap<>();
+
+        for (int i = 0; i < connections; i++) {
+            String qm = QMS[i % QMS.length];
+            String handle = String.format("%016X", 0x8A11C06800000000L + i);
+            connTags[i] = "MQCT" + handle + qm + "_2025-09-05_02.13.42SELECTIVE-" + (i % 50);
+            connectionIds[i] = "414D5143" + toHex(String.format("%-12s", qm)) + handle;
+            keys[i] = ConnTag.parse(connTags[i]);
+
+            byGroupId.put(legacyGroupId(connTags[i]), i);
+            byConnectionId.put(connectionIds[i], i);
+            byConnTag.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public String legacyExtractQueueManager() {
+        return legacyQueueManager(connectionIds[next()]);
+    }
+
+    @Benchmark
+    public String connTagExtractQueueManager() {
+        return ConnTag.fromConnectionId(connectionIds[next()]).getQueueManager();
+    }
+
+    @Benchmark
+    public String cachedQueueManager() {
+        return keys[next()].getQueueManager();
+    }
+
+    @Benchmark
+    public Integer legacyLookupByGroupId() {
+        return byGroupId.get(legacyGroupId(connTags[next()]));
+    }
+
+    @Benchmark
+    public Integer legacyLookupByConnectionId() {
+        return byConnectionId.get(connectionIds[next()]);
+    }
+
+    @Benchmark
+    public Integer connTagLookup() {
+        return byConnTag.get(keys[next()]);
+    }
+
+    @Benchmark
+    public void legacyParentChildCorrelation(Blackhole bh) {
+        // Session CONNTAG -> group id -> parent, then QM of the parent
+        int i = next();
+        Integer parent = byGroupId.get(legacyGroupId(connTags[i]));
+        bh.consume(parent);
+        bh.consume(legacyQueueManager(connectionIds[parent]));
+    }
+
+    @Benchmark
+    public void connTagParentChildCorrelation(Blackhole bh) {
+        int i = next();
+        Integer parent = byConnTag.get(keys[i]);
+        bh.consume(parent);
+        bh.consume(keys[parent].getQueueManager());
+    }
+
+    @Benchmark
+    public ConnTag parseConnTag() {
+        return ConnTag.parse(connTags[next()]);
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(connections);
+    }
+
+    // Behaviour of ConnectionInfo.getExtractedQueueManager before ConnTag
+    private static String legacyQueueManager(String connectionId) {
+        if (connectionId != null && connectionId.length() >= 32) {
+            String prefix = connectionId.substring(0, 32);
+            if (prefix.startsWith("414D5143514D31")) {
+                return "QM1";
+            } else if (prefix.startsWith("414D5143514D32")) {
+                return "QM2";
+            } else if (prefix.startsWith("414D5143514D33")) {
+                return "QM3";
+            }
+        }
+        return null;
+    }
+
+    // Behaviour of ConnTagCorrelationService.extractGroupId before ConnTag
+    private static String legacyGroupId(String connTag) {
+        if (connTag != null && connTag.length() >= 20) {
+            if (connTag.startsWith("MQCT")) {
+                return connTag.substring(4, Math.min(20, connTag.length()));
+            }
+            return connTag.substring(0, Math.min(20, connTag.length()));
+        }
+        return connTag;
+    }
+
+    private static String toHex(String value) {
+        StringBuilder hex = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            hex.append(String.format("%02X", (int) c));
+        }
+        return hex.toString();
+    }
+}
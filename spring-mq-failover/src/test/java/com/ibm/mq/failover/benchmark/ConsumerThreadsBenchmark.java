@@ -0,0 +1,94 @@
+package com.ibm.mq.failover.benchmark;
+
+import com.ibm.mq.failover.config.ExecutorConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains a fixed number of messages with 10, 100 and 1000 consumers, each on its own platform or
+ * virtual thread from a SimpleAsyncTaskExecutor, the way the listener containers run them.
+ *
+ * Consumers block in a timed poll like a receive and park for ioMicros per message, standing in
+ * for the MQ round trip and commit; the queue is an in-memory stand-in for the queue manager.
+ * The virtual rows need a Java 21+ runtime and fail in setup otherwise.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=ConsumerThreadsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsumerThreadsBenchmark {
+
+    private static final Object MESSAGE = new Object();
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"10", "100", "1000"})
+    private int consumers;
+
+    @Param({"10000"})
+    private int messages;
+
+    @Param({"200"})
+    private int ioMicros;
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile CountDownLatch drained;
+
+    @Setup(Level.Trial)
+    public void startConsumers() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("consumer-");
+        if ("virtual".equals(threads)) {
+            if (!ExecutorConfig.virtualThreadsSupported()) {
+                throw new IllegalStateException("Virtual threads need Java 21 or later, running " + Runtime.version());
+            }
+            executor.setVirtualThreads(true);
+        }
+        running.set(true);
+        for (int i = 0; i < consumers; i++) {
+            executor.execute(this::consume);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopConsumers() {
+        running.set(false);
+    }
+
+    @Benchmark
+    public void drain() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(messages);
+        drained = latch;
+        for (int i = 0; i < messages; i++) {
+            queue.add(MESSAGE);
+        }
+        latch.await();
+    }
+
+    private void consume() {
+        while (running.get()) {
+            try {
+                // Like receive(timeout): wake up now and then to notice shutdown
+                if (queue.poll(100, TimeUnit.MILLISECONDS) != null) {
+                    LockSupport.parkNanos(ioMicros * 1000L);
+                    drained.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
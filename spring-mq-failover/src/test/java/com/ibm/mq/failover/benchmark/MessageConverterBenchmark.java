@@ -0,0 +1,108 @@
+package com.ibm.mq.failover.benchmark;
+
+import com.ibm.mq.failover.InMemoryMessages;
+import com.ibm.mq.failover.config.CachedJsonMessageConverter;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts an order payload of payloadBytes (as JSON) to a message and back, with the
+ * MappingJackson2MessageConverter from MQConfig (jackson) and the CachedJsonMessageConverter
+ * formats (text, utf8, smile). Messages are held in memory, so only conversion is measured.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=MessageConverterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageConverterBenchmark {
+
+    @Param({"200", "10240", "102400", "1048576"})
+    private int payloadBytes;
+
+    @Param({"jackson", "text", "utf8", "smile"})
+    private String converter;
+
+    private MessageConverter messageConverter;
+    private Session session;
+    private Order order;
+    private Message message;
+
+    @Setup
+    public void setUp() throws JMSException {
+        if (converter.equals("jackson")) {
+            // As MQConfig.messageConverter
+            MappingJackson2MessageConverter jackson = new MappingJackson2MessageConverter();
+            jackson.setTargetType(MessageType.TEXT);
+            jackson.setTypeIdPropertyName("_type");
+            messageConverter = jackson;
+        } else {
+            messageConverter = new CachedJsonMessageConverter(CachedJsonMessageConverter.Format.valueOf(converter.toUpperCase()));
+        }
+        session = InMemoryMessages.session();
+        order = order(payloadBytes);
+        message = messageConverter.toMessage(order, session);
+    }
+
+    @Benchmark
+    public Message toMessage() throws JMSException {
+        return messageConverter.toMessage(order, session);
+    }
+
+    @Benchmark
+    public Object fromMessage() throws JMSException {
+        if (message instanceof BytesMessage) {
+            ((BytesMessage) message).reset();
+        }
+        return messageConverter.fromMessage(message);
+    }
+
+    /**
+     * An order with as many lines as it takes to reach about size bytes of JSON (~75 per line).
+     */
+    private static Order order(int size) {
+        Order order = new Order();
+        order.id = "ORD-000001";
+        order.customer = "CUST-42";
+        order.timestamp = System.currentTimeMillis();
+        order.lines = new ArrayList<>();
+        int estimate = 60;
+        for (int i = 0; estimate < size; i++) {
+            Line line = new Line();
+            line.sku = "SKU-" + (100000 + i);
+            line.quantity = 1 + i % 9;
+            line.price = 9.99 + i;
+            line.description = "Line item " + i;
+            order.lines.add(line);
+            estimate += 75;
+        }
+        return order;
+    }
+
+    public static class Order {
+        public String id;
+        public String customer;
+        public long timestamp;
+        public List<Line> lines;
+    }
+
+    public static class Line {
+        public String sku;
+        public int quantity;
+        public double price;
+        public String description;
+    }
+}
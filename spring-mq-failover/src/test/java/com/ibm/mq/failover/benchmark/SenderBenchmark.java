@@ -0,0 +1,235 @@
+package com.ibm.mq.failover.benchmark;
+
+import com.ibm.mq.failover.service.MQBatchSender;
+import jakarta.jms.CompletionListener;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends batchSize messages through a JmsTemplate configured like the jmsTemplate bean
+ * (CachingConnectionFactory without producer caching) and through MQBatchSender.
+ *
+ * The JMS provider is a stub that charges roundTripMicros for every call that is a round trip
+ * to the queue manager in the MQ client: opening a producer (MQOPEN), closing it (MQCLOSE), a
+ * synchronous put (MQPUT) and a commit (MQCMIT). An async put returns at once and is confirmed
+ * one round trip later on the provider's callback thread, as a JMS 2.0 provider may do. Results
+ * are per batchSize messages.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.include=SenderBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SenderBenchmark {
+
+    private static final String QUEUE = "DEV.QUEUE.1";
+
+    @Param({"1", "10", "100"})
+    private int batchSize;
+
+    @Param({"0", "100"})
+    private int roundTripMicros;
+
+    private JmsTemplate template;
+    private CachingConnectionFactory cachingFactory;
+    private MQBatchSender sender;
+    private List<Object> payloads;
+    private final LinkedBlockingQueue<Confirmation> confirmations = new LinkedBlockingQueue<>();
+    private Thread callbacks;
+
+    /**
+     * An async put the stub confirms at {@code due}; all share one delay, so the queue is in due order.
+     */
+    private static final class Confirmation {
+        final long due;
+        final CompletionListener listener;
+        final Message message;
+
+        Confirmation(long due, CompletionListener listener, Message message) {
+            this.due = due;
+            this.listener = listener;
+            this.message = message;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        callbacks = new Thread(this::confirm, "stub-completion-listener");
+        callbacks.setDaemon(true);
+        callbacks.start();
+
+        ConnectionFactory target = stub(ConnectionFactory.class);
+
+        // As MQConfig.cachingConnectionFactory and jmsTemplate
+        cachingFactory = new CachingConnectionFactory();
+        cachingFactory.setTargetConnectionFactory(target);
+        cachingFactory.setSessionCacheSize(10);
+        cachingFactory.setCacheConsumers(false);
+        cachingFactory.setCacheProducers(false);
+        template = new JmsTemplate(cachingFactory);
+        template.setMessageConverter(converter());
+
+        sender = new MQBatchSender(target, converter(), 4, 1000, (queue, async) -> stub(jakarta.jms.Queue.class));
+
+        payloads = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            payloads.add("MSG-" + i + "-" + "x".repeat(200));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        sender.close();
+        cachingFactory.destroy();
+        callbacks.interrupt();
+        callbacks.join();
+    }
+
+    @Benchmark
+    public void jmsTemplateSend() {
+        for (Object payload : payloads) {
+            template.convertAndSend(QUEUE, payload);
+        }
+    }
+
+    @Benchmark
+    public void cachedProducerSend() throws JMSException {
+        for (Object payload : payloads) {
+            sender.send(QUEUE, payload);
+        }
+    }
+
+    @Benchmark
+    public int batchSend() throws JMSException {
+        return sender.sendBatch(QUEUE, payloads);
+    }
+
+    @Benchmark
+    public void asyncSend() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[payloads.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = sender.sendAsync(QUEUE, payloads.get(i));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static MappingJackson2MessageConverter converter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setTargetType(MessageType.TEXT);
+        converter.setTypeIdPropertyName("_type");
+        return converter;
+    }
+
+    /**
+     * A JMS object whose methods return further stubs for JMS interfaces and defaults otherwise.
+     */
+    private <T> T stub(Class<T> type) {
+        return stub(type, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stub(Class<T> type, boolean transacted) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                case "createProducer":
+                case "commit":
+                    spin();
+                    break;
+                case "close":
+                    if (type == jakarta.jms.MessageProducer.class) {
+                        spin();
+                    }
+                    break;
+                case "send":
+                    CompletionListener listener = completionListener(args);
+                    if (listener != null) {
+                        confirmations.add(new Confirmation(System.nanoTime() + roundTripMicros * 1000L, listener, (Message) args[0]));
+                    } else {
+                        spin();
+                    }
+                    break;
+                case "createSession":
+                    return stub(jakarta.jms.Session.class, args != null && args.length == 2 && (Boolean) args[0]);
+                case "getTransacted":
+                    return transacted;
+                default:
+                    break;
+            }
+            return defaultValue(method);
+        });
+    }
+
+    private Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isInterface() && returnType.getName().startsWith("jakarta.jms")) {
+            return stub(returnType);
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static CompletionListener completionListener(Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof CompletionListener) {
+                    return (CompletionListener) arg;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void confirm() {
+        try {
+            while (true) {
+                Confirmation next = confirmations.take();
+                // Parks rather than spins, so the sending thread keeps its CPU
+                for (long wait = next.due - System.nanoTime(); wait > 0; wait = next.due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                next.listener.onCompletion(next.message);
+            }
+        } catch (InterruptedException e) {
+            // Trial over
+        }
+    }
+
+    private void spin() {
+        long until = System.nanoTime() + roundTripMicros * 1000L;
+        while (roundTripMicros > 0 && System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
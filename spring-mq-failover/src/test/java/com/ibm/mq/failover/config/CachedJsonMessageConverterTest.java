@@ -0,0 +1,100 @@
+package com.ibm.mq.failover.config;
+
+import com.ibm.mq.failover.InMemoryMessages;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedJsonMessageConverterTest {
+
+    private final Session session = InMemoryMessages.session();
+
+    @Test
+    public void testRoundTripInEveryFormat() throws JMSException {
+        Order order = order(2000);
+        for (CachedJsonMessageConverter.Format format : CachedJsonMessageConverter.Format.values()) {
+            CachedJsonMessageConverter converter = new CachedJsonMessageConverter(format);
+            Message message = converter.toMessage(order, session);
+
+            assertEquals(Order.class.getName(), message.getStringProperty("_type"));
+            assertEquals(format == CachedJsonMessageConverter.Format.TEXT, message instanceof TextMessage, format.name());
+            assertEquals(order, converter.fromMessage(message), format.name());
+            // Cached reader and writer are reused
+            assertEquals(order, converter.fromMessage(converter.toMessage(order, session)), format.name());
+        }
+    }
+
+    @Test
+    public void testWireCompatibleWithJacksonConverter() throws JMSException {
+        MappingJackson2MessageConverter jackson = new MappingJackson2MessageConverter();
+        jackson.setTargetType(MessageType.TEXT);
+        jackson.setTypeIdPropertyName("_type");
+        CachedJsonMessageConverter cached = new CachedJsonMessageConverter(CachedJsonMessageConverter.Format.TEXT);
+        Order order = order(3);
+
+        assertEquals(order, cached.fromMessage(jackson.toMessage(order, session)));
+        assertEquals(order, jackson.fromMessage(cached.toMessage(order, session)));
+    }
+
+    @Test
+    public void testReceiverDecodesEitherBytesFormat() throws JMSException {
+        CachedJsonMessageConverter utf8 = new CachedJsonMessageConverter(CachedJsonMessageConverter.Format.UTF8);
+        CachedJsonMessageConverter smile = new CachedJsonMessageConverter(CachedJsonMessageConverter.Format.SMILE);
+        Order order = order(50);
+
+        BytesMessage json = (BytesMessage) utf8.toMessage(order, session);
+        BytesMessage binary = (BytesMessage) smile.toMessage(order, session);
+        assertEquals("json", json.getStringProperty("_format"));
+        assertEquals("smile", binary.getStringProperty("_format"));
+        assertTrue(binary.getBodyLength() < json.getBodyLength());
+
+        assertEquals(order, utf8.fromMessage(binary));
+        assertEquals(order, smile.fromMessage(json));
+    }
+
+    @Test
+    public void testUnknownTypeRejected() throws JMSException {
+        CachedJsonMessageConverter converter = new CachedJsonMessageConverter(CachedJsonMessageConverter.Format.TEXT);
+        Message message = converter.toMessage(order(1), session);
+        message.setStringProperty("_type", "com.example.Missing");
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+
+    private static Order order(int lines) {
+        Order order = new Order();
+        order.id = "ORD-1";
+        order.lines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            order.lines.add("SKU-" + i + " é");
+        }
+        return order;
+    }
+
+    public static class Order {
+        public String id;
+        public List<String> lines;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Order && Objects.equals(id, ((Order) o).id) && Objects.equals(lines, ((Order) o).lines);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, lines);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ibm.mq.failover.listener;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives one receive loop iteration of the batch container against a mocked session and consumer.
+ */
+public class BatchMessageListenerContainerTest {
+
+    private final List<List<Message>> delivered = new ArrayList<>();
+    private TestContainer container;
+    private Session session;
+    private MessageConsumer consumer;
+
+    /**
+     * Outside a running container there is no invoker to mark busy or idle.
+     */
+    static class TestContainer extends BatchMessageListenerContainer {
+        @Override
+        protected void messageReceived(Object invoker, Session session) {
+        }
+
+        @Override
+        protected void noMessageReceived(Object invoker, Session session) {
+        }
+
+        boolean poll(Session session, MessageConsumer consumer) throws JMSException {
+            return doReceiveAndExecute(this, session, consumer, null);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        container = new TestContainer();
+        // Commit and rollback check the factory to tell a local transaction from an external one
+        container.setConnectionFactory(mock(ConnectionFactory.class));
+        container.setSessionTransacted(true);
+        container.setAcceptMessagesWhileStopping(true);
+        container.setBatchTimeout(1000);
+        container.setBatchListener((messages, s) -> delivered.add(new ArrayList<>(messages)));
+
+        session = mock(Session.class);
+        when(session.getTransacted()).thenReturn(true);
+        consumer = mock(MessageConsumer.class);
+    }
+
+    @Test
+    public void testAvailableMessagesCommittedOnce() throws JMSException {
+        Message m1 = mock(Message.class), m2 = mock(Message.class), m3 = mock(Message.class);
+        when(consumer.receive(anyLong())).thenReturn(m1, m2, m3, null);
+        container.setBatchSize(10);
+
+        assertTrue(container.poll(session, consumer));
+
+        assertEquals(List.of(List.of(m1, m2, m3)), delivered);
+        verify(session, times(1)).commit();
+        assertEquals(1, container.getBatchCount());
+        assertEquals(3, container.getBatchedMessageCount());
+    }
+
+    @Test
+    public void testBatchSizeLimitsOneTransaction() throws JMSException {
+        Message m1 = mock(Message.class), m2 = mock(Message.class), m3 = mock(Message.class);
+        when(consumer.receive(anyLong())).thenReturn(m1, m2, m3, null);
+        container.setBatchSize(2);
+
+        container.poll(session, consumer);
+        container.poll(session, consumer);
+
+        assertEquals(List.of(List.of(m1, m2), List.of(m3)), delivered);
+        verify(session, times(2)).commit();
+    }
+
+    @Test
+    public void testListenerFailureRollsBackBatch() throws JMSException {
+        when(consumer.receive(anyLong())).thenReturn(mock(Message.class), mock(Message.class), null);
+        container.setBatchListener((messages, s) -> {
+            throw new JMSException("Simulated session failure");
+        });
+
+        container.poll(session, consumer);
+
+        verify(session).rollback();
+        verify(session, never()).commit();
+        assertEquals(0, container.getBatchCount());
+    }
+
+    @Test
+    public void testNoMessage() throws JMSException {
+        when(consumer.receive(anyLong())).thenReturn(null);
+
+        assertFalse(container.poll(session, consumer));
+
+        assertTrue(delivered.isEmpty());
+        verify(session, never()).commit();
+    }
+}
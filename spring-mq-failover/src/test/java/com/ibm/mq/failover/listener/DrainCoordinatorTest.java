@@ -0,0 +1,191 @@
+package com.ibm.mq.failover.listener;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.failover.model.DrainReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.SessionAwareMessageListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DrainCoordinatorTest {
+
+    private SimpleMeterRegistry registry;
+    private DefaultMessageListenerContainer container;
+    private List<Runnable> queued;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean fail = new AtomicBoolean();
+    private final List<Thread> deliveries = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        container = mock(DefaultMessageListenerContainer.class);
+        queued = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        for (Thread delivery : deliveries) {
+            delivery.join(5000);
+        }
+    }
+
+    @Test
+    public void testQuiesceDrainsThenReconnects() throws Exception {
+        DrainCoordinator coordinator = coordinator(5000);
+        InFlightListener listener = coordinator.register("customListenerContainer", container, blocking());
+        deliver(listener, 2);
+        // Stopping lets the in-flight messages finish
+        doAnswer(invocation -> {
+            release.countDown();
+            return null;
+        }).when(container).stop();
+
+        assertTrue(coordinator.onFailure("customListenerContainer", container, failure(CMQC.MQRC_Q_MGR_QUIESCING)));
+
+        InOrder order = inOrder(container);
+        order.verify(container).stop();
+        order.verify(container).shutdown();
+        order.verify(container).initialize();
+        order.verify(container).start();
+
+        DrainReport report = coordinator.getReports().get(0);
+        assertEquals("customListenerContainer", report.getContainer());
+        assertEquals(CMQC.MQRC_Q_MGR_QUIESCING, report.getReasonCode());
+        assertEquals(DrainReport.Outcome.DRAINED, report.getOutcome());
+        assertEquals(2, report.getInFlightAtStart());
+        assertEquals(0, report.getRolledBack());
+        assertEquals(2, report.getRollbacksAvoided());
+        assertEquals(1.0, registry.counter("mq.listener.drains", "outcome", "DRAINED").count());
+        assertEquals(2.0, registry.counter("mq.listener.drain.rollbacks-avoided").count());
+    }
+
+    @Test
+    public void testOtherFailuresLeftToContainerRecovery() {
+        DrainCoordinator coordinator = coordinator(5000);
+        coordinator.register("customListenerContainer", container, blocking());
+
+        assertFalse(coordinator.onFailure("customListenerContainer", container, failure(CMQC.MQRC_CONNECTION_BROKEN)));
+        assertFalse(coordinator.onFailure("customListenerContainer", container, new JMSException("no reason")));
+
+        verifyNoInteractions(container);
+        assertTrue(coordinator.getReports().isEmpty());
+    }
+
+    @Test
+    public void testTimesOutButStillReconnects() throws Exception {
+        DrainCoordinator coordinator = coordinator(50);
+        InFlightListener listener = coordinator.register("batchListenerContainer", container, blocking());
+        deliver(listener, 1);
+        // The disconnect rolls back what was still in flight
+        doAnswer(invocation -> {
+            fail.set(true);
+            release.countDown();
+            for (Thread delivery : deliveries) {
+                delivery.join(5000);
+            }
+            return null;
+        }).when(container).shutdown();
+
+        coordinator.onFailure("batchListenerContainer", container, failure(CMQC.MQRC_CONNECTION_QUIESCING));
+
+        verify(container).shutdown();
+        verify(container).start();
+        DrainReport report = coordinator.getReports().get(0);
+        assertEquals(DrainReport.Outcome.TIMED_OUT, report.getOutcome());
+        assertEquals(1, report.getInFlightAtStart());
+        assertEquals(1, report.getRolledBack());
+        assertEquals(0, report.getRollbacksAvoided());
+    }
+
+    @Test
+    public void testOneDrainPerContainerAtATime() {
+        DrainCoordinator coordinator = new DrainCoordinator(registry, queued::add, 5000);
+        coordinator.register("customListenerContainer", container, blocking());
+
+        assertTrue(coordinator.onFailure("customListenerContainer", container, failure(CMQC.MQRC_Q_MGR_STOPPING)));
+        assertFalse(coordinator.onFailure("customListenerContainer", container, failure(CMQC.MQRC_Q_MGR_STOPPING)));
+        assertEquals(1, queued.size());
+
+        queued.remove(0).run();
+        assertTrue(coordinator.onFailure("customListenerContainer", container, failure(CMQC.MQRC_Q_MGR_STOPPING)));
+    }
+
+    @Test
+    public void testDrainWaitsOnlyForItsOwnContainer() throws Exception {
+        DefaultMessageListenerContainer other = mock(DefaultMessageListenerContainer.class);
+        DrainCoordinator coordinator = coordinator(5000);
+        coordinator.register("listener-1", container, blocking());
+        // Same listener bean, busy on a healthy queue manager
+        InFlightListener busy = coordinator.register("listener-2", other, blocking());
+        deliver(busy, 3);
+
+        assertTrue(coordinator.onFailure("listener-1", container, failure(CMQC.MQRC_Q_MGR_QUIESCING)));
+
+        verify(container).start();
+        verifyNoInteractions(other);
+        DrainReport report = coordinator.getReports().get(0);
+        assertEquals(DrainReport.Outcome.DRAINED, report.getOutcome());
+        assertEquals(0, report.getInFlightAtStart());
+        assertEquals(3, busy.getInFlight());
+    }
+
+    private DrainCoordinator coordinator(long timeoutMillis) {
+        return new DrainCoordinator(registry, Runnable::run, timeoutMillis);
+    }
+
+    /**
+     * Holds each message until released, then completes or (with {@link #fail}) throws.
+     */
+    private SessionAwareMessageListener<Message> blocking() {
+        return (message, session) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail.get()) {
+                throw new JMSException("Rolled back");
+            }
+        };
+    }
+
+    private void deliver(InFlightListener listener, int messages) throws InterruptedException {
+        for (int i = 0; i < messages; i++) {
+            Thread delivery = new Thread(() -> {
+                try {
+                    listener.onMessage(mock(Message.class), mock(Session.class));
+                } catch (JMSException e) {
+                    // Counted as failed by the listener
+                }
+            });
+            deliveries.add(delivery);
+            delivery.start();
+        }
+        while (listener.getInFlight() < messages) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static JMSException failure(int reason) {
+        JMSException e = new JMSException("MQ call failed");
+        e.setLinkedException(new MQException(CMQC.MQCC_FAILED, reason, "test"));
+        return e;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ibm.mq.failover.listener;
+
+import com.ibm.mq.failover.service.ConnTagCorrelationService;
+import com.ibm.mq.failover.service.ConnectionTrackingService;
+import com.ibm.mq.failover.service.FailoverMetrics;
+import com.ibm.mq.jms.MQSession;
+import com.ibm.msg.client.jms.JmsPropertyContext;
+import com.ibm.msg.client.wmq.WMQConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Session metadata is read once per connection (or per plain session) and read again only after
+ * invalidation.
+ */
+public class FailoverMessageListenerTest {
+
+    private SimpleMeterRegistry registry;
+    private FailoverMessageListener listener;
+    private Session session;
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        ConnectionTrackingService tracking = new ConnectionTrackingService();
+        registry = new SimpleMeterRegistry();
+        listener = new FailoverMessageListener(tracking,
+            new FailoverMetrics(registry, tracking, new ConnTagCorrelationService(tracking)));
+        session = mock(Session.class);
+        when(session.getAcknowledgeMode()).thenReturn(Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Test
+    public void testMetadataReadOncePerSession() throws JMSException {
+        for (int i = 0; i < 5; i++) {
+            listener.onMessage(text("message " + i), session);
+        }
+        assertEquals(1, listener.getMetadataLookups());
+
+        listener.onMessage(text("other session"), mock(Session.class));
+        assertEquals(2, listener.getMetadataLookups());
+    }
+
+    @Test
+    public void testNewSessionsOnSameConnectionShareMetadata() throws JMSException {
+        // CACHE_CONNECTION: a new session for every receive, all on one connection
+        for (int i = 0; i < 5; i++) {
+            listener.onMessage(text("message " + i), mqSession("414D5143514D31202020202020202020AAAA", "QM1"));
+        }
+        assertEquals(1, listener.getMetadataLookups());
+        assertEquals(5, registry.get("mq.listener.messages").tag("qm", "QM1").counter().count());
+
+        listener.onMessage(text("reconnected"), mqSession("414D5143514D32202020202020202020BBBB", "QM2"));
+        assertEquals(2, listener.getMetadataLookups());
+    }
+
+    @Test
+    public void testSessionExceptionInvalidatesMetadata() throws JMSException {
+        listener.onMessage(text("first"), session);
+        assertThrows(JMSException.class, () -> listener.onMessage(text("FAIL_SESSION"), session));
+
+        listener.onMessage(text("after failure"), session);
+        assertEquals(2, listener.getMetadataLookups());
+    }
+
+    @Test
+    public void testInvalidateDropsAllSessions() throws JMSException {
+        Session other = mock(Session.class);
+        listener.onMessage(text("first"), session);
+        listener.onMessage(text("first"), other);
+
+        listener.invalidateSessionMetadata();
+        listener.onMessage(text("after reconnect"), session);
+        listener.onMessage(text("after reconnect"), other);
+        assertEquals(4, listener.getMetadataLookups());
+    }
+
+    @Test
+    public void testMessagesAndFailuresMetered() throws JMSException {
+        TextMessage redelivered = text("again");
+        when(redelivered.getJMSRedelivered()).thenReturn(true);
+
+        listener.onMessage(text("first"), session);
+        listener.onMessage(redelivered, session);
+        assertThrows(JMSException.class, () -> listener.onMessage(text("FAIL_SESSION"), session));
+
+        // Plain sessions have no MQ property context
+        assertEquals(3, registry.get("mq.listener.messages").tag("qm", "UNKNOWN").counter().count());
+        assertEquals(1, registry.get("mq.listener.redeliveries").tag("qm", "UNKNOWN").counter().count());
+        assertEquals(2, registry.get("mq.listener.processing").tags("mode", "single", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("mq.listener.processing").tags("mode", "single", "outcome", "error").timer().count());
+    }
+
+    private static Session mqSession(String connectionId, String queueManager) throws JMSException {
+        JmsPropertyContext context = mock(JmsPropertyContext.class);
+        when(context.getStringProperty(WMQConstants.JMS_IBM_CONNECTION_ID)).thenReturn(connectionId);
+        when(context.getStringProperty(WMQConstants.JMS_IBM_CONNECTION_TAG)).thenReturn("MQCT" + connectionId);
+        when(context.getStringProperty(WMQConstants.JMS_IBM_RESOLVED_QUEUE_MANAGER)).thenReturn(queueManager);
+        MQSession session = mock(MQSession.class);
+        when(session.getPropertyContext()).thenReturn(context);
+        when(session.getAcknowledgeMode()).thenReturn(Session.AUTO_ACKNOWLEDGE);
+        return session;
+    }
+
+    private static TextMessage text(String content) throws JMSException {
+        TextMessage message = mock(TextMessage.class);
+        when(message.getText()).thenReturn(content);
+        return message;
+    }
+}
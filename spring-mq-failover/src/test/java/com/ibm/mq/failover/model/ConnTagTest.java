@@ -0,0 +1,73 @@
+package com.ibm.mq.failover.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnTagTest {
+
+    private static final String CONNTAG = "MQCT8A11C06800670040QM1_2025-09-05_02.13.42SELECTIVE-1";
+    private static final String CONNECTION_ID = "414D5143514D312020202020202020208A11C06800670040";
+
+    @Test
+    public void testConnTagEqualsMatchingConnectionId() {
+        ConnTag fromTag = ConnTag.parse(CONNTAG);
+        ConnTag fromId = ConnTag.fromConnectionId(CONNECTION_ID);
+
+        assertTrue(fromTag.isParsed());
+        assertEquals(fromTag, fromId);
+        assertEquals(fromTag.hashCode(), fromId.hashCode());
+        assertEquals("8A11C06800670040", fromTag.getHandleHex());
+        assertEquals(fromTag.getQueueManager(), fromId.getQueueManager());
+        assertEquals("SELECTIVE-1", fromTag.getApplicationTag());
+        assertTrue(fromTag.getQueueManagerTimestamp() > 0);
+
+        Map<ConnTag, String> groups = new HashMap<>();
+        groups.put(fromId, "parent");
+        assertEquals("parent", groups.get(ConnTag.of(CONNTAG)));
+    }
+
+    @Test
+    public void testLongQueueManagerNameMatchesTruncatedConnectionId() {
+        // 16-character name: the CONNECTION_ID holds "QM_EASTERN_P" only
+        ConnTag fromTag = ConnTag.parse("MQCT8A11C06800670040QM_EASTERN_PROD1_2025-09-05_02.13.42APP");
+        ConnTag fromId = ConnTag.fromConnectionId("414D5143" + "514D5F4541535445524E5F50" + "8A11C06800670040");
+
+        assertEquals("QM_EASTERN_PROD1", fromTag.getQueueManager());
+        assertEquals("QM_EASTERN_P", fromId.getQueueManager());
+        assertEquals(fromTag, fromId);
+        assertEquals(fromTag.hashCode(), fromId.hashCode());
+    }
+
+    @Test
+    public void testQueueManagerNameWithUnderscore() {
+        ConnTag tag = ConnTag.parse("MQCT8A11C06800670040QM_EAST_2025-09-05_02.13.42APP");
+
+        assertEquals("QM_EAST", tag.getQueueManager());
+        assertEquals("APP", tag.getApplicationTag());
+    }
+
+    @Test
+    public void testDifferentQueueManagerIsDifferentKey() {
+        ConnTag qm1 = ConnTag.parse(CONNTAG);
+        ConnTag qm2 = ConnTag.parse(CONNTAG.replace("QM1_", "QM2_"));
+
+        assertNotEquals(qm1, qm2);
+        assertEquals(qm1.getHandle(), qm2.getHandle());
+    }
+
+    @Test
+    public void testUnparseableValuesAreOpaque() {
+        ConnTag unknown = ConnTag.of("UNKNOWN");
+        ConnTag clientId = ConnTag.of("CONN-1");
+
+        assertFalse(unknown.isParsed());
+        assertEquals(unknown, ConnTag.of("UNKNOWN"));
+        assertNotEquals(unknown, clientId);
+        assertEquals("CONN-1", clientId.toString());
+        assertNull(ConnTag.of(null));
+    }
+}
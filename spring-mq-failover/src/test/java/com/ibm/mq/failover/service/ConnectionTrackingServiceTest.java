@@ -0,0 +1,228 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.SessionInfo;
+import com.ibm.mq.failover.model.TrackingPage;
+import com.ibm.mq.failover.model.TrackingQuery;
+import com.ibm.mq.failover.model.TrackingStats;
+import com.ibm.mq.jms.MQSession;
+import com.ibm.msg.client.jms.JmsPropertyContext;
+import com.ibm.msg.client.wmq.WMQConstants;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the tracking store stays consistent under concurrent use and that
+ * terminated connections are evicted instead of accumulating.
+ */
+public class ConnectionTrackingServiceTest {
+
+    private ConnectionTrackingService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new ConnectionTrackingService();
+    }
+
+    @Test
+    public void testConcurrentSessionTracking() throws Exception {
+        String connectionId = track("CONN-A").getConnectionId();
+        int threads = 8;
+        int sessionsPerThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < sessionsPerThread; i++) {
+                    service.trackSession(mock(Session.class), connectionId, i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * sessionsPerThread,
+            service.getSessionGroupsByConnection().get(connectionId).size());
+        assertEquals(threads * sessionsPerThread, service.getTrackingStats().getTrackedSessions());
+    }
+
+    @Test
+    public void testTerminatedConnectionsEvictedByCapacity() throws JMSException {
+        ReflectionTestUtils.setField(service, "maxTerminatedConnections", 10);
+
+        for (int i = 0; i < 100; i++) {
+            String connectionId = track("CONN-" + i).getConnectionId();
+            for (int s = 1; s <= 3; s++) {
+                service.trackSession(mock(Session.class), connectionId, s);
+            }
+            service.updateConnectionStatus(connectionId, ConnectionInfo.ConnectionStatus.CLOSED);
+        }
+
+        TrackingStats stats = service.getTrackingStats();
+        assertEquals(10, stats.getTrackedConnections());
+        assertEquals(30, stats.getTrackedSessions());
+        assertEquals(90, stats.getEvictedConnections());
+        assertEquals(270, stats.getEvictedSessions());
+        assertEquals(90L, stats.getEvictedByStatus().get(ConnectionInfo.ConnectionStatus.CLOSED));
+    }
+
+    @Test
+    public void testReconnectedConnectionIsNotEvicted() throws JMSException {
+        ReflectionTestUtils.setField(service, "terminatedTtlSeconds", 0L);
+
+        String reconnected = track("CONN-R").getConnectionId();
+        String failed = track("CONN-F").getConnectionId();
+        service.updateConnectionStatus(reconnected, ConnectionInfo.ConnectionStatus.FAILED);
+        service.updateConnectionStatus(failed, ConnectionInfo.ConnectionStatus.FAILED);
+        service.updateConnectionStatus(reconnected, ConnectionInfo.ConnectionStatus.CONNECTED);
+
+        service.evictExpiredConnections();
+
+        List<String> remaining = new ArrayList<>();
+        service.getAllParentConnections().forEach(c -> remaining.add(c.getConnectionId()));
+        assertEquals(List.of(reconnected), remaining);
+        assertEquals(0, service.getTrackingStats().getTerminatedConnections());
+    }
+
+    @Test
+    public void testSessionChurnKeepsStoreFlat() throws JMSException {
+        ConnectionInfo parent = track("CONN-CHURN");
+
+        for (int i = 0; i < 10_000; i++) {
+            SessionInfo session = service.trackSession(mock(Session.class), parent.getConnectionId(), i);
+            service.closeSession(session);
+        }
+
+        TrackingStats stats = service.getTrackingStats();
+        assertEquals(0, stats.getTrackedSessions());
+        assertEquals(10_000, stats.getClosedSessions());
+        assertTrue(parent.getSessions().isEmpty());
+    }
+
+    @Test
+    public void testSessionsOfEvictedParentAreNotTracked() throws JMSException {
+        ReflectionTestUtils.setField(service, "terminatedTtlSeconds", 0L);
+        String connectionId = track("CONN-GONE").getConnectionId();
+        service.trackSession(mock(Session.class), connectionId, 1);
+        service.updateConnectionStatus(connectionId, ConnectionInfo.ConnectionStatus.CLOSED);
+        service.evictExpiredConnections();
+
+        // Late registration for the evicted parent, e.g. from a thread that raced the close
+        service.trackSession(mock(Session.class), connectionId, 2);
+        service.trackSession(mock(Session.class), "CONN-NEVER-TRACKED", 1);
+
+        assertTrue(service.getSessionGroupsByConnection().isEmpty());
+        assertEquals(0, service.getTrackingStats().getTrackedSessions());
+        assertEquals(1, service.getTrackingStats().getEvictedSessions());
+    }
+
+    @Test
+    public void testClosingJmsSessionDropsIt() throws JMSException {
+        ConnectionInfo parent = track("CONN-CLOSE");
+        Session session = mock(Session.class);
+        SessionInfo info = service.trackSession(session, parent.getConnectionId(), 1);
+        doThrow(new JMSException("already closed")).when(session).close();
+
+        assertThrows(JMSException.class, () -> service.closeSession(session, info));
+
+        verify(session).close();
+        assertEquals(SessionInfo.SessionStatus.CLOSED, info.getStatus());
+        assertEquals(0, service.getTrackingStats().getTrackedSessions());
+        assertEquals(1, service.getTrackingStats().getClosedSessions());
+    }
+
+    @Test
+    public void testFindOwningConnectionBySessionConnTag() throws JMSException {
+        ConnectionInfo parent = track("CONN-OWNER");
+        String sessionTag = "MQCT8A11C06800670040QM1_2025-09-05_02.13.42TEST";
+        SessionInfo first = service.trackSession(session(sessionTag), parent.getConnectionId(), 1);
+        SessionInfo second = service.trackSession(session(sessionTag), parent.getConnectionId(), 2);
+        String sessionConnectionId = "414D5143514D312020202020202020208A11C06800670040";
+
+        assertSame(parent, service.findOwningConnection(parent.getConnectionId()));
+        assertSame(parent, service.findOwningConnection(sessionConnectionId));
+        assertNull(service.findOwningConnection("414D5143514D322020202020202020208A11C06800670040"));
+
+        // Still owned while one session with that CONNTAG is tracked
+        service.closeSession(first);
+        assertSame(parent, service.findOwningConnection(sessionConnectionId));
+        service.closeSession(second);
+        assertNull(service.findOwningConnection(sessionConnectionId));
+    }
+
+    @Test
+    public void testExportPagesWithCursorAndFilter() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            String connectionId = track("CONN-" + i).getConnectionId();
+            service.trackSession(mock(Session.class), connectionId, 1);
+            if (i % 5 == 0) {
+                service.updateConnectionStatus(connectionId, ConnectionInfo.ConnectionStatus.FAILED);
+            }
+        }
+        
+        List<String> exported = new ArrayList<>();
+        long cursor = 0;
+        Long next;
+        do {
+            TrackingPage page = service.selectConnections(TrackingQuery.builder().cursor(cursor).limit(10).build());
+            page.getConnections().forEach(c -> exported.add(c.getConnectionId()));
+            next = page.getNextCursor();
+            cursor = next != null ? next : cursor;
+        } while (next != null);
+        assertEquals(25, exported.size());
+        assertEquals(25, exported.stream().distinct().count());
+        
+        StringWriter csv = new StringWriter();
+        service.exportConnections(TrackingQuery.builder().status(ConnectionInfo.ConnectionStatus.FAILED).build(),
+            TrackingExportWriter.Format.CSV, csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals(1 + 5 * 2, lines.length); // header + 5 parents with one session each
+        assertTrue(lines[1].startsWith("PARENT,"));
+        assertTrue(lines[2].startsWith("SESSION,"));
+        
+        StringWriter jsonl = new StringWriter();
+        service.exportConnections(TrackingQuery.builder().applicationTag("TEST-CONN-3").build(),
+            TrackingExportWriter.Format.JSONL, jsonl);
+        String[] rows = jsonl.toString().split("\n");
+        assertEquals(2, rows.length);
+        assertTrue(rows[0].contains("\"connectionId\":\"CONN-3\""));
+        
+        assertTrue(service.generateConnectionTable().contains("25 Parent Connections, 25 Total Sessions"));
+    }
+    
+    private static MQSession session(String connTag) throws JMSException {
+        JmsPropertyContext context = mock(JmsPropertyContext.class);
+        when(context.getStringProperty(WMQConstants.JMS_IBM_CONNECTION_TAG)).thenReturn(connTag);
+        MQSession session = mock(MQSession.class);
+        when(session.getPropertyContext()).thenReturn(context);
+        return session;
+    }
+
+    private ConnectionInfo track(String clientId) throws JMSException {
+        Connection connection = mock(Connection.class);
+        when(connection.getClientID()).thenReturn(clientId);
+        return service.trackConnection(connection, "TEST-" + clientId);
+    }
+}
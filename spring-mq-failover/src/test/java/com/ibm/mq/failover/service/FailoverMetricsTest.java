@@ -0,0 +1,61 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FailoverMetricsTest {
+
+    private static final String CONNECTION_ID = "414D5143514D312020202020202020208A11C06800670040";
+
+    private ConnectionTrackingService tracking;
+    private SimpleMeterRegistry registry;
+    private FailoverMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        tracking = new ConnectionTrackingService();
+        registry = new SimpleMeterRegistry();
+        metrics = new FailoverMetrics(registry, tracking, new ConnTagCorrelationService(tracking));
+    }
+
+    @Test
+    public void testReconnectCountedPerQueueManager() throws JMSException {
+        Connection connection = mock(Connection.class);
+        when(connection.getClientID()).thenReturn(CONNECTION_ID);
+        tracking.trackConnection(connection, "APP");
+
+        tracking.updateConnectionStatus(CONNECTION_ID, ConnectionInfo.ConnectionStatus.RECONNECTING);
+        tracking.updateConnectionStatus(CONNECTION_ID, ConnectionInfo.ConnectionStatus.CONNECTED);
+
+        assertEquals(1, registry.get("mq.connection.reconnects").tag("qm", "QM1").counter().count());
+        assertEquals(2, registry.get("mq.connection.transitions").tag("status", "CONNECTED").functionCounter().count());
+        assertEquals(1, registry.get("mq.tracking.connections").gauge().value());
+    }
+
+    @Test
+    public void testQueueManagerMetersShared() {
+        metrics.forQueueManager("QM1 ").recordMessage(false, 1_000_000, true);
+        metrics.forQueueManager("QM1").recordBatch(10, 2, 5_000_000, true);
+
+        assertSame(metrics.forQueueManager("QM1"), metrics.forQueueManager("QM1 "));
+        assertEquals(11, registry.get("mq.listener.messages").tag("qm", "QM1").counter().count());
+        assertEquals(2, registry.get("mq.listener.redeliveries").tag("qm", "QM1").counter().count());
+        assertEquals(1, registry.get("mq.listener.processing").tags("qm", "QM1", "mode", "batch").timer().count());
+    }
+
+    @Test
+    public void testRefreshPublishesCoherenceGauges() {
+        metrics.refresh();
+
+        assertEquals(0, registry.get("mq.conntag.groups").tag("coherent", "true").gauge().value());
+        assertEquals(0, registry.get("mq.conntag.groups").tag("coherent", "false").gauge().value());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.LifecycleEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trips lifecycle events through the memory-mapped journal and replays them.
+ */
+public class LifecycleJournalTest {
+
+    private static final String CONNECTION_ID = "414D5143514D312020202020202020208A11C06800670040";
+    private static final String CONNTAG = "MQCT8A11C06800670040QM1_2025-09-05_02.13.42SELECTIVE-1";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplayAtPointInTime() throws Exception {
+        LifecycleJournal journal = new LifecycleJournal(directory.toString(), 1024);
+        journal.append(LifecycleEvent.EventType.CONNECT, CONNECTION_ID, "QM1", CONNTAG, -1,
+            ConnectionInfo.ConnectionStatus.CONNECTED, "SELECTIVE-1");
+        for (int i = 1; i <= 3; i++) {
+            journal.recordSessionCreate(CONNECTION_ID, "QM1", CONNTAG, i, "worker-" + i);
+        }
+        journal.recordSessionClose(CONNECTION_ID, "QM1", CONNTAG, 2);
+
+        Thread.sleep(5);
+        Instant beforeFailure = Instant.now();
+        Thread.sleep(5);
+        journal.append(LifecycleEvent.EventType.EXCEPTION, CONNECTION_ID, "QM1", CONNTAG, -1,
+            ConnectionInfo.ConnectionStatus.RECONNECTING, "MQRC_CONNECTION_BROKEN");
+        journal.close();
+
+        List<LifecycleEvent> events = LifecycleJournalReader.readAll(directory);
+        assertEquals(6, events.size());
+        assertEquals(CONNTAG, events.get(0).getConnTag());
+        assertEquals("MQRC_CONNECTION_BROKEN", events.get(5).getDetail());
+
+        List<ConnectionInfo> before = LifecycleJournalReader.replay(directory, beforeFailure);
+        assertEquals(1, before.size());
+        assertEquals(ConnectionInfo.ConnectionStatus.CONNECTED, before.get(0).getStatus());
+        assertEquals(2, before.get(0).getSessions().size());
+        assertEquals("QM1", before.get(0).getExtractedQueueManager());
+
+        List<ConnectionInfo> end = LifecycleJournalReader.replay(directory, null);
+        assertEquals(ConnectionInfo.ConnectionStatus.RECONNECTING, end.get(0).getStatus());
+    }
+
+    @Test
+    public void testConcurrentAppendsAcrossSegments() throws Exception {
+        LifecycleJournal journal = new LifecycleJournal(directory.toString(), 1000);
+        int threads = 4;
+        int perThread = 2500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    journal.recordSessionCreate(CONNECTION_ID, "QM1", CONNTAG, i, "worker");
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        journal.close();
+
+        assertEquals(threads * perThread, LifecycleJournalReader.readAll(directory).size());
+        assertEquals(10, LifecycleJournalReader.segments(directory).size());
+
+        // A restart appends to a new segment instead of overwriting
+        new LifecycleJournal(directory.toString(), 1000).close();
+        assertEquals(11, LifecycleJournalReader.segments(directory).size());
+    }
+
+    @Test
+    public void testRetentionKeepsNewestSegments() throws Exception {
+        LifecycleJournal journal = new LifecycleJournal(directory.toString(), 100, 3, 0);
+        for (int i = 0; i < 1000; i++) {
+            journal.recordSessionCreate(CONNECTION_ID, "QM1", CONNTAG, i, "worker");
+        }
+        journal.close();
+
+        List<Path> segments = LifecycleJournalReader.segments(directory);
+        assertEquals(3, segments.size());
+        // Only the newest three full segments, 8 to 10, are left
+        assertEquals(LifecycleJournalReader.segmentFileName(8), segments.get(0).getFileName().toString());
+        assertEquals(300, LifecycleJournalReader.readAll(directory).size());
+
+        // Restarts do not grow the directory either
+        for (int i = 0; i < 5; i++) {
+            new LifecycleJournal(directory.toString(), 100, 3, 0).close();
+        }
+        assertEquals(3, LifecycleJournalReader.segments(directory).size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.failover.model.AutoscalerStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the autoscaler with scripted depths and consumption, on containers that are not started.
+ */
+public class ListenerAutoscalerTest {
+
+    private final Map<String, Integer> depths = new HashMap<>();
+    private FailoverMetrics metrics;
+    private DefaultMessageListenerContainer container;
+    private ListenerAutoscaler autoscaler;
+    private int activeConsumers;
+
+    @BeforeEach
+    public void setUp() {
+        ConnectionTrackingService tracking = new ConnectionTrackingService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics = new FailoverMetrics(registry, tracking, new ConnTagCorrelationService(tracking));
+
+        container = new DefaultMessageListenerContainer();
+        container.setConcurrentConsumers(5);
+        container.setMaxConcurrentConsumers(5);
+        activeConsumers = 5;
+
+        ListenerAutoscaler.Settings settings = ListenerAutoscaler.Settings.builder()
+            .targetDrainSeconds(30)
+            .minConsumers(5)
+            .maxConsumersPerQm(20)
+            .scaleDownDelayMillis(60_000)
+            .sessionsPerConnection(5)
+            .build();
+        autoscaler = new ListenerAutoscaler(metrics, registry, () -> List.of(container), List.of("QM1", "QM2"),
+            qm -> {
+                Integer depth = depths.get(qm);
+                if (depth == null) {
+                    throw new IllegalStateException("MQRC_Q_MGR_NOT_AVAILABLE");
+                }
+                return depth;
+            }, settings) {
+            @Override
+            int activeConsumers(List<DefaultMessageListenerContainer> targets) {
+                return activeConsumers;
+            }
+        };
+    }
+
+    @Test
+    public void testBacklogScalesUpTowardTargetDrainTime() {
+        depths.put("QM1", 1000);
+        depths.put("QM2", 0);
+        autoscaler.evaluate(1_000);
+
+        // 5 consumers took 500 messages from QM1 in 10s (10 msg/s each) while 500 more arrived
+        metrics.forQueueManager("QM1").recordBatch(500, 0, 0, true);
+        AutoscalerStatus status = autoscaler.evaluate(11_000);
+
+        // (50 msg/s arriving + 1000 / 30s) / 10 msg/s = 8.3
+        assertEquals(10.0, status.getMessagesPerConsumerSecond(), 0.001);
+        assertEquals(9, status.getNeededByQueueManager().get("QM1"));
+        assertEquals(0, status.getNeededByQueueManager().get("QM2"));
+        assertEquals(9, status.getDesiredConsumers());
+        assertEquals(2, status.getDesiredParentConnections());
+        assertEquals(9, container.getConcurrentConsumers());
+        assertEquals(9, container.getMaxConcurrentConsumers());
+    }
+
+    @Test
+    public void testPerQueueManagerCap() {
+        depths.put("QM1", 100_000);
+        depths.put("QM2", 0);
+        autoscaler.evaluate(1_000);
+        metrics.forQueueManager("QM1").recordBatch(50, 0, 0, true);
+
+        AutoscalerStatus status = autoscaler.evaluate(11_000);
+
+        assertEquals(20, status.getNeededByQueueManager().get("QM1"));
+        assertEquals(20, container.getMaxConcurrentConsumers());
+    }
+
+    @Test
+    public void testScaleDownWaitsAndSteps() {
+        depths.put("QM1", 1000);
+        depths.put("QM2", 1000);
+        autoscaler.evaluate(1_000);
+        metrics.forQueueManager("QM1").recordBatch(250, 0, 0, true);
+        metrics.forQueueManager("QM2").recordBatch(250, 0, 0, true);
+        autoscaler.evaluate(11_000);
+        // 6 per queue manager at 10 msg/s per consumer
+        int scaledUp = container.getMaxConcurrentConsumers();
+        assertEquals(12, scaledUp);
+
+        // Backlog gone: hold for the delay, then step down one parent connection at a time
+        depths.put("QM1", 0);
+        depths.put("QM2", 0);
+        activeConsumers = scaledUp;
+        assertTrue(autoscaler.evaluate(21_000).getDecision().startsWith("scale down in"));
+        assertEquals(scaledUp, container.getMaxConcurrentConsumers());
+
+        autoscaler.evaluate(81_000);
+        assertEquals(scaledUp - 5, container.getMaxConcurrentConsumers());
+        autoscaler.evaluate(91_000);
+        assertEquals(scaledUp - 5, container.getMaxConcurrentConsumers());
+    }
+
+    @Test
+    public void testUnreachableQueueManagerKeepsItsShare() {
+        depths.put("QM1", 0);
+        depths.put("QM2", 600);
+        autoscaler.evaluate(1_000);
+        metrics.forQueueManager("QM2").recordBatch(100, 0, 0, true);
+        autoscaler.evaluate(11_000);
+        int needed = autoscaler.getStatus().getNeededByQueueManager().get("QM2");
+        assertTrue(needed > 0);
+
+        depths.remove("QM2");
+        AutoscalerStatus status = autoscaler.evaluate(21_000);
+
+        assertEquals(needed, status.getNeededByQueueManager().get("QM2"));
+        assertFalse(status.getDepthByQueueManager().containsKey("QM2"));
+    }
+}
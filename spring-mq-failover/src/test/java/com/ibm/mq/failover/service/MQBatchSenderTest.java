@@ -0,0 +1,165 @@
+package com.ibm.mq.failover.service;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MQBatchSenderTest {
+
+    private ConnectionFactory connectionFactory;
+    private Connection connection;
+    private Session session;
+    private MessageProducer producer;
+    private MQBatchSender sender;
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        connectionFactory = mock(ConnectionFactory.class);
+        connection = mock(Connection.class);
+        session = mock(Session.class);
+        producer = mock(MessageProducer.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+        when(session.createProducer(any())).thenReturn(producer);
+        when(session.createTextMessage(anyString())).thenAnswer(invocation -> mock(TextMessage.class));
+
+        sender = new MQBatchSender(connectionFactory, new SimpleMessageConverter(), 2, 2,
+            (queue, async) -> mock(Queue.class));
+    }
+
+    @Test
+    public void testProducerCachedPerSessionAndQueue() throws JMSException {
+        sender.send("DEV.QUEUE.1", "a");
+        sender.send("DEV.QUEUE.1", "b");
+        sender.send("DEV.QUEUE.2", "c");
+
+        verify(connection, times(1)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+        verify(session, times(2)).createProducer(any());
+        verify(producer, times(3)).send(any(Message.class));
+        verify(producer, never()).close();
+    }
+
+    @Test
+    public void testBatchCommittedOnce() throws JMSException {
+        assertEquals(3, sender.sendBatch("DEV.QUEUE.1", List.of("a", "b", "c")));
+
+        verify(connection).createSession(true, Session.SESSION_TRANSACTED);
+        verify(producer, times(3)).send(any(Message.class));
+        verify(session, times(1)).commit();
+    }
+
+    @Test
+    public void testFailedBatchRolledBackAndSessionReplaced() throws JMSException {
+        doNothing().doThrow(new JMSException("MQRC_CONNECTION_BROKEN")).when(producer).send(any(Message.class));
+
+        assertThrows(JMSException.class, () -> sender.sendBatch("DEV.QUEUE.1", List.of("a", "b")));
+        verify(session).rollback();
+        verify(session).close();
+
+        doNothing().when(producer).send(any(Message.class));
+        sender.sendBatch("DEV.QUEUE.1", List.of("c"));
+        verify(connection, times(2)).createSession(true, Session.SESSION_TRANSACTED);
+    }
+
+    @Test
+    public void testAsyncSendCompletesOnCallback() throws Exception {
+        ArgumentCaptor<CompletionListener> listeners = ArgumentCaptor.forClass(CompletionListener.class);
+
+        CompletableFuture<Void> first = sender.sendAsync("DEV.QUEUE.1", "a");
+        CompletableFuture<Void> second = sender.sendAsync("DEV.QUEUE.1", "b");
+        verify(producer, times(2)).send(any(Message.class), listeners.capture());
+        assertEquals(2, sender.getInFlight());
+        assertFalse(first.isDone());
+
+        listeners.getAllValues().get(0).onCompletion(null);
+        listeners.getAllValues().get(1).onException(null, new JMSException("MQRC_Q_FULL"));
+
+        assertNull(first.get());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(0, sender.getInFlight());
+    }
+
+    @Test
+    public void testAsyncSendsPipelineOnOneSession() throws Exception {
+        sender = new MQBatchSender(connectionFactory, new SimpleMessageConverter(), 1, 3,
+            (queue, async) -> mock(Queue.class));
+        ArgumentCaptor<CompletionListener> listeners = ArgumentCaptor.forClass(CompletionListener.class);
+
+        CompletableFuture<Void> first = sender.sendAsync("DEV.QUEUE.1", "a");
+        sender.sendAsync("DEV.QUEUE.1", "b");
+        sender.sendAsync("DEV.QUEUE.1", "c");
+
+        // Max-in-flight, not the session count, bounds the unconfirmed sends
+        verify(connection, times(1)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+        verify(producer, times(3)).send(any(Message.class), listeners.capture());
+        assertEquals(3, sender.getInFlight());
+
+        listeners.getAllValues().forEach(listener -> listener.onCompletion(null));
+        assertNull(first.get());
+        assertEquals(0, sender.getInFlight());
+    }
+
+    @Test
+    public void testCloseWaitsForUnconfirmedAsyncSends() throws Exception {
+        ArgumentCaptor<CompletionListener> listener = ArgumentCaptor.forClass(CompletionListener.class);
+        sender.sendAsync("DEV.QUEUE.1", "a");
+        verify(producer).send(any(Message.class), listener.capture());
+
+        Thread closing = new Thread(sender::close);
+        closing.start();
+        closing.join(200);
+        assertTrue(closing.isAlive());
+        verify(session, never()).close();
+
+        listener.getValue().onCompletion(null);
+        closing.join(5000);
+        assertFalse(closing.isAlive());
+        verify(session).close();
+    }
+
+    @Test
+    public void testFailedAsyncSendDiscardsSessionOnNextUse() throws Exception {
+        ArgumentCaptor<CompletionListener> listener = ArgumentCaptor.forClass(CompletionListener.class);
+        sender.sendAsync("DEV.QUEUE.1", "a");
+        verify(producer).send(any(Message.class), listener.capture());
+
+        // Not closed inside its own listener
+        listener.getValue().onException(null, new JMSException("MQRC_CONNECTION_BROKEN"));
+        verify(session, never()).close();
+
+        sender.send("DEV.QUEUE.1", "b");
+        verify(session).close();
+        verify(connection, times(2)).createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Test
+    public void testConnectionFailureReconnects() throws JMSException {
+        ArgumentCaptor<ExceptionListener> listener = ArgumentCaptor.forClass(ExceptionListener.class);
+        sender.send("DEV.QUEUE.1", "a");
+        verify(connection).setExceptionListener(listener.capture());
+
+        listener.getValue().onException(new JMSException("MQRC_RECONNECT_FAILED"));
+        verify(connection).close();
+
+        sender.send("DEV.QUEUE.1", "b");
+        verify(connectionFactory, times(2)).createConnection();
+    }
+}
@@ -0,0 +1,159 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.failover.model.ConnectionInfo;
+import com.ibm.mq.failover.model.MQEvent;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays recorded event messages through the monitor, without a queue manager.
+ */
+public class MQEventMonitorTest {
+
+    private static final String QM1_CONNECTION = "414D5143514D312020202020202020208A11C06800670040";
+    private static final String QM2_CONNECTION = "414D5143514D322020202020202020208A11C06800670041";
+    // Offset of MQCFH.Reason in the PCF header
+    private static final int REASON_OFFSET = 28;
+
+    @TempDir
+    Path directory;
+
+    private ConnectionTrackingService tracking;
+    private MQEventMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        tracking = new ConnectionTrackingService();
+        monitor = new MQEventMonitor(tracking, "", List.of(), "APP.SVRCONN", "", "", "", "");
+    }
+
+    @Test
+    public void testReplayAppliesEventsToTracking() throws Exception {
+        track(QM1_CONNECTION);
+        track(QM2_CONNECTION);
+
+        Path file = directory.resolve("events.rec");
+        try (MQEventRecording recording = MQEventRecording.append(file)) {
+            recording.write(record(CMQCFC.MQCMD_CHANNEL_EVENT, CMQC.MQRC_CHANNEL_STARTED,
+                "QM1", "APP.SVRCONN", "10.10.10.2"));
+            recording.write(record(CMQCFC.MQCMD_CHANNEL_EVENT, CMQC.MQRC_CHANNEL_STOPPED,
+                "QM1", "APP.SVRCONN", "10.10.10.2"));
+            // Put after both connections were tracked
+            recording.write(record(CMQCFC.MQCMD_Q_MGR_EVENT, CMQC.MQRC_Q_MGR_NOT_ACTIVE, "QM1", null, null,
+                System.currentTimeMillis() + 1000));
+        }
+
+        List<MQEvent> received = new ArrayList<>();
+        monitor.subscribe(received::add);
+        assertEquals(3, monitor.replay(file));
+
+        assertEquals(MQEvent.Type.CHANNEL_STARTED, received.get(0).getType());
+        assertEquals(MQEvent.Category.CHANNEL, received.get(0).getCategory());
+        assertEquals("APP.SVRCONN", received.get(0).getChannelName());
+        assertEquals(MQEvent.Type.QMGR_NOT_ACTIVE, received.get(2).getType());
+        assertEquals("QM1", received.get(2).getQueueManager());
+
+        // Latest state per channel instance
+        assertEquals(1, monitor.getChannelStates().size());
+        assertEquals(MQEvent.Type.CHANNEL_STOPPED,
+            monitor.getChannelStates().get("QM1/APP.SVRCONN/10.10.10.2").getType());
+        // Channel state lives in the tracking layer
+        assertSame(tracking.getChannelStates().get("QM1/APP.SVRCONN/10.10.10.2"),
+            monitor.getChannelStates().get("QM1/APP.SVRCONN/10.10.10.2"));
+        assertEquals(0, tracking.getRunningChannelCount("QM1"));
+
+        // Only the connection on the stopping QM is moved to RECONNECTING
+        for (ConnectionInfo conn : tracking.getAllParentConnections()) {
+            ConnectionInfo.ConnectionStatus expected = "QM1".equals(conn.getExtractedQueueManager())
+                ? ConnectionInfo.ConnectionStatus.RECONNECTING : ConnectionInfo.ConnectionStatus.CONNECTED;
+            assertEquals(expected, conn.getStatus());
+        }
+        assertEquals(1L, monitor.getEventCounts().get(MQEvent.Type.QMGR_NOT_ACTIVE));
+        assertEquals(0, monitor.getUndecodableCount());
+    }
+
+    @Test
+    public void testQueueManagerEventIgnoresConnectionsMadeAfterIt() throws Exception {
+        // QMGR_NOT_ACTIVE put before the QM went down, read after it came back
+        long putTime = System.currentTimeMillis() - 60_000;
+        track(QM1_CONNECTION);
+
+        Path file = directory.resolve("events.rec");
+        try (MQEventRecording recording = MQEventRecording.append(file)) {
+            recording.write(record(CMQCFC.MQCMD_Q_MGR_EVENT, CMQC.MQRC_Q_MGR_NOT_ACTIVE, "QM1", null, null, putTime));
+            recording.write(record(CMQCFC.MQCMD_CHANNEL_EVENT, CMQC.MQRC_CHANNEL_STARTED,
+                "QM1", "APP.SVRCONN", "10.10.10.2", putTime + 30_000));
+            // Older than the start above, e.g. from the backlog
+            recording.write(record(CMQCFC.MQCMD_CHANNEL_EVENT, CMQC.MQRC_CHANNEL_STOPPED,
+                "QM1", "APP.SVRCONN", "10.10.10.2", putTime));
+        }
+        monitor.replay(file);
+
+        assertEquals(ConnectionInfo.ConnectionStatus.CONNECTED, tracking.getAllParentConnections().get(0).getStatus());
+        assertEquals(MQEvent.Type.CHANNEL_STARTED,
+            tracking.getChannelStates().get("QM1/APP.SVRCONN/10.10.10.2").getType());
+        assertEquals(1, tracking.getRunningChannelCount("QM1"));
+    }
+
+    @Test
+    public void testConfigurationEventDecoded() throws Exception {
+        MQEventRecording.Record record = record(CMQCFC.MQCMD_CONFIG_EVENT, CMQC.MQRC_CONFIG_CHANGE_OBJECT,
+            "QM2", "APP.SVRCONN", null);
+        MQEvent event = MQEventDecoder.decode(record.body, record.encoding, record.ccsid, null, "test");
+
+        assertEquals(MQEvent.Category.CONFIGURATION, event.getCategory());
+        assertEquals(MQEvent.Type.CONFIG_CHANGE_OBJECT, event.getType());
+        assertEquals("APP.SVRCONN", event.getObjectName());
+    }
+
+    private void track(String connectionId) throws JMSException {
+        Connection connection = mock(Connection.class);
+        when(connection.getClientID()).thenReturn(connectionId);
+        tracking.trackConnection(connection, "EVENTS");
+    }
+
+    /**
+     * An event message as the QM puts it: PCF header of type MQCFT_EVENT with the event reason.
+     */
+    private static MQEventRecording.Record record(int command, int reason, String queueManager,
+                                                  String channel, String connectionName) throws Exception {
+        return record(command, reason, queueManager, channel, connectionName, System.currentTimeMillis());
+    }
+
+    private static MQEventRecording.Record record(int command, int reason, String queueManager,
+                                                  String channel, String connectionName, long putTimeMillis) throws Exception {
+        PCFMessage pcf = new PCFMessage(CMQCFC.MQCFT_EVENT, command, 1, true);
+        pcf.addParameter(CMQC.MQCA_Q_MGR_NAME, queueManager);
+        if (channel != null) {
+            pcf.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, channel);
+        }
+        if (connectionName != null) {
+            pcf.addParameter(CMQCFC.MQCACH_CONNECTION_NAME, connectionName);
+        }
+
+        MQMessage message = new MQMessage();
+        pcf.write(message);
+        byte[] body = new byte[message.getMessageLength()];
+        message.seek(0);
+        message.readFully(body);
+        // MQMessage writes MQENC_NATIVE, i.e. big-endian integers
+        ByteBuffer.wrap(body).putInt(REASON_OFFSET, reason);
+        return new MQEventRecording.Record(putTimeMillis, message.encoding, AdminQueueListeners.RECEIVE_CCSID, body);
+    }
+}
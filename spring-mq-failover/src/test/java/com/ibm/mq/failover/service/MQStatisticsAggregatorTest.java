@@ -0,0 +1,129 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQMessage;
+import com.ibm.mq.constants.CMQC;
+import com.ibm.mq.constants.CMQCFC;
+import com.ibm.mq.failover.model.MQIUsage;
+import com.ibm.mq.failover.model.MQStatisticsRecord;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays recorded accounting messages through the aggregator, without a queue manager.
+ */
+public class MQStatisticsAggregatorTest {
+
+    private static final String TRACKED_CONNECTION = "414D5143514D312020202020202020208A11C06800670040";
+    private static final String UNTRACKED_CONNECTION = "414D5143514D312020202020202020208A11C06800670099";
+
+    @TempDir
+    Path directory;
+
+    private ConnectionTrackingService tracking;
+    private MQStatisticsAggregator aggregator;
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        tracking = new ConnectionTrackingService();
+        aggregator = new MQStatisticsAggregator(tracking, "", List.of(), "APP.SVRCONN", "", "", 60, 3, "", "");
+
+        Connection connection = mock(Connection.class);
+        when(connection.getClientID()).thenReturn(TRACKED_CONNECTION);
+        tracking.trackConnection(connection, "ORDERS-SERVICE-FULL-APPLTAG");
+    }
+
+    @Test
+    public void testAccountingJoinedToTrackedApplicationTag() throws Exception {
+        Path file = directory.resolve("accounting.rec");
+        try (MQEventRecording recording = MQEventRecording.append(file)) {
+            recording.write(accounting(TRACKED_CONNECTION, "ORDERS-SERVICE", "02.10.30", 10, 4));
+            recording.write(accounting(TRACKED_CONNECTION, "ORDERS-SERVICE", "02.10.50", 5, 1));
+            recording.write(accounting(UNTRACKED_CONNECTION, "BATCH", "02.10.40", 2, 2));
+        }
+
+        assertEquals(3, aggregator.replay(file));
+        assertEquals(3, aggregator.getIngestedCount());
+        assertEquals(2, aggregator.getJoinedCount());
+
+        List<MQIUsage> cost = aggregator.applicationCost(null, null);
+        assertEquals(2, cost.size());
+        // Charged to the tracked APPLTAG, not the truncated APPLNAME from the message
+        MQIUsage orders = cost.get(0);
+        assertEquals("ORDERS-SERVICE-FULL-APPLTAG", orders.getApplicationTag());
+        assertEquals("QM1", orders.getQueueManager());
+        assertEquals(15L, orders.getCounters().get(MQStatisticsRecord.Counter.PUTS));
+        assertEquals(5L, orders.getCounters().get(MQStatisticsRecord.Counter.GETS));
+        assertEquals(1, orders.getConnections());
+        assertEquals(1, orders.getTrackedConnections());
+
+        MQIUsage batch = cost.get(1);
+        assertEquals("BATCH", batch.getApplicationTag());
+        assertEquals(0, batch.getTrackedConnections());
+
+        // All three fall in the same one-minute bucket
+        List<MQIUsage> buckets = aggregator.query(MQStatisticsRecord.Kind.MQI_ACCOUNTING, null, null, "QM1", null);
+        assertEquals(2, buckets.size());
+        assertEquals(buckets.get(0).getBucketStart(), buckets.get(1).getBucketStart());
+    }
+
+    @Test
+    public void testOldBucketsEvicted() throws Exception {
+        Path file = directory.resolve("accounting.rec");
+        try (MQEventRecording recording = MQEventRecording.append(file)) {
+            recording.write(accounting(TRACKED_CONNECTION, "ORDERS-SERVICE", "02.10.00", 1, 0));
+            recording.write(accounting(TRACKED_CONNECTION, "ORDERS-SERVICE", "02.15.00", 1, 0));
+        }
+        aggregator.replay(file);
+
+        // Retention of 3 one-minute buckets keeps only the newest
+        List<MQIUsage> buckets = aggregator.query(MQStatisticsRecord.Kind.MQI_ACCOUNTING, null, null, null, null);
+        assertEquals(1, buckets.size());
+        assertTrue(aggregator.query(MQStatisticsRecord.Kind.MQI_ACCOUNTING, null,
+            buckets.get(0).getBucketStart(), null, null).isEmpty());
+    }
+
+    /**
+     * An MQI accounting message as the QM puts it on SYSTEM.ADMIN.ACCOUNTING.QUEUE.
+     */
+    private static MQEventRecording.Record accounting(String connectionId, String applicationName,
+                                                      String endTime, int puts, int gets) throws Exception {
+        PCFMessage pcf = new PCFMessage(CMQCFC.MQCFT_ACCOUNTING, CMQCFC.MQCMD_ACCOUNTING_MQI, 1, true);
+        pcf.addParameter(CMQC.MQCA_Q_MGR_NAME, "QM1");
+        pcf.addParameter(CMQCFC.MQCACF_APPL_NAME, applicationName);
+        pcf.addParameter(CMQCFC.MQBACF_CONNECTION_ID, hex(connectionId));
+        pcf.addParameter(CMQCFC.MQCACH_CHANNEL_NAME, "APP.SVRCONN");
+        pcf.addParameter(CMQCFC.MQCAMO_START_DATE, "2025-09-05");
+        pcf.addParameter(CMQCFC.MQCAMO_START_TIME, "02.00.00");
+        pcf.addParameter(CMQCFC.MQCAMO_END_DATE, "2025-09-05");
+        pcf.addParameter(CMQCFC.MQCAMO_END_TIME, endTime);
+        // Non-persistent / persistent pairs
+        pcf.addParameter(CMQCFC.MQIAMO_PUTS, new int[] {puts, 0});
+        pcf.addParameter(CMQCFC.MQIAMO_GETS, new int[] {0, gets});
+
+        MQMessage message = new MQMessage();
+        pcf.write(message);
+        byte[] body = new byte[message.getMessageLength()];
+        message.seek(0);
+        message.readFully(body);
+        return new MQEventRecording.Record(System.currentTimeMillis(), message.encoding, AdminQueueListeners.RECEIVE_CCSID, body);
+    }
+
+    private static byte[] hex(String value) {
+        byte[] bytes = new byte[value.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(value.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,260 @@
+package com.ibm.mq.failover.service;
+
+import com.ibm.mq.MQException;
+import com.ibm.mq.constants.CMQC;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveMQClientTest {
+
+    private ConnectionFactory connectionFactory;
+    private Connection connection;
+    private Session session;
+    private MessageConsumer consumer;
+    private MQBatchSender sender;
+    private ReactiveMQClient client;
+
+    @BeforeEach
+    public void setUp() throws JMSException {
+        connectionFactory = mock(ConnectionFactory.class);
+        connection = mock(Connection.class);
+        session = mock(Session.class);
+        consumer = mock(MessageConsumer.class);
+        sender = mock(MQBatchSender.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+        when(session.createQueue(anyString())).thenReturn(mock(Queue.class));
+        when(session.createConsumer(any())).thenReturn(consumer);
+        when(consumer.receive(anyLong())).thenAnswer(i -> mock(Message.class));
+        when(consumer.receiveNoWait()).thenAnswer(i -> mock(Message.class));
+
+        client = new ReactiveMQClient(connectionFactory, sender,
+            Executors.defaultThreadFactory(), Executors.defaultThreadFactory(),
+            ReactiveMQClient.Settings.builder()
+                .concurrency(8)
+                .commitEvery(50)
+                .receiveTimeoutMillis(100)
+                .maxRetries(3)
+                .retryBackoff(Duration.ofMillis(1))
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void testReceiveFollowsDemand() throws Exception {
+        List<Message> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<Message> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(Message message) {
+                received.add(message);
+            }
+        };
+        client.receive("DEV.QUEUE.1").subscribe(subscriber);
+
+        // Two gets for a demand of two, committed together once demand runs out
+        verify(session, timeout(2000)).commit();
+        Thread.sleep(300);
+        assertEquals(2, received.size());
+        verify(consumer, times(1)).receive(anyLong());
+        verify(consumer, times(1)).receiveNoWait();
+
+        subscriber.request(1);
+        verify(session, timeout(2000).times(2)).commit();
+        assertEquals(3, received.size());
+
+        subscriber.dispose();
+        verify(connection, timeout(2000)).close();
+    }
+
+    @Test
+    public void testReceiveWithAckCommitsOnceAcknowledged() throws Exception {
+        List<ReactiveMQClient.AcknowledgeableMessage> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<ReactiveMQClient.AcknowledgeableMessage> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(ReactiveMQClient.AcknowledgeableMessage message) {
+                received.add(message);
+            }
+        };
+        client.receiveWithAck("DEV.QUEUE.1").subscribe(subscriber);
+
+        // Out of demand but still being processed: nothing committed yet
+        Thread.sleep(300);
+        assertEquals(2, received.size());
+        verify(session, never()).commit();
+
+        received.get(0).acknowledge();
+        Thread.sleep(300);
+        verify(session, never()).commit();
+
+        received.get(1).acknowledge();
+        verify(session, timeout(2000)).commit();
+
+        subscriber.dispose();
+        verify(connection, timeout(2000)).close();
+        verify(session, never()).rollback();
+    }
+
+    @Test
+    public void testReceiveWithAckRejectRollsBack() throws Exception {
+        List<ReactiveMQClient.AcknowledgeableMessage> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<ReactiveMQClient.AcknowledgeableMessage> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(ReactiveMQClient.AcknowledgeableMessage message) {
+                received.add(message);
+            }
+        };
+        client.receiveWithAck("DEV.QUEUE.1").subscribe(subscriber);
+
+        while (received.size() < 2) {
+            Thread.sleep(1);
+        }
+        received.get(0).acknowledge();
+        received.get(1).reject();
+        verify(session, timeout(2000)).rollback();
+
+        // Acknowledging a rolled-back message does not commit the next transaction
+        received.get(1).acknowledge();
+        subscriber.request(1);
+        Thread.sleep(300);
+        verify(session, never()).commit();
+
+        // Cancelled with an unacknowledged message: rolled back, not committed
+        subscriber.dispose();
+        verify(session, timeout(2000).times(2)).rollback();
+        verify(session, never()).commit();
+    }
+
+    @Test
+    public void testReconnectConsumerMovesReceiver() throws Exception {
+        when(consumer.receive(anyLong())).thenReturn(null);
+        assertFalse(client.reconnectConsumer("DEV.QUEUE.1", "UNKNOWN"));
+        Disposable subscription = client.receive("DEV.QUEUE.1").subscribe();
+
+        verify(connection, timeout(2000)).start();
+        assertEquals(Map.of("UNKNOWN", 1), client.consumersPerQueueManager("DEV.QUEUE.1"));
+        assertTrue(client.consumersPerQueueManager("DEV.QUEUE.2").isEmpty());
+
+        assertTrue(client.reconnectConsumer("DEV.QUEUE.1", "UNKNOWN"));
+        verify(connection, timeout(2000)).close();
+        verify(connectionFactory, timeout(2000).times(2)).createConnection();
+
+        subscription.dispose();
+        verify(connection, timeout(2000).times(2)).close();
+        assertTrue(client.consumersPerQueueManager("DEV.QUEUE.1").isEmpty());
+    }
+
+    @Test
+    public void testReceiveReconnectsAfterFailover() throws Exception {
+        when(connection.createSession(anyBoolean(), anyInt()))
+            .thenThrow(failure(CMQC.MQRC_Q_MGR_QUIESCING))
+            .thenReturn(session);
+
+        Message first = client.receive("DEV.QUEUE.1").blockFirst(Duration.ofSeconds(5));
+
+        assertNotNull(first);
+        verify(connectionFactory, times(2)).createConnection();
+    }
+
+    @Test
+    public void testReceiveFailsOnOtherErrors() throws Exception {
+        when(connection.createSession(anyBoolean(), anyInt())).thenThrow(failure(CMQC.MQRC_NOT_AUTHORIZED));
+
+        assertThrows(Exception.class, () -> client.receive("DEV.QUEUE.1").blockFirst(Duration.ofSeconds(5)));
+        verify(connectionFactory, times(1)).createConnection();
+    }
+
+    @Test
+    public void testSendRetriesOnFailover() throws Exception {
+        doThrow(failure(CMQC.MQRC_CONNECTION_BROKEN)).doNothing().when(sender).send(anyString(), any());
+
+        client.send("DEV.QUEUE.1", "payload").block(Duration.ofSeconds(5));
+
+        verify(sender, times(2)).send("DEV.QUEUE.1", "payload");
+        verify(sender).reconnect();
+    }
+
+    @Test
+    public void testSendDoesNotRetryOtherFailures() throws Exception {
+        doThrow(failure(CMQC.MQRC_NOT_AUTHORIZED)).when(sender).send(anyString(), any());
+
+        assertThrows(Exception.class, () -> client.send("DEV.QUEUE.1", "payload").block(Duration.ofSeconds(5)));
+        verify(sender, times(1)).send(anyString(), any());
+        verify(sender, never()).reconnect();
+    }
+
+    @Test
+    public void testSendAllBoundsConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return null;
+        }).when(sender).send(anyString(), any());
+
+        List<Integer> sent = client.sendAll("DEV.QUEUE.1", Flux.range(0, 50), 3)
+            .collectList().block(Duration.ofSeconds(10));
+
+        assertEquals(50, sent.size());
+        assertTrue(maxRunning.get() <= 3, "max running " + maxRunning.get());
+    }
+
+    @Test
+    public void testReasonCodes() {
+        assertEquals(CMQC.MQRC_CONNECTION_BROKEN, MQReasonCodes.reasonCode(failure(CMQC.MQRC_CONNECTION_BROKEN)));
+        assertEquals(CMQC.MQRC_Q_MGR_STOPPING, MQReasonCodes.reasonCode(new RuntimeException(
+            "JMSWMQ2002: Failed to get a message. reason '2162' ('MQRC_Q_MGR_STOPPING')")));
+        assertEquals(MQReasonCodes.NONE, MQReasonCodes.reasonCode(new RuntimeException("other")));
+        assertTrue(MQReasonCodes.isFailover(failure(CMQC.MQRC_Q_MGR_QUIESCING)));
+        assertFalse(MQReasonCodes.isFailover(failure(CMQC.MQRC_NOT_AUTHORIZED)));
+    }
+
+    private static JMSException failure(int reason) {
+        JMSException e = new JMSException("MQ call failed");
+        e.setLinkedException(new MQException(CMQC.MQCC_FAILED, reason, "test"));
+        return e;
+    }
+}
@@ -0,0 +1,261 @@
+package com.ibm.mq.failover.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the orchestrator against an in-memory load: messages sent while a queue manager is down
+ * are held and delivered when it is started again.
+ */
+public class RollingRestartOrchestratorTest {
+
+    private static final List<String> QUEUE_MANAGERS = List.of("QM1", "QM2", "QM3");
+
+    private final Set<String> down = ConcurrentHashMap.newKeySet();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final FakeLoad load = new FakeLoad();
+
+    private final QueueManagerControl control = new QueueManagerControl() {
+        @Override
+        public void stop(String queueManager) {
+            commands.add("stop " + queueManager);
+            down.add(queueManager);
+        }
+
+        @Override
+        public void start(String queueManager) {
+            commands.add("start " + queueManager);
+            down.remove(queueManager);
+            load.flush();
+        }
+    };
+
+    @AfterEach
+    public void tearDown() {
+        load.close();
+    }
+
+    @Test
+    public void testRestartsEachQueueManagerInTurnWithoutLoss() {
+        RollingRestartResult result = orchestrator(this::upQueueManagers).run();
+
+        assertTrue(result.isSuccess(), result.generateReport());
+        assertEquals(List.of("stop QM1", "start QM1", "stop QM2", "start QM2", "stop QM3", "start QM3"), commands);
+        assertEquals(3, result.getSteps().size());
+        for (RollingRestartResult.Step step : result.getSteps()) {
+            assertTrue(step.isConverged());
+            assertTrue(step.getReceived() > 0);
+            // Held messages waited at least the down time
+            assertTrue(step.getP99LatencyMillis() >= 50, "p99 " + step.getP99LatencyMillis());
+        }
+        assertTrue(result.getBaselineThroughput() > 0);
+        assertTrue(result.getMessagesSent() > 0);
+        assertEquals(0, result.getMessagesLost());
+        assertEquals(0, result.getMessagesDuplicated());
+        assertTrue(result.isZeroLoss());
+    }
+
+    @Test
+    public void testStopsWhenClusterDoesNotConverge() {
+        // QM3 never gets connections back
+        RollingRestartResult result = orchestrator(() -> Map.of("QM1", 2, "QM2", 2)).run();
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getSteps().size());
+        assertFalse(result.getSteps().get(0).isConverged());
+        assertEquals(List.of("stop QM1", "start QM1"), commands);
+    }
+
+    @Test
+    public void testReportsLossAndDuplicates() {
+        load.drop = 5;
+        load.duplicate = 6;
+
+        RollingRestartResult result = orchestrator(this::upQueueManagers).run();
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getMessagesLost());
+        assertEquals(1, result.getMessagesDuplicated());
+        // One dropped, one delivered twice
+        assertEquals(result.getMessagesSent(), result.getMessagesReceived());
+    }
+
+    @Test
+    public void testMovesConsumersUntilEveryQueueManagerHasOne() {
+        // All three consumers end up on QM2 after each restart
+        Map<String, Integer> consumers = new ConcurrentHashMap<>();
+        List<String> moved = new CopyOnWriteArrayList<>();
+        RollingRestartOrchestrator.RebalanceProbe probe = new RollingRestartOrchestrator.RebalanceProbe() {
+            private int restarts;
+
+            @Override
+            public Map<String, Integer> consumersPerQueueManager() {
+                if (restarts != commands.size()) {
+                    restarts = commands.size();
+                    consumers.clear();
+                    consumers.put("QM2", 3);
+                }
+                return Map.copyOf(consumers);
+            }
+
+            @Override
+            public void moveConsumer(String fromQueueManager) {
+                moved.add(fromQueueManager);
+                consumers.merge(fromQueueManager, -1, Integer::sum);
+                consumers.merge(consumers.getOrDefault("QM1", 0) == 0 ? "QM1" : "QM3", 1, Integer::sum);
+            }
+        };
+
+        RollingRestartResult result = orchestrator(probe).run();
+
+        assertTrue(result.isSuccess(), result.generateReport());
+        assertEquals(List.of("QM2", "QM2", "QM2", "QM2", "QM2", "QM2"), moved);
+    }
+
+    @Test
+    public void testCountsFailedAndInDoubtSends() {
+        LoadTracker tracker = new LoadTracker();
+        tracker.sent(1);
+        tracker.sendFailed(2, true);
+        tracker.sendFailed(3, true);
+        tracker.sendFailed(4, false);
+        tracker.received(1, 0, 1);
+        tracker.received(2, 0, 1);
+
+        assertEquals(1, tracker.getSent());
+        assertEquals(1, tracker.getFailed());
+        assertEquals(2, tracker.getInDoubt());
+        assertEquals(1, tracker.getInDoubtReceived());
+        // Neither in doubt nor failed sends count as lost or duplicated
+        assertEquals(0, tracker.getLost());
+        assertEquals(0, tracker.getDuplicated());
+    }
+
+    @Test
+    public void testTrackerWindowAndRecovery() {
+        LoadTracker tracker = new LoadTracker();
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long start = 0;
+        // 1 .. 100 ms latencies in the first second, nothing in the second, 50 in the third
+        for (int i = 1; i <= 100; i++) {
+            tracker.sent(i);
+            tracker.received(i, start, start + i * 1_000_000L);
+        }
+        for (int i = 101; i <= 150; i++) {
+            tracker.sent(i);
+            tracker.received(i, 2 * second, 2 * second + (i - 100) * 1_000_000L);
+        }
+
+        LoadTracker.Window first = tracker.window(start, second);
+        assertEquals(100, first.received);
+        assertEquals(100.0, first.throughput, 0.01);
+        assertEquals(99.0, first.p99LatencyMillis, 0.01);
+        // Below 40 msg/s in the second second only
+        assertEquals(2 * second, tracker.recoveryNanos(start, 3 * second, 40));
+        assertEquals(0, tracker.recoveryNanos(2 * second, 3 * second, 40));
+        assertEquals(0, tracker.getLost());
+    }
+
+    @Test
+    public void testCommandTemplates() {
+        assertEquals(List.of("docker", "stop", "qm2"), CommandQueueManagerControl.command("docker stop {container}", "QM2"));
+        assertEquals(List.of("endmqm", "-r", "-w", "QM2"), CommandQueueManagerControl.command("endmqm -r -w {qm}", "QM2"));
+    }
+
+    private Map<String, Integer> upQueueManagers() {
+        Map<String, Integer> connections = new ConcurrentHashMap<>();
+        for (String queueManager : QUEUE_MANAGERS) {
+            if (!down.contains(queueManager)) {
+                connections.put(queueManager, 2);
+            }
+        }
+        return connections;
+    }
+
+    private RollingRestartOrchestrator orchestrator(RollingRestartOrchestrator.RebalanceProbe probe) {
+        return new RollingRestartOrchestrator(control, load, probe, QUEUE_MANAGERS,
+            RollingRestartOrchestrator.Settings.builder()
+                .baselineMillis(300)
+                .downMillis(150)
+                .convergeTimeoutMillis(2000)
+                .pollMillis(20)
+                .drainTimeoutMillis(1000)
+                .balanceTolerance(1)
+                .build());
+    }
+
+    /**
+     * Sends every 5 ms; a message is received at once unless some queue manager is down, in
+     * which case it is held until the next start.
+     */
+    private final class FakeLoad implements RollingRestartOrchestrator.SteadyLoad {
+        private final List<long[]> held = new ArrayList<>();
+        private ScheduledExecutorService producer;
+        private LoadTracker tracker;
+        private volatile long drop = -1;
+        private volatile long duplicate = -1;
+
+        @Override
+        public void start(String runId, LoadTracker tracker) {
+            this.tracker = tracker;
+            AtomicLong sequence = new AtomicLong();
+            producer = Executors.newSingleThreadScheduledExecutor();
+            producer.scheduleAtFixedRate(() -> {
+                long seq = sequence.incrementAndGet();
+                tracker.sent(seq);
+                long sentNanos = System.nanoTime();
+                synchronized (held) {
+                    if (!down.isEmpty()) {
+                        held.add(new long[] {seq, sentNanos});
+                        return;
+                    }
+                }
+                deliver(seq, sentNanos);
+            }, 0, 5, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush() {
+            synchronized (held) {
+                for (long[] message : held) {
+                    deliver(message[0], message[1]);
+                }
+                held.clear();
+            }
+        }
+
+        private void deliver(long seq, long sentNanos) {
+            if (seq == drop) {
+                return;
+            }
+            tracker.received(seq, sentNanos, System.nanoTime());
+            if (seq == duplicate) {
+                tracker.received(seq, sentNanos, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void stopSending() {
+            if (producer != null) {
+                producer.shutdownNow();
+            }
+        }
+
+        @Override
+        public void close() {
+            stopSending();
+        }
+    }
+}